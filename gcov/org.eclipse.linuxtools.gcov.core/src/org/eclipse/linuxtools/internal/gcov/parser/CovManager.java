@@ -10,23 +10,25 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gcov.parser;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.core.resources.IProject;
@@ -42,6 +44,7 @@ import org.eclipse.linuxtools.internal.gcov.model.CovFileTreeElement;
 import org.eclipse.linuxtools.internal.gcov.model.CovFolderTreeElement;
 import org.eclipse.linuxtools.internal.gcov.model.CovFunctionTreeElement;
 import org.eclipse.linuxtools.internal.gcov.model.CovRootTreeElement;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovDataInput;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.FileDialog;
@@ -60,6 +63,12 @@ public class CovManager implements Serializable {
 
     private static String winOSType = ""; //$NON-NLS-1$
 
+    // minimal number of gcda files for which the files are parsed concurrently
+    private static final int PARALLEL_INGESTION_THRESHOLD = 8;
+    private static final String COVERAGE_INDEX_DIR = "coverage-index"; //$NON-NLS-1$
+    // directory next to the binary holding one sub-directory per run, see findRunDirs
+    private static final String RUNS_DIR = "gcov-runs"; //$NON-NLS-1$
+
     // input
     private final String binaryPath;
     // results
@@ -68,6 +77,9 @@ public class CovManager implements Serializable {
     private final ArrayList<GcnoFunction> allFnctns = new ArrayList<>();
     private final HashMap<String, SourceFile> sourceMap = new HashMap<>();
     private long nbrPgmRuns = 0;
+    // merged runs, see processCovRuns
+    private List<File> runDirs = new ArrayList<>();
+    private final HashMap<String, LineRunSets> runSetsMap = new HashMap<>();
     // for view
     private CovRootTreeElement rootNode;
     private final IProject project;
@@ -98,9 +110,20 @@ public class CovManager implements Serializable {
      */
 
     public void processCovFiles(List<String> covFilesPaths, String initialGcda) throws CoreException, IOException {
-        GcdaRecordsParser daRcrd = null;
-        DataInput traceFile;
+        boolean parallel = covFilesPaths.size() >= PARALLEL_INGESTION_THRESHOLD;
+        processCovFiles(covFilesPaths, initialGcda, parallel);
+    }
 
+    /**
+     * parse coverage files, execute resolve graph algorithm, process counts for functions, lines and folders. Pairs
+     * unchanged since they were last parsed are read from the coverage index.
+     * @param List of coverage files paths
+     * @param parallel
+     *            if true, the gcno/gcda files are parsed concurrently, then merged in the order of covFilesPaths
+     * @throws CoreException, IOException, InterruptedException
+     */
+    public void processCovFiles(List<String> covFilesPaths, String initialGcda, boolean parallel)
+            throws CoreException, IOException {
         Map<File, File> sourcePath = new HashMap<>();
 
         if (initialGcda != null) {
@@ -120,50 +143,83 @@ public class CovManager implements Serializable {
             }
         }
 
+        CoverageIndex index = getCoverageIndex();
+        boolean parsed;
+        if (parallel) {
+            parsed = parseCovFilesInParallel(covFilesPaths, sourcePath, index);
+        } else {
+            parsed = parseCovFiles(covFilesPaths, sourcePath, index);
+        }
+        if (!parsed) {
+            return;
+        }
+        processCounts();
+    }
+
+    /**
+     * parse the coverage files of several runs of the binary, merge their counts and record which runs executed each
+     * line, then execute resolve graph algorithm, process counts for functions, lines and folders.
+     * @param covFilesPaths
+     *            gcda paths, as found in the binary. The gcno files are searched next to them.
+     * @param runDirs
+     *            one directory per run, holding its gcda files either below their original path (as with
+     *            GCOV_PREFIX) or directly. Objects without gcda file in a run were not executed by this run.
+     * @throws CoreException, IOException
+     */
+    public void processCovRuns(List<String> covFilesPaths, List<File> runDirs) throws CoreException, IOException {
+        Map<File, File> sourcePath = new HashMap<>();
+        List<CovRunsParser> parsers = new ArrayList<>(covFilesPaths.size());
         for (String gcdaPath : covFilesPaths) {
             String gcnoPath = gcdaPath.replace(".gcda", ".gcno"); //$NON-NLS-1$ //$NON-NLS-2$
-            // parse GCNO file
-            traceFile = openTraceFileStream(gcnoPath, ".gcno", sourcePath); //$NON-NLS-1$
-            if (traceFile == null) {
+            File gcno = resolveTraceFile(gcnoPath, ".gcno", sourcePath); //$NON-NLS-1$
+            if (gcno == null) {
                 return;
             }
-            GcnoRecordsParser noRcrd = new GcnoRecordsParser(sourceMap, allSrcs);
-            noRcrd.parseData(traceFile);
-
-            // add new functions parsed to AllSrcs array
-            for (GcnoFunction f : noRcrd.getFnctns()) {
-                allFnctns.add(f);
-            }
-
-            // close the input stream
-            if (traceFile.getClass() == DataInputStream.class) {
-                ((DataInputStream) traceFile).close();
-            }
-
-            // parse GCDA file
-            traceFile = openTraceFileStream(gcdaPath, ".gcda", sourcePath); //$NON-NLS-1$
-            if (traceFile == null) {
-                return;
-            }
-            if (noRcrd.getFnctns().isEmpty()) {
-                String message = NLS.bind(Messages.CovManager_No_Funcs_Error, gcnoPath);
-                Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
-                throw new CoreException(status);
-            }
-            daRcrd = new GcdaRecordsParser(noRcrd.getFnctns());
-            daRcrd.parseGcdaRecord(traceFile);
+            parsers.add(new CovRunsParser(gcnoPath, gcno, gcdaPath, runDirs));
+        }
+        this.runDirs = new ArrayList<>(runDirs);
+        parseInParallel(parsers);
+        processCounts();
+    }
 
-            // close the input stream
-            if (traceFile.getClass() == DataInputStream.class) {
-                ((DataInputStream) traceFile).close();
-            }
+    /**
+     * parse the coverage files of the binary. When the binary has run directories (see {@link #findRunDirs(String)}),
+     * their runs are merged and the runs which executed each line are recorded, otherwise the gcda files found at
+     * their original paths are parsed.
+     * @param covFilesPaths
+     * @param initialGcda
+     * @throws CoreException, IOException
+     */
+    public void processCoverage(List<String> covFilesPaths, String initialGcda) throws CoreException, IOException {
+        List<File> runs = findRunDirs(binaryPath);
+        if (runs.isEmpty()) {
+            processCovFiles(covFilesPaths, initialGcda);
+        } else {
+            processCovRuns(covFilesPaths, runs);
         }
+    }
 
-        // to fill the view title
-        if (daRcrd != null) {
-            nbrPgmRuns = daRcrd.getPgmSmryNbrPgmRuns();
+    /**
+     * Find the run directories of a binary: the sub-directories of the gcov-runs directory next to it, sorted by
+     * name. Each of them holds the gcda files written by one run of the binary, with GCOV_PREFIX set to it.
+     * @param binaryPath
+     * @return the run directories, empty if there are none
+     */
+    public static List<File> findRunDirs(String binaryPath) {
+        List<File> runs = new ArrayList<>();
+        File[] files = new File(new File(binaryPath).getAbsoluteFile().getParentFile(), RUNS_DIR).listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isDirectory()) {
+                    runs.add(f);
+                }
+            }
+            Collections.sort(runs);
         }
+        return runs;
+    }
 
+    private void processCounts() {
         /* process counts from data parsed */
 
         // solve graph for each function
@@ -214,6 +270,164 @@ public class CovManager implements Serializable {
         }
     }
 
+    // parse the gcno/gcda pairs one after the other
+    private boolean parseCovFiles(List<String> covFilesPaths, Map<File, File> sourcePath, CoverageIndex index)
+            throws CoreException, IOException {
+        for (String gcdaPath : covFilesPaths) {
+            String gcnoPath = gcdaPath.replace(".gcda", ".gcno"); //$NON-NLS-1$ //$NON-NLS-2$
+            File gcno = resolveTraceFile(gcnoPath, ".gcno", sourcePath); //$NON-NLS-1$
+            if (gcno == null) {
+                return false;
+            }
+            File gcda = resolveTraceFile(gcdaPath, ".gcda", sourcePath); //$NON-NLS-1$
+            if (gcda == null) {
+                return false;
+            }
+            mergeParsedCovFiles(new CovFilesParser(gcnoPath, gcno, gcda, index).call());
+        }
+        return true;
+    }
+
+    // parse the gcno/gcda pairs on a fork-join pool, then merge the results in the order of covFilesPaths so that
+    // source indexes and function order are the same as with the sequential parsing
+    private boolean parseCovFilesInParallel(List<String> covFilesPaths, Map<File, File> sourcePath,
+            CoverageIndex index) throws CoreException, IOException {
+        // locating the files may prompt the user, so it is done before going concurrent
+        List<CovFilesParser> parsers = new ArrayList<>(covFilesPaths.size());
+        for (String gcdaPath : covFilesPaths) {
+            String gcnoPath = gcdaPath.replace(".gcda", ".gcno"); //$NON-NLS-1$ //$NON-NLS-2$
+            File gcno = resolveTraceFile(gcnoPath, ".gcno", sourcePath); //$NON-NLS-1$
+            if (gcno == null) {
+                return false;
+            }
+            File gcda = resolveTraceFile(gcdaPath, ".gcda", sourcePath); //$NON-NLS-1$
+            if (gcda == null) {
+                return false;
+            }
+            parsers.add(new CovFilesParser(gcnoPath, gcno, gcda, index));
+        }
+        parseInParallel(parsers);
+        return true;
+    }
+
+    private void parseInParallel(List<? extends Callable<ParsedCovFiles>> parsers) throws CoreException, IOException {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            for (Future<ParsedCovFiles> result : pool.invokeAll(parsers)) {
+                mergeParsedCovFiles(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CoreException) {
+                throw (CoreException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, cause.getMessage(), cause);
+            throw new CoreException(status);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void mergeParsedCovFiles(ParsedCovFiles parsed) {
+        // parsed source indexes start at 1
+        int[] srcIndexes = new int[parsed.srcs.size() + 1];
+        for (SourceFile parsedSrc : parsed.srcs) {
+            SourceFile src = sourceMap.get(parsedSrc.getName());
+            if (src == null) {
+                src = new SourceFile(parsedSrc.getName(), allSrcs.size() + 1);
+                allSrcs.add(src);
+                sourceMap.put(src.getName(), src);
+            }
+            if (parsedSrc.getNumLines() > src.getNumLines()) {
+                src.setNumLines(parsedSrc.getNumLines());
+            }
+            for (GcnoFunction f : parsedSrc.getFnctns()) {
+                src.addFnctn(f);
+            }
+            srcIndexes[parsedSrc.getIndex()] = src.getIndex();
+            if (parsed.runSets != null) {
+                LineRunSets runSets = runSetsMap.get(src.getName());
+                if (runSets == null) {
+                    runSetsMap.put(src.getName(), parsed.runSets.get(parsedSrc.getIndex() - 1));
+                } else {
+                    runSets.addAll(parsed.runSets.get(parsedSrc.getIndex() - 1));
+                }
+            }
+        }
+        for (GcnoFunction f : parsed.fnctns) {
+            f.remapSrcIndexes(srcIndexes);
+            allFnctns.add(f);
+        }
+        // to fill the view title
+        nbrPgmRuns = parsed.nbrPgmRuns;
+    }
+
+    /**
+     * Parses a memory-mapped gcno/gcda pair, unless its content is found in the coverage index.
+     */
+    private static final class CovFilesParser implements Callable<ParsedCovFiles> {
+        private final String gcnoPath;
+        private final File gcno;
+        private final File gcda;
+        private final CoverageIndex index;
+
+        CovFilesParser(String gcnoPath, File gcno, File gcda, CoverageIndex index) {
+            this.gcnoPath = gcnoPath;
+            this.gcno = gcno;
+            this.gcda = gcda;
+            this.index = index;
+        }
+
+        @Override
+        public ParsedCovFiles call() throws CoreException, IOException {
+            ParsedCovFiles parsed = index != null ? index.load(gcno, gcda) : null;
+            if (parsed != null) {
+                return parsed;
+            }
+            parsed = new ParsedCovFiles();
+            GcnoRecordsParser noRcrd = new GcnoRecordsParser(parsed.sourceMap, parsed.srcs);
+            noRcrd.parseData(GcovDataInput.map(gcno));
+            parsed.fnctns = noRcrd.getFnctns();
+            if (parsed.fnctns.isEmpty()) {
+                String message = NLS.bind(Messages.CovManager_No_Funcs_Error, gcnoPath);
+                Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
+                throw new CoreException(status);
+            }
+            GcdaRecordsParser daRcrd = new GcdaRecordsParser(parsed.fnctns);
+            daRcrd.parseGcdaRecord(GcovDataInput.map(gcda));
+            parsed.nbrPgmRuns = daRcrd.getPgmSmryNbrPgmRuns();
+            if (index != null) {
+                index.store(gcno, gcda, parsed);
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * Get the on-disk index of parsed coverage files. It is kept in the working location of the project, or in the
+     * plug-in state location when there is no project.
+     * @return the coverage index, or null if no location is available
+     */
+    public CoverageIndex getCoverageIndex() {
+        IPath location = null;
+        if (project != null) {
+            location = project.getWorkingLocation(Activator.PLUGIN_ID);
+        } else if (Activator.getDefault() != null) {
+            location = Activator.getDefault().getStateLocation();
+        }
+        if (location == null) {
+            return null;
+        }
+        return new CoverageIndex(location.append(COVERAGE_INDEX_DIR).toFile());
+    }
+
     /**
      * fill the model by count results
      * @throws CoreException, IOException, InterruptedException
@@ -232,6 +446,7 @@ public class CovManager implements Serializable {
         rootNode = new CovRootTreeElement(Messages.CovManager_Summary, summaryTotal, summaryExecuted,
                 summaryInstrumented);
         IBinaryObject binaryObject = STSymbolManager.sharedInstance.getBinaryObject(new Path(binaryPath));
+        Map<String, String> demangledNames = demangle(binaryObject);
 
         for (Folder fldr : allFolders) {
             String folderLocation = fldr.getPath();
@@ -245,8 +460,7 @@ public class CovManager implements Serializable {
                 fldrTreeElem.addChild(srcTreeElem);
 
                 for (GcnoFunction fnctn : src.getFnctns()) {
-                    String name = fnctn.getName();
-                    name = STSymbolManager.sharedInstance.demangle(binaryObject, name, project);
+                    String name = demangledNames.get(fnctn.getName());
                     srcTreeElem.addChild(new CovFunctionTreeElement(srcTreeElem, name, fnctn.getSrcFile(), fnctn
                             .getFirstLineNmbr(), fnctn.getCvrge().getLinesExecuted(), fnctn.getCvrge()
                             .getLinesInstrumented()));
@@ -255,6 +469,30 @@ public class CovManager implements Serializable {
         }
     }
 
+    /**
+     * Demangle the names of all the functions at once.
+     * @param binaryObject
+     * @return the demangled name of each function name
+     */
+    private Map<String, String> demangle(IBinaryObject binaryObject) {
+        Map<String, String> demangledNames = new HashMap<>();
+        for (Folder fldr : allFolders) {
+            for (SourceFile src : fldr.getSrcFiles()) {
+                for (GcnoFunction fnctn : src.getFnctns()) {
+                    demangledNames.put(fnctn.getName(), fnctn.getName());
+                }
+            }
+        }
+        if (binaryObject != null) {
+            String[] names = demangledNames.keySet().toArray(new String[demangledNames.size()]);
+            String[] demangled = STSymbolManager.sharedInstance.demangle(binaryObject, names, project);
+            for (int i = 0; i < names.length; i++) {
+                demangledNames.put(names[i], demangled[i]);
+            }
+        }
+        return demangledNames;
+    }
+
     // Get the Windows OS Type.  We might have to change a path over to Windows format
     // and this is different on Cygwin vs MingW.
     private String getWinOSType() {
@@ -294,18 +532,15 @@ public class CovManager implements Serializable {
         return s;
     }
 
-    // transform String path to stream
-    private DataInput openTraceFileStream(String filePath, String extension, Map<File, File> sourcePath)
-            throws FileNotFoundException {
+    // locate a trace file on the local file system, asking the user if needed
+    private File resolveTraceFile(String filePath, String extension, Map<File, File> sourcePath) {
         Path p = new Path(filePath);
         // get the file path transformed to work on local OS (e.g. Windows)
         filePath = getTransformedPathString(p);
         File f = new File(filePath).getAbsoluteFile();
         String filename = f.getName();
         if (f.isFile() && f.canRead()) {
-            FileInputStream fis = new FileInputStream(f);
-            InputStream inputStream = new BufferedInputStream(fis);
-            return new DataInputStream(inputStream);
+            return f;
         } else {
             String postfix = ""; //$NON-NLS-1$
             File dir = null;
@@ -326,7 +561,7 @@ public class CovManager implements Serializable {
             if (dir != null) {
                 f = new File(dir, postfix);
                 if (f.isFile() && f.canRead()) {
-                    return openTraceFileStream(f.getAbsolutePath(), extension, sourcePath);
+                    return resolveTraceFile(f.getAbsolutePath(), extension, sourcePath);
                 }
             }
 
@@ -342,9 +577,7 @@ public class CovManager implements Serializable {
                 f = new File(s).getAbsoluteFile();
                 addSourceLookup(sourcePath, f, new File(filePath).getAbsoluteFile());
                 if (f.isFile() && f.canRead()) {
-                    FileInputStream fis = new FileInputStream(f);
-                    InputStream inputStream = new BufferedInputStream(fis);
-                    return new DataInputStream(inputStream);
+                    return f;
                 }
             }
         }
@@ -375,6 +608,27 @@ public class CovManager implements Serializable {
         return nbrPgmRuns;
     }
 
+    /**
+     * @return the run directories merged by {@link #processCovRuns(List, List)}, empty for a single run
+     */
+    public List<File> getRunDirs() {
+        return runDirs;
+    }
+
+    /**
+     * Get the runs which executed a line, when several runs were merged by {@link #processCovRuns(List, List)}.
+     * @param sourcePath
+     * @param line
+     * @return the indexes of the runs in {@link #getRunDirs()}
+     */
+    public BitSet getCoveringRuns(String sourcePath, int line) {
+        LineRunSets runSets = runSetsMap.get(sourcePath);
+        if (runSets == null) {
+            return new BitSet();
+        }
+        return runSets.getRuns(line);
+    }
+
     /**
      * Retrieve a list containing gcda paths from a binary file
      * @return
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - Initial Contribution
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.internal.gcov.Activator;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovDataInput;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Parses a gcno file and the gcda files of the same object produced by several runs. The counters of all runs are
+ * summed, and the lines executed by each run are recorded in {@link LineRunSets}.
+ * <p>
+ * The runs are processed one after the other, each one on a copy of the flow graph which is dropped once solved, so
+ * that memory does not grow with the number of runs.
+ */
+class CovRunsParser implements Callable<ParsedCovFiles> {
+
+    private final String gcnoPath;
+    private final File gcno;
+    private final String gcdaPath;
+    private final List<File> runDirs;
+
+    /**
+     * Constructor
+     * @param gcnoPath
+     * @param gcno
+     * @param gcdaPath
+     *            path of the gcda file, as found in the binary
+     * @param runDirs
+     *            one directory per run
+     */
+    CovRunsParser(String gcnoPath, File gcno, String gcdaPath, List<File> runDirs) {
+        this.gcnoPath = gcnoPath;
+        this.gcno = gcno;
+        this.gcdaPath = gcdaPath;
+        this.runDirs = runDirs;
+    }
+
+    @Override
+    public ParsedCovFiles call() throws CoreException, IOException {
+        ParsedCovFiles parsed = new ParsedCovFiles();
+        GcnoRecordsParser noRcrd = new GcnoRecordsParser(parsed.sourceMap, parsed.srcs);
+        noRcrd.parseData(GcovDataInput.map(gcno));
+        parsed.fnctns = noRcrd.getFnctns();
+        if (parsed.fnctns.isEmpty()) {
+            String message = NLS.bind(Messages.CovManager_No_Funcs_Error, gcnoPath);
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
+            throw new CoreException(status);
+        }
+
+        int numFnctns = parsed.fnctns.size();
+        long[][] sums = new long[numFnctns][];
+        for (int i = 0; i < numFnctns; i++) {
+            sums[i] = new long[parsed.fnctns.get(i).getNumCounts()];
+        }
+        parsed.runSets = new ArrayList<>(parsed.srcs.size());
+        for (int i = 0; i < parsed.srcs.size(); i++) {
+            parsed.runSets.add(new LineRunSets(runDirs.size()));
+        }
+
+        for (int run = 0; run < runDirs.size(); run++) {
+            File gcda = findRunGcda(runDirs.get(run));
+            if (gcda == null) {
+                // this object was not executed by this run
+                continue;
+            }
+            ArrayList<GcnoFunction> runFnctns = new ArrayList<>(numFnctns);
+            for (GcnoFunction f : parsed.fnctns) {
+                runFnctns.add(f.copyGraph());
+            }
+            GcdaRecordsParser daRcrd = new GcdaRecordsParser(runFnctns);
+            daRcrd.parseGcdaRecord(GcovDataInput.map(gcda));
+            parsed.nbrPgmRuns += daRcrd.getPgmSmryNbrPgmRuns();
+
+            for (int i = 0; i < numFnctns; i++) {
+                GcnoFunction f = runFnctns.get(i);
+                long[] counts = f.getArcCounts();
+                for (int c = 0; c < counts.length; c++) {
+                    sums[i][c] += counts[c];
+                }
+                f.solveGraphFnctn();
+                addRunLines(f, parsed.runSets, run);
+            }
+        }
+
+        // arc counters add up, so the merged coverage is solved from the sums
+        for (int i = 0; i < numFnctns; i++) {
+            parsed.fnctns.get(i).setArcCounts(sums[i]);
+        }
+        return parsed;
+    }
+
+    // the gcda file of a run is either at its original path below the run directory (as with GCOV_PREFIX), or
+    // directly in the run directory
+    private File findRunGcda(File runDir) {
+        File gcda = new File(runDir, gcdaPath);
+        if (gcda.isFile()) {
+            return gcda;
+        }
+        gcda = new File(runDir, new File(gcdaPath).getName());
+        if (gcda.isFile()) {
+            return gcda;
+        }
+        return null;
+    }
+
+    private static void addRunLines(GcnoFunction f, List<LineRunSets> runSets, int run) {
+        for (int b = 0; b < f.getNumBlocks(); b++) {
+            if (f.getBlockCount(b) == 0) {
+                continue;
+            }
+            LineRunSets src = null;
+            int[] enc = f.getBlockLines(b);
+            for (int k = 0; k < enc.length; k++) {
+                if (enc[k] == 0) {
+                    // parsed source indexes start at 1
+                    src = runSets.get(enc[++k] - 1);
+                } else if (src != null) {
+                    src.add(enc[k], run);
+                }
+            }
+        }
+    }
+}
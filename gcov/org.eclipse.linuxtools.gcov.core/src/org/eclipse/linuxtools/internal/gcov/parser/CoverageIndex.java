@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - Initial Contribution
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk index of parsed gcno/gcda pairs. There is one entry per gcda file, holding the parsed (but not yet solved)
+ * functions, blocks and arc counts of the pair. An entry is reused as long as the stamp of the gcno file, the size
+ * and modification time of both files and the checksum of the gcda content are unchanged, so that only the objects
+ * rebuilt or re-run since the last session have to be parsed again. A re-run rewrites the gcda file with the same
+ * size, possibly within the resolution of its modification time, hence the checksum.
+ * <p>
+ * The index is bounded in size: once its entries take more than the given number of bytes, the least recently used
+ * ones are removed.
+ */
+public class CoverageIndex {
+
+    // to be incremented when the layout of the entries or of the serialized model changes
+    private static final int INDEX_VERSION = 3;
+    private static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+    private static final String ENTRY_EXTENSION = ".idx"; //$NON-NLS-1$
+    private static final String TMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+    private final File dir;
+    private final long maxSize;
+
+    /**
+     * Constructor
+     * @param dir
+     *            the directory holding the index entries, created on first store
+     */
+    public CoverageIndex(File dir) {
+        this(dir, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor
+     * @param dir
+     *            the directory holding the index entries, created on first store
+     * @param maxSize
+     *            the number of bytes the entries may take before the least recently used ones are removed
+     */
+    public CoverageIndex(File dir, long maxSize) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the parsed content of a gcno/gcda pair, if it was indexed and did not change since.
+     * @param gcno
+     * @param gcda
+     * @return the parsed content, or null if the pair has to be parsed
+     */
+    ParsedCovFiles load(File gcno, File gcda) {
+        File entry = getEntryFile(gcda);
+        if (!entry.isFile()) {
+            return null;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+            long[] key = getKey(gcno, gcda);
+            if (ois.readInt() != INDEX_VERSION || !gcda.getPath().equals(ois.readUTF())) {
+                return null;
+            }
+            for (long k : key) {
+                if (ois.readLong() != k) {
+                    return null;
+                }
+            }
+            ParsedCovFiles parsed = (ParsedCovFiles) ois.readObject();
+            // mark the entry as recently used
+            entry.setLastModified(System.currentTimeMillis());
+            return parsed;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // stale or corrupted entry: the pair is parsed again and the entry replaced
+            return null;
+        }
+    }
+
+    /**
+     * Store the parsed content of a gcno/gcda pair. Must be called before the content is merged or solved, as both
+     * modify it.
+     * @param gcno
+     * @param gcda
+     * @param parsed
+     */
+    void store(File gcno, File gcda, ParsedCovFiles parsed) {
+        File entry = getEntryFile(gcda);
+        File tmp = new File(entry.getPath() + TMP_EXTENSION);
+        try {
+            long[] key = getKey(gcno, gcda);
+            dir.mkdirs();
+            try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                oos.writeInt(INDEX_VERSION);
+                oos.writeUTF(gcda.getPath());
+                for (long k : key) {
+                    oos.writeLong(k);
+                }
+                oos.writeObject(parsed);
+            }
+            // replace the entry at once, so that a concurrent session never reads a partial entry
+            if (!tmp.renameTo(entry)) {
+                entry.delete();
+                if (!tmp.renameTo(entry)) {
+                    tmp.delete();
+                }
+            }
+        } catch (IOException e) {
+            // ignore: the index is only a cache
+            tmp.delete();
+        }
+        trim();
+    }
+
+    /**
+     * Removes the least recently used entries until the index fits in its maximal size.
+     */
+    private void trim() {
+        File[] entries = dir.listFiles();
+        if (entries == null) {
+            return;
+        }
+        long size = 0;
+        for (File f : entries) {
+            size += f.length();
+        }
+        if (size <= maxSize) {
+            return;
+        }
+        final long[] lastUsed = new long[entries.length];
+        Integer[] order = new Integer[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            lastUsed[i] = entries[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(lastUsed[a], lastUsed[b]);
+            }
+        });
+        for (int i = 0; i < order.length && size > maxSize; i++) {
+            File f = entries[order[i]];
+            if (f.getName().endsWith(ENTRY_EXTENSION)) {
+                long length = f.length();
+                if (f.delete()) {
+                    size -= length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries of the index.
+     */
+    public void clear() {
+        File[] entries = dir.listFiles();
+        if (entries != null) {
+            for (File f : entries) {
+                if (f.getName().endsWith(ENTRY_EXTENSION) || f.getName().endsWith(TMP_EXTENSION)) {
+                    f.delete();
+                }
+            }
+        }
+    }
+
+    private File getEntryFile(File gcda) {
+        String path = gcda.getPath();
+        return new File(dir, gcda.getName() + '-' + Integer.toHexString(path.hashCode()) + ENTRY_EXTENSION);
+    }
+
+    private static long[] getKey(File gcno, File gcda) throws IOException {
+        return new long[] { gcno.length(), gcno.lastModified(), readStamp(gcno), gcda.length(), gcda.lastModified(),
+                checksum(gcda) };
+    }
+
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (FileInputStream fis = new FileInputStream(file)) {
+            int n;
+            while ((n = fis.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    // the stamp is the third word of the header, after magic and version. It is compared as is, whatever the
+    // endianness of the file.
+    private static long readStamp(File gcno) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(gcno), 12))) {
+            dis.readInt();
+            dis.readInt();
+            return dis.readInt();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 
 import org.eclipse.core.runtime.CoreException;
@@ -21,6 +22,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.linuxtools.internal.gcov.Activator;
 import org.eclipse.linuxtools.internal.gcov.utils.BEDataInputStream;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovDataInput;
 import org.eclipse.linuxtools.internal.gcov.utils.LEDataInputStream;
 import org.eclipse.linuxtools.internal.gcov.utils.MasksGenerator;
 import org.eclipse.osgi.util.NLS;
@@ -58,12 +60,18 @@ public class GcdaRecordsParser {
         magic = stream.readInt();
 
         if (magic == GCOV_DATA_MAGIC) {
-            stream = new BEDataInputStream((DataInputStream) stream);
+            if (!(stream instanceof GcovDataInput)) {
+                stream = new BEDataInputStream((DataInputStream) stream);
+            }
         } else {
             magic = (magic >> 16) | (magic << 16);
             magic = ((magic & 0xff00ff) << 8) | ((magic >> 8) & 0xff00ff);
             if (magic == GCOV_DATA_MAGIC) {
-                stream = new LEDataInputStream((DataInputStream) stream);
+                if (stream instanceof GcovDataInput) {
+                    ((GcovDataInput) stream).order(ByteOrder.LITTLE_ENDIAN);
+                } else {
+                    stream = new LEDataInputStream((DataInputStream) stream);
+                }
             } else {
                 String message = NLS.bind(Messages.GcdaRecordsParser_magic_num_error, magic);
                 Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
@@ -148,51 +156,17 @@ public class GcdaRecordsParser {
                         throw new CoreException(status);
                     }
 
-                    ArrayList<Block> fnctnBlcks = currentFnctn.getFunctionBlocks();
-                    if (fnctnBlcks.isEmpty()) {
+                    if (currentFnctn.getNumBlocks() == 0) {
                         String message = Messages.GcdaRecordsParser_func_block_empty;
                         Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
                         throw new CoreException(status);
                     }
 
-                    for (int i = 0; i < fnctnBlcks.size(); i++) {
-                        Block b = fnctnBlcks.get(i);
-                        int nonFakeExit = 0;
-
-                        ArrayList<Arc> arcsExit = b.getExitArcs();
-                        for (Arc extArc : arcsExit) {
-                            if (extArc.isFake() == false)
-                                nonFakeExit++;
-                            if (extArc.isOnTree() == false) {
-                                long arcsCnts = stream.readLong();
-                                extArc.setCount(arcsCnts);
-                                extArc.setCountValid(true);
-                                b.decNumSuccs();
-                                extArc.getDstnatnBlock().decNumPreds();
-                            }
-                        }
-
-                        // If there is only one non-fake exit, it is an
-                        // unconditional branch.
-                        if (nonFakeExit == 1) {
-                            for (Arc extArc : arcsExit) {
-                                if (extArc.isFake() == false) {
-                                    extArc.setUnconditionnal(true);
-
-                                    // If this block is instrumenting a call, it might be
-                                    // an artificial block. It is not artificial if it has
-                                    // a non-fallthrough exit, or the destination of this
-                                    // arc has more than one entry. Mark the destination
-                                    // block as a return site, if none of those conditions hold.
-
-                                    if (b.isCallSite() == true && extArc.isFallthrough() == true
-                                            && extArc.getDstnatnBlock().getEntryArcs().get(0).equals(extArc)
-                                            && extArc.getDstnatnBlock().getEntryArcs().size() == 1)
-                                        extArc.getDstnatnBlock().setCallReturn(true);
-                                }
-                            }
-                        }
+                    long[] arcsCnts = new long[currentFnctn.getNumCounts()];
+                    for (int i = 0; i < arcsCnts.length; i++) {
+                        arcsCnts[i] = stream.readLong();
                     }
+                    currentFnctn.setArcCounts(arcsCnts);
 
                     // counters arcs process data reset
                     currentFnctn = null;
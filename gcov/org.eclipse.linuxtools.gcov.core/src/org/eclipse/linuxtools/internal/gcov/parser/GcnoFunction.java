@@ -12,7 +12,12 @@ package org.eclipse.linuxtools.internal.gcov.parser;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 
+/**
+ * A function of a gcno file, with its flow graph. Blocks and arcs are identified by their index and stored in
+ * primitive arrays; the exit and entry arcs of each block are kept in compressed sparse row form.
+ */
 public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
 
     /**
@@ -20,15 +25,57 @@ public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
      */
     private static final long serialVersionUID = -4159055012321132651L;
 
+    // arc flags, as in the gcno file
+    private static final int VCOV_ARC_ON_TREE = (1 << 0);
+    private static final int VCOV_ARC_FAKE = (1 << 1);
+    private static final int VCOV_ARC_FALLTHROUGH = (1 << 2);
+
+    // arc states
+    private static final byte ARC_ON_TREE = 1 << 0;
+    private static final byte ARC_FAKE = 1 << 1;
+    private static final byte ARC_FALLTHROUGH = 1 << 2;
+    private static final byte ARC_COUNT_VALID = 1 << 3;
+    private static final byte ARC_CALL_NON_RETURN = 1 << 4; // Arc is for a function that abnormally returns
+    private static final byte ARC_UNCONDITIONAL = 1 << 5; // Is an unconditional branch.
+
+    // block states
+    private static final byte BLOCK_CALL_SITE = 1 << 0; // Does the call
+    private static final byte BLOCK_CALL_RETURN = 1 << 1; // Is the return
+    private static final byte BLOCK_VALID_CHAIN = 1 << 2;
+    private static final byte BLOCK_INVALID_CHAIN = 1 << 3;
+    private static final byte BLOCK_COUNT_VALID = 1 << 4;
+
+    private static final int[] NO_LINES = new int[0];
+
     private final long ident;
     private final long cheksum;
     private final long firstLineNmbr;
     private final String name;
     private final String srcFile;
-    private ArrayList<Block> functionBlocks = new ArrayList<>();
     private int numCounts = 0, numBlocks = 0;
     private final CoverageInfo cvrge = new CoverageInfo();
 
+    // blocks
+    private long[] blockCounts = new long[0];
+    private int[] blockNumSuccs = new int[0];
+    private int[] blockNumPreds = new int[0];
+    private byte[] blockStates = new byte[0];
+    // line encoding of each block: 0 followed by a source index switches the source file, other values are lines
+    private int[][] blockLines = new int[0][];
+
+    // arcs
+    private int numArcs = 0;
+    private int[] arcSrcs = new int[0];
+    private int[] arcDsts = new int[0];
+    private long[] arcCounts = new long[0];
+    private byte[] arcStates = new byte[0];
+
+    // exit (resp. entry) arcs of block b are exitArcs[exitStart[b]..exitStart[b+1]-1], in the order they were added
+    private int[] exitStart;
+    private int[] exitArcs;
+    private int[] entryStart;
+    private int[] entryArcs;
+
     public GcnoFunction(long fnctnIdent, long fnctnChksm, String fnctnName, String fnctnSrcFle, long fnctnFrstLnNmbr) {
         this.ident = fnctnIdent;
         this.cheksum = fnctnChksm;
@@ -48,152 +95,366 @@ public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
 
     public void addLineCounts(ArrayList<SourceFile> srcs) {
         for (int i = 0; i != numBlocks; i++) {
-            Block blk = functionBlocks.get(i);
             SourceFile fileSrc = null;
+            long blkCount = blockCounts[i];
 
-            long[] enc = blk.getEncoding();
-            for (int j = 0, k = 0; j != blk.getLineNum(); j++, k++) {
+            int[] enc = blockLines[i];
+            for (int k = 0; k < enc.length; k++) {
                 if (enc[k] == 0) {
-                    int srcn = (int) enc[++k];
-                    for (SourceFile sf : srcs) {
-                        if (sf.getIndex() == srcn) {
-                            fileSrc = sf;
-                            break;
-                        }
-                    }
-                    j++;
-                } else if ((fileSrc != null) && enc[k] < fileSrc.getLines().size()) {
-                    Line line = fileSrc.getLines().get((int) enc[k]);
-                    if (line.exists() == false)
+                    fileSrc = findSrc(srcs, enc[++k]);
+                } else if ((fileSrc != null) && enc[k] < fileSrc.getLinesSize()) {
+                    int line = enc[k];
+                    if (fileSrc.lineExists(line) == false)
                         cvrge.incLinesInstrumented();
-                    if ((line.getCount() == 0) && (blk.getCount() != 0))
+                    if ((fileSrc.getLineCount(line) == 0) && (blkCount != 0))
                         cvrge.incLinesExecuted();
-                    line.setExists(true);
-                    line.setCount(line.getCount() + blk.getCount());
+                    fileSrc.addLineCount(line, blkCount);
+                }
+            }
+        }
+    }
+
+    private static SourceFile findSrc(ArrayList<SourceFile> srcs, int srcn) {
+        // source indexes are allocated in order, starting at 1
+        if (srcn > 0 && srcn <= srcs.size() && srcs.get(srcn - 1).getIndex() == srcn) {
+            return srcs.get(srcn - 1);
+        }
+        for (SourceFile sf : srcs) {
+            if (sf.getIndex() == srcn) {
+                return sf;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Renumber the source files referenced by the line encoding of the blocks. Used when the functions of a gcno file
+     * parsed on its own are merged with the ones of other files.
+     * @param srcIndexes
+     *            new index of each source file, indexed by the index it had when the gcno file was parsed
+     */
+    public void remapSrcIndexes(int[] srcIndexes) {
+        for (int[] enc : blockLines) {
+            for (int k = 0; k < enc.length; k++) {
+                if (enc[k] == 0) {
+                    k++;
+                    enc[k] = srcIndexes[enc[k]];
                 }
             }
         }
     }
 
     public void solveGraphFnctn() {
-        ArrayList<Block> fnctnBlcks = this.functionBlocks;
-        ArrayList<Block> validBlocks = new ArrayList<>();
-        ArrayList<Block> invalidBlocks = new ArrayList<>();
+        buildAdjacency();
+        IntStack validBlocks = new IntStack(numBlocks);
+        IntStack invalidBlocks = new IntStack(numBlocks);
 
         // Function should contain at least one block
-        if (fnctnBlcks.size() >= 2) {
-            if (fnctnBlcks.get(0).getNumPreds() == 0)
-                fnctnBlcks.get(0).setNumPreds(50000);
-            if (fnctnBlcks.get(fnctnBlcks.size() - 1).getNumSuccs() == 0)
-                fnctnBlcks.get(fnctnBlcks.size() - 1).setNumSuccs(50000);
+        if (numBlocks >= 2) {
+            if (blockNumPreds[0] == 0)
+                blockNumPreds[0] = 50000;
+            if (blockNumSuccs[numBlocks - 1] == 0)
+                blockNumSuccs[numBlocks - 1] = 50000;
         }
 
-        for (Block b: fnctnBlcks) {
-            b.setInvalidChain(true);
-            invalidBlocks.add(b);
+        for (int b = 0; b < numBlocks; b++) {
+            blockStates[b] |= BLOCK_INVALID_CHAIN;
+            invalidBlocks.push(b);
         }
 
         while (validBlocks.isEmpty() == false || invalidBlocks.isEmpty() == false) {
 
-            if (invalidBlocks.isEmpty() == false) {
-                for (int i = invalidBlocks.size() - 1; i >= 0; i--) {
-                    Block invb = invalidBlocks.get(i);
-                    long total = 0;
-                    invalidBlocks.remove(i);
-                    invb.setInvalidChain(false);
-
-                    if (invb.getNumSuccs() == 0) {
-                        ArrayList<Arc> extArcs = invb.getExitArcs();
-                        for (Arc arc : extArcs) {
-                            total += arc.getCount();
-                        }
-                    } else if (invb.getNumPreds() == 0) {
-                        ArrayList<Arc> entrArcs = invb.getEntryArcs();
-                        for (Arc arc : entrArcs) {
-                            total += arc.getCount();
-                        }
-                    } else {
-                        continue;
-                    }
+            while (invalidBlocks.isEmpty() == false) {
+                int invb = invalidBlocks.pop();
+                long total = 0;
+                blockStates[invb] &= ~BLOCK_INVALID_CHAIN;
 
-                    invb.setCount(total);
-                    invb.setCountValid(true);
-                    invb.setValidChain(true);
-                    validBlocks.add(invb);
+                if (blockNumSuccs[invb] == 0) {
+                    for (int a = exitStart[invb]; a < exitStart[invb + 1]; a++) {
+                        total += arcCounts[exitArcs[a]];
+                    }
+                } else if (blockNumPreds[invb] == 0) {
+                    for (int a = entryStart[invb]; a < entryStart[invb + 1]; a++) {
+                        total += arcCounts[entryArcs[a]];
+                    }
+                } else {
+                    continue;
                 }
-            }/*
-              * else System.out.println("NO, invalid blocks = 0");
-              */
+
+                blockCounts[invb] = total;
+                blockStates[invb] |= BLOCK_COUNT_VALID | BLOCK_VALID_CHAIN;
+                validBlocks.push(invb);
+            }
+
             while (validBlocks.isEmpty() == false) {
-                int last = validBlocks.size() - 1;
-                Block vb = validBlocks.get(last);
-                Arc invarc = null;
+                int vb = validBlocks.pop();
+                int invarc = -1;
                 int total = 0;
-                validBlocks.remove(last);
 
-                vb.setValidChain(false);
+                blockStates[vb] &= ~BLOCK_VALID_CHAIN;
 
-                if (vb.getNumSuccs() == 1) {
-                    Block blcksdst;
-                    total = (int) vb.getCount();
+                if (blockNumSuccs[vb] == 1) {
+                    total = (int) blockCounts[vb];
 
-                    for (Arc extAr : vb.getExitArcs()) {
-                        total -= extAr.getCount();
-                        if (extAr.isCountValid() == false) {
+                    for (int a = exitStart[vb]; a < exitStart[vb + 1]; a++) {
+                        int extAr = exitArcs[a];
+                        total -= arcCounts[extAr];
+                        if (!isArc(extAr, ARC_COUNT_VALID)) {
                             invarc = extAr;
                         }
                     }
-                    blcksdst = invarc.getDstnatnBlock();
-                    invarc.setCountValid(true);
-                    invarc.setCount(total);
-                    vb.decNumSuccs();
-                    blcksdst.decNumPreds();
-
-                    if (blcksdst.isCountValid() == true) {
-                        if (blcksdst.getNumPreds() == 1 && blcksdst.isValidChain() == false) {
-                            blcksdst.setValidChain(true);
-                            validBlocks.add(blcksdst);
+                    int blcksdst = arcDsts[invarc];
+                    arcStates[invarc] |= ARC_COUNT_VALID;
+                    arcCounts[invarc] = total;
+                    blockNumSuccs[vb]--;
+                    blockNumPreds[blcksdst]--;
+
+                    if (isBlock(blcksdst, BLOCK_COUNT_VALID)) {
+                        if (blockNumPreds[blcksdst] == 1 && !isBlock(blcksdst, BLOCK_VALID_CHAIN)) {
+                            blockStates[blcksdst] |= BLOCK_VALID_CHAIN;
+                            validBlocks.push(blcksdst);
                         }
                     } else {
-                        if (blcksdst.getNumPreds() == 0 && blcksdst.isInvalidChain() == false) {
-                            blcksdst.setInvalidChain(true);
-                            invalidBlocks.add(blcksdst);
+                        if (blockNumPreds[blcksdst] == 0 && !isBlock(blcksdst, BLOCK_INVALID_CHAIN)) {
+                            blockStates[blcksdst] |= BLOCK_INVALID_CHAIN;
+                            invalidBlocks.push(blcksdst);
                         }
                     }
                 }
 
-                if (vb.getNumPreds() == 1) {
-                    Block blcksrc;
-                    total = (int) vb.getCount();
-                    invarc = null;
+                if (blockNumPreds[vb] == 1) {
+                    total = (int) blockCounts[vb];
+                    invarc = -1;
 
-                    for (Arc entrAr : vb.getEntryArcs()) {
-                        total -= entrAr.getCount();
-                        if (entrAr.isCountValid() == false) {
+                    for (int a = entryStart[vb]; a < entryStart[vb + 1]; a++) {
+                        int entrAr = entryArcs[a];
+                        total -= arcCounts[entrAr];
+                        if (!isArc(entrAr, ARC_COUNT_VALID)) {
                             invarc = entrAr;
                         }
                     }
 
-                    blcksrc = invarc.getSrcBlock();
-                    invarc.setCountValid(true);
-                    invarc.setCount(total);
-                    vb.decNumPreds();
-                    blcksrc.decNumSuccs();
+                    int blcksrc = arcSrcs[invarc];
+                    arcStates[invarc] |= ARC_COUNT_VALID;
+                    arcCounts[invarc] = total;
+                    blockNumPreds[vb]--;
+                    blockNumSuccs[blcksrc]--;
 
-                    if (blcksrc.isCountValid() == true) {
-                        if (blcksrc.getNumSuccs() == 1 && blcksrc.isInvalidChain() == false) {
-                            blcksrc.setValidChain(true);
-                            validBlocks.add(blcksrc);
+                    if (isBlock(blcksrc, BLOCK_COUNT_VALID)) {
+                        if (blockNumSuccs[blcksrc] == 1 && !isBlock(blcksrc, BLOCK_INVALID_CHAIN)) {
+                            blockStates[blcksrc] |= BLOCK_VALID_CHAIN;
+                            validBlocks.push(blcksrc);
                         }
-                    } else if (blcksrc.getNumSuccs() == 0 && blcksrc.isInvalidChain() == false) {
-                        blcksrc.setInvalidChain(true);
-                        invalidBlocks.add(blcksrc);
+                    } else if (blockNumSuccs[blcksrc] == 0 && !isBlock(blcksrc, BLOCK_INVALID_CHAIN)) {
+                        blockStates[blcksrc] |= BLOCK_INVALID_CHAIN;
+                        invalidBlocks.push(blcksrc);
+                    }
+                }
+            }
+        }
+    }
+
+    /* flow graph construction, used by the gcno and gcda parsers */
+
+    /**
+     * Allocate the blocks of the function.
+     * @param numBlocks
+     */
+    public void setNumBlocks(int numBlocks) {
+        this.numBlocks = numBlocks;
+        blockCounts = new long[numBlocks];
+        blockNumSuccs = new int[numBlocks];
+        blockNumPreds = new int[numBlocks];
+        blockStates = new byte[numBlocks];
+        blockLines = new int[numBlocks][];
+        Arrays.fill(blockLines, NO_LINES);
+        exitStart = null;
+    }
+
+    /**
+     * Add an arc to the flow graph.
+     * @param srcBlock
+     * @param dstBlock
+     * @param flag
+     *            the arc flags, as found in the gcno file
+     */
+    public void addArc(int srcBlock, int dstBlock, long flag) {
+        byte state;
+        if ((flag & VCOV_ARC_ON_TREE) != 0) {
+            state = ARC_ON_TREE;
+        } else if ((flag & VCOV_ARC_FAKE) != 0) {
+            state = ARC_FAKE | ARC_FALLTHROUGH;
+        } else if ((flag & VCOV_ARC_FALLTHROUGH) != 0) {
+            state = ARC_FALLTHROUGH;
+        } else {
+            state = 0;
+        }
+        if ((state & ARC_FAKE) != 0) {
+            // Exceptional exit from this function, the
+            // source block must be a call.
+            blockStates[srcBlock] |= BLOCK_CALL_SITE;
+            state |= ARC_CALL_NON_RETURN;
+        }
+        if ((state & ARC_ON_TREE) == 0) {
+            numCounts++;
+        }
+
+        if (numArcs == arcSrcs.length) {
+            int capacity = Math.max(8, numArcs * 2);
+            arcSrcs = Arrays.copyOf(arcSrcs, capacity);
+            arcDsts = Arrays.copyOf(arcDsts, capacity);
+            arcCounts = Arrays.copyOf(arcCounts, capacity);
+            arcStates = Arrays.copyOf(arcStates, capacity);
+        }
+        arcSrcs[numArcs] = srcBlock;
+        arcDsts[numArcs] = dstBlock;
+        arcStates[numArcs] = state;
+        numArcs++;
+        blockNumSuccs[srcBlock]++;
+        blockNumPreds[dstBlock]++;
+        exitStart = null;
+    }
+
+    /**
+     * Set the line encoding of a block.
+     * @param block
+     * @param lines
+     *            0 followed by a source file index switches the current source file, other values are line numbers
+     */
+    public void setBlockLines(int block, int[] lines) {
+        blockLines[block] = lines;
+    }
+
+    /**
+     * Set the counts of the arcs which are not on the spanning tree, in the order of the gcda file: by source block,
+     * then in the order the arcs were added.
+     * @param counts
+     */
+    public void setArcCounts(long[] counts) {
+        buildAdjacency();
+        int c = 0;
+        for (int b = 0; b < numBlocks; b++) {
+            int nonFakeExit = 0;
+
+            for (int a = exitStart[b]; a < exitStart[b + 1]; a++) {
+                int extArc = exitArcs[a];
+                if (!isArc(extArc, ARC_FAKE))
+                    nonFakeExit++;
+                if (!isArc(extArc, ARC_ON_TREE)) {
+                    arcCounts[extArc] = counts[c++];
+                    arcStates[extArc] |= ARC_COUNT_VALID;
+                    blockNumSuccs[b]--;
+                    blockNumPreds[arcDsts[extArc]]--;
+                }
+            }
+
+            // If there is only one non-fake exit, it is an
+            // unconditional branch.
+            if (nonFakeExit == 1) {
+                for (int a = exitStart[b]; a < exitStart[b + 1]; a++) {
+                    int extArc = exitArcs[a];
+                    if (!isArc(extArc, ARC_FAKE)) {
+                        arcStates[extArc] |= ARC_UNCONDITIONAL;
+
+                        // If this block is instrumenting a call, it might be
+                        // an artificial block. It is not artificial if it has
+                        // a non-fallthrough exit, or the destination of this
+                        // arc has more than one entry. Mark the destination
+                        // block as a return site, if none of those conditions hold.
+                        int dst = arcDsts[extArc];
+                        if (isBlock(b, BLOCK_CALL_SITE) && isArc(extArc, ARC_FALLTHROUGH)
+                                && entryStart[dst + 1] - entryStart[dst] == 1 && entryArcs[entryStart[dst]] == extArc)
+                            blockStates[dst] |= BLOCK_CALL_RETURN;
                     }
                 }
             }
         }
     }
 
+    /**
+     * Get the counters of the arcs which are not on the spanning tree, in the order expected by
+     * {@link #setArcCounts(long[])}.
+     * @return the arc counters
+     */
+    public long[] getArcCounts() {
+        buildAdjacency();
+        long[] counts = new long[numCounts];
+        int c = 0;
+        for (int b = 0; b < numBlocks; b++) {
+            for (int a = exitStart[b]; a < exitStart[b + 1]; a++) {
+                if (!isArc(exitArcs[a], ARC_ON_TREE)) {
+                    counts[c++] = arcCounts[exitArcs[a]];
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Copy the flow graph of this function, before any count is set, so that the counts of several runs can be solved
+     * independently. The line encoding is shared.
+     * @return a new function, with the same flow graph
+     */
+    public GcnoFunction copyGraph() {
+        buildAdjacency();
+        GcnoFunction copy = new GcnoFunction(ident, cheksum, name, srcFile, firstLineNmbr);
+        copy.numCounts = numCounts;
+        copy.numBlocks = numBlocks;
+        copy.blockCounts = blockCounts.clone();
+        copy.blockNumSuccs = blockNumSuccs.clone();
+        copy.blockNumPreds = blockNumPreds.clone();
+        copy.blockStates = blockStates.clone();
+        copy.blockLines = blockLines;
+        copy.numArcs = numArcs;
+        copy.arcSrcs = arcSrcs;
+        copy.arcDsts = arcDsts;
+        copy.arcCounts = arcCounts.clone();
+        copy.arcStates = arcStates.clone();
+        copy.exitStart = exitStart;
+        copy.exitArcs = exitArcs;
+        copy.entryStart = entryStart;
+        copy.entryArcs = entryArcs;
+        return copy;
+    }
+
+    // build the exit and entry arcs of each block, once all arcs are known
+    private void buildAdjacency() {
+        if (exitStart != null) {
+            return;
+        }
+        exitStart = new int[numBlocks + 1];
+        entryStart = new int[numBlocks + 1];
+        for (int a = 0; a < numArcs; a++) {
+            exitStart[arcSrcs[a] + 1]++;
+            entryStart[arcDsts[a] + 1]++;
+        }
+        for (int b = 0; b < numBlocks; b++) {
+            exitStart[b + 1] += exitStart[b];
+            entryStart[b + 1] += entryStart[b];
+        }
+        exitArcs = new int[numArcs];
+        entryArcs = new int[numArcs];
+        int[] exitPos = Arrays.copyOf(exitStart, numBlocks);
+        int[] entryPos = Arrays.copyOf(entryStart, numBlocks);
+        for (int a = 0; a < numArcs; a++) {
+            exitArcs[exitPos[arcSrcs[a]]++] = a;
+            entryArcs[entryPos[arcDsts[a]]++] = a;
+        }
+        // release the unused capacity
+        arcSrcs = Arrays.copyOf(arcSrcs, numArcs);
+        arcDsts = Arrays.copyOf(arcDsts, numArcs);
+        arcCounts = Arrays.copyOf(arcCounts, numArcs);
+        arcStates = Arrays.copyOf(arcStates, numArcs);
+    }
+
+    private boolean isArc(int arc, byte state) {
+        return (arcStates[arc] & state) != 0;
+    }
+
+    private boolean isBlock(int block, byte state) {
+        return (blockStates[block] & state) != 0;
+    }
+
     /* getters & setters */
 
     public long getIdent() {
@@ -216,20 +477,24 @@ public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
         return firstLineNmbr;
     }
 
-    public ArrayList<Block> getFunctionBlocks() {
-        return functionBlocks;
+    public long getBlockCount(int block) {
+        return blockCounts[block];
     }
 
-    public Block getFunctionBlock(int i) {
-        return functionBlocks.get(i);
+    /**
+     * @param block
+     * @return the line encoding of the block, see {@link #setBlockLines(int, int[])}
+     */
+    public int[] getBlockLines(int block) {
+        return blockLines[block];
     }
 
-    public void setFunctionBlocks(ArrayList<Block> functionBlocks) {
-        this.functionBlocks = functionBlocks;
+    public int getNumArcs() {
+        return numArcs;
     }
 
-    public void incNumCounts() {
-        this.numCounts++;
+    public long getArcCount(int arc) {
+        return arcCounts[arc];
     }
 
     public int getNumCounts() {
@@ -240,12 +505,35 @@ public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
         return numBlocks;
     }
 
-    public void setNumBlocks(int numBlocks) {
-        this.numBlocks = numBlocks;
-    }
-
     public CoverageInfo getCvrge() {
         return cvrge;
     }
 
+    /**
+     * Minimal stack of block indexes, used to solve the flow graph.
+     */
+    private static final class IntStack {
+        private int[] elements;
+        private int size;
+
+        IntStack(int capacity) {
+            elements = new int[Math.max(capacity, 1)];
+        }
+
+        void push(int e) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = e;
+        }
+
+        int pop() {
+            return elements[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
 }
@@ -14,7 +14,9 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.eclipse.core.runtime.CoreException;
@@ -22,6 +24,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.linuxtools.internal.gcov.Activator;
 import org.eclipse.linuxtools.internal.gcov.utils.BEDataInputStream;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovDataInput;
 import org.eclipse.linuxtools.internal.gcov.utils.GcovStringReader;
 import org.eclipse.linuxtools.internal.gcov.utils.LEDataInputStream;
 import org.eclipse.linuxtools.internal.gcov.utils.MasksGenerator;
@@ -58,8 +61,6 @@ public class GcnoRecordsParser {
     public void parseData(DataInput stream) throws IOException, CoreException {
         // header data
         int magic = 0;
-        // blocks data
-        ArrayList<Block> blocks = null;
         // source file data
         SourceFile source = null;
         // flag
@@ -67,12 +68,18 @@ public class GcnoRecordsParser {
 
         magic = stream.readInt();
         if (magic == GCOV_NOTE_MAGIC) {
-            stream = new BEDataInputStream((DataInputStream) stream);
+            if (!(stream instanceof GcovDataInput)) {
+                stream = new BEDataInputStream((DataInputStream) stream);
+            }
         } else {
             magic = (magic >> 16) | (magic << 16);
             magic = ((magic & 0xff00ff) << 8) | ((magic >> 8) & 0xff00ff);
             if (magic == GCOV_NOTE_MAGIC) {
-                stream = new LEDataInputStream((DataInputStream) stream);
+                if (stream instanceof GcovDataInput) {
+                    ((GcovDataInput) stream).order(ByteOrder.LITTLE_ENDIAN);
+                } else {
+                    stream = new LEDataInputStream((DataInputStream) stream);
+                }
             } else {
                 String message = NLS.bind(Messages.GcnoRecordsParser_magic_num_error, magic);
                 Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
@@ -133,70 +140,28 @@ public class GcnoRecordsParser {
                 }
 
                 else if (tag == GCOV_TAG_BLOCKS) {
-                    blocks = new ArrayList<>();
-                    for (int i = 0; i < length; i++) {
-                        long BlckFlag = stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
-                        Block blck = new Block(BlckFlag);
-                        blocks.add(blck);
-                    }
+                    // block flags are not used
+                    stream.skipBytes(length << 2);
                     fnctn.setNumBlocks(length);
                     continue;
                 } else if (tag == GCOV_TAG_ARCS) {
                     int srcBlockIndice = stream.readInt();
                     int nmbrArcs = (length - 1) / 2;
-                    ArrayList<Arc> arcs = new ArrayList<>(nmbrArcs);
 
                     for (int i = 0; i < nmbrArcs; i++) {
                         int dstnatnBlockIndice = stream.readInt();
                         long flag = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
-                        Arc arc = new Arc(srcBlockIndice, dstnatnBlockIndice, flag, blocks);
-                        arcs.add(arc);
-                    }
-
-                    // each arc, register it as exit of the src block
-                    Block srcBlk = blocks.get(srcBlockIndice);
-                    for (Arc a : arcs) {
-                        srcBlk.addExitArcs(a);
-                        srcBlk.incNumSuccs();
-                    }
-
-                    // each arc, register it as entry of its dstntn block
-                    for (Arc a : arcs) {
-                        Block dstntnBlk = a.getDstnatnBlock();
-                        dstntnBlk.addEntryArcs(a);
-                        dstntnBlk.incNumPreds();
+                        fnctn.addArc(srcBlockIndice, dstnatnBlockIndice, flag);
                     }
-
-                    for (Arc a : arcs) {
-                        if (a.isFake() == true) {
-                            if (a.getSrcBlock() != null) {
-                                // Exceptional exit from this function, the
-                                // source block must be a call.
-                                srcBlk = blocks.get(srcBlockIndice);
-                                srcBlk.setCallSite(true);
-                                a.setCallNonReturn(true);
-                            } else {
-                                a.setNonLoclaReturn(true);
-                                Block dstntnBlk = a.getDstnatnBlock();
-                                dstntnBlk.setNonLocalReturn(true);
-                            }
-                        }
-
-                        if (a.isOnTree() == false)
-                            fnctn.incNumCounts();
-                        // nbrCounts++;
-                    }
-
-                    fnctn.setFunctionBlocks(blocks);
                     continue;
                 }
 
                 else if (tag == GCOV_TAG_LINES) {
                     int numBlock = stream.readInt();
-                    long[] lineNos = new long[length - 1];
+                    int[] lineNos = new int[length - 1];
                     int ix = 0;
                     do {
-                        long lineNumber = stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+                        int lineNumber = stream.readInt();
                         if (lineNumber != 0) {
                             if (ix == 0) {
                                 lineNos[ix++] = 0;
@@ -204,7 +169,7 @@ public class GcnoRecordsParser {
                             }
                             lineNos[ix++] = lineNumber;
                             if (lineNumber >= source.getNumLines()) {
-                                source.setNumLines((int) lineNumber + 1);
+                                source.setNumLines(lineNumber + 1);
                             }
                         } else {
                             String fileName = GcovStringReader.readString(stream);
@@ -218,12 +183,10 @@ public class GcnoRecordsParser {
                         }
                     } while (true);
 
-                    fnctn.getFunctionBlocks().get((numBlock)).setEncoding(lineNos);
-                    fnctn.getFunctionBlocks().get((numBlock)).setNumLine(ix);
+                    fnctn.setBlockLines(numBlock, Arrays.copyOf(lineNos, ix));
                     continue;
                 }
             } catch (EOFException e) {
-                fnctn.setFunctionBlocks(blocks);
                 fnctns.add(fnctn);
                 break;
             }
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - Initial Contribution
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The runs which executed each line of a source file, when the coverage of several runs is merged. The sets of all
+ * lines are packed in a single array, with the same number of words per line.
+ */
+public class LineRunSets implements Serializable {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 6094467301520718413L;
+
+    private final int words;
+    private long[] bits = new long[0];
+
+    /**
+     * Constructor
+     * @param numRuns
+     */
+    public LineRunSets(int numRuns) {
+        this.words = Math.max(1, (numRuns + 63) >>> 6);
+    }
+
+    /**
+     * Record that a run executed a line.
+     * @param line
+     * @param run
+     */
+    public void add(int line, int run) {
+        int offset = line * words;
+        if (offset + words > bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(offset + words, bits.length * 2));
+        }
+        bits[offset + (run >>> 6)] |= 1L << run;
+    }
+
+    /**
+     * Add the runs recorded in another set, for the same source file and number of runs.
+     * @param other
+     */
+    public void addAll(LineRunSets other) {
+        if (other.bits.length > bits.length) {
+            bits = Arrays.copyOf(bits, other.bits.length);
+        }
+        for (int i = 0; i < other.bits.length; i++) {
+            bits[i] |= other.bits[i];
+        }
+    }
+
+    /**
+     * @param line
+     * @return the indexes of the runs which executed the line
+     */
+    public BitSet getRuns(int line) {
+        int offset = line * words;
+        if (offset + words > bits.length) {
+            return new BitSet();
+        }
+        return BitSet.valueOf(Arrays.copyOfRange(bits, offset, offset + words));
+    }
+}
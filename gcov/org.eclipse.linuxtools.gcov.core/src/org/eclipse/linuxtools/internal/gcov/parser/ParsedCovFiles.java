@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - Initial Contribution
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Result of the parsing of a gcno/gcda pair, independent from the other pairs. Source indexes are local to the pair
+ * until the result is merged by the {@link CovManager}.
+ */
+class ParsedCovFiles implements Serializable {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = -3380563370563404185L;
+
+    final HashMap<String, SourceFile> sourceMap = new HashMap<>();
+    final ArrayList<SourceFile> srcs = new ArrayList<>();
+    ArrayList<GcnoFunction> fnctns;
+    long nbrPgmRuns;
+    // runs which executed the lines of each source file, when several runs are merged
+    ArrayList<LineRunSets> runSets;
+}
@@ -11,7 +11,7 @@
 package org.eclipse.linuxtools.internal.gcov.parser;
 
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -23,7 +23,9 @@ public class SourceFile implements Serializable {
     private static final long serialVersionUID = -9182882194956475711L;
     private final String name;
     private final int index;
-    private final ArrayList<Line> lines = new ArrayList<>();
+    // execution count and existence of each line, indexed by line number
+    private long[] lineCounts = new long[0];
+    private final BitSet lineExists = new BitSet();
     private final TreeSet<GcnoFunction> fnctns = new TreeSet<>();
     private int numLines = 1;
     private final CoverageInfo cvrge = new CoverageInfo();
@@ -39,21 +41,19 @@ public class SourceFile implements Serializable {
 
 
     public void accumulateLineCounts() {
-        for (Line line : lines) {
-            if (line.exists()) {
-                cvrge.incLinesInstrumented();
-                if (line.getCount() != 0) {
-                    cvrge.incLinesExecuted();
-                }
+        for (int i = lineExists.nextSetBit(0); i >= 0; i = lineExists.nextSetBit(i + 1)) {
+            cvrge.incLinesInstrumented();
+            if (lineCounts[i] != 0) {
+                cvrge.incLinesExecuted();
             }
         }
     }
 
     public long getmaxLineCount() {
         if (maxCount < 0) {
-            for (Line line : lines) {
-                if (line.getCount() > maxCount) {
-                    maxCount = line.getCount();
+            for (long count : lineCounts) {
+                if (count > maxCount) {
+                    maxCount = count;
                 }
             }
         }
@@ -76,8 +76,29 @@ public class SourceFile implements Serializable {
         return name;
     }
 
-    public ArrayList<Line> getLines() {
-        return lines;
+    /**
+     * @return the number of allocated lines, see {@link #createLines()}
+     */
+    public int getLinesSize() {
+        return lineCounts.length;
+    }
+
+    public long getLineCount(int line) {
+        return lineCounts[line];
+    }
+
+    public boolean lineExists(int line) {
+        return lineExists.get(line);
+    }
+
+    /**
+     * Mark a line as instrumented and add to its execution count.
+     * @param line
+     * @param count
+     */
+    public void addLineCount(int line, long count) {
+        lineExists.set(line);
+        lineCounts[line] += count;
     }
 
     public SortedSet<GcnoFunction> getFnctns() {
@@ -101,11 +122,8 @@ public class SourceFile implements Serializable {
     }
 
     public void createLines() {
-        int n = getNumLines();
-        lines.ensureCapacity(n);
-        for (int j = 0; j < n; j++) {
-            lines.add(new Line());
-        }
+        lineCounts = new long[getNumLines()];
+        lineExists.clear();
     }
 
 
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - Initial Contribution
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.linuxtools.binutils.utils.ByteBufferDataInput;
+
+/**
+ * DataInput over a (memory-mapped) gcno/gcda file. The byte order can be switched once the magic number of the file
+ * is known, so this replaces both {@link BEDataInputStream} and {@link LEDataInputStream}.
+ * <p>
+ * As in the gcov format, 64-bit values are read as two 32-bit words, low word first.
+ */
+public class GcovDataInput extends ByteBufferDataInput {
+
+    /**
+     * Constructor
+     * @param buffer
+     */
+    public GcovDataInput(ByteBuffer buffer) {
+        super(buffer);
+    }
+
+    /**
+     * Maps the given file in memory.
+     * @param file
+     * @return a big-endian DataInput over the content of the file
+     * @throws IOException
+     */
+    public static GcovDataInput map(File file) throws IOException {
+        return new GcovDataInput(mapFile(file));
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.io.DataInput#readLong()
+     */
+    @Override
+    public final long readLong() throws IOException {
+        long low = readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+        long high = readInt();
+        return (high << 32) | low;
+    }
+
+}
@@ -182,7 +182,7 @@ public class CovView extends AbstractSTDataView {
             // parse and process coverage data
             CovManager cvrgeMnger = new CovManager(binaryPath, project);
             List<String> gcdaPaths = cvrgeMnger.getGCDALocations();
-            cvrgeMnger.processCovFiles(gcdaPaths, gcda);
+            cvrgeMnger.processCoverage(gcdaPaths, gcda);
             // generate model for view
             cvrgeMnger.fillGcovView();
             // load an Eclipse view
@@ -21,11 +21,25 @@ public class GcovAnnotation extends Annotation {
 
     private final Position position;
     private final long count;
+    private final String runs;
 
     public GcovAnnotation(int offset, int length, long count, String type) {
+        this(offset, length, count, type, null);
+    }
+
+    /**
+     * @param offset
+     * @param length
+     * @param count
+     * @param type
+     * @param runs
+     *            the names of the runs which executed the line, or null if the coverage is not made of several runs
+     */
+    public GcovAnnotation(int offset, int length, long count, String type, String runs) {
         super(type, false, null);
         this.position = new Position(offset, length);
         this.count = count;
+        this.runs = runs;
     }
 
     public Position getPosition() {
@@ -34,6 +48,14 @@ public class GcovAnnotation extends Annotation {
 
     @Override
     public String getText() {
+        String text = getCountText();
+        if (runs != null && count > 0) {
+            return NLS.bind(Messages.CoverageAnnotationColumn_covering_runs, text, runs);
+        }
+        return text;
+    }
+
+    private String getCountText() {
         if (count == 0) {
             return Messages.CoverageAnnotationColumn_line_never_exec;
         } else if (count == 1) {
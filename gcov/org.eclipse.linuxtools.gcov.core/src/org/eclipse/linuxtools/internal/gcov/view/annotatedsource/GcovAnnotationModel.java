@@ -10,11 +10,13 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gcov.view.annotatedsource;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -44,7 +46,6 @@ import org.eclipse.jface.text.source.IAnnotationModelListener;
 import org.eclipse.jface.text.source.IAnnotationModelListenerExtension;
 import org.eclipse.linuxtools.binutils.link2source.STLink2SourceSupport;
 import org.eclipse.linuxtools.internal.gcov.parser.CovManager;
-import org.eclipse.linuxtools.internal.gcov.parser.Line;
 import org.eclipse.linuxtools.internal.gcov.parser.SourceFile;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.texteditor.IDocumentProvider;
@@ -72,6 +73,8 @@ public final class GcovAnnotationModel implements IAnnotationModel {
     private final IDocument document;
     private int openConnections = 0;
     private boolean annotated = false;
+    /** The coverage the annotations are made from, to know which runs executed each line */
+    private CovManager covManager;
 
     private IDocumentListener documentListener = new IDocumentListener() {
         @Override
@@ -224,12 +227,13 @@ public final class GcovAnnotationModel implements IAnnotationModel {
             }
         }
 
+        covManager = null;
         try {
             IBinary[] binaries = cProject.getBinaryContainer().getBinaries();
             for (IBinary b : binaries) {
                 if (b.getResource().getLocation().equals(target)) {
-                    CovManager covManager = new CovManager(b.getResource().getLocation().toOSString());
-                    covManager.processCovFiles(covManager.getGCDALocations(), null);
+                    covManager = new CovManager(b.getResource().getLocation().toOSString());
+                    covManager.processCoverage(covManager.getGCDALocations(), null);
                     sources.addAll(covManager.getAllSrcs());
                 }
             }
@@ -267,38 +271,39 @@ public final class GcovAnnotationModel implements IAnnotationModel {
     private void createAnnotations(SourceFile sourceFile) {
         AnnotationModelEvent event = new AnnotationModelEvent(this);
         clear(event);
-        List<Line> lines = sourceFile.getLines();
+        int numLines = sourceFile.getLinesSize();
 
-        List<Long> tmp = new ArrayList<>();
-        for (Line line : lines) {
+        long[] counts = new long[numLines];
+        int numCounts = 0;
+        for (int i = 0; i < numLines; i++) {
             // Remove 0 from our calculation
-            if (line.getCount() != 0) {
-                tmp.add(line.getCount());
+            if (sourceFile.getLineCount(i) != 0) {
+                counts[numCounts++] = sourceFile.getLineCount(i);
             }
         }
-        Long[] counts = tmp.toArray(new Long[0]);
-        Arrays.sort(counts);
+        Arrays.sort(counts, 0, numCounts);
 
         float outlierThreshold = 0;
-        if (!tmp.isEmpty()) {
+        if (numCounts > 0) {
             // Formula for outlier (upper quartile)
-            final int q1 = (int) Math.floor(0.25 * counts.length);
-            final int q3 = (int) Math.floor(0.75 * counts.length);
+            final int q1 = (int) Math.floor(0.25 * numCounts);
+            final int q3 = (int) Math.floor(0.75 * numCounts);
             outlierThreshold = counts[q3] + (1.5f * (counts[q3] - counts[q1]));
         }
 
-        for (int i = 0; i < lines.size(); i++) {
+        for (int i = 0; i < numLines; i++) {
             try {
-                Line line = lines.get((i+1) % lines.size());
+                int line = (i + 1) % numLines;
+                long count = sourceFile.getLineCount(line);
                 String type = COVERAGE;
-                if (line.getCount() == 0) {
+                if (count == 0) {
                     type = NO_COVERAGE;
-                } else if (line.getCount() > outlierThreshold) {
+                } else if (count > outlierThreshold) {
                     type = THOROUGH_COVERAGE;
                 }
-                if (line.exists()) {
+                if (sourceFile.lineExists(line)) {
                     GcovAnnotation ca = new GcovAnnotation(document.getLineOffset(i),
-                            document.getLineLength(i), line.getCount(), type);
+                            document.getLineLength(i), count, type, getCoveringRuns(sourceFile, line));
                     annotations.add(ca);
                     event.annotationAdded(ca);
                 }
@@ -309,6 +314,25 @@ public final class GcovAnnotationModel implements IAnnotationModel {
         annotated = true;
     }
 
+    /**
+     * @return the names of the runs which executed the line, or null if the coverage is not made of several runs
+     */
+    private String getCoveringRuns(SourceFile sourceFile, int line) {
+        if (covManager == null || covManager.getRunDirs().isEmpty()) {
+            return null;
+        }
+        List<File> runDirs = covManager.getRunDirs();
+        BitSet runs = covManager.getCoveringRuns(sourceFile.getName(), line);
+        StringBuilder names = new StringBuilder();
+        for (int run = runs.nextSetBit(0); run >= 0; run = runs.nextSetBit(run + 1)) {
+            if (names.length() > 0) {
+                names.append(", "); //$NON-NLS-1$
+            }
+            names.append(runDirs.get(run).getName());
+        }
+        return names.toString();
+    }
+
     private void clear() {
         AnnotationModelEvent event = new AnnotationModelEvent(this);
         clear(event);
@@ -18,6 +18,7 @@ public class Messages extends NLS {
     public static String CoverageAnnotationColumn_line_exec_once;
     public static String CoverageAnnotationColumn_line_never_exec;
     public static String CoverageAnnotationColumn_non_exec_line;
+    public static String CoverageAnnotationColumn_covering_runs;
     public static String OpenSourceFileAction_open_error;
     static {
         // initialize resource bundle
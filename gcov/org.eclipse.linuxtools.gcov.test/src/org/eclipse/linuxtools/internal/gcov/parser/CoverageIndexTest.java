@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - Initial Contribution
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CoverageIndexTest {
+    private File dir;
+    private File gcno;
+    private File gcda;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("coverage-index", "");
+        dir.delete();
+        dir.mkdirs();
+        gcno = new File(dir, "main.gcno");
+        gcda = new File(dir, "main.gcda");
+        write(gcno, new byte[] { 'o', 'n', 'c', 'g', '*', '4', '0', '4', 1, 2, 3, 4 });
+        write(gcda, new byte[] { 'a', 'd', 'c', 'g', '*', '4', '0', '4', 1, 2, 3, 4, 0, 0, 0, 1 });
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = new File(dir, "index").listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        new File(dir, "index").delete();
+        gcno.delete();
+        gcda.delete();
+        dir.delete();
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(content);
+        }
+    }
+
+    private static ParsedCovFiles parsed(long runs) {
+        ParsedCovFiles parsed = new ParsedCovFiles();
+        parsed.fnctns = new ArrayList<>();
+        parsed.nbrPgmRuns = runs;
+        return parsed;
+    }
+
+    @Test
+    public void testLoadStored() {
+        CoverageIndex index = new CoverageIndex(new File(dir, "index"));
+        Assert.assertNull(index.load(gcno, gcda));
+        index.store(gcno, gcda, parsed(3));
+        ParsedCovFiles loaded = index.load(gcno, gcda);
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(3, loaded.nbrPgmRuns);
+    }
+
+    @Test
+    public void testRewrittenGcda() throws IOException {
+        CoverageIndex index = new CoverageIndex(new File(dir, "index"));
+        index.store(gcno, gcda, parsed(1));
+
+        // a new run rewrites the counters in place: same size, same modification time
+        long lastModified = gcda.lastModified();
+        write(gcda, new byte[] { 'a', 'd', 'c', 'g', '*', '4', '0', '4', 1, 2, 3, 4, 0, 0, 0, 2 });
+        gcda.setLastModified(lastModified);
+        Assert.assertNull(index.load(gcno, gcda));
+
+        index.store(gcno, gcda, parsed(2));
+        Assert.assertEquals(2, index.load(gcno, gcda).nbrPgmRuns);
+    }
+
+    @Test
+    public void testMaxSize() throws IOException {
+        File other = new File(dir, "other.gcda");
+        write(other, new byte[] { 'a', 'd', 'c', 'g' });
+        try {
+            CoverageIndex index = new CoverageIndex(new File(dir, "index"), 1);
+            index.store(gcno, gcda, parsed(1));
+            index.store(gcno, other, parsed(1));
+            // the index holds less than one entry, so the older entries are removed
+            Assert.assertNull(index.load(gcno, gcda));
+        } finally {
+            other.delete();
+        }
+    }
+
+    @Test
+    public void testReopenFewFiles() throws Exception {
+        File otherGcno = new File(dir, "other.gcno");
+        File otherGcda = new File(dir, "other.gcda");
+        write(otherGcno, new byte[] { 'o', 'n', 'c', 'g', '*', '4', '0', '4', 5, 6, 7, 8 });
+        write(otherGcda, new byte[] { 'a', 'd', 'c', 'g', '*', '4', '0', '4', 5, 6, 7, 8, 0, 0, 0, 1 });
+        try {
+            // entries left by a previous session; the files themselves cannot be parsed
+            final CoverageIndex index = new CoverageIndex(new File(dir, "index"));
+            index.store(gcno, gcda, parsed(5));
+            index.store(otherGcno, otherGcda, parsed(7));
+
+            // fewer files than the parallel threshold are parsed one after the other
+            CovManager manager = new CovManager(new File(dir, "main").getPath()) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public CoverageIndex getCoverageIndex() {
+                    return index;
+                }
+            };
+            manager.processCovFiles(Arrays.asList(gcda.getPath(), otherGcda.getPath()), null);
+            Assert.assertEquals(7, manager.getNbrPgmRuns());
+        } finally {
+            otherGcno.delete();
+            otherGcda.delete();
+        }
+    }
+}
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gcov.test;
 
+import org.eclipse.linuxtools.internal.gcov.parser.CoverageIndexTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -17,7 +18,8 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
     GcovTestC.class,
     GcovTestCPP.class,
-    GcovTestCLibrary.class
+    GcovTestCLibrary.class,
+    CoverageIndexTest.class
 })
 public class AllGcovTests {
 
@@ -12,8 +12,10 @@
 package org.eclipse.linuxtools.internal.gcov.test;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.TreeSet;
 
@@ -35,6 +37,8 @@ import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.linuxtools.dataviewers.actions.STExportToCSVAction;
 import org.eclipse.linuxtools.internal.gcov.action.OpenGCAction;
+import org.eclipse.linuxtools.internal.gcov.parser.CovManager;
+import org.eclipse.linuxtools.internal.gcov.parser.SourceFile;
 import org.eclipse.linuxtools.profiling.tests.AbstractTest;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
@@ -244,6 +248,64 @@ public abstract class GcovTest extends AbstractTest {
         }
     }
 
+    @Test
+    public void testCoveringRuns() throws Exception {
+        File projectDir = project.getLocation().toFile();
+        File runsDir = new File(projectDir, "gcov-runs");
+        List<File> runDirs = Arrays.asList(new File(runsDir, "run1"), new File(runsDir, "run2"));
+        try {
+            // the first run has no argument, so it skips the loop of main that the second run executes
+            runProgram(projectDir, runDirs.get(0));
+            runProgram(projectDir, runDirs.get(1), "3");
+
+            CovManager covManager = new CovManager(project.getFile(getBinName()).getLocation().toOSString());
+            covManager.processCoverage(covManager.getGCDALocations(), null);
+            Assert.assertEquals(runDirs, covManager.getRunDirs());
+
+            boolean secondRunOnly = false;
+            for (SourceFile sf : covManager.getAllSrcs()) {
+                for (int line = 0; line < sf.getLinesSize(); line++) {
+                    BitSet runs = covManager.getCoveringRuns(sf.getName(), line);
+                    if (sf.getLineCount(line) == 0) {
+                        Assert.assertTrue(sf.getName() + ":" + line, runs.isEmpty());
+                    }
+                    if (runs.get(0)) {
+                        Assert.assertTrue(sf.getName() + ":" + line, runs.get(1));
+                    } else if (runs.get(1)) {
+                        secondRunOnly = true;
+                    }
+                }
+            }
+            Assert.assertTrue("No line executed by the second run only", secondRunOnly);
+        } finally {
+            deleteRecursively(runsDir);
+        }
+    }
+
+    // all the test projects build a.out, linked to the library if any
+    private static void runProgram(File projectDir, File runDir, String... args)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("./a.out");
+        command.addAll(Arrays.asList(args));
+        ProcessBuilder pb = new ProcessBuilder(command).directory(projectDir).redirectErrorStream(true);
+        pb.environment().put("GCOV_PREFIX", runDir.getAbsolutePath());
+        pb.environment().put("GCOV_PREFIX_STRIP", "0");
+        pb.environment().put("LD_LIBRARY_PATH", projectDir.getAbsolutePath());
+        pb.redirectOutput(new File(projectDir, "run.log"));
+        Assert.assertEquals(0, pb.start().waitFor());
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
     private void openGcovResult(final IFile file, String binaryPath, final boolean isCompleteCoverageResultWanted) {
         new OpenGCAction().autoOpen(file.getLocation(), binaryPath, isCompleteCoverageResultWanted);
     }
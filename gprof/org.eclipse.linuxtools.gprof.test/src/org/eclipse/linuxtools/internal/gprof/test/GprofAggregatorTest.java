@@ -12,6 +12,7 @@ package org.eclipse.linuxtools.internal.gprof.test;
 
 import static org.eclipse.linuxtools.internal.gprof.test.STJunitUtils.BINARY_FILE;
 import static org.eclipse.linuxtools.internal.gprof.test.STJunitUtils.OUTPUT_FILE;
+import static org.junit.Assert.assertNotNull;
 
 import java.io.File;
 import java.io.IOException;
@@ -20,6 +21,9 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
 import org.eclipse.linuxtools.internal.gprof.utils.Aggregator;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -79,4 +83,43 @@ public class GprofAggregatorTest {
         p.waitFor();
         p2.waitFor();
     }
+
+    @Test
+    public void testInProcessAggregation() throws IOException, InterruptedException {
+        File directory = new File(STJunitUtils.getAbsolutePath(
+                "org.eclipse.linuxtools.gprof.test", dir));
+        File gmonPath = new File(STJunitUtils.getAbsolutePath(
+                "org.eclipse.linuxtools.gprof.test", dir + File.separator
+                        + OUTPUT_FILE));
+        File binaryPath = new File(STJunitUtils.getAbsolutePath(
+                "org.eclipse.linuxtools.gprof.test", dir + File.separator
+                        + BINARY_FILE));
+
+        String gmon = gmonPath.toString();
+        String binary = binaryPath.toString();
+
+        LinkedList<String> s = new LinkedList<>();
+        s.add(gmon);
+        s.add(gmon);
+
+        IBinaryObject program = STSymbolManager.sharedInstance.getBinaryObject(binary);
+        File sum = File.createTempFile("gmon", ".sum");
+        try {
+            GmonDecoder decoder = Aggregator.aggregate(program, null, s, sum);
+            assertNotNull(decoder.getRootNode());
+
+            String gprof2use = "gprof";
+            Process p = Runtime.getRuntime().exec(
+                    new String[] { gprof2use, binary, sum.getAbsolutePath() });
+            Process p2 = Runtime.getRuntime().exec(
+                    new String[] { gprof2use, binary,
+                            directory + File.separator + "gmon.sum.ref" });
+
+            STJunitUtils.compare(p.getInputStream(), p2.getInputStream());
+            p.waitFor();
+            p2.waitFor();
+        } finally {
+            sum.delete();
+        }
+    }
 }
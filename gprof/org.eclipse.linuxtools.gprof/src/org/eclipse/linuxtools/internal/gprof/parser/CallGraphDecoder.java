@@ -12,13 +12,18 @@ package org.eclipse.linuxtools.internal.gprof.parser;
 
 import java.io.DataInput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.cdt.core.IAddress;
 import org.eclipse.cdt.core.IAddressFactory;
 import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.linuxtools.internal.gprof.symbolManager.CallGraphArc;
 import org.eclipse.linuxtools.internal.gprof.symbolManager.CallGraphNode;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
@@ -36,6 +41,9 @@ public class CallGraphDecoder {
 
     private final Map<ISymbol, CallGraphNode> nodes = new HashMap<>();
 
+    /** arcs read from gmon files, keyed by from/self pc, in the order they were first read */
+    private final Map<RawArc, RawArc> rawArcs = new LinkedHashMap<>();
+
     /**
      * Constructor
      * @param decoder the Gmon decoder
@@ -53,25 +61,64 @@ public class CallGraphDecoder {
         long from_pc = readAddress(stream);
         long self_pc = readAddress(stream);
         int count    = bsdFormat?(int)readAddress(stream):stream.readInt();
-        IBinaryObject program = decoder.getProgram();
-        IAddressFactory addressFactory = program.getAddressFactory();
-        IAddress parentAddress = addressFactory.createAddress(Long.toString(from_pc));
-        ISymbol  parentSymbol  = program.getSymbol(parentAddress);
-        IAddress childAddress  = addressFactory.createAddress(Long.toString(self_pc));
-        ISymbol  childSymbol   = program.getSymbol(childAddress);
-        if (childSymbol == null || parentSymbol == null) {
-            return;
+        addRawArc(from_pc, self_pc, count);
+    }
+
+    private void addRawArc(long from_pc, long self_pc, int count) {
+        RawArc key = new RawArc(from_pc, self_pc);
+        RawArc arc = rawArcs.get(key);
+        if (arc == null) {
+            rawArcs.put(key, key);
+            arc = key;
         }
-        addCallArc(parentSymbol, parentAddress, childSymbol, count);
+        arc.count += count;
     }
 
+    /**
+     * Adds the arcs decoded by the given decoder to this one.
+     * Symbols are resolved later, by {@link #populate(HistRoot)}.
+     * @param other a decoder of the same program
+     */
+    void merge(CallGraphDecoder other) {
+        for (RawArc arc : other.rawArcs.values()) {
+            addRawArc(arc.fromPc, arc.selfPc, arc.count);
+        }
+    }
 
     protected long readAddress(DataInput stream) throws IOException {
         return stream.readInt() & 0xFFFFFFFFL;
     }
 
+    protected void writeAddress(ByteBuffer buffer, long address) {
+        buffer.putInt((int) address);
+    }
+
+    protected int getAddressSize() {
+        return 4;
+    }
+
+    /**
+     * @return the size of the call-graph records, as written by {@link #writeCallGraphRecords(ByteBuffer)}
+     */
+    int getCallGraphRecordsSize() {
+        return rawArcs.size() * (1 + 2 * getAddressSize() + 4);
+    }
+
+    /**
+     * Writes the call-graph records, in the gmon file format.
+     * @param buffer
+     */
+    void writeCallGraphRecords(ByteBuffer buffer) {
+        for (RawArc arc : rawArcs.values()) {
+            buffer.put((byte) GmonDecoder.VPF_GMON_RECORD_TYPE_CALLGRAPH);
+            writeAddress(buffer, arc.fromPc);
+            writeAddress(buffer, arc.selfPc);
+            buffer.putInt(arc.count);
+        }
+    }
 
-    private void addCallArc(ISymbol parent, IAddress parentAddress, ISymbol child, int count) {
+
+    private void addCallArc(ISymbol parent, String parentPath, int parentLine, ISymbol child, int count) {
         CallGraphNode parentNode = nodes.get(parent);
         CallGraphNode childNode  = nodes.get(child);
         if (parentNode == null) {
@@ -84,7 +131,7 @@ public class CallGraphDecoder {
         }
         CallGraphArc arc = parentNode.getOutputArc(childNode);
         if (arc == null) {
-            arc = new CallGraphArc(parentNode, parentAddress, childNode, count, decoder.getProgram(), decoder.getProject());
+            arc = new CallGraphArc(parentNode, parentPath, parentLine, childNode, count, decoder.getProject());
             parentNode.getChildren().add(arc);
             childNode.getParents().add(arc);
         } else {
@@ -93,10 +140,59 @@ public class CallGraphDecoder {
     }
 
     void populate(HistRoot rootNode) {
+        IBinaryObject program = decoder.getProgram();
+        IAddressFactory addressFactory = program.getAddressFactory();
+        List<RawArc> arcs = new ArrayList<>();
+        List<ISymbol> symbols = new ArrayList<>();
+        List<IAddress> parentAddresses = new ArrayList<>();
+        for (RawArc arc : rawArcs.values()) {
+            IAddress parentAddress = addressFactory.createAddress(Long.toString(arc.fromPc));
+            ISymbol  parentSymbol  = program.getSymbol(parentAddress);
+            IAddress childAddress  = addressFactory.createAddress(Long.toString(arc.selfPc));
+            ISymbol  childSymbol   = program.getSymbol(childAddress);
+            if (childSymbol != null && parentSymbol != null) {
+                arcs.add(arc);
+                symbols.add(parentSymbol);
+                symbols.add(childSymbol);
+                parentAddresses.add(parentAddress);
+            }
+        }
+        // resolve the locations of the calls at once
+        IAddress[] addresses = parentAddresses.toArray(new IAddress[parentAddresses.size()]);
+        String[] parentPaths = STSymbolManager.sharedInstance.getFileNames(program, addresses, decoder.getProject());
+        int[] parentLines = STSymbolManager.sharedInstance.getLineNumbers(program, addresses, decoder.getProject());
+        for (int i = 0; i < arcs.size(); i++) {
+            addCallArc(symbols.get(2 * i), parentPaths[i], parentLines[i], symbols.get(2 * i + 1), arcs.get(i).count);
+        }
         for (CallGraphNode callGraphNode : nodes.values()) {
             rootNode.addCallGraphNode(callGraphNode);
         }
     }
 
+    private static final class RawArc {
+        private final long fromPc;
+        private final long selfPc;
+        private int count;
+
+        RawArc(long fromPc, long selfPc) {
+            this.fromPc = fromPc;
+            this.selfPc = selfPc;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = fromPc * 31 + selfPc;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof RawArc)) {
+                return false;
+            }
+            RawArc other = (RawArc) obj;
+            return fromPc == other.fromPc && selfPc == other.selfPc;
+        }
+    }
 
 }
@@ -12,6 +12,7 @@ package org.eclipse.linuxtools.internal.gprof.parser;
 
 import java.io.DataInput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class CallGraphDecoder64 extends CallGraphDecoder{
 
@@ -24,4 +25,14 @@ public class CallGraphDecoder64 extends CallGraphDecoder{
         return stream.readLong();
     }
 
+    @Override
+    protected void writeAddress(ByteBuffer buffer, long address) {
+        buffer.putLong(address);
+    }
+
+    @Override
+    protected int getAddressSize() {
+        return 8;
+    }
+
 }
@@ -10,25 +10,30 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gprof.parser;
 
-import java.io.BufferedInputStream;
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 
+import org.eclipse.cdt.core.IAddress;
 import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.linuxtools.binutils.utils.ByteBufferDataInput;
 import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.linuxtools.internal.gprof.Messages;
-import org.eclipse.linuxtools.internal.gprof.utils.LEDataInputStream;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
 
 /**
@@ -45,6 +50,10 @@ public class GmonDecoder {
 
     public static final int GMONVERSION = 0x00051879;
 
+    /** Version of the gmon files written by {@link #write(File)}. */
+    private static final int GMON_WRITTEN_VERSION = 1;
+    private static final int GMON_HEADER_SIZE = 4 + 4 + 12;
+
     // header
     private String cookie;
     private int gmonVersion;
@@ -104,51 +113,77 @@ public class GmonDecoder {
      * @throws IOException
      */
     public void read(String file) throws IOException {
+        decode(file);
+        populate();
+    }
+
+    /**
+     * Decodes the given file, without resolving any symbol. This is safe to call from any thread; the results are
+     * made available through the root node by {@link #populate()}.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void decode(String file) throws IOException {
         this.file = file;
-        DataInputStream beStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
-        if (program.isLittleEndian()) {
-            try (LEDataInputStream leStream = new LEDataInputStream(beStream)) {
-                leStream.mark(1000);
-                boolean gmonType = readHeader(leStream);
-                if (gmonType)
-                    readGmonContent(leStream);
-                else {
-                    leStream.reset();
-                    histo.decodeOldHeader(leStream);
-                    histo.decodeHistRecord(leStream);
-                    try {
-                        do {
-                            this.callGraph.decodeCallGraphRecord(leStream, true);
-                        } while (true);
-                    } catch (EOFException e) {
-                        // normal. End of file reached.
-                    }
-                    this.callGraph.populate(rootNode);
-                    this.histo.assignSamplesSymbol();
-                }
-            }
+        ByteOrder order = program.isLittleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        ByteBufferDataInput stream = ByteBufferDataInput.map(new File(file), order);
+        boolean gmonType = readHeader(stream);
+        if (gmonType) {
+            readGmonContent(stream);
         } else {
+            stream.rewind();
+            histo.decodeOldHeader(stream);
+            histo.decodeHistRecord(stream);
             try {
-                beStream.mark(1000);
-                boolean gmonType = readHeader(beStream);
-                if (gmonType) {
-                    readGmonContent(beStream);
-                } else {
-                    beStream.reset();
-                    histo.decodeOldHeader(beStream);
-                    histo.decodeHistRecord(beStream);
-                    try {
-                        do {
-                            this.callGraph.decodeCallGraphRecord(beStream, true);
-                        } while (true);
-                    } catch (EOFException e) {
-                        // normal. End of file reached.
-                    }
-                    this.callGraph.populate(rootNode);
-                    this.histo.assignSamplesSymbol();
-                }
-            } finally {
-                beStream.close();
+                do {
+                    this.callGraph.decodeCallGraphRecord(stream, true);
+                } while (true);
+            } catch (EOFException e) {
+                // normal. End of file reached.
+            }
+        }
+    }
+
+    /**
+     * Adds the histogram and the call-graph arcs decoded by the given decoder to this one.
+     *
+     * @param other
+     *            a decoder of the same program, see {@link #decode(String)}
+     */
+    public void merge(GmonDecoder other) {
+        histo.merge(other.histo);
+        callGraph.merge(other.callGraph);
+    }
+
+    /**
+     * Resolves the symbols of the decoded histogram and call-graph arcs, and fills the root node.
+     */
+    public void populate() {
+        this.callGraph.populate(rootNode);
+        this.histo.assignSamplesSymbol();
+    }
+
+    /**
+     * Writes the decoded histogram and call-graph arcs to the given file, in the format of the gmon files written by
+     * gprof -s.
+     *
+     * @param output
+     * @throws IOException
+     */
+    public void write(File output) throws IOException {
+        ByteOrder order = program.isLittleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        int size = GMON_HEADER_SIZE + histo.getHistRecordSize() + callGraph.getCallGraphRecordsSize();
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(order);
+        buffer.put("gmon".getBytes()); //$NON-NLS-1$
+        buffer.putInt(GMON_WRITTEN_VERSION);
+        buffer.put(new byte[12]);
+        histo.writeHistRecord(buffer);
+        callGraph.writeCallGraphRecords(buffer);
+        buffer.flip();
+        try (FileOutputStream fos = new FileOutputStream(output); FileChannel channel = fos.getChannel()) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
             }
         }
     }
@@ -204,10 +239,6 @@ public class GmonDecoder {
             }
 
         } while (true);
-
-        this.callGraph.populate(rootNode);
-        this.histo.assignSamplesSymbol();
-
     }
 
     public void dumpGmonResult(PrintStream ps) {
@@ -275,6 +306,30 @@ public class GmonDecoder {
         return ret;
     }
 
+    /**
+     * Resolve the file names of the given symbols at once, for later calls to {@link #getFileName(ISymbol)}.
+     * @param symbols
+     */
+    public void resolveFileNames(Collection<ISymbol> symbols) {
+        List<ISymbol> unresolved = new ArrayList<>();
+        for (ISymbol s : symbols) {
+            if (!filenames.containsKey(s)) {
+                unresolved.add(s);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        IAddress[] addresses = new IAddress[unresolved.size()];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = unresolved.get(i).getAddress();
+        }
+        String[] names = STSymbolManager.sharedInstance.getFileNames(program, addresses, project);
+        for (int i = 0; i < names.length; i++) {
+            filenames.put(unresolved.get(i), names[i] == null ? "??" : names[i]); //$NON-NLS-1$
+        }
+    }
+
     public void setShouldDump(boolean shouldDump) {
         this.shouldDump = shouldDump;
     }
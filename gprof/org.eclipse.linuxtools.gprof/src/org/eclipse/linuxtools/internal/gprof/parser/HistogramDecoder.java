@@ -13,8 +13,17 @@ package org.eclipse.linuxtools.internal.gprof.parser;
 import java.io.DataInput;
 import java.io.IOException;
 import java.io.PrintStream;
-
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.eclipse.cdt.core.IAddress;
+import org.eclipse.cdt.core.IAddressFactory;
+import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
+import org.eclipse.linuxtools.binutils.utils.ByteBufferDataInput;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.linuxtools.internal.gprof.Messages;
 import org.eclipse.linuxtools.internal.gprof.symbolManager.Bucket;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
@@ -33,6 +42,9 @@ public class HistogramDecoder {
     private static final int GMON_HDRSIZE_OLDBSD_32 = (4 + 4 + 4) ;
     private static final int GMON_HDRSIZE_OLDBSD_64 = (8 + 8 + 4);
 
+    private static final int DIMEN_SIZE = 15;
+    private static final String DEFAULT_DIMEN = "seconds"; //$NON-NLS-1$
+
 
     /** the decoder */
     protected final GmonDecoder decoder;
@@ -44,6 +56,8 @@ public class HistogramDecoder {
     protected long highpc;
     /** Profiling clock rate */
     protected int profRate;
+    /** usually "seconds" */
+    protected byte[] dimen;
     /** usually 's' for seconds, 'm' for milliseconds... */
     protected char dimenAbbrev;
     /** used when aggregate several gmon files */
@@ -84,7 +98,7 @@ public class HistogramDecoder {
         long highpc       = readAddress(stream);
         int hist_num_bins = stream.readInt();
         int prof_rate     = stream.readInt();
-        byte[] bytes      = new byte[15];
+        byte[] bytes      = new byte[DIMEN_SIZE];
         stream.readFully(bytes);
         byte b            = stream.readByte();
 
@@ -96,6 +110,7 @@ public class HistogramDecoder {
         this.highpc    = highpc;
         this.profRate = prof_rate;
         hist_sample    = new int[hist_num_bins]; // Impl note: JVM sets all integers to 0
+        dimen          = bytes;
         dimenAbbrev   = (char) b;
         long temp = highpc - lowpc;
         bucketSize = Math.round(temp/(double)hist_num_bins);
@@ -145,6 +160,7 @@ public class HistogramDecoder {
         this.highpc    = highPC;
         this.profRate = profrate;
         hist_sample    = new int[histNumBins]; // Impl note: JVM sets all integers to 0
+        dimen          = null;
         dimenAbbrev   = 's';
         long temp = highpc - lowpc;
         bucketSize = Math.round(temp/(double)histNumBins);
@@ -177,6 +193,11 @@ public class HistogramDecoder {
      * @throws IOException if an IO error occurs
      */
     public void decodeHistRecord(DataInput stream) throws IOException {
+        if (stream instanceof ByteBufferDataInput) {
+            // bulk decoding
+            ((ByteBufferDataInput) stream).addUnsignedShorts(hist_sample);
+            return;
+        }
         for (int i = 0; i<hist_sample.length; i++) {
             short rv = stream.readShort();
             if (rv != 0) {
@@ -187,6 +208,78 @@ public class HistogramDecoder {
     }
 
 
+    /**
+     * Adds the histogram of the given decoder to this one.
+     * @param other a decoder of the same program
+     */
+    void merge(HistogramDecoder other) {
+        if (!other.hasValues()) {
+            return;
+        }
+        if (!hasValues()) {
+            this.lowpc       = other.lowpc;
+            this.highpc      = other.highpc;
+            this.profRate    = other.profRate;
+            this.hist_sample = other.hist_sample.clone();
+            this.dimen       = other.dimen;
+            this.dimenAbbrev = other.dimenAbbrev;
+            this.bucketSize  = other.bucketSize;
+            this.initialized = true;
+            return;
+        }
+        this.initialized = true;
+        if (!isCompatible(other.lowpc, other.highpc, other.profRate, other.hist_sample.length)) {
+            // TODO exception to normalize
+            throw new RuntimeException(Messages.HistogramDecoder_INCOMPATIBLE_HIST_HEADER_ERROR_MSG);
+        }
+        int[] samples = other.hist_sample;
+        for (int i = 0; i < samples.length; i++) {
+            hist_sample[i] += samples[i];
+        }
+    }
+
+    protected void writeAddress(ByteBuffer buffer, long address) {
+        buffer.putInt((int) address);
+    }
+
+    protected int getAddressSize() {
+        return 4;
+    }
+
+    /**
+     * @return the size of the histogram record, as written by {@link #writeHistRecord(ByteBuffer)}
+     */
+    int getHistRecordSize() {
+        if (!hasValues()) {
+            return 0;
+        }
+        return 1 + 2 * getAddressSize() + 4 + 4 + DIMEN_SIZE + 1 + 2 * hist_sample.length;
+    }
+
+    /**
+     * Writes the histogram record (if any), in the gmon file format.
+     * Samples which do not fit in a short are clamped, as gprof does.
+     * @param buffer
+     */
+    void writeHistRecord(ByteBuffer buffer) {
+        if (!hasValues()) {
+            return;
+        }
+        buffer.put((byte) GmonDecoder.VPF_GMON_RECORD_TYPE_HISTOGRAM);
+        writeAddress(buffer, lowpc);
+        writeAddress(buffer, highpc);
+        buffer.putInt(hist_sample.length);
+        buffer.putInt(profRate);
+        byte[] bytes = new byte[DIMEN_SIZE];
+        byte[] d = dimen != null ? dimen : DEFAULT_DIMEN.getBytes();
+        System.arraycopy(d, 0, bytes, 0, Math.min(d.length, DIMEN_SIZE));
+        buffer.put(bytes);
+        buffer.put((byte) dimenAbbrev);
+        for (int sample : hist_sample) {
+            buffer.putShort((short) Math.min(sample, 0xFFFF));
+        }
+    }
+
     /**
      * Print the histogram header, for debug usage.
      * @param ps a printstream (typically System.out)
@@ -235,8 +328,21 @@ public class HistogramDecoder {
     public void assignSamplesSymbol() {
         if (hist_sample == null || hist_sample.length == 0) return;
         ISymbol[] symblist = this.decoder.getProgram().getSymbols();
+        if (symblist.length < 2) {
+            /* no routine to assign the samples to, but they still count in the total time */
+            for (int ccnt : hist_sample) {
+                total_time += ccnt;
+            }
+            return;
+        }
+        /* sorted address index of the symbols */
+        long[] svalues = new long[symblist.length];
+        for (int k = 0; k < symblist.length; k++) {
+            svalues[k] = symblist[k].getAddress().getValue().longValue();
+        }
+        List<Bucket> buckets = new ArrayList<>();
+        List<ISymbol> bucketSymbols = new ArrayList<>();
         /* read samples and assign to namelist symbols */
-        int j = 1;
         for (int i = 0; i < hist_sample.length; i++)
         {
             int ccnt = hist_sample[i];
@@ -245,12 +351,11 @@ public class HistogramDecoder {
                 long pcl = lowpc + (bucketSize*i);
                 long pch = pcl+bucketSize;
                 total_time += ccnt;
-                long svalue0;
-                long svalue1 = symblist[j-1].getAddress().getValue().longValue();
-                for (j = j-1; j < symblist.length - 1; j++)
+                /* routines ending before the low end of tick are skipped */
+                for (int j = findFirstSymbol(svalues, pcl); j < symblist.length - 1; j++)
                 {
-                    svalue0 = svalue1;
-                    svalue1 = symblist[j+1].getAddress().getValue().longValue();
+                    long svalue0 = svalues[j];
+                    long svalue1 = svalues[j+1];
                     /* if high end of tick is below entry address,
                      * go for next tick. */
                     if(pch < svalue0) {
@@ -266,17 +371,55 @@ public class HistogramDecoder {
                             ISymbol symbol = symblist[j];
                             int time = (int) ((overlap * ccnt) / bucketSize);
                             Bucket   bck = new Bucket(start_addr, end_addr, time);
-                            addBucket(bck,symbol);
+                            buckets.add(bck);
+                            bucketSymbols.add(symbol);
                         }
                     }
                 }
             }
         }
+        addBuckets(buckets, bucketSymbols);
     }
 
-    private void addBucket(Bucket b, ISymbol s) {
+    /**
+     * Binary search of the first routine which may overlap a tick.
+     * @param svalues sorted symbol addresses
+     * @param pcl low end of the tick
+     * @return the index of the last symbol whose successor starts after pcl, or 0
+     */
+    private static int findFirstSymbol(long[] svalues, long pcl) {
+        // find the first k >= 1 such that svalues[k] > pcl
+        int low = 1;
+        int high = svalues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (svalues[mid] > pcl) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Add the buckets to the tree, resolving their source lines and files in batches.
+     * @param buckets
+     * @param symbols the symbol of each bucket
+     */
+    private void addBuckets(List<Bucket> buckets, List<ISymbol> symbols) {
+        IBinaryObject program = decoder.getProgram();
+        IAddressFactory addressFactory = program.getAddressFactory();
+        IAddress[] addresses = new IAddress[buckets.size()];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = addressFactory.createAddress(String.valueOf(buckets.get(i).startAddr));
+        }
+        int[] lineNumbers = STSymbolManager.sharedInstance.getLineNumbers(program, addresses, decoder.getProject());
+        decoder.resolveFileNames(new LinkedHashSet<>(symbols));
         HistRoot root = this.decoder.getRootNode();
-        root.addBucket(b, s, decoder.getProgram());
+        for (int i = 0; i < lineNumbers.length; i++) {
+            root.addBucket(buckets.get(i), symbols.get(i), lineNumbers[i]);
+        }
     }
 
     /**
@@ -12,6 +12,7 @@ package org.eclipse.linuxtools.internal.gprof.parser;
 
 import java.io.DataInput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class HistogramDecoder64 extends HistogramDecoder {
 
@@ -24,5 +25,15 @@ public class HistogramDecoder64 extends HistogramDecoder {
         return stream.readLong();
     }
 
+    @Override
+    protected void writeAddress(ByteBuffer buffer, long address) {
+        buffer.putLong(address);
+    }
+
+    @Override
+    protected int getAddressSize() {
+        return 8;
+    }
+
 
 }
@@ -51,11 +51,31 @@ public class CallGraphArc {
      */
     public CallGraphArc(CallGraphNode parent, IAddress parentAddress, CallGraphNode child, int count,
             IBinaryObject program, IProject project) {
+        this(parent, STSymbolManager.sharedInstance.getFileName(program, parentAddress, project),
+                STSymbolManager.sharedInstance.getLineNumber(program, parentAddress, project), child, count, project);
+    }
+
+    /**
+     * Constructor, for an already resolved location of the function call
+     *
+     * @param parent
+     *            the caller node
+     * @param parentPath
+     *            the source path of the function call
+     * @param parentLine
+     *            the line number of the function call
+     * @param child
+     *            the callee node
+     * @param count
+     *            how many function calls have been performed
+     */
+    public CallGraphArc(CallGraphNode parent, String parentPath, int parentLine, CallGraphNode child, int count,
+            IProject project) {
         this.parent = parent;
         this.child = child;
         this.count = count;
-        this.parentPath = STSymbolManager.sharedInstance.getFileName(program, parentAddress, project);
-        this.parentLine = STSymbolManager.sharedInstance.getLineNumber(program, parentAddress, project);
+        this.parentPath = parentPath;
+        this.parentLine = parentLine;
         this.project = project;
     }
 
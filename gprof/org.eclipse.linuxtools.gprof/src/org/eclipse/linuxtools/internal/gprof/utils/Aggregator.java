@@ -13,11 +13,22 @@ package org.eclipse.linuxtools.internal.gprof.utils;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.utils.spawner.ProcessFactory;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.linuxtools.internal.gprof.Messages;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
 import org.eclipse.ui.PlatformUI;
 
 /**
@@ -28,7 +39,8 @@ import org.eclipse.ui.PlatformUI;
 public class Aggregator {
 
     /**
-     * Aggregates the given gmon files in the given directory
+     * Aggregates the given gmon files in the given directory. The gmon files are decoded and merged in process; gprof
+     * is only used when the binary can not be parsed.
      *
      * @param gprof2use
      *            typically gprof, but can be something else (cross-development tools like sh4gprof, st200gprof, ...)
@@ -38,6 +50,116 @@ public class Aggregator {
      * @return the location of generated gmon.sum
      */
     public static File aggregate(String gprof2use, String binaryFile, java.util.List<String> gmons, File directory) {
+        File ret = new File(directory, "gmon.sum"); //$NON-NLS-1$
+        String errorMessage = null;
+        IBinaryObject program = getBinaryObject(binaryFile);
+        if (program == null) {
+            errorMessage = aggregateWithGprof(gprof2use, binaryFile, gmons, directory);
+        } else {
+            try {
+                decodeAndMerge(program, null, gmons).write(ret);
+            } catch (IOException|RuntimeException e) {
+                errorMessage = Messages.Aggregator_ERROR_COMMON_PREFIX;
+                errorMessage += e.getMessage();
+            }
+        }
+        if (!ret.isFile() && errorMessage == null) {
+            errorMessage = Messages.Aggregator_ERROR_COMMON_PREFIX;
+            errorMessage += ret.getName();
+            errorMessage += Messages.Aggregator_NOT_FOUND;
+        }
+
+        if (errorMessage != null) {
+            final String finalErrorMessage = errorMessage;
+            PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    MessageDialog.openError(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(),
+                            Messages.Aggregator_GPROF_ERROR, finalErrorMessage);
+                }
+            });
+            return null;
+        }
+        return ret;
+    }
+
+    /**
+     * Aggregates the given gmon files in process: they are decoded in parallel, then their histograms and call-graph
+     * arcs are merged, in the given order.
+     *
+     * @param program
+     * @param project
+     * @param gmons
+     * @param sumFile
+     *            if not null, a gmon.sum compatible file is written there
+     * @return a decoder whose root node holds the aggregated results
+     * @throws IOException
+     *             if a gmon file can not be read, or if the sum file can not be written
+     */
+    public static GmonDecoder aggregate(IBinaryObject program, IProject project, List<String> gmons, File sumFile)
+            throws IOException {
+        GmonDecoder decoder = decodeAndMerge(program, project, gmons);
+        if (sumFile != null) {
+            decoder.write(sumFile);
+        }
+        decoder.populate();
+        return decoder;
+    }
+
+    private static IBinaryObject getBinaryObject(String binaryFile) {
+        IBinaryObject binary = STSymbolManager.sharedInstance.getBinaryObject(binaryFile);
+        if (binary != null && "ppc64".equals(binary.getCPU())) { //$NON-NLS-1$
+            binary = new PPC64ElfBinaryObjectWrapper(binary.getBinaryParser(), binary.getPath(), binary.getType());
+        }
+        return binary;
+    }
+
+    private static GmonDecoder decodeAndMerge(IBinaryObject program, IProject project, List<String> gmons)
+            throws IOException {
+        // decoders are created on the calling thread, as they query the binary
+        List<GmonFileDecoder> decoders = new ArrayList<>(gmons.size());
+        for (String gmon : gmons) {
+            decoders.add(new GmonFileDecoder(new GmonDecoder(program, project), gmon));
+        }
+        if (decoders.isEmpty()) {
+            return new GmonDecoder(program, project);
+        }
+        if (decoders.size() == 1) {
+            return decoders.get(0).call();
+        }
+        GmonDecoder result = null;
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            for (Future<GmonDecoder> future : pool.invokeAll(decoders)) {
+                GmonDecoder decoder = future.get();
+                if (result == null) {
+                    result = decoder;
+                } else {
+                    result.merge(decoder);
+                }
+            }
+        } catch (InterruptedException e) {
+            // let the caller see the interruption as well
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    private static String aggregateWithGprof(String gprof2use, String binaryFile, List<String> gmons,
+            File directory) {
         String[] cmd = new String[gmons.size() + 3];
         cmd[0] = gprof2use;
         cmd[1] = "-s"; //$NON-NLS-1$
@@ -61,25 +183,24 @@ public class Aggregator {
             errorMessage = Messages.Aggregator_ERROR_COMMON_PREFIX;
             errorMessage += _.getMessage();
         }
-        File ret = new File(directory, "gmon.sum"); //$NON-NLS-1$
-        if (!ret.isFile() && errorMessage == null) {
-            errorMessage = Messages.Aggregator_ERROR_COMMON_PREFIX;
-            errorMessage += ret.getName();
-            errorMessage += Messages.Aggregator_NOT_FOUND;
+        return errorMessage;
+    }
+
+    private static final class GmonFileDecoder implements Callable<GmonDecoder> {
+
+        private final GmonDecoder decoder;
+        private final String gmon;
+
+        GmonFileDecoder(GmonDecoder decoder, String gmon) {
+            this.decoder = decoder;
+            this.gmon = gmon;
         }
 
-        if (errorMessage != null) {
-            final String finalErrorMessage = errorMessage;
-            PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
-                @Override
-                public void run() {
-                    MessageDialog.openError(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(),
-                            Messages.Aggregator_GPROF_ERROR, finalErrorMessage);
-                }
-            });
-            return null;
+        @Override
+        public GmonDecoder call() throws IOException {
+            decoder.decode(gmon);
+            return decoder;
         }
-        return ret;
     }
 
     final static class ProcessReader extends Thread {
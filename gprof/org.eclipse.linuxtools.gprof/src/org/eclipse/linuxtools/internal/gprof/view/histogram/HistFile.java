@@ -12,7 +12,6 @@ package org.eclipse.linuxtools.internal.gprof.view.histogram;
 
 import java.util.LinkedList;
 
-import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.linuxtools.internal.gprof.symbolManager.Bucket;
@@ -57,9 +56,9 @@ public class HistFile extends AbstractTreeElement {
         return f;
     }
 
-    void addBucket(Bucket b, ISymbol s, IBinaryObject program) {
+    void addBucket(Bucket b, ISymbol s, int lineNumber) {
         HistFunction hf = getChild(s);
-        hf.addBucket(b, program);
+        hf.addBucket(b, lineNumber);
     }
 
     void addCallGraphNode(CallGraphNode node) {
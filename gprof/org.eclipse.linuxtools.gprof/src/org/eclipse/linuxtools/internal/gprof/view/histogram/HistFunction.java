@@ -13,8 +13,6 @@ package org.eclipse.linuxtools.internal.gprof.view.histogram;
 import java.util.HashMap;
 import java.util.LinkedList;
 
-import org.eclipse.cdt.core.IAddress;
-import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
@@ -66,10 +64,7 @@ public class HistFunction extends AbstractTreeElement {
     }
 
 
-    void addBucket(Bucket b, IBinaryObject program) {
-        int lineNumber = -1;
-        IAddress address = program.getAddressFactory().createAddress(String.valueOf(b.startAddr));
-        lineNumber = STSymbolManager.sharedInstance.getLineNumber(program, address, getProject());
+    void addBucket(Bucket b, int lineNumber) {
         HistLine hf = getChild(lineNumber);
         hf.addBucket(b);
         histSym.put(symbol, b.time + histSym.get(symbol));
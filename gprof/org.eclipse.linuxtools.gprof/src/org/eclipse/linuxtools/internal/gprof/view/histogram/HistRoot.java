@@ -12,7 +12,6 @@ package org.eclipse.linuxtools.internal.gprof.view.histogram;
 
 import java.util.LinkedList;
 
-import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.linuxtools.internal.gprof.Messages;
@@ -60,12 +59,12 @@ public class HistRoot extends AbstractTreeElement {
      * Add a bucket to the tree representation of the gmon file
      * @param b a bucket
      * @param s a symbol (the bucket belong to this symbol)
-     * @param program the program
+     * @param lineNumber the line number of the start address of the bucket
      */
-    public void addBucket(Bucket b, ISymbol s, IBinaryObject program) {
+    public void addBucket(Bucket b, ISymbol s, int lineNumber) {
         String path = decoder.getFileName(s);
         HistFile hf = getChild(path);
-        hf.addBucket(b, s, program);
+        hf.addBucket(b, s, lineNumber);
     }
 
     /**
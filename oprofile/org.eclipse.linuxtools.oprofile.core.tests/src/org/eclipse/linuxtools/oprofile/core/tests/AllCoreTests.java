@@ -17,6 +17,6 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({ TestModelDataParse.class, TestModelDataPreParse.class,
         TestSessionsParse.class, TestCheckEventsParse.class,
         TestCheckEventsPreParse.class, TestInfoPreParse.class,
-        TestInfoParse.class, TestDataModel.class })
+        TestInfoParse.class, TestDataModel.class, TestSessionStore.class })
 public class AllCoreTests {
 }
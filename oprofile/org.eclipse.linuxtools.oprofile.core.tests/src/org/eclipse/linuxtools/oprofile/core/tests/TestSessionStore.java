@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.oprofile.core.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.nio.file.Files;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelImage;
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelSymbol;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.OprofileSAXHandler;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.modeldata.ModelDataProcessor;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionStore;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionStore.SymbolCount;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.FrameworkUtil;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+public class TestSessionStore {
+    private static final String REL_PATH_TO_TEST_XML = "resources/test_model-data.xml"; //$NON-NLS-1$
+    private static final String EVENT = "CPU_CLK_UNHALTED"; //$NON-NLS-1$
+    private static final String SESSION1 = "session1"; //$NON-NLS-1$
+    private static final String SESSION2 = "session2"; //$NON-NLS-1$
+
+    private File directory;
+    private OpModelImage image;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("oprofile-store").toFile(); //$NON-NLS-1$
+
+        image = new OpModelImage();
+        OprofileSAXHandler handler = OprofileSAXHandler.getInstance(new ModelDataProcessor.CallData(image));
+        XMLReader reader = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
+        reader.setContentHandler(handler);
+        reader.setErrorHandler(handler);
+        String filePath = FileLocator.toFileURL(FileLocator.find(FrameworkUtil.getBundle(this.getClass()), new Path(REL_PATH_TO_TEST_XML), null)).getFile();
+        try (FileReader fr = new FileReader(filePath)) {
+            reader.parse(new InputSource(fr));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        new SessionStore(directory).store(EVENT, SESSION1, image);
+
+        // a new store has to read the file back
+        OpModelImage loaded = new OpModelImage();
+        assertTrue(new SessionStore(directory).load(EVENT, SESSION1, loaded));
+        assertEquals(image.toString(), loaded.toString());
+        assertEquals(image.getDepCount(), loaded.getDepCount());
+        assertNull(loaded.getDependents()[0].getSymbols());
+
+        assertFalse(new SessionStore(directory).load(EVENT, SESSION2, new OpModelImage()));
+    }
+
+    @Test
+    public void testCopyAndRemove() throws Exception {
+        SessionStore store = new SessionStore(directory);
+        store.store(EVENT, SESSION1, image);
+        assertTrue(store.copy(EVENT, SESSION1, SESSION2));
+        store.remove(EVENT, SESSION1);
+
+        assertFalse(store.load(EVENT, SESSION1, new OpModelImage()));
+        OpModelImage loaded = new OpModelImage();
+        assertTrue(new SessionStore(directory).load(EVENT, SESSION2, loaded));
+        assertEquals(image.toString(), loaded.toString());
+    }
+
+    @Test
+    public void testSymbolCounts() throws Exception {
+        SessionStore store = new SessionStore(directory);
+        store.store(EVENT, SESSION1, image);
+
+        // the second session only has the first symbol
+        OpModelImage other = new OpModelImage();
+        other.setName(image.getName());
+        other.setCount(image.getSymbols()[0].getCount());
+        other.setSymbols(new OpModelSymbol[] { image.getSymbols()[0] });
+        store.store(EVENT, SESSION2, other);
+
+        store = new SessionStore(directory);
+        String[] sessions = new String[] { SESSION1, SESSION2, "missing" }; //$NON-NLS-1$
+        assertArrayEquals(new long[] { 180000, 180000, 0 },
+                store.getSymbolCounts(EVENT, sessions, "TestFunction1(int)")); //$NON-NLS-1$
+        assertArrayEquals(new long[] { 20000, 0, 0 },
+                store.getSymbolCounts(EVENT, sessions, "TestFunction2(int, int)")); //$NON-NLS-1$
+        assertArrayEquals(new long[] { 299, 0, 0 },
+                store.getSymbolCounts(EVENT, sessions, "do_lookup_x")); //$NON-NLS-1$
+
+        SymbolCount[] top = store.getTopSymbols(EVENT, sessions, 2);
+        assertEquals(2, top.length);
+        assertEquals("TestFunction1(int)", top[0].getName()); //$NON-NLS-1$
+        assertEquals(360000, top[0].getCount());
+        assertEquals("TestFunction2(int, int)", top[1].getName()); //$NON-NLS-1$
+        assertEquals(20000, top[1].getCount());
+    }
+
+    @Test
+    public void testCacheEviction() throws Exception {
+        SessionStore store = new SessionStore(directory, 1);
+        store.store(EVENT, SESSION1, image);
+        store.store(EVENT, SESSION2, image);
+        assertTrue(new File(directory, EVENT + "@" + SESSION1 + ".dat").delete()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertTrue(new File(directory, EVENT + "@" + SESSION2 + ".dat").delete()); //$NON-NLS-1$ //$NON-NLS-2$
+
+        // only the most recently used session is still in memory
+        assertTrue(store.load(EVENT, SESSION2, new OpModelImage()));
+        assertFalse(store.load(EVENT, SESSION1, new OpModelImage()));
+    }
+}
\ No newline at end of file
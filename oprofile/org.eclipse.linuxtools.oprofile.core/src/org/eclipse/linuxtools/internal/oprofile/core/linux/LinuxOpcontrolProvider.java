@@ -30,6 +30,7 @@ import org.eclipse.linuxtools.internal.oprofile.core.OprofileCorePlugin;
 import org.eclipse.linuxtools.internal.oprofile.core.daemon.OprofileDaemonEvent;
 import org.eclipse.linuxtools.internal.oprofile.core.daemon.OprofileDaemonOptions;
 import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionManager;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionStore;
 import org.eclipse.linuxtools.tools.launch.core.factory.RuntimeProcessFactory;
 import org.eclipse.linuxtools.tools.launch.core.properties.LinuxtoolsPathProperty;
 
@@ -155,16 +156,13 @@ public class LinuxOpcontrolProvider implements IOpcontrolProvider {
             sessMan = new SessionManager(SessionManager.SESSION_LOCATION);
             for (String event : sessMan.getSessionEvents(SessionManager.CURRENT)){
                 sessMan.addSession(name, event);
-                String oldFile = SessionManager.OPXML_PREFIX + SessionManager.MODEL_DATA + event + SessionManager.CURRENT;
-                String newFile = SessionManager.OPXML_PREFIX + SessionManager.MODEL_DATA + event + name;
-                Process p = Runtime.getRuntime().exec("cp " + oldFile + " " + newFile);
-                p.waitFor();
+                SessionStore.getDefault().copy(event, SessionManager.CURRENT, name);
             }
             sessMan.write();
         } catch (FileNotFoundException e) {
             //intentionally blank
             //during a save, the session file will exist
-        } catch (IOException|InterruptedException e) {
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
@@ -177,6 +175,8 @@ public class LinuxOpcontrolProvider implements IOpcontrolProvider {
      */
     @Override
     public void deleteSession (String sessionName, String eventName) throws OpcontrolException {
+        SessionStore.getDefault().remove(eventName, sessionName);
+        // sessions saved by earlier versions
         File file = new File (SessionManager.OPXML_PREFIX + SessionManager.MODEL_DATA + eventName + sessionName);
         file.delete();
         SessionManager sessMan = new SessionManager(SessionManager.SESSION_LOCATION);
@@ -12,11 +12,9 @@
 package org.eclipse.linuxtools.internal.oprofile.core.linux;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -36,12 +34,15 @@ import org.eclipse.linuxtools.internal.oprofile.core.Oprofile;
 import org.eclipse.linuxtools.internal.oprofile.core.Oprofile.OprofileProject;
 import org.eclipse.linuxtools.internal.oprofile.core.OprofileCorePlugin;
 import org.eclipse.linuxtools.internal.oprofile.core.OprofileProperties;
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelImage;
 import org.eclipse.linuxtools.internal.oprofile.core.opxml.AbstractDataAdapter;
 import org.eclipse.linuxtools.internal.oprofile.core.opxml.OprofileSAXHandler;
 import org.eclipse.linuxtools.internal.oprofile.core.opxml.checkevent.CheckEventAdapter;
 import org.eclipse.linuxtools.internal.oprofile.core.opxml.info.InfoAdapter;
-import org.eclipse.linuxtools.internal.oprofile.core.opxml.modeldata.ModelDataAdapter;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.modeldata.ModelDataHandler;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.modeldata.ModelDataProcessor;
 import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionManager;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionStore;
 import org.eclipse.linuxtools.profiling.launch.IRemoteFileProxy;
 import org.eclipse.linuxtools.profiling.launch.RemoteProxyManager;
 import org.eclipse.linuxtools.tools.launch.core.factory.RuntimeProcessFactory;
@@ -98,6 +99,8 @@ public class OpxmlRunner {
                 sessManNew.write();
                 FileReader fr = new FileReader(file);
                 reader.parse(new InputSource(fr));
+            } else if (args[0].equals(ModelDataHandler.MODEL_DATA)){
+                return runModelData(args, callData, reader);
             // file has not been saved
             } else if (! file.exists()){
                 AbstractDataAdapter aea;
@@ -111,26 +114,10 @@ public class OpxmlRunner {
                     aea.process();
                     BufferedReader bi = new BufferedReader(new InputStreamReader(aea.getInputStream()));
                     reader.parse(new InputSource(bi));
-                }else if (args[0].equals(ModelDataAdapter.MODEL_DATA)){
-                    // this should only happen initially when the current session
-                    // has not been generated
-                    if (! handleModelData(args)){
-                        return false;
-                    }
-                    FileReader fr = new FileReader(file);
-                    reader.parse(new InputSource(fr));
                 }else{
                     throw new RuntimeException("Unrecognized argument encountered"); //$NON-NLS-1$
                 }
             }else{
-                // always regenerate the 'current' session file
-                if (args.length == 3
-                        && args[0].equals(SessionManager.MODEL_DATA)
-                        && args[2].equals(SessionManager.CURRENT)){
-                    if (! handleModelData(args)){
-                        return false;
-                    }
-                }
                 FileReader fr = new FileReader(file);
                 reader.parse(new InputSource(fr));
             }
@@ -146,27 +133,6 @@ public class OpxmlRunner {
         return false;
     }
 
-    private File saveOpxmlToFile(BufferedReader bi, String [] args) {
-        String fileName = ""; //$NON-NLS-1$
-        for (String arg: args){
-            fileName += arg;
-        }
-        File file = new File(SessionManager.OPXML_PREFIX + fileName);
-        String line;
-        try {
-            file.createNewFile();
-            BufferedWriter bw = new BufferedWriter(new FileWriter(file));
-            while ((line = bi.readLine()) != null){
-                bw.write(line + "\n"); //$NON-NLS-1$
-            }
-            bi.close();
-            bw.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return file;
-    }
-
     private File constructFile(String [] args){
         String fileName = ""; //$NON-NLS-1$
         for (int i = 0; i < args.length; i++){
@@ -175,7 +141,48 @@ public class OpxmlRunner {
         return new File (SessionManager.OPXML_PREFIX + fileName);
     }
 
-    private boolean handleModelData (String [] args){
+    /**
+     * Fill the image of the call data with the model data of a session.
+     * Saved sessions are loaded from the session store, and only the
+     * 'current' session is regenerated from the output of opreport.
+     * @param args the arguments to opxml: model-data, event and session
+     * @param callData the call data holding the image to fill
+     * @param reader the reader for session files of earlier versions
+     * @return boolean indicating the success/failure of the loading
+     */
+    private boolean runModelData(String[] args, Object callData, XMLReader reader) throws SAXException, IOException {
+        String eventName = args[1];
+        String sessionName = args[2];
+        OpModelImage image = ((ModelDataProcessor.CallData) callData).opModelImage;
+        SessionStore store = SessionStore.getDefault();
+
+        // always regenerate the 'current' session
+        if (!sessionName.equals(SessionManager.CURRENT)) {
+            if (store.load(eventName, sessionName, image)) {
+                return true;
+            }
+            File file = constructFile(args);
+            if (file.exists()) {
+                // a session saved as XML, move it to the store
+                try (FileReader fr = new FileReader(file)) {
+                    reader.parse(new InputSource(fr));
+                }
+                storeModelData(eventName, sessionName, image);
+                return true;
+            }
+        }
+        return handleModelData(args, image);
+    }
+
+    /**
+     * Run opreport for the model data and build the image from its output
+     * in a single pass. The image is then added to the session store, so
+     * that it does not need to be generated again.
+     * @param args the arguments to opxml
+     * @param image the image to fill
+     * @return boolean indicating the success/failure of the parsing
+     */
+    private boolean handleModelData (String [] args, OpModelImage image){
         ArrayList<String> cmd = new ArrayList<>();
         cmd.add("-Xdg"); //$NON-NLS-1$
         if (!InfoAdapter.hasTimerSupport()){
@@ -187,16 +194,29 @@ public class OpxmlRunner {
         if (is == null){
             return false;
         }
-        ModelDataAdapter mda = new ModelDataAdapter(is);
-        if (! mda.isParseable()){
+        ModelDataHandler handler = new ModelDataHandler(image);
+        try {
+            XMLReader reader = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
+            reader.setContentHandler(handler);
+            reader.parse(new InputSource(is));
+        } catch (IOException|SAXException|ParserConfigurationException e) {
+            return false;
+        }
+        if (! handler.hasImage()){
             return false;
         }
-        mda.process();
-        BufferedReader bi = new BufferedReader(new InputStreamReader(mda.getInputStream()));
-        saveOpxmlToFile(bi, args);
+        storeModelData(args[1], args[2], image);
         return true;
     }
 
+    private void storeModelData(String eventName, String sessionName, OpModelImage image) {
+        try {
+            SessionStore.getDefault().store(eventName, sessionName, image);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Add the current session to the session manager for each event
      * that it was profiled under.
@@ -223,21 +243,21 @@ public class OpxmlRunner {
                 DocumentBuilder builder;
                 builder = factory.newDocumentBuilder();
                 Document doc = builder.parse(is);
-                Element root = (Element) doc.getElementsByTagName(ModelDataAdapter.PROFILE).item(0);
+                Element root = (Element) doc.getElementsByTagName(ModelDataHandler.PROFILE).item(0);
 
                 String eventOrTimerSetup;
                 String eventOrTimerName;
 
                 // Determine if we are in timer-mode or not as the XML will vary
                 if (!InfoAdapter.hasTimerSupport()){
-                    eventOrTimerSetup = ModelDataAdapter.EVENT_SETUP;
-                    eventOrTimerName = ModelDataAdapter.EVENT_NAME;
+                    eventOrTimerSetup = ModelDataHandler.EVENT_SETUP;
+                    eventOrTimerName = ModelDataHandler.EVENT_NAME;
                 }else{
-                    eventOrTimerSetup = ModelDataAdapter.TIMER_SETUP;
-                    eventOrTimerName = ModelDataAdapter.RTC_INTERRUPTS;
+                    eventOrTimerSetup = ModelDataHandler.TIMER_SETUP;
+                    eventOrTimerName = ModelDataHandler.RTC_INTERRUPTS;
                 }
 
-                Element setupTag = (Element) root.getElementsByTagName(ModelDataAdapter.SETUP).item(0);
+                Element setupTag = (Element) root.getElementsByTagName(ModelDataHandler.SETUP).item(0);
                 NodeList eventSetupList = setupTag.getElementsByTagName(eventOrTimerSetup);
 
                 // get the event names for the current session
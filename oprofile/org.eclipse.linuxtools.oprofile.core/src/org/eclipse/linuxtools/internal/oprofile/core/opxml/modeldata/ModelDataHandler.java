@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2010, 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.oprofile.core.opxml.modeldata;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelImage;
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelSample;
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelSymbol;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * This class takes the XML that is output from 'opreport -X --details' for
+ * the current session and builds the model of the profiled image from it in
+ * a single pass, without holding the document in memory.
+ *
+ * The symbol names and the per-line samples only appear in the symbol and
+ * detail tables at the end of the report, so the symbols of each image are
+ * kept as references until the document has been read.
+ */
+public class ModelDataHandler extends DefaultHandler {
+
+    public final static String ID = "id"; //$NON-NLS-1$
+    public final static String IDREF = "idref"; //$NON-NLS-1$
+    public final static String NAME = "name"; //$NON-NLS-1$
+    public final static String COUNT = "count"; //$NON-NLS-1$
+    public final static String SAMPLE = "sample"; //$NON-NLS-1$
+    public final static String LINE = "line"; //$NON-NLS-1$
+
+    public final static String SYMBOL_DATA = "symboldata"; //$NON-NLS-1$
+    public final static String SYMBOL_DETAILS = "symboldetails"; //$NON-NLS-1$
+    public final static String SYMBOL = "symbol"; //$NON-NLS-1$
+
+    public final static String FILE = "file"; //$NON-NLS-1$
+
+    public final static String SETUP = "setup"; //$NON-NLS-1$
+    public final static String EVENT_SETUP = "eventsetup"; //$NON-NLS-1$
+    public final static String TIMER_SETUP = "timersetup"; //$NON-NLS-1$
+    public final static String SETUP_COUNT = "setupcount"; //$NON-NLS-1$
+    public final static String EVENT_NAME = "eventname"; //$NON-NLS-1$
+    public final static String RTC_INTERRUPTS = "rtcinterrupts"; //$NON-NLS-1$
+
+    public final static String PROFILE = "profile"; //$NON-NLS-1$
+    public final static String MODEL_DATA = "model-data"; //$NON-NLS-1$
+
+    public final static String MODULE = "module"; //$NON-NLS-1$
+    public final static String DEPENDENT = "dependent"; //$NON-NLS-1$
+
+    public final static String BINARY = "binary"; //$NON-NLS-1$
+    public final static String IMAGE = "image"; //$NON-NLS-1$
+
+    public final static String SYMBOLS = "symbols"; //$NON-NLS-1$
+    public final static String SYMBOL_TABLE = "symboltable"; //$NON-NLS-1$
+    public final static String DETAIL_TABLE = "detailtable"; //$NON-NLS-1$
+
+    public final static String DETAIL_DATA = "detaildata"; //$NON-NLS-1$
+
+    private static final String UNKNOWN_FILE = "??"; //$NON-NLS-1$
+    private static final String UNKNOWN_LINE = "0"; //$NON-NLS-1$
+
+    // the image being built
+    private final OpModelImage image;
+
+    // the first binary and its modules, in document order
+    private final ArrayList<ImageData> images = new ArrayList<>();
+    // symboldata entries by id
+    private final HashMap<String, SymbolData> symbolData = new HashMap<>();
+    // the samples of each symbol by id, merged by line
+    private final HashMap<String, LinkedHashMap<String, SampleData>> symbolDetails = new HashMap<>();
+
+    // names of the currently open elements
+    private final ArrayDeque<String> elements = new ArrayDeque<>();
+    private final StringBuilder characters = new StringBuilder();
+
+    private int binaries;
+    private ImageData currentImage;
+    private SymbolRef currentSymbol;
+    private LinkedHashMap<String, SampleData> currentDetails;
+    private SampleData currentSample;
+
+    private static class ImageData {
+        String name;
+        int count = -1;
+        ImageData parent;
+        ArrayList<SymbolRef> symbols = new ArrayList<>();
+    }
+
+    private static class SymbolRef {
+        String idref;
+        int count = -1;
+    }
+
+    private static class SymbolData {
+        String name;
+        String file;
+        String line;
+    }
+
+    private static class SampleData {
+        String file;
+        String line;
+        int count;
+    }
+
+    /**
+     * @param image the image to fill with the data of the report
+     */
+    public ModelDataHandler(OpModelImage image) {
+        this.image = image;
+    }
+
+    /**
+     * @return whether the report contained a binary, and the image has
+     *         been filled in
+     */
+    public boolean hasImage() {
+        return !images.isEmpty();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attrs) {
+        String parent = elements.peek();
+        elements.push(qName);
+        characters.setLength(0);
+
+        if (qName.equals(BINARY)) {
+            // only the first binary is shown, as the old transformation did
+            binaries++;
+            if (binaries == 1) {
+                currentImage = newImage(attrs);
+            }
+        } else if (qName.equals(MODULE)) {
+            if (currentImage != null) {
+                currentImage = newImage(attrs);
+            }
+        } else if (qName.equals(SYMBOL)) {
+            // library symbols are listed under their module only
+            if (currentImage != null && (BINARY.equals(parent) || MODULE.equals(parent))) {
+                currentSymbol = new SymbolRef();
+                currentSymbol.idref = attrs.getValue(IDREF);
+                currentImage.symbols.add(currentSymbol);
+            }
+        } else if (qName.equals(SYMBOL_DATA)) {
+            SymbolData data = new SymbolData();
+            data.name = attrs.getValue(NAME);
+            data.file = valueOrDefault(attrs.getValue(FILE), UNKNOWN_FILE);
+            data.line = valueOrDefault(attrs.getValue(LINE), UNKNOWN_LINE);
+            symbolData.put(attrs.getValue(ID), data);
+        } else if (qName.equals(SYMBOL_DETAILS)) {
+            currentDetails = new LinkedHashMap<>();
+            symbolDetails.put(attrs.getValue(ID), currentDetails);
+        } else if (qName.equals(DETAIL_DATA)) {
+            currentSample = new SampleData();
+            currentSample.file = valueOrDefault(attrs.getValue(FILE), ""); //$NON-NLS-1$
+            currentSample.line = valueOrDefault(attrs.getValue(LINE), ""); //$NON-NLS-1$
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        elements.pop();
+        String parent = elements.peek();
+
+        if (qName.equals(COUNT)) {
+            int count = Integer.parseInt(characters.toString().trim());
+            // only the first count of an element is used
+            if (BINARY.equals(parent) || MODULE.equals(parent)) {
+                if (currentImage != null && currentImage.count < 0) {
+                    currentImage.count = count;
+                }
+            } else if (SYMBOL.equals(parent)) {
+                if (currentSymbol != null && currentSymbol.count < 0) {
+                    currentSymbol.count = count;
+                }
+            } else if (DETAIL_DATA.equals(parent)) {
+                if (currentSample != null) {
+                    currentSample.count = count;
+                    addSample(currentSample);
+                    currentSample = null;
+                }
+            }
+        } else if (qName.equals(BINARY)) {
+            currentImage = null;
+        } else if (qName.equals(MODULE)) {
+            if (currentImage != null) {
+                currentImage = currentImage.parent;
+            }
+        } else if (qName.equals(SYMBOL)) {
+            currentSymbol = null;
+        } else if (qName.equals(SYMBOL_DETAILS)) {
+            currentDetails = null;
+        }
+        characters.setLength(0);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        characters.append(ch, start, length);
+    }
+
+    @Override
+    public void endDocument() {
+        if (images.isEmpty()) {
+            return;
+        }
+
+        ImageData binary = images.get(0);
+        image.setName(binary.name);
+        image.setCount(Math.max(binary.count, 0));
+        image.setSymbols(createSymbols(binary));
+
+        if (images.size() > 1) {
+            OpModelImage[] dependents = new OpModelImage[images.size() - 1];
+            int depCount = 0;
+            for (int i = 1; i < images.size(); i++) {
+                ImageData module = images.get(i);
+                OpModelImage dependent = new OpModelImage();
+                dependent.setName(module.name);
+                dependent.setCount(Math.max(module.count, 0));
+                dependent.setSymbols(createSymbols(module));
+                dependents[i - 1] = dependent;
+                depCount += dependent.getCount();
+            }
+            image.setDepCount(depCount);
+            image.setDependents(dependents);
+        }
+    }
+
+    private ImageData newImage(Attributes attrs) {
+        ImageData data = new ImageData();
+        data.name = attrs.getValue(NAME);
+        data.parent = currentImage;
+        images.add(data);
+        return data;
+    }
+
+    private void addSample(SampleData sample) {
+        if (currentDetails == null) {
+            return;
+        }
+        // if a sample at this line already exists then increase count for that line.
+        String key = sample.line.isEmpty() ? UNKNOWN_LINE : sample.line;
+        SampleData existing = currentDetails.get(key);
+        if (existing != null) {
+            existing.count += sample.count;
+        } else {
+            currentDetails.put(key, sample);
+        }
+    }
+
+    private OpModelSymbol[] createSymbols(ImageData data) {
+        ArrayList<OpModelSymbol> symbols = new ArrayList<>(data.symbols.size());
+        for (SymbolRef ref : data.symbols) {
+            SymbolData symbolInfo = symbolData.get(ref.idref);
+            if (symbolInfo == null) {
+                continue;
+            }
+            OpModelSymbol symbol = new OpModelSymbol();
+            symbol.setName(symbolInfo.name);
+            symbol.setFilePath(symbolInfo.file);
+            symbol.setLine(Integer.parseInt(symbolInfo.line));
+            symbol.setCount(Math.max(ref.count, 0));
+            symbol.setSamples(createSamples(symbolInfo, symbolDetails.get(ref.idref)));
+            symbols.add(symbol);
+        }
+        return symbols.toArray(new OpModelSymbol[symbols.size()]);
+    }
+
+    private static OpModelSample[] createSamples(SymbolData symbol, LinkedHashMap<String, SampleData> details) {
+        if (details == null) {
+            return new OpModelSample[0];
+        }
+        OpModelSample[] samples = new OpModelSample[details.size()];
+        int i = 0;
+        for (SampleData data : details.values()) {
+            String file = data.file;
+            String line = data.line;
+            // The sample has a line number but no file
+            // This means that the file is the same as the symbol (parent)
+            if (file.isEmpty() && !line.isEmpty()) {
+                file = symbol.file;
+            } else {
+                file = valueOrDefault(file, UNKNOWN_FILE);
+                line = valueOrDefault(line, UNKNOWN_LINE);
+            }
+            OpModelSample sample = new OpModelSample();
+            sample.setFilePath(file);
+            sample.setLine(Integer.parseInt(line));
+            sample.setCount(data.count);
+            samples[i++] = sample;
+        }
+        Arrays.sort(samples, SAMPLE_COUNT_ORDER);
+        return samples;
+    }
+
+    private static String valueOrDefault(String value, String def) {
+        return value == null || value.isEmpty() ? def : value;
+    }
+
+    /**
+     * Helper class to sort the samples of a given symbol in descending order from largest
+     * to smallest
+     */
+    private static final Comparator<OpModelSample> SAMPLE_COUNT_ORDER = new Comparator<OpModelSample>() {
+        @Override
+        public int compare(OpModelSample a, OpModelSample b) {
+            // sort from largest to smallest count in descending order
+            // items with the same count are sorted by line number from smallest
+            // to largest
+            if (a.getCount() == b.getCount()) {
+                return Integer.compare(a.getLine(), b.getLine());
+            }
+            return -Integer.compare(a.getCount(), b.getCount());
+        }
+    };
+}
@@ -164,6 +164,8 @@ public class SessionManager {
                     Element event = (Element) eventList.item(j);
                     String eventName = event.getAttribute(NAME);
                     session.removeChild(event);
+                    SessionStore.getDefault().remove(eventName, CURRENT);
+                    // sessions saved by earlier versions
                     File file = new File(SessionManager.OPXML_PREFIX
                             + SessionManager.MODEL_DATA + eventName
                             + SessionManager.CURRENT);
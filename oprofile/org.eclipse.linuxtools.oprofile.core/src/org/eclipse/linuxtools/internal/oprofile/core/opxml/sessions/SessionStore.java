@@ -0,0 +1,589 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelImage;
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelSample;
+import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelSymbol;
+
+/**
+ * A binary store of the model data of each session and event. Images, symbols
+ * and samples are kept in primitive arrays that are loaded from a memory
+ * mapped file, so reopening a saved session does not run opreport or parse
+ * any XML. The most recently used entries stay in memory.
+ *
+ * Each entry also has an index of its symbol names with the total count of
+ * each, which is used to compare symbols across sessions.
+ */
+public class SessionStore {
+    private static final int MAGIC = 0x4f505353; // "OPSS"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".dat"; //$NON-NLS-1$
+    // event names cannot contain this, so it separates them from session names
+    private static final char SEPARATOR = '@';
+    private static final int NONE = -1;
+    private static final int CACHE_SIZE = 16;
+
+    private static SessionStore instance;
+
+    private final File directory;
+    private final Map<String, Entry> entries;
+
+    /**
+     * The total count of a symbol, as returned by the queries of the store.
+     */
+    public static class SymbolCount {
+        private final String name;
+        private final long count;
+
+        public SymbolCount(String name, long count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return name + ", Count: " + count; //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * @return the store in the state location of the plug-in
+     */
+    public static synchronized SessionStore getDefault() {
+        if (instance == null) {
+            instance = new SessionStore(new File(SessionManager.PLUGIN_LOC, "store")); //$NON-NLS-1$
+        }
+        return instance;
+    }
+
+    /**
+     * @param directory the directory holding the store files
+     */
+    public SessionStore(File directory) {
+        this(directory, CACHE_SIZE);
+    }
+
+    /**
+     * @param directory the directory holding the store files
+     * @param cacheSize the number of entries kept in memory
+     */
+    public SessionStore(File directory, final int cacheSize) {
+        this.directory = directory;
+        entries = new LinkedHashMap<String, Entry>(cacheSize, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Fill the given image with the stored data of a session.
+     * @param eventName the name of the event
+     * @param sessionName the name of the session
+     * @param image the image to fill
+     * @return whether the session was in the store
+     */
+    public synchronized boolean load(String eventName, String sessionName, OpModelImage image) {
+        Entry entry = getEntry(eventName, sessionName);
+        if (entry == null) {
+            return false;
+        }
+        entry.fill(image);
+        return true;
+    }
+
+    /**
+     * Store the model data of a session, replacing any previous data.
+     * @param eventName the name of the event
+     * @param sessionName the name of the session
+     * @param image the image of the session
+     * @throws IOException if the store file cannot be written
+     */
+    public synchronized void store(String eventName, String sessionName, OpModelImage image) throws IOException {
+        putEntry(getKey(eventName, sessionName), Entry.create(image));
+    }
+
+    /**
+     * Copy the stored data of a session to another name, as when the
+     * current session is saved.
+     * @param eventName the name of the event
+     * @param sessionName the name of the stored session
+     * @param newName the name of the copy
+     * @return whether the session was in the store
+     * @throws IOException if the store file cannot be written
+     */
+    public synchronized boolean copy(String eventName, String sessionName, String newName) throws IOException {
+        Entry entry = getEntry(eventName, sessionName);
+        if (entry == null) {
+            return false;
+        }
+        putEntry(getKey(eventName, newName), entry);
+        return true;
+    }
+
+    /**
+     * Remove a session from the store.
+     * @param eventName the name of the event
+     * @param sessionName the name of the session
+     */
+    public synchronized void remove(String eventName, String sessionName) {
+        String key = getKey(eventName, sessionName);
+        entries.remove(key);
+        new File(directory, key + SUFFIX).delete();
+    }
+
+    /**
+     * Return the total count of a symbol in each of the given sessions.
+     * Symbols of the same name in different images are added together.
+     * @param eventName the name of the event
+     * @param sessionNames the names of the sessions to compare
+     * @param symbolName the name of the symbol
+     * @return the count of the symbol in each session, in the order of
+     *         <code>sessionNames</code>. Sessions that are not in the store
+     *         or do not have the symbol have a count of 0.
+     */
+    public synchronized long[] getSymbolCounts(String eventName, String[] sessionNames, String symbolName) {
+        long[] counts = new long[sessionNames.length];
+        for (int i = 0; i < sessionNames.length; i++) {
+            Entry entry = getEntry(eventName, sessionNames[i]);
+            if (entry != null) {
+                counts[i] = entry.getSymbolCount(symbolName);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Return the symbols with the highest total count over the given
+     * sessions.
+     * @param eventName the name of the event
+     * @param sessionNames the names of the sessions
+     * @param n the maximum number of symbols to return
+     * @return the symbols, with the highest count first
+     */
+    public synchronized SymbolCount[] getTopSymbols(String eventName, String[] sessionNames, int n) {
+        HashMap<String, long[]> totals = new HashMap<>();
+        for (String sessionName : sessionNames) {
+            Entry entry = getEntry(eventName, sessionName);
+            if (entry == null) {
+                continue;
+            }
+            for (int i = 0; i < entry.indexNames.length; i++) {
+                String name = entry.strings[entry.indexNames[i]];
+                long[] total = totals.get(name);
+                if (total == null) {
+                    total = new long[1];
+                    totals.put(name, total);
+                }
+                total[0] += entry.indexCounts[i];
+            }
+        }
+
+        SymbolCount[] symbols = new SymbolCount[totals.size()];
+        int i = 0;
+        for (Map.Entry<String, long[]> total : totals.entrySet()) {
+            symbols[i++] = new SymbolCount(total.getKey(), total.getValue()[0]);
+        }
+        Arrays.sort(symbols, new Comparator<SymbolCount>() {
+            @Override
+            public int compare(SymbolCount a, SymbolCount b) {
+                int result = Long.compare(b.count, a.count);
+                return result != 0 ? result : a.name.compareTo(b.name);
+            }
+        });
+        return symbols.length > n ? Arrays.copyOf(symbols, n) : symbols;
+    }
+
+    private static String getKey(String eventName, String sessionName) {
+        return eventName + SEPARATOR + sessionName;
+    }
+
+    private void putEntry(String key, Entry entry) throws IOException {
+        // keep the data in memory even if it cannot be written, until evicted
+        entries.put(key, entry);
+        directory.mkdirs();
+        File file = new File(directory, key + SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            entry.write(out);
+        }
+    }
+
+    private Entry getEntry(String eventName, String sessionName) {
+        String key = getKey(eventName, sessionName);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            File file = new File(directory, key + SUFFIX);
+            if (file.exists()) {
+                try {
+                    entry = Entry.read(file);
+                    entries.put(key, entry);
+                } catch (IOException e) {
+                    // a damaged file is regenerated like a missing one
+                    e.printStackTrace();
+                    file.delete();
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * The model data of one session and event. Image 0 is the profiled
+     * binary and the others are its dependent images. The symbols of each
+     * image and the samples of each symbol are consecutive, and all names
+     * are indexes in the string table.
+     */
+    private static class Entry {
+        String[] strings;
+        int depCount;
+
+        int[] imageNames;
+        int[] imageCounts;
+        // first symbol of each image, or NONE if the image has no symbols
+        int[] imageSymbols;
+        int[] imageSymbolCounts;
+
+        int[] symbolNames;
+        int[] symbolFiles;
+        int[] symbolLines;
+        int[] symbolCounts;
+        // first sample of each symbol, or NONE if the symbol has no samples
+        int[] symbolSamples;
+        int[] symbolSampleCounts;
+
+        int[] sampleFiles;
+        int[] sampleLines;
+        int[] sampleCounts;
+
+        // symbol names sorted by name, and the total count of each
+        int[] indexNames;
+        int[] indexCounts;
+
+        static Entry create(OpModelImage image) {
+            Builder builder = new Builder();
+            builder.addImage(image);
+            if (image.getDependents() != null) {
+                for (OpModelImage dependent : image.getDependents()) {
+                    builder.addImage(dependent);
+                }
+            }
+            Entry entry = builder.build();
+            entry.depCount = image.getDepCount();
+            return entry;
+        }
+
+        void fill(OpModelImage image) {
+            fillImage(0, image);
+            image.setDepCount(depCount);
+            if (imageNames.length > 1) {
+                OpModelImage[] dependents = new OpModelImage[imageNames.length - 1];
+                for (int i = 1; i < imageNames.length; i++) {
+                    dependents[i - 1] = new OpModelImage();
+                    fillImage(i, dependents[i - 1]);
+                }
+                image.setDependents(dependents);
+            }
+        }
+
+        private void fillImage(int img, OpModelImage image) {
+            image.setName(getString(imageNames[img]));
+            image.setCount(imageCounts[img]);
+            if (imageSymbols[img] == NONE) {
+                image.setSymbols(null);
+                return;
+            }
+            OpModelSymbol[] symbols = new OpModelSymbol[imageSymbolCounts[img]];
+            for (int i = 0; i < symbols.length; i++) {
+                int sym = imageSymbols[img] + i;
+                OpModelSymbol symbol = new OpModelSymbol();
+                symbol.setName(getString(symbolNames[sym]));
+                symbol.setFilePath(getString(symbolFiles[sym]));
+                symbol.setLine(symbolLines[sym]);
+                symbol.setCount(symbolCounts[sym]);
+                if (symbolSamples[sym] != NONE) {
+                    OpModelSample[] samples = new OpModelSample[symbolSampleCounts[sym]];
+                    for (int j = 0; j < samples.length; j++) {
+                        int smp = symbolSamples[sym] + j;
+                        OpModelSample sample = new OpModelSample();
+                        sample.setFilePath(getString(sampleFiles[smp]));
+                        sample.setLine(sampleLines[smp]);
+                        sample.setCount(sampleCounts[smp]);
+                        samples[j] = sample;
+                    }
+                    symbol.setSamples(samples);
+                }
+                symbols[i] = symbol;
+            }
+            image.setSymbols(symbols);
+        }
+
+        private String getString(int index) {
+            return index == NONE ? null : strings[index];
+        }
+
+        long getSymbolCount(String name) {
+            int low = 0;
+            int high = indexNames.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = strings[indexNames[mid]].compareTo(name);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return indexCounts[mid];
+                }
+            }
+            return 0;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(depCount);
+            out.writeInt(strings.length);
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            writeArrays(out, imageNames, imageCounts, imageSymbols, imageSymbolCounts);
+            writeArrays(out, symbolNames, symbolFiles, symbolLines, symbolCounts, symbolSamples, symbolSampleCounts);
+            writeArrays(out, sampleFiles, sampleLines, sampleCounts);
+            writeArrays(out, indexNames, indexCounts);
+        }
+
+        private static void writeArrays(DataOutputStream out, int[]... arrays) throws IOException {
+            out.writeInt(arrays[0].length);
+            for (int[] array : arrays) {
+                for (int value : array) {
+                    out.writeInt(value);
+                }
+            }
+        }
+
+        static Entry read(File file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                try {
+                    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                        throw new IOException(file.getPath());
+                    }
+                    Entry entry = new Entry();
+                    entry.depCount = buffer.getInt();
+                    entry.strings = new String[buffer.getInt()];
+                    for (int i = 0; i < entry.strings.length; i++) {
+                        byte[] bytes = new byte[buffer.getInt()];
+                        buffer.get(bytes);
+                        entry.strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                    }
+                    int[][] images = readArrays(buffer, 4);
+                    entry.imageNames = images[0];
+                    entry.imageCounts = images[1];
+                    entry.imageSymbols = images[2];
+                    entry.imageSymbolCounts = images[3];
+                    int[][] symbols = readArrays(buffer, 6);
+                    entry.symbolNames = symbols[0];
+                    entry.symbolFiles = symbols[1];
+                    entry.symbolLines = symbols[2];
+                    entry.symbolCounts = symbols[3];
+                    entry.symbolSamples = symbols[4];
+                    entry.symbolSampleCounts = symbols[5];
+                    int[][] samples = readArrays(buffer, 3);
+                    entry.sampleFiles = samples[0];
+                    entry.sampleLines = samples[1];
+                    entry.sampleCounts = samples[2];
+                    int[][] index = readArrays(buffer, 2);
+                    entry.indexNames = index[0];
+                    entry.indexCounts = index[1];
+                    if (entry.imageNames.length == 0) {
+                        throw new IOException(file.getPath());
+                    }
+                    return entry;
+                } catch (RuntimeException e) {
+                    // truncated or corrupt file
+                    throw new IOException(file.getPath(), e);
+                }
+            }
+        }
+
+        private static int[][] readArrays(ByteBuffer buffer, int count) {
+            int length = buffer.getInt();
+            int[][] arrays = new int[count][length];
+            for (int[] array : arrays) {
+                IntBuffer ints = buffer.asIntBuffer();
+                ints.get(array);
+                buffer.position(buffer.position() + length * 4);
+            }
+            return arrays;
+        }
+    }
+
+    /**
+     * Flattens an image and its dependents into the arrays of an entry.
+     */
+    private static class Builder {
+        private final HashMap<String, Integer> stringIds = new HashMap<>();
+        private final ArrayList<String> strings = new ArrayList<>();
+        private final IntList images = new IntList(4);
+        private final IntList symbols = new IntList(6);
+        private final IntList samples = new IntList(3);
+        // total count of each symbol name, by string id
+        private final HashMap<Integer, int[]> index = new HashMap<>();
+
+        void addImage(OpModelImage image) {
+            OpModelSymbol[] imageSymbols = image.getSymbols();
+            images.add(addString(image.getName()), image.getCount(),
+                    imageSymbols == null ? NONE : symbols.size(),
+                    imageSymbols == null ? 0 : imageSymbols.length);
+            if (imageSymbols == null) {
+                return;
+            }
+            for (OpModelSymbol symbol : imageSymbols) {
+                OpModelSample[] symbolSamples = symbol.getSamples();
+                int name = addString(symbol.getName());
+                symbols.add(name, addString(symbol.getFilePath()), symbol.getLine(), symbol.getCount(),
+                        symbolSamples == null ? NONE : samples.size(),
+                        symbolSamples == null ? 0 : symbolSamples.length);
+                if (name != NONE) {
+                    int[] total = index.get(name);
+                    if (total == null) {
+                        total = new int[1];
+                        index.put(name, total);
+                    }
+                    total[0] += symbol.getCount();
+                }
+                if (symbolSamples != null) {
+                    for (OpModelSample sample : symbolSamples) {
+                        samples.add(addString(sample.getFilePath()), sample.getLine(), sample.getCount());
+                    }
+                }
+            }
+        }
+
+        private int addString(String s) {
+            if (s == null) {
+                return NONE;
+            }
+            Integer id = stringIds.get(s);
+            if (id == null) {
+                id = strings.size();
+                strings.add(s);
+                stringIds.put(s, id);
+            }
+            return id;
+        }
+
+        Entry build() {
+            Entry entry = new Entry();
+            entry.strings = strings.toArray(new String[strings.size()]);
+            int[][] imageArrays = images.toArrays();
+            entry.imageNames = imageArrays[0];
+            entry.imageCounts = imageArrays[1];
+            entry.imageSymbols = imageArrays[2];
+            entry.imageSymbolCounts = imageArrays[3];
+            int[][] symbolArrays = symbols.toArrays();
+            entry.symbolNames = symbolArrays[0];
+            entry.symbolFiles = symbolArrays[1];
+            entry.symbolLines = symbolArrays[2];
+            entry.symbolCounts = symbolArrays[3];
+            entry.symbolSamples = symbolArrays[4];
+            entry.symbolSampleCounts = symbolArrays[5];
+            int[][] sampleArrays = samples.toArrays();
+            entry.sampleFiles = sampleArrays[0];
+            entry.sampleLines = sampleArrays[1];
+            entry.sampleCounts = sampleArrays[2];
+
+            final String[] names = entry.strings;
+            Integer[] sorted = index.keySet().toArray(new Integer[index.size()]);
+            Arrays.sort(sorted, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return names[a].compareTo(names[b]);
+                }
+            });
+            entry.indexNames = new int[sorted.length];
+            entry.indexCounts = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                entry.indexNames[i] = sorted[i];
+                entry.indexCounts[i] = index.get(sorted[i])[0];
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * A growable table of int columns.
+     */
+    private static class IntList {
+        private int[][] columns;
+        private int size;
+
+        IntList(int columnCount) {
+            columns = new int[columnCount][16];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(int... values) {
+            if (size == columns[0].length) {
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = Arrays.copyOf(columns[i], size * 2);
+                }
+            }
+            for (int i = 0; i < columns.length; i++) {
+                columns[i][size] = values[i];
+            }
+            size++;
+        }
+
+        int[][] toArrays() {
+            int[][] arrays = new int[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                arrays[i] = Arrays.copyOf(columns[i], size);
+            }
+            return arrays;
+        }
+    }
+}
@@ -25,8 +25,10 @@ import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.linuxtools.internal.oprofile.core.model.OpModelRoot;
 import org.eclipse.linuxtools.internal.oprofile.ui.OprofileUiMessages;
 import org.eclipse.linuxtools.internal.oprofile.ui.OprofileUiPlugin;
+import org.eclipse.linuxtools.oprofile.ui.model.IUiModelElement;
 import org.eclipse.linuxtools.oprofile.ui.model.UiModelRoot;
 import org.eclipse.linuxtools.oprofile.ui.model.UiModelSession;
+import org.eclipse.linuxtools.oprofile.ui.model.UiModelSymbol;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
@@ -65,6 +67,8 @@ public class OprofileView extends ViewPart implements ISelectionChangedListener
     private TreeViewer viewer;
     private IAction deleteSessionAction;
     private IAction saveDefaultSessionAction;
+    private IAction compareSymbolAction;
+    private IAction topSymbolsAction;
 
     @Override
     public void createPartControl(Composite parent) {
@@ -91,6 +95,10 @@ public class OprofileView extends ViewPart implements ISelectionChangedListener
         manager.add(saveDefaultSessionAction);
         deleteSessionAction = new OprofileViewDeleteSessionAction(getTreeViewer());
         manager.add(deleteSessionAction);
+        compareSymbolAction = new OprofileViewCompareSymbolAction(getTreeViewer());
+        manager.add(compareSymbolAction);
+        topSymbolsAction = new OprofileViewTopSymbolsAction(getTreeViewer());
+        manager.add(topSymbolsAction);
 
         MenuManager sortMenu = new MenuManager(
                 OprofileUiMessages.getString("view.menu.sortby.label")); //$NON-NLS-1$
@@ -169,6 +177,9 @@ public class OprofileView extends ViewPart implements ISelectionChangedListener
 
         }
 
+        compareSymbolAction.setEnabled(tsl.getFirstElement() instanceof UiModelSymbol);
+        topSymbolsAction.setEnabled(tsl.getFirstElement() instanceof IUiModelElement
+                && OprofileViewCompareSymbolAction.getEvent((IUiModelElement) tsl.getFirstElement()) != null);
     }
 
     @Override
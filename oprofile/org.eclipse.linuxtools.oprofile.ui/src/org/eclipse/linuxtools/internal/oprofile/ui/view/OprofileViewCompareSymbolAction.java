@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.oprofile.ui.view;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.TreeSelection;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionStore;
+import org.eclipse.linuxtools.internal.oprofile.ui.OprofileUiMessages;
+import org.eclipse.linuxtools.internal.oprofile.ui.OprofileUiPlugin;
+import org.eclipse.linuxtools.oprofile.ui.model.IUiModelElement;
+import org.eclipse.linuxtools.oprofile.ui.model.UiModelEvent;
+import org.eclipse.linuxtools.oprofile.ui.model.UiModelRoot;
+import org.eclipse.linuxtools.oprofile.ui.model.UiModelSession;
+import org.eclipse.linuxtools.oprofile.ui.model.UiModelSymbol;
+
+/**
+ * Menu item to show the count of the selected symbol in every session
+ * profiled with the same event, from the session store.
+ */
+public class OprofileViewCompareSymbolAction extends Action {
+
+    private TreeViewer treeViewer;
+
+    public OprofileViewCompareSymbolAction(TreeViewer tree) {
+        super(OprofileUiMessages.getString("view.actions.comparesymbol.label")); //$NON-NLS-1$
+        treeViewer = tree;
+        setEnabled(false);
+    }
+
+    @Override
+    public void run() {
+        TreeSelection tsl = (TreeSelection) treeViewer.getSelection();
+        if (!(tsl.getFirstElement() instanceof UiModelSymbol)) {
+            return;
+        }
+        UiModelSymbol symbol = (UiModelSymbol) tsl.getFirstElement();
+        UiModelEvent event = getEvent(symbol);
+        if (event == null) {
+            return;
+        }
+
+        String eventName = event.toString();
+        UiModelSession[] sessions = getSessions(eventName);
+        String[] sessionNames = new String[sessions.length];
+        for (int i = 0; i < sessions.length; i++) {
+            sessionNames[i] = sessions[i].toString();
+        }
+        long[] counts = SessionStore.getDefault().getSymbolCounts(eventName, sessionNames,
+                symbol.getFunctionName());
+
+        StringBuilder message = new StringBuilder(MessageFormat.format(
+                OprofileUiMessages.getString("comparesymboldialog.message"), //$NON-NLS-1$
+                symbol.getFunctionName(), eventName));
+        for (int i = 0; i < sessions.length; i++) {
+            message.append('\n').append(sessions[i].getLabelText()).append(": ").append(counts[i]); //$NON-NLS-1$
+        }
+        MessageDialog.openInformation(OprofileUiPlugin.getActiveWorkbenchShell(),
+                OprofileUiMessages.getString("comparesymboldialog.title"), //$NON-NLS-1$
+                message.toString());
+    }
+
+    /**
+     * @return the event of the given element, or null if it is not below one
+     */
+    static UiModelEvent getEvent(IUiModelElement element) {
+        while (element != null && !(element instanceof UiModelEvent)) {
+            element = element.getParent();
+        }
+        return (UiModelEvent) element;
+    }
+
+    /**
+     * @return the sessions in the view which have the given event
+     */
+    static UiModelSession[] getSessions(String eventName) {
+        ArrayList<UiModelSession> sessions = new ArrayList<>();
+        for (IUiModelElement e : UiModelRoot.getDefault().getChildren()) {
+            if (e instanceof UiModelSession) {
+                for (IUiModelElement event : e.getChildren()) {
+                    if (event.toString().equals(eventName)) {
+                        sessions.add((UiModelSession) e);
+                        break;
+                    }
+                }
+            }
+        }
+        return sessions.toArray(new UiModelSession[sessions.size()]);
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.oprofile.ui.view;
+
+import java.text.MessageFormat;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.TreeSelection;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionStore;
+import org.eclipse.linuxtools.internal.oprofile.core.opxml.sessions.SessionStore.SymbolCount;
+import org.eclipse.linuxtools.internal.oprofile.ui.OprofileUiMessages;
+import org.eclipse.linuxtools.internal.oprofile.ui.OprofileUiPlugin;
+import org.eclipse.linuxtools.oprofile.ui.model.IUiModelElement;
+import org.eclipse.linuxtools.oprofile.ui.model.UiModelEvent;
+import org.eclipse.linuxtools.oprofile.ui.model.UiModelSession;
+
+/**
+ * Menu item to show the symbols with the highest count over all the sessions
+ * profiled with the selected event, from the session store.
+ */
+public class OprofileViewTopSymbolsAction extends Action {
+    private static final int SYMBOL_COUNT = 10;
+
+    private TreeViewer treeViewer;
+
+    public OprofileViewTopSymbolsAction(TreeViewer tree) {
+        super(OprofileUiMessages.getString("view.actions.topsymbols.label")); //$NON-NLS-1$
+        treeViewer = tree;
+        setEnabled(false);
+    }
+
+    @Override
+    public void run() {
+        TreeSelection tsl = (TreeSelection) treeViewer.getSelection();
+        if (!(tsl.getFirstElement() instanceof IUiModelElement)) {
+            return;
+        }
+        UiModelEvent event = OprofileViewCompareSymbolAction.getEvent((IUiModelElement) tsl.getFirstElement());
+        if (event == null) {
+            return;
+        }
+
+        String eventName = event.toString();
+        UiModelSession[] sessions = OprofileViewCompareSymbolAction.getSessions(eventName);
+        String[] sessionNames = new String[sessions.length];
+        for (int i = 0; i < sessions.length; i++) {
+            sessionNames[i] = sessions[i].toString();
+        }
+        SymbolCount[] symbols = SessionStore.getDefault().getTopSymbols(eventName, sessionNames, SYMBOL_COUNT);
+
+        StringBuilder message = new StringBuilder(MessageFormat.format(
+                OprofileUiMessages.getString("topsymbolsdialog.message"), eventName)); //$NON-NLS-1$
+        for (SymbolCount symbol : symbols) {
+            message.append('\n').append(symbol.getName()).append(": ").append(symbol.getCount()); //$NON-NLS-1$
+        }
+        MessageDialog.openInformation(OprofileUiPlugin.getActiveWorkbenchShell(),
+                OprofileUiMessages.getString("topsymbolsdialog.title"), //$NON-NLS-1$
+                message.toString());
+    }
+}
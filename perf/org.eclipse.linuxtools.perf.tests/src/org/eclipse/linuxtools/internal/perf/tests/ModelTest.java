@@ -18,9 +18,14 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -36,7 +41,9 @@ import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.linuxtools.internal.perf.PerfCore;
+import org.eclipse.linuxtools.internal.perf.PerfDataReader;
 import org.eclipse.linuxtools.internal.perf.PerfPlugin;
+import org.eclipse.linuxtools.internal.perf.ReportModelBuilder;
 import org.eclipse.linuxtools.internal.perf.launch.PerfEventsTab;
 import org.eclipse.linuxtools.internal.perf.launch.PerfOptionsTab;
 import org.eclipse.linuxtools.internal.perf.model.PMCommand;
@@ -117,6 +124,97 @@ public class ModelTest extends AbstractTest {
         checkChildrenPercentages(invisibleRoot, invisibleRoot.getPercent());
     }
     @Test
+    public void testReportThreshold() throws CoreException {
+        ILaunchConfigurationWorkingCopy wc = config.getWorkingCopy();
+        wc.setAttribute(PerfPlugin.ATTR_ReportThreshold, 10000);
+        config = wc.doSave();
+
+        TreeParent invisibleRoot = buildModel(
+                "resources/defaultevent-data/perf.data",
+                "resources/defaultevent-data/perf.data.txt",
+                "resources/defaultevent-data/perf.data.err.log");
+
+        // every symbol is below 100%, so each dso only has the summary
+        for (TreeParent event : invisibleRoot.getChildren()) {
+            for (TreeParent cmd : event.getChildren()) {
+                for (TreeParent dso : cmd.getChildren()) {
+                    TreeParent[] symbols = ((PMDso) dso).getFile(PerfPlugin.STRINGS_UnfiledSymbols).getChildren();
+                    assertEquals(1, symbols.length);
+                    assertTrue(((PMSymbol) symbols[0]).isSummary());
+                }
+            }
+        }
+        checkChildrenPercentages(invisibleRoot, invisibleRoot.getPercent());
+    }
+    @Test
+    public void testNativeReport() throws IOException {
+        String[] dirs = { "resources/defaultevent-data", "resources/multievent-data" };
+        for (String dir : dirs) {
+            TreeParent textRoot = buildModel(dir + "/perf.data",
+                    dir + "/perf.data.txt", dir + "/perf.data.err.log");
+            TreeParent nativeRoot = new TreeParent("");
+            ReportModelBuilder builder = new ReportModelBuilder(nativeRoot, 0);
+            new PerfDataReader(new File(dir + "/perf.data"), null, null).read(builder, null);
+            builder.finish();
+
+            // binaries are not available, so compare per dso rather than per symbol
+            for (TreeParent event : textRoot.getChildren()) {
+                TreeParent nativeEvent = nativeRoot.getChild(event.getName());
+                assertNotNull(event.getName(), nativeEvent);
+                for (TreeParent cmd : event.getChildren()) {
+                    TreeParent nativeCmd = nativeEvent.getChild(cmd.getName());
+                    assertNotNull(cmd.getName(), nativeCmd);
+                    assertEquals(cmd.getChildren().length, nativeCmd.getChildren().length);
+                    for (TreeParent dso : cmd.getChildren()) {
+                        TreeParent nativeDso = nativeCmd.getChild(dso.getName());
+                        assertNotNull(dso.getName(), nativeDso);
+                        assertEquals(dso.getFormattedSamples(), nativeDso.getFormattedSamples());
+                        // per address rounding of the percentages
+                        assertEquals(dso.getPercent(), nativeDso.getPercent(), 0.1);
+                    }
+                }
+            }
+        }
+    }
+    @Test
+    public void testNativeReportSampleTypes() throws IOException {
+        long ip = 1L << 0, tid = 1L << 1, time = 1L << 2, period = 1L << 8, identifier = 1L << 16;
+        File data = File.createTempFile("perf", ".data");
+        try {
+            // instructions samples have no time, so their fields are not where cycles ones are
+            writePerfData(data, new long[] { identifier | ip | tid | time | period, identifier | ip | tid | period });
+            TreeParent root = new TreeParent("");
+            ReportModelBuilder builder = new ReportModelBuilder(root, 0);
+            new PerfDataReader(data, null, null).read(builder, null);
+            builder.finish();
+            TreeParent cycles = root.getChild("cycles").getChild("fib").getChild("[unknown]");
+            TreeParent instructions = root.getChild("instructions").getChild("fib").getChild("[unknown]");
+            assertEquals("3", cycles.getFormattedSamples());
+            assertEquals("2", instructions.getFormattedSamples());
+            assertNotNull(cycles.getChild(PerfPlugin.STRINGS_UnfiledSymbols).getChild("[.] 0x0000000000001000"));
+            assertNotNull(instructions.getChild(PerfPlugin.STRINGS_UnfiledSymbols).getChild("[.] 0x0000000000002000"));
+
+            // no binary is available, so every symbol is unresolved
+            root = new TreeParent("");
+            builder = new ReportModelBuilder(root, 0);
+            new PerfDataReader(data, null, null, true, true).read(builder, null);
+            builder.finish();
+            assertEquals(0, root.getChild("cycles").getChildren().length);
+            assertEquals(0, root.getChild("instructions").getChildren().length);
+
+            // without an id in the samples, their event can not be known
+            writePerfData(data, new long[] { ip | tid | time | period, ip | tid | period });
+            try {
+                new PerfDataReader(data, null, null).read(new ReportModelBuilder(new TreeParent(""), 0), null);
+                fail("samples of unknown events were read");
+            } catch (IOException e) {
+                // perf report is run instead
+            }
+        } finally {
+            data.delete();
+        }
+    }
+    @Test
     public void testDoubleClickAction () {
         TreeParent invisibleRoot = buildModel(
                 "resources/defaultevent-data/perf.data",
@@ -477,6 +575,58 @@ public class ModelTest extends AbstractTest {
         return invisibleRoot;
     }
 
+    /**
+     * Write a little endian perf.data file with a cycles and an instructions
+     * event of the given sample types. Command fib has three cycles samples
+     * at 0x1000 and two instructions samples at 0x2000.
+     * @param file the file to write
+     * @param sampleTypes sample types of the two events
+     */
+    private static void writePerfData(File file, long[] sampleTypes) throws IOException {
+        int headerSize = 104;
+        int attrSize = 48;
+        int idsOffset = headerSize + attrSize * sampleTypes.length;
+        int dataOffset = idsOffset + 8 * sampleTypes.length;
+        ByteBuffer buf = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put("PERFILE2".getBytes(StandardCharsets.US_ASCII)).putLong(headerSize);
+        buf.putLong(attrSize).putLong(headerSize).putLong(attrSize * sampleTypes.length);
+        for (int i = 0; i < sampleTypes.length; i++) {
+            // hardware event i, with id 100 + i
+            buf.position(headerSize + i * attrSize);
+            buf.putInt(0).putInt(attrSize - 16).putLong(i).putLong(4000).putLong(sampleTypes[i]);
+            buf.putLong(idsOffset + 8 * i).putLong(8);
+            buf.putLong(idsOffset + 8 * i, 100 + i);
+        }
+
+        buf.position(dataOffset);
+        // PERF_RECORD_COMM
+        buf.putInt(3).putShort((short) 0).putShort((short) 32);
+        buf.putInt(42).putInt(42).put(Arrays.copyOf("fib".getBytes(StandardCharsets.US_ASCII), 16));
+        for (int i = 0; i < 5; i++) {
+            int event = i < 3 ? 0 : 1;
+            long sampleType = sampleTypes[event];
+            int start = buf.position();
+            // PERF_RECORD_SAMPLE in user space, its size is set once written
+            buf.putInt(9).putShort((short) 2).putShort((short) 0);
+            if ((sampleType & (1L << 16)) != 0) {
+                buf.putLong(100 + event);
+            }
+            buf.putLong(0x1000 * (event + 1));
+            buf.putInt(42).putInt(42);
+            if ((sampleType & (1L << 2)) != 0) {
+                buf.putLong(i);
+            }
+            buf.putLong(1);
+            buf.putShort(start + 6, (short) (buf.position() - start));
+        }
+        int end = buf.position();
+        buf.putLong(40, dataOffset).putLong(48, end - dataOffset);
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(buf.array(), 0, end);
+        }
+    }
+
     /**
      * Check whether the command labels in model rooted at cmd exist in
      * list of labels cmdLabels.
@@ -11,6 +11,7 @@
 package org.eclipse.linuxtools.internal.perf;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
@@ -19,6 +20,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.cdt.debug.core.ICDTLaunchConfigurationConstants;
 import org.eclipse.core.resources.IProject;
@@ -40,12 +42,21 @@ import org.eclipse.linuxtools.internal.perf.ui.PerfProfileView;
 import org.eclipse.linuxtools.profiling.launch.ConfigUtils;
 import org.eclipse.linuxtools.tools.launch.core.factory.RuntimeProcessFactory;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IViewPart;
+import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
 import org.osgi.framework.Version;
 
 public class PerfCore {
 
+    // Fields of a report line, as requested by getReportString
+    private static final int REPORT_FIELDS = 5;
+    private static final char REPORT_SEPARATOR = (char) 1;
+    // Number of symbols parsed between two refreshes of the view
+    static final int PUBLISH_BATCH_SIZE = 10000;
+    private static final AtomicBoolean partialRefreshPending = new AtomicBoolean();
+
     private static String spitStream(BufferedReader br, String blockTitle, PrintStream print) {
 
         StringBuffer strBuf = new StringBuffer();
@@ -359,6 +370,11 @@ public class PerfCore {
             return;
         }
 
+        if (readNativeReport(config, workingDir, monitor, perfDataLoc, print,
+                invisibleRoot, OldPerfVersion, project)) {
+            return;
+        }
+
         try {
             if (workingDir==null) {
                 p = RuntimeProcessFactory.getFactory().exec(getReportString(config, perfDataLoc), project);
@@ -382,6 +398,53 @@ public class PerfCore {
                 invisibleRoot, OldPerfVersion, input, error, project);
     }
 
+    /**
+     * Build the tree model by reading the perf data file directly, if
+     * selected in the launch configuration and the file is local.
+     * @return true if the model was built, false if perf report has to be run
+     */
+    private static boolean readNativeReport(ILaunchConfiguration config,
+            IPath workingDir, IProgressMonitor monitor, String perfDataLoc,
+            PrintStream print, TreeParent invisibleRoot,
+            boolean oldPerfVersion, IProject project) {
+        String kernelLoc;
+        boolean moduleSymbols;
+        boolean hideUnresolvedSymbols;
+        try {
+            if (config == null || !config.getAttribute(PerfPlugin.ATTR_NativeReport, PerfPlugin.ATTR_NativeReport_default)) {
+                return false;
+            }
+            kernelLoc = config.getAttribute(PerfPlugin.ATTR_Kernel_Location, PerfPlugin.ATTR_Kernel_Location_default);
+            moduleSymbols = config.getAttribute(PerfPlugin.ATTR_ModuleSymbols, PerfPlugin.ATTR_ModuleSymbols_default);
+            hideUnresolvedSymbols = config.getAttribute(PerfPlugin.ATTR_HideUnresolvedSymbols,
+                    PerfPlugin.ATTR_HideUnresolvedSymbols_default);
+        } catch (CoreException e) {
+            return false;
+        }
+        String dataLoc = workingDir == null ? perfDataLoc : workingDir.toOSString() + PerfPlugin.PERF_DEFAULT_DATA;
+        if (dataLoc == null || !new File(dataLoc).isFile()) {
+            return false;
+        }
+
+        ReportModelBuilder builder = new ReportModelBuilder(invisibleRoot, getReportThreshold(config));
+        try {
+            new PerfDataReader(new File(dataLoc), project, kernelLoc, moduleSymbols, hideUnresolvedSymbols)
+                    .read(builder, monitor);
+        } catch (IOException e) {
+            // not a file we can read, let perf report handle it
+            logException(e);
+            invisibleRoot.clear();
+            return false;
+        }
+        builder.finish();
+        PerfPlugin.getDefault().setPerfProfileData(new Path(dataLoc));
+        PerfPlugin.getDefault().setWorkingDir(workingDir == null ? project.getLocation() : workingDir);
+
+        annotateReport(config, workingDir, monitor, perfDataLoc, print,
+                invisibleRoot, oldPerfVersion, null, project);
+        return true;
+    }
+
     /**
      * Parse and build a tree model from the report of a perf data file
      * @param config launch configuration
@@ -411,18 +474,9 @@ public class PerfCore {
             return;
         }
         String line = null;
-        String items[];
-        float percent;
+        String items[] = new String[REPORT_FIELDS];
 
-        Process p = null;
-        double samples;
-        String comm,dso,symbol;
-        boolean kernelFlag;
-        PMEvent currentEvent = null;
-        PMCommand currentCommand = null;
-        PMDso currentDso = null;
-        PMFile currentFile = null;
-        PMSymbol currentSym = null;
+        ReportModelBuilder builder = new ReportModelBuilder(invisibleRoot, getReportThreshold(config));
         try {
             while (( line = input.readLine()) != null){
                 if (monitor != null && monitor.isCanceled()) {
@@ -437,62 +491,47 @@ public class PerfCore {
                         if (line.contains("Samples:")){ //$NON-NLS-1$
                             event = event.substring(1, event.length() -1);
                         }
-                        currentEvent = new PMEvent(event);
-                        invisibleRoot.addChild(currentEvent);
-                        currentCommand = null;
-                        currentDso = null;
+                        builder.startEvent(event);
                     } else if (line.contains("Samples:")) { //"samples" was used instead of events in an older version, some incompatibilities may arise. //$NON-NLS-1$
                         if (print != null) { print.println("WARNING: You are running an older version of Perf, please update if you can. The plugin may produce unpredictable results."); }
                         invisibleRoot.addChild(new PMEvent("WARNING: You are running an older version of Perf, the plugin may produce unpredictable results."));
                     }
                     // contains profiled information
                 } else {
-                    items = line.trim().split(""+(char)1); // using custom field separator. for default whitespace use " +" //$NON-NLS-1$
-                    if (items.length != 5) {
+                    // using custom field separator. for default whitespace use " +"
+                    if (!splitReportLine(line.trim(), items)) {
                         continue;
                     }
-                    percent = Float.parseFloat(items[0].replace("%", "")); //$NON-NLS-1$ //$NON-NLS-2$
-                    samples = Double.parseDouble(items[1].trim()); //samples column
-                    comm = items[2].trim(); //command column
-                    dso = items[3].trim(); //dso column
-                    symbol = items[4].trim(); //symbol column
-                    kernelFlag = (""+symbol.charAt(1)).equals("k"); //$NON-NLS-1$ //$NON-NLS-2$
-
-                    // initialize current command if it doesn't exist
-                    if ((currentCommand == null) || (!currentCommand.getName().equals(comm))) {
-                        currentCommand = (PMCommand) currentEvent.getChild(comm);
-                        if(currentCommand == null) {
-                            currentCommand = new PMCommand(comm);
-                            currentEvent.addChild(currentCommand);
-                        }
-                    }
-
-                    // initialize current dso if it doesn't exist
-                    if ((currentDso == null) || (!currentDso.getName().equals(dso))) {
-                        currentDso = (PMDso) currentCommand.getChild(dso);
-                        if (currentDso == null) {
-                            currentDso = new PMDso(dso,kernelFlag);
-                            currentCommand.addChild(currentDso);
-                        }
-                    }
-
-                    /*
-                     *  Initialize the current file, and symbol
-                     *
-                     *  We won't know the name of the file containing the symbol
-                     *  until we run 'perf annotate' to resolve it, so for now we
-                     *  attach all symbols as children of 'Unfiled Symbols'.
-                     */
-                    currentFile = currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols);
-                    currentSym = new PMSymbol(symbol, percent, samples);
-                    currentFile.addChild(currentSym);
+                    builder.addSymbol(Float.parseFloat(items[0].replace("%", "")), //$NON-NLS-1$ //$NON-NLS-2$
+                            Double.parseDouble(items[1].trim()), //samples column
+                            items[2].trim(), //command column
+                            items[3].trim(), //dso column
+                            items[4].trim()); //symbol column
                 }
             }
         } catch (IOException e) {
             logException(e);
         }
+        builder.finish();
         spitStream(error,"Perf Report", print);
 
+        annotateReport(config, workingDir, monitor, perfDataLoc, print,
+                invisibleRoot, oldPerfVersion, error, project);
+    }
+
+    /**
+     * Resolve the source files and lines of the symbols of the model with
+     * perf annotate, if selected in the launch configuration.
+     */
+    private static void annotateReport(ILaunchConfiguration config,
+            IPath workingDir, IProgressMonitor monitor, String perfDataLoc,
+            PrintStream print, TreeParent invisibleRoot,
+            boolean oldPerfVersion, BufferedReader error, IProject project) {
+        BufferedReader input = null;
+        Process p = null;
+        PMDso currentDso;
+        PMSymbol currentSym;
+
         boolean SourceLineNumbers = PerfPlugin.ATTR_SourceLineNumbers_default;
         boolean Kernel_SourceLineNumbers = PerfPlugin.ATTR_Kernel_SourceLineNumbers_default;
         try {
@@ -519,7 +558,7 @@ public class PerfCore {
                         currentDso = (PMDso)d;
                         if ((!Kernel_SourceLineNumbers) && currentDso.isKernelDso()) continue;
                         for (TreeParent s : currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols).getChildren()) {
-                            if (!(s instanceof PMSymbol)) continue;
+                            if (!(s instanceof PMSymbol) || ((PMSymbol) s).isSummary()) continue;
 
                             if (monitor != null && monitor.isCanceled()) {
                                 return;
@@ -548,7 +587,9 @@ public class PerfCore {
                         if (currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols).getChildren().length == 0) {
                             currentDso.removeChild(currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols));
                         }
-                        spitStream(error,"Perf Annotate", print);
+                        if (error != null) {
+                            spitStream(error,"Perf Annotate", print);
+                        }
                     }
                 }
             }
@@ -563,6 +604,70 @@ public class PerfCore {
         }
     }
 
+    /**
+     * Split a line of the report on the custom field separator, as
+     * <code>line.split(""+(char)1)</code> would, without the regular expression.
+     * @param line a trimmed line of the report
+     * @param items array receiving the fields
+     * @return true if the line has exactly as many fields as the array
+     */
+    private static boolean splitReportLine(String line, String[] items) {
+        int start = 0;
+        for (int i = 0; i < items.length - 1; i++) {
+            int end = line.indexOf(REPORT_SEPARATOR, start);
+            if (end == -1) {
+                return false;
+            }
+            items[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        if (line.indexOf(REPORT_SEPARATOR, start) != -1) {
+            return false;
+        }
+        items[items.length - 1] = line.substring(start);
+        return true;
+    }
+
+    /**
+     * @param config launch configuration
+     * @return the percentage below which symbols are not added to the model
+     */
+    private static float getReportThreshold(ILaunchConfiguration config) {
+        int threshold = PerfPlugin.ATTR_ReportThreshold_default;
+        if (config != null) {
+            try {
+                threshold = config.getAttribute(PerfPlugin.ATTR_ReportThreshold, PerfPlugin.ATTR_ReportThreshold_default);
+            } catch (CoreException e) {
+                // use the default
+            }
+        }
+        return threshold / 100f;
+    }
+
+    /**
+     * Show the symbols parsed so far in the Perf Profile View, if it is open,
+     * without waiting for the whole report to be parsed.
+     */
+    static void publishPartialReport() {
+        if (!PlatformUI.isWorkbenchRunning() || !partialRefreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        Display.getDefault().asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                partialRefreshPending.set(false);
+                IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+                if (window == null || window.getActivePage() == null) {
+                    return;
+                }
+                IViewPart view = window.getActivePage().findView(PerfPlugin.VIEW_ID);
+                if (view instanceof PerfProfileView) {
+                    ((PerfProfileView) view).refreshModel();
+                }
+            }
+        });
+    }
+
     /**
      * Parse annotation file for a dso given a symbol
      * @param monitor monitor
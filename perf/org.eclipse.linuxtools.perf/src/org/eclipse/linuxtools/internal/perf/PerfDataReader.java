@@ -0,0 +1,728 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.perf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.core.IAddressFactory;
+import org.eclipse.cdt.core.IBinaryParser.IBinaryFile;
+import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
+import org.eclipse.cdt.core.IBinaryParser.ISymbol;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
+
+/**
+ * Reads a perf.data file, as written by perf record, and adds its samples to
+ * the model without running perf report.
+ * <p>
+ * Samples are counted per thread and address. Mappings and symbols are only
+ * resolved once all the samples are read, through {@link STSymbolManager},
+ * so the memory used grows with the number of distinct addresses rather
+ * than with the number of samples. As in older versions of perf report,
+ * addresses are resolved against the mappings of the process once all the
+ * records are read, and commands are named after the last command name of
+ * their thread.
+ * <p>
+ * Events may have different sample types as long as their samples carry the
+ * event id at the same position, which is always the case with
+ * PERF_SAMPLE_IDENTIFIER. Other files are rejected, so that perf report is
+ * run instead.
+ */
+public class PerfDataReader {
+
+    private static final String MAGIC = "PERFILE2"; //$NON-NLS-1$
+    private static final String MAGIC_V1 = "PERFFILE"; //$NON-NLS-1$
+    private static final int HEADER_SIZE = 104;
+    private static final int HEADER_FEAT_EVENT_DESC = 12;
+
+    // perf_event_header types
+    private static final int PERF_RECORD_MMAP = 1;
+    private static final int PERF_RECORD_COMM = 3;
+    private static final int PERF_RECORD_FORK = 7;
+    private static final int PERF_RECORD_SAMPLE = 9;
+    private static final int PERF_RECORD_MMAP2 = 10;
+    private static final int PERF_RECORD_MISC_CPUMODE_MASK = 7;
+    private static final int PERF_RECORD_MISC_KERNEL = 1;
+    private static final int PERF_RECORD_MISC_GUEST_KERNEL = 4;
+
+    // perf_event_attr sample_type bits, in the order of the sample fields
+    private static final long PERF_SAMPLE_IP = 1L << 0;
+    private static final long PERF_SAMPLE_TID = 1L << 1;
+    private static final long PERF_SAMPLE_TIME = 1L << 2;
+    private static final long PERF_SAMPLE_ADDR = 1L << 3;
+    private static final long PERF_SAMPLE_ID = 1L << 6;
+    private static final long PERF_SAMPLE_CPU = 1L << 7;
+    private static final long PERF_SAMPLE_PERIOD = 1L << 8;
+    private static final long PERF_SAMPLE_STREAM_ID = 1L << 9;
+    private static final long PERF_SAMPLE_IDENTIFIER = 1L << 16;
+
+    private static final String[] HARDWARE_EVENTS = { "cycles", "instructions", //$NON-NLS-1$ //$NON-NLS-2$
+            "cache-references", "cache-misses", "branch-instructions", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            "branch-misses", "bus-cycles", "stalled-cycles-frontend", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            "stalled-cycles-backend", "ref-cycles" }; //$NON-NLS-1$ //$NON-NLS-2$
+    private static final String[] SOFTWARE_EVENTS = { "cpu-clock", "task-clock", //$NON-NLS-1$ //$NON-NLS-2$
+            "page-faults", "context-switches", "cpu-migrations", "minor-faults", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            "major-faults", "alignment-faults", "emulation-faults" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+    private static final String KERNEL_DSO = "[kernel.kallsyms]"; //$NON-NLS-1$
+    private static final String UNKNOWN_DSO = "[unknown]"; //$NON-NLS-1$
+    private static final int KERNEL_PID = -1;
+    // size of the part of the file mapped at once
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int CANCEL_CHECK_INTERVAL = 10000;
+
+    private final File file;
+    private final IProject project;
+    private final String vmlinux;
+    private final boolean moduleSymbols;
+    private final boolean hideUnresolvedSymbols;
+
+    private FileChannel channel;
+    private long fileSize;
+    private ByteOrder order;
+    private ByteBuffer window;
+    private long windowStart;
+
+    private final List<EventAttr> attrs = new ArrayList<>();
+    private final Map<Long, EventAttr> attrsById = new HashMap<>();
+    // position of the event id in the samples, in 64 bit words, or -1
+    private int idPosition;
+    private final Map<Integer, List<Mapping>> processMappings = new HashMap<>();
+    private final Map<Integer, String> comms = new HashMap<>();
+
+    private final Map<String, IBinaryObject> binaries = new HashMap<>();
+    private final Map<String, Map<Long, String>> symbolNames = new HashMap<>();
+
+    /**
+     * @param file the perf.data file
+     * @param project project used to demangle symbols, may be null
+     * @param vmlinux uncompressed kernel image used to resolve kernel symbols, may be null or empty
+     */
+    public PerfDataReader(File file, IProject project, String vmlinux) {
+        this(file, project, vmlinux, true, false);
+    }
+
+    /**
+     * @param file the perf.data file
+     * @param project project used to demangle symbols, may be null
+     * @param vmlinux uncompressed kernel image used to resolve kernel symbols, may be null or empty
+     * @param moduleSymbols whether the symbols of kernel modules are resolved, as perf report -m does
+     * @param hideUnresolvedSymbols whether samples whose symbol is not resolved are left out, as perf report -U does
+     */
+    public PerfDataReader(File file, IProject project, String vmlinux,
+            boolean moduleSymbols, boolean hideUnresolvedSymbols) {
+        this.file = file;
+        this.project = project;
+        this.vmlinux = vmlinux;
+        this.moduleSymbols = moduleSymbols;
+        this.hideUnresolvedSymbols = hideUnresolvedSymbols;
+    }
+
+    /**
+     * Read the file and add its events to the model.
+     * @param builder builder of the model
+     * @param monitor monitor, may be null
+     * @throws IOException if the file can not be read, or is not a perf.data file
+     */
+    public void read(ReportModelBuilder builder, IProgressMonitor monitor) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            channel = fis.getChannel();
+            fileSize = channel.size();
+            readHeader(monitor);
+        } finally {
+            channel = null;
+            window = null;
+        }
+        if (monitor != null && monitor.isCanceled()) {
+            return;
+        }
+        for (EventAttr attr : attrs) {
+            addEvent(builder, attr);
+        }
+    }
+
+    private void readHeader(IProgressMonitor monitor) throws IOException {
+        if (fileSize < HEADER_SIZE) {
+            throw new IOException(file + ": not a perf.data file"); //$NON-NLS-1$
+        }
+        ByteBuffer buf = map(0, HEADER_SIZE);
+        byte[] magic = new byte[8];
+        buf.get(magic);
+        String magicString = new String(magic, Charset.forName("US-ASCII")); //$NON-NLS-1$
+        String reversed = new StringBuilder(magicString).reverse().toString();
+        if (MAGIC.equals(magicString) || MAGIC_V1.equals(magicString)) {
+            order = ByteOrder.LITTLE_ENDIAN;
+        } else if (MAGIC.equals(reversed) || MAGIC_V1.equals(reversed)) {
+            order = ByteOrder.BIG_ENDIAN;
+        } else {
+            throw new IOException(file + ": not a perf.data file"); //$NON-NLS-1$
+        }
+        buf.order(order);
+        long headerSize = buf.getLong();
+        if (headerSize != HEADER_SIZE) {
+            // pipe mode, or a newer header
+            throw new IOException(file + ": unsupported perf.data header"); //$NON-NLS-1$
+        }
+        long attrSize = buf.getLong();
+        long attrsOffset = buf.getLong();
+        long attrsSize = buf.getLong();
+        long dataOffset = buf.getLong();
+        long dataSize = buf.getLong();
+        long eventTypesOffset = buf.getLong();
+        long eventTypesSize = buf.getLong();
+        long[] features = new long[4];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = buf.getLong();
+        }
+
+        readAttrs(attrsOffset, attrsSize, attrSize);
+        readEventNames(features, dataOffset + dataSize, eventTypesOffset, eventTypesSize);
+        readData(dataOffset, dataSize, monitor);
+    }
+
+    private void readAttrs(long offset, long size, long attrSize) throws IOException {
+        if (attrSize < 48 || attrSize > Integer.MAX_VALUE) {
+            throw new IOException(file + ": unsupported perf.data attributes"); //$NON-NLS-1$
+        }
+        for (long pos = offset; pos + attrSize <= offset + size; pos += attrSize) {
+            ByteBuffer buf = map(pos, (int) attrSize);
+            int start = buf.position();
+            EventAttr attr = new EventAttr();
+            attr.type = buf.getInt();
+            buf.getInt(); // size
+            attr.config = buf.getLong();
+            buf.getLong(); // sample period or frequency
+            attr.sampleType = buf.getLong();
+            // ids section at the end of the entry
+            buf.position(start + (int) attrSize - 16);
+            long idsOffset = buf.getLong();
+            long idsSize = buf.getLong();
+            attrs.add(attr);
+            for (long idPos = idsOffset; idPos + 8 <= idsOffset + idsSize; idPos += 8) {
+                attrsById.put(map(idPos, 8).getLong(), attr);
+            }
+        }
+        if (attrs.isEmpty()) {
+            throw new IOException(file + ": no event in perf.data"); //$NON-NLS-1$
+        }
+        idPosition = getIdPosition(attrs.get(0).sampleType);
+        boolean sameSampleType = true;
+        for (EventAttr attr : attrs) {
+            sameSampleType &= attr.sampleType == attrs.get(0).sampleType;
+            if (getIdPosition(attr.sampleType) != idPosition) {
+                idPosition = -1;
+            }
+        }
+        if (!sameSampleType && idPosition < 0) {
+            // the event of a sample, and so the layout of its fields, can not be known
+            throw new IOException(file + ": unsupported mix of sample types"); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * @return the position of the event id in the samples of the given type,
+     * in 64 bit words, or -1 if they have no id
+     */
+    private static int getIdPosition(long sampleType) {
+        if ((sampleType & PERF_SAMPLE_IDENTIFIER) != 0) {
+            return 0;
+        }
+        if ((sampleType & PERF_SAMPLE_ID) == 0) {
+            return -1;
+        }
+        // ip, pid and tid, time and addr come first
+        return Long.bitCount(sampleType & (PERF_SAMPLE_IP | PERF_SAMPLE_TID | PERF_SAMPLE_TIME | PERF_SAMPLE_ADDR));
+    }
+
+    private void readEventNames(long[] features, long featuresOffset, long eventTypesOffset, long eventTypesSize) throws IOException {
+        if ((features[0] & (1L << HEADER_FEAT_EVENT_DESC)) != 0) {
+            // one section per feature, in the order of the feature bits
+            int index = Long.bitCount(features[0] & ((1L << HEADER_FEAT_EVENT_DESC) - 1));
+            ByteBuffer buf = map(featuresOffset + index * 16, 16);
+            long offset = buf.getLong();
+            long size = buf.getLong();
+            readEventDesc(offset, size);
+        }
+        // perf_trace_event_type entries: u64 event_id, char name[64]
+        for (long pos = eventTypesOffset; pos + 72 <= eventTypesOffset + eventTypesSize; pos += 72) {
+            ByteBuffer buf = map(pos, 72);
+            long config = buf.getLong();
+            String name = readString(buf, 64);
+            for (EventAttr attr : attrs) {
+                if (attr.name == null && attr.config == config) {
+                    attr.name = name;
+                }
+            }
+        }
+        for (EventAttr attr : attrs) {
+            if (attr.name == null) {
+                attr.name = getDefaultName(attr);
+            }
+        }
+    }
+
+    private void readEventDesc(long offset, long size) throws IOException {
+        long end = offset + size;
+        ByteBuffer buf = map(offset, 8);
+        int count = buf.getInt();
+        int attrSize = buf.getInt();
+        long pos = offset + 8;
+        for (int i = 0; i < count && pos < end; i++) {
+            pos += attrSize;
+            buf = map(pos, 8);
+            int nrIds = buf.getInt();
+            int length = buf.getInt();
+            pos += 8;
+            String name = readString(map(pos, length), length);
+            pos += length;
+            for (int j = 0; j < nrIds; j++, pos += 8) {
+                EventAttr attr = attrsById.get(map(pos, 8).getLong());
+                if (attr != null && attr.name == null) {
+                    attr.name = name;
+                }
+            }
+        }
+    }
+
+    private static String getDefaultName(EventAttr attr) {
+        if (attr.type == 0 && attr.config >= 0 && attr.config < HARDWARE_EVENTS.length) {
+            return HARDWARE_EVENTS[(int) attr.config];
+        } else if (attr.type == 1 && attr.config >= 0 && attr.config < SOFTWARE_EVENTS.length) {
+            return SOFTWARE_EVENTS[(int) attr.config];
+        }
+        return "r" + Long.toHexString(attr.config); //$NON-NLS-1$
+    }
+
+    private void readData(long offset, long size, IProgressMonitor monitor) throws IOException {
+        long end = Math.min(offset + size, fileSize);
+        long pos = offset;
+        int records = 0;
+        while (pos + 8 <= end) {
+            if (++records % CANCEL_CHECK_INTERVAL == 0 && monitor != null && monitor.isCanceled()) {
+                return;
+            }
+            ByteBuffer buf = map(pos, 8);
+            int type = buf.getInt();
+            int misc = buf.getShort() & 0xffff;
+            int recordSize = buf.getShort() & 0xffff;
+            if (recordSize < 8 || pos + recordSize > end) {
+                throw new IOException(file + ": truncated perf.data record"); //$NON-NLS-1$
+            }
+            buf = map(pos + 8, recordSize - 8);
+            switch (type) {
+            case PERF_RECORD_SAMPLE:
+                readSample(buf, misc);
+                break;
+            case PERF_RECORD_MMAP:
+            case PERF_RECORD_MMAP2:
+                readMmap(buf, type, recordSize - 8, misc);
+                break;
+            case PERF_RECORD_COMM:
+                int pid = buf.getInt();
+                int tid = buf.getInt();
+                comms.put(tid, readString(buf, recordSize - 16));
+                if (!comms.containsKey(pid)) {
+                    comms.put(pid, comms.get(tid));
+                }
+                break;
+            case PERF_RECORD_FORK:
+                readFork(buf);
+                break;
+            default:
+                break;
+            }
+            pos += recordSize;
+        }
+    }
+
+    private void readMmap(ByteBuffer buf, int type, int size, int misc) {
+        int start = buf.position();
+        int pid = buf.getInt();
+        buf.getInt(); // tid
+        Mapping mapping = new Mapping();
+        mapping.start = buf.getLong();
+        mapping.length = buf.getLong();
+        mapping.pgoff = buf.getLong();
+        if (type == PERF_RECORD_MMAP2) {
+            // maj, min, ino, ino_generation, prot, flags
+            buf.position(buf.position() + 4 + 4 + 8 + 8 + 4 + 4);
+        }
+        mapping.filename = readString(buf, size - (buf.position() - start));
+        int cpumode = misc & PERF_RECORD_MISC_CPUMODE_MASK;
+        mapping.kernel = cpumode == PERF_RECORD_MISC_KERNEL || cpumode == PERF_RECORD_MISC_GUEST_KERNEL;
+        getMappings(mapping.kernel ? KERNEL_PID : pid).add(mapping);
+    }
+
+    private void readFork(ByteBuffer buf) {
+        int pid = buf.getInt();
+        int ppid = buf.getInt();
+        int tid = buf.getInt();
+        int ptid = buf.getInt();
+        if (!comms.containsKey(tid) && comms.containsKey(ptid)) {
+            comms.put(tid, comms.get(ptid));
+        }
+        if (pid != ppid && !processMappings.containsKey(pid) && processMappings.containsKey(ppid)) {
+            processMappings.put(pid, new ArrayList<>(processMappings.get(ppid)));
+        }
+    }
+
+    private void readSample(ByteBuffer buf, int misc) {
+        EventAttr attr;
+        if (attrs.size() == 1) {
+            attr = attrs.get(0);
+        } else if (idPosition >= 0 && buf.remaining() >= (idPosition + 1) * 8) {
+            // the position of the other fields depends on the sample type of the event
+            attr = attrsById.get(buf.getLong(buf.position() + idPosition * 8));
+        } else {
+            attr = null;
+        }
+        if (attr == null) {
+            return;
+        }
+        long sampleType = attr.sampleType;
+        long ip = 0;
+        int pid = 0;
+        int tid = 0;
+        long period = 1;
+        if ((sampleType & PERF_SAMPLE_IDENTIFIER) != 0) {
+            buf.getLong();
+        }
+        if ((sampleType & PERF_SAMPLE_IP) != 0) {
+            ip = buf.getLong();
+        }
+        if ((sampleType & PERF_SAMPLE_TID) != 0) {
+            pid = buf.getInt();
+            tid = buf.getInt();
+        }
+        if ((sampleType & PERF_SAMPLE_TIME) != 0) {
+            buf.getLong();
+        }
+        if ((sampleType & PERF_SAMPLE_ADDR) != 0) {
+            buf.getLong();
+        }
+        if ((sampleType & PERF_SAMPLE_ID) != 0) {
+            buf.getLong();
+        }
+        if ((sampleType & PERF_SAMPLE_STREAM_ID) != 0) {
+            buf.getLong();
+        }
+        if ((sampleType & PERF_SAMPLE_CPU) != 0) {
+            buf.getLong();
+        }
+        if ((sampleType & PERF_SAMPLE_PERIOD) != 0) {
+            period = buf.getLong();
+        }
+
+        int cpumode = misc & PERF_RECORD_MISC_CPUMODE_MASK;
+        boolean kernel = cpumode == PERF_RECORD_MISC_KERNEL || cpumode == PERF_RECORD_MISC_GUEST_KERNEL;
+        long key = ((long) tid << 32) | ((kernel ? KERNEL_PID : pid) & 0xffffffffL);
+        AddressCounts counts = kernel ? attr.kernelCounts.get(key) : attr.userCounts.get(key);
+        if (counts == null) {
+            counts = new AddressCounts();
+            (kernel ? attr.kernelCounts : attr.userCounts).put(key, counts);
+        }
+        counts.add(ip, period);
+        attr.totalPeriod += period;
+    }
+
+    private List<Mapping> getMappings(int pid) {
+        List<Mapping> list = processMappings.get(pid);
+        if (list == null) {
+            list = new ArrayList<>();
+            processMappings.put(pid, list);
+        }
+        return list;
+    }
+
+    private Mapping findMapping(int pid, long ip) {
+        List<Mapping> list = processMappings.get(pid);
+        if (list == null) {
+            return null;
+        }
+        // the last mapping wins, as mappings may be replaced
+        for (int i = list.size() - 1; i >= 0; i--) {
+            Mapping mapping = list.get(i);
+            if (ip - mapping.start >= 0 && ip - mapping.start < mapping.length) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    private void addEvent(ReportModelBuilder builder, EventAttr attr) {
+        builder.startEvent(attr.name);
+        Map<String, ReportEntry> entries = new LinkedHashMap<>();
+        addEntries(entries, attr.userCounts, false);
+        addEntries(entries, attr.kernelCounts, true);
+        List<ReportEntry> sorted = new ArrayList<>(entries.values());
+        // stable, so entries with the same period keep their order
+        Collections.sort(sorted, new Comparator<ReportEntry>() {
+            @Override
+            public int compare(ReportEntry e1, ReportEntry e2) {
+                return e1.period < e2.period ? 1 : (e1.period == e2.period ? 0 : -1);
+            }
+        });
+        for (ReportEntry entry : sorted) {
+            float percent = attr.totalPeriod == 0 ? 0
+                    : Math.round(entry.period * 10000.0 / attr.totalPeriod) / 100f;
+            builder.addSymbol(percent, entry.count, entry.comm, entry.dso, entry.symbol);
+        }
+        // release the counts of the event
+        attr.userCounts.clear();
+        attr.kernelCounts.clear();
+    }
+
+    private void addEntries(Map<String, ReportEntry> entries, Map<Long, AddressCounts> countsMap, boolean kernel) {
+        for (Map.Entry<Long, AddressCounts> e : countsMap.entrySet()) {
+            int tid = (int) (e.getKey() >>> 32);
+            int pid = (int) e.getKey().longValue();
+            String comm = comms.get(tid);
+            if (comm == null) {
+                comm = ":" + tid; //$NON-NLS-1$
+            }
+            AddressCounts counts = e.getValue();
+            for (int i = 0; i < counts.keys.length; i++) {
+                if (counts.counts[i] == 0) {
+                    continue;
+                }
+                Mapping mapping = findMapping(pid, counts.keys[i]);
+                String dso = getDsoName(mapping, kernel);
+                String symbol = getSymbolName(mapping, counts.keys[i], kernel);
+                if (symbol == null) {
+                    // hidden, but still part of the total so percentages are unchanged
+                    continue;
+                }
+                String key = comm + '\0' + dso + '\0' + symbol;
+                ReportEntry entry = entries.get(key);
+                if (entry == null) {
+                    entry = new ReportEntry(comm, dso, symbol);
+                    entries.put(key, entry);
+                }
+                entry.count += counts.counts[i];
+                entry.period += counts.periods[i];
+            }
+        }
+    }
+
+    private static String getDsoName(Mapping mapping, boolean kernel) {
+        if (mapping == null) {
+            return kernel ? KERNEL_DSO : UNKNOWN_DSO;
+        }
+        String name = mapping.filename;
+        if (kernel) {
+            if (name.startsWith(KERNEL_DSO) || !name.startsWith("/")) { //$NON-NLS-1$
+                return KERNEL_DSO;
+            }
+            // kernel module, named like perf report does
+            name = name.substring(name.lastIndexOf('/') + 1);
+            int ext = name.indexOf(".ko"); //$NON-NLS-1$
+            return '[' + (ext > 0 ? name.substring(0, ext) : name) + ']';
+        }
+        if (name.startsWith("/") && !name.startsWith("//")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return name.substring(name.lastIndexOf('/') + 1);
+        }
+        return name;
+    }
+
+    /**
+     * @return the name of the symbol at the given address, its address if it
+     * can not be resolved, or null if unresolved symbols are hidden
+     */
+    private String getSymbolName(Mapping mapping, long ip, boolean kernel) {
+        String prefix = kernel ? "[k] " : "[.] "; //$NON-NLS-1$ //$NON-NLS-2$
+        String path;
+        long address;
+        if (kernel && (mapping == null || !mapping.filename.startsWith("/"))) { //$NON-NLS-1$
+            path = vmlinux != null && !vmlinux.isEmpty() ? vmlinux : null;
+            address = ip;
+        } else if (mapping == null || (kernel && !moduleSymbols)) {
+            path = null;
+            address = ip;
+        } else {
+            path = mapping.filename;
+            IBinaryObject binary = getBinary(path);
+            // shared objects are mapped anywhere: use file relative addresses
+            if (binary != null && binary.getType() == IBinaryFile.SHARED) {
+                address = ip - mapping.start + mapping.pgoff;
+            } else {
+                address = ip;
+            }
+        }
+        IBinaryObject binary = path != null ? getBinary(path) : null;
+        if (binary == null) {
+            return getUnresolvedName(prefix, address);
+        }
+        Map<Long, String> names = symbolNames.get(path);
+        if (names == null) {
+            names = new HashMap<>();
+            symbolNames.put(path, names);
+        }
+        if (names.containsKey(address)) {
+            return names.get(address);
+        }
+        IAddressFactory factory = binary.getAddressFactory();
+        ISymbol symbol = binary.getSymbol(factory.createAddress(Long.toHexString(address), 16));
+        String name;
+        if (symbol == null) {
+            name = getUnresolvedName(prefix, address);
+        } else {
+            name = prefix + STSymbolManager.sharedInstance.demangle(binary, symbol.getName(), project);
+        }
+        names.put(address, name);
+        return name;
+    }
+
+    private String getUnresolvedName(String prefix, long address) {
+        return hideUnresolvedSymbols ? null : prefix + String.format("0x%016x", address); //$NON-NLS-1$
+    }
+
+    private IBinaryObject getBinary(String path) {
+        if (binaries.containsKey(path)) {
+            return binaries.get(path);
+        }
+        IBinaryObject binary = null;
+        if (new File(path).isFile()) {
+            binary = STSymbolManager.sharedInstance.getBinaryObject(path);
+        }
+        binaries.put(path, binary);
+        return binary;
+    }
+
+    /**
+     * Map the given part of the file, remapping the window if needed.
+     * @return a buffer positioned at the given offset
+     */
+    private ByteBuffer map(long offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > fileSize) {
+            throw new IOException(file + ": truncated perf.data file"); //$NON-NLS-1$
+        }
+        if (window == null || offset < windowStart || offset + length > windowStart + window.capacity()) {
+            windowStart = offset;
+            long size = Math.min(Math.max(WINDOW_SIZE, length), fileSize - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            if (order != null) {
+                window.order(order);
+            }
+        }
+        window.limit((int) (offset - windowStart) + length);
+        window.position((int) (offset - windowStart));
+        return window;
+    }
+
+    private static String readString(ByteBuffer buf, int maxLength) {
+        byte[] bytes = new byte[Math.min(maxLength, buf.remaining())];
+        buf.get(bytes);
+        int length = 0;
+        while (length < bytes.length && bytes[length] != 0) {
+            length++;
+        }
+        return new String(bytes, 0, length, Charset.defaultCharset());
+    }
+
+    private static final class EventAttr {
+        private int type;
+        private long config;
+        private long sampleType;
+        private String name;
+        private long totalPeriod;
+        // keyed by thread and process id, the process id of kernel samples being KERNEL_PID
+        private final Map<Long, AddressCounts> userCounts = new HashMap<>();
+        private final Map<Long, AddressCounts> kernelCounts = new HashMap<>();
+    }
+
+    private static final class Mapping {
+        private long start;
+        private long length;
+        private long pgoff;
+        private String filename;
+        private boolean kernel;
+    }
+
+    private static final class ReportEntry {
+        private final String comm;
+        private final String dso;
+        private final String symbol;
+        private int count;
+        private long period;
+
+        ReportEntry(String comm, String dso, String symbol) {
+            this.comm = comm;
+            this.dso = dso;
+            this.symbol = symbol;
+        }
+    }
+
+    /**
+     * Number of samples and sum of their periods, per address. Open
+     * addressing over primitive arrays, as there is an entry per distinct
+     * sampled address.
+     */
+    private static final class AddressCounts {
+        private long[] keys = new long[16];
+        private int[] counts = new int[16];
+        private long[] periods = new long[16];
+        private int size;
+
+        void add(long address, long period) {
+            int i = indexOf(keys, counts, address);
+            if (counts[i] == 0) {
+                keys[i] = address;
+                size++;
+            }
+            counts[i]++;
+            periods[i] += period;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private static int indexOf(long[] keys, int[] counts, long address) {
+            int mask = keys.length - 1;
+            long h = address * 0x9E3779B97F4A7C15L;
+            int i = (int) (h ^ (h >>> 32)) & mask;
+            while (counts[i] != 0 && keys[i] != address) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            long[] oldPeriods = periods;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            periods = new long[oldKeys.length * 2];
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldCounts[j] != 0) {
+                    int i = indexOf(keys, counts, oldKeys[j]);
+                    keys[i] = oldKeys[j];
+                    counts[i] = oldCounts[j];
+                    periods[i] = oldPeriods[j];
+                }
+            }
+        }
+    }
+}
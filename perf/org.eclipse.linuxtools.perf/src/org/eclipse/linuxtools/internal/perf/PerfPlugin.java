@@ -71,6 +71,10 @@ public class PerfPlugin extends AbstractUIPlugin {
     public static final boolean ATTR_ShowStat_default = false;
     public static final String ATTR_StatRunCount = "org.eclipse.linuxtools.internal.perf.attr.StatRunCount"; //$NON-NLS-1$
     public static final int ATTR_StatRunCount_default = 1;
+    public static final String ATTR_ReportThreshold = "org.eclipse.linuxtools.internal.perf.attr.ReportThreshold"; //$NON-NLS-1$
+    public static final int ATTR_ReportThreshold_default = 0; // in hundredths of a percent
+    public static final String ATTR_NativeReport = "org.eclipse.linuxtools.internal.perf.attr.NativeReport"; //$NON-NLS-1$
+    public static final boolean ATTR_NativeReport_default = false;
 
     //Perf Events tab attribs.
     public static final String ATTR_DefaultEvent = "org.eclipse.linuxtools.internal.perf.attr.DefaultEvent"; //$NON-NLS-1$
@@ -99,6 +103,9 @@ public class PerfPlugin extends AbstractUIPlugin {
     public static final String STRINGS_MultipleFilesForSymbol = "Symbols conflicting in multiple files"; //$NON-NLS-1$
     public static final String STRINGS_ShowSourceDisassembly = "Show Source Disassembly View"; //$NON-NLS-1$
     public static final String STRINGS_ShowStat = "Show Stat View"; //$NON-NLS-1$
+    public static final String STRINGS_ReportThreshold = "Group symbols below this percentage of samples"; //$NON-NLS-1$
+    public static final String STRINGS_SymbolsBelowThreshold = "Symbols below threshold"; //$NON-NLS-1$
+    public static final String STRINGS_NativeReport = "Read profile data directly instead of running perf report"; //$NON-NLS-1$
     public static final String STRINGS_SearchSourceDisassembly = "Search Source Disassembly"; //$NON-NLS-1$
 
     public static final String PERF_COMMAND = "perf"; //$NON-NLS-1$
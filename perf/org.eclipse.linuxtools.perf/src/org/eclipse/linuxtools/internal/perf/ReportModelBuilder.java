@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.perf;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.linuxtools.internal.perf.model.PMCommand;
+import org.eclipse.linuxtools.internal.perf.model.PMDso;
+import org.eclipse.linuxtools.internal.perf.model.PMEvent;
+import org.eclipse.linuxtools.internal.perf.model.PMFile;
+import org.eclipse.linuxtools.internal.perf.model.PMSymbol;
+import org.eclipse.linuxtools.internal.perf.model.TreeParent;
+
+/**
+ * Builds the event/command/dso/symbol model, one report entry at a time.
+ * Entries of an event are expected to come sorted by percentage, as they
+ * are in the output of perf report.
+ */
+public class ReportModelBuilder {
+
+    private final TreeParent invisibleRoot;
+    // Symbols below the threshold are summed up per dso instead of
+    // being added to the model, which keeps the model small.
+    private final float threshold;
+    private final boolean publish;
+
+    private final Map<PMDso, double[]> summaries = new LinkedHashMap<>();
+    // command and dso names are repeated on every entry
+    private final Map<String, String> names = new HashMap<>();
+    private PMEvent currentEvent = null;
+    private PMCommand currentCommand = null;
+    private PMDso currentDso = null;
+    private int unpublished = 0;
+
+    /**
+     * @param invisibleRoot root of the model
+     * @param threshold percentage below which symbols are not added to the model
+     */
+    public ReportModelBuilder(TreeParent invisibleRoot, float threshold) {
+        this.invisibleRoot = invisibleRoot;
+        this.threshold = threshold;
+        this.publish = PerfPlugin.getDefault() != null
+                && invisibleRoot == PerfPlugin.getDefault().getModelRoot();
+    }
+
+    /**
+     * Start the entries of a new event.
+     * @param event event name
+     */
+    public void startEvent(String event) {
+        currentEvent = new PMEvent(event);
+        invisibleRoot.addChild(currentEvent);
+        currentCommand = null;
+        currentDso = null;
+    }
+
+    /**
+     * Add an entry of the report to the current event.
+     * @param percent percentage of the samples of the event
+     * @param samples number of samples
+     * @param comm command name
+     * @param dso dso name
+     * @param symbol symbol name, prefixed with [k] for kernel symbols
+     */
+    public void addSymbol(float percent, double samples, String comm, String dso, String symbol) {
+        comm = intern(comm);
+        dso = intern(dso);
+        boolean kernelFlag = symbol.charAt(1) == 'k';
+
+        // initialize current command if it doesn't exist
+        if ((currentCommand == null) || (!currentCommand.getName().equals(comm))) {
+            currentCommand = (PMCommand) currentEvent.getChild(comm);
+            if(currentCommand == null) {
+                currentCommand = new PMCommand(comm);
+                currentEvent.addChild(currentCommand);
+            }
+        }
+
+        // initialize current dso if it doesn't exist
+        if ((currentDso == null) || (!currentDso.getName().equals(dso))) {
+            currentDso = (PMDso) currentCommand.getChild(dso);
+            if (currentDso == null) {
+                currentDso = new PMDso(dso,kernelFlag);
+                currentCommand.addChild(currentDso);
+            }
+        }
+
+        if (percent < threshold) {
+            double[] summary = summaries.get(currentDso);
+            if (summary == null) {
+                summary = new double[2];
+                summaries.put(currentDso, summary);
+            }
+            summary[0] += percent;
+            summary[1] += samples;
+            return;
+        }
+
+        /*
+         *  Initialize the current file, and symbol
+         *
+         *  We won't know the name of the file containing the symbol
+         *  until we run 'perf annotate' to resolve it, so for now we
+         *  attach all symbols as children of 'Unfiled Symbols'.
+         */
+        PMFile currentFile = currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols);
+        currentFile.addChild(new PMSymbol(symbol, percent, samples));
+
+        if (publish && ++unpublished == PerfCore.PUBLISH_BATCH_SIZE) {
+            unpublished = 0;
+            PerfCore.publishPartialReport();
+        }
+    }
+
+    /**
+     * Add the symbols below the threshold to the model.
+     */
+    public void finish() {
+        for (Map.Entry<PMDso, double[]> summary : summaries.entrySet()) {
+            double[] values = summary.getValue();
+            PMSymbol sym = new PMSymbol(PerfPlugin.STRINGS_SymbolsBelowThreshold, (float) values[0], values[1]);
+            sym.markSummary();
+            summary.getKey().getFile(PerfPlugin.STRINGS_UnfiledSymbols).addChild(sym);
+        }
+        summaries.clear();
+    }
+
+    private String intern(String name) {
+        String ret = names.get(name);
+        if (ret == null) {
+            names.put(name, name);
+            ret = name;
+        }
+        return ret;
+    }
+}
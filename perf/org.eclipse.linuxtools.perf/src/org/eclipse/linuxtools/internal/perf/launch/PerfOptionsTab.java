@@ -58,9 +58,11 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
     protected Button chkMultiplexEvents;
     protected Button chkModuleSymbols;
     protected Button chkHideUnresolvedSymbols;
+    protected Button chkNativeReport;
     protected Button chkShowSourceDisassembly;
     protected Button chkShowStat;
     protected Spinner statRunCount;
+    protected Spinner reportThreshold;
 
     private Composite top;
     private ScrolledComposite scrollTop;
@@ -150,6 +152,7 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         chkHideUnresolvedSymbols = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_HideUnresolvedSymbols);
         chkSourceLineNumbers = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_SourceLineNumbers);
         chkShowSourceDisassembly = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_ShowSourceDisassembly);
+        chkNativeReport = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_NativeReport);
 
         Composite showStatComp = new Composite(top, SWT.NONE);
         showStatComp.setLayout(parallelLayout);
@@ -204,6 +207,23 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
             }
         });
 
+        Composite thresholdComp = new Composite(top, SWT.NONE);
+        thresholdComp.setLayout(parallelLayout);
+
+        Label thresholdLabel = new Label(thresholdComp, SWT.NONE);
+        thresholdLabel.setText(PerfPlugin.STRINGS_ReportThreshold);
+        reportThreshold = new Spinner(thresholdComp, SWT.BORDER);
+        // percentage with two decimals
+        reportThreshold.setDigits(2);
+        reportThreshold.setMinimum(0);
+        reportThreshold.setMaximum(10000);
+        reportThreshold.addModifyListener(new ModifyListener() {
+            @Override
+            public void modifyText(ModifyEvent e) {
+                updateLaunchConfigurationDialog();
+            }
+        });
+
         // A disabled button does not respond to mouse events so use a composite.
         final Composite multiplexEventsComp = new Composite(chkBoxComp, SWT.NONE);
         multiplexEventsComp.setLayout(chkBoxLayout);
@@ -318,6 +338,7 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         chkModuleSymbols.setEnabled(enable);
         chkHideUnresolvedSymbols.setEnabled(enable);
         chkShowSourceDisassembly.setEnabled(enable);
+        chkNativeReport.setEnabled(enable);
     }
 
     @Override
@@ -351,8 +372,10 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
             chkHideUnresolvedSymbols.setSelection(config.getAttribute(PerfPlugin.ATTR_HideUnresolvedSymbols, PerfPlugin.ATTR_HideUnresolvedSymbols_default));
             chkShowSourceDisassembly.setSelection(config.getAttribute(PerfPlugin.ATTR_ShowSourceDisassembly, PerfPlugin.ATTR_ShowSourceDisassembly_default));
             chkShowStat.setSelection(config.getAttribute(PerfPlugin.ATTR_ShowStat, PerfPlugin.ATTR_ShowStat_default));
+            chkNativeReport.setSelection(config.getAttribute(PerfPlugin.ATTR_NativeReport, PerfPlugin.ATTR_NativeReport_default));
             int runCount = config.getAttribute(PerfPlugin.ATTR_StatRunCount, PerfPlugin.ATTR_StatRunCount_default);
             statRunCount.setSelection(runCount);
+            reportThreshold.setSelection(config.getAttribute(PerfPlugin.ATTR_ReportThreshold, PerfPlugin.ATTR_ReportThreshold_default));
             handleShowStatSelection(perfVersion);
         } catch (CoreException e) {
             // do nothing
@@ -379,6 +402,8 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         wconfig.setAttribute(PerfPlugin.ATTR_ShowSourceDisassembly, chkShowSourceDisassembly.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_ShowStat, chkShowStat.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_StatRunCount, statRunCount.getSelection());
+        wconfig.setAttribute(PerfPlugin.ATTR_ReportThreshold, reportThreshold.getSelection());
+        wconfig.setAttribute(PerfPlugin.ATTR_NativeReport, chkNativeReport.getSelection());
     }
 
     @Override
@@ -395,6 +420,8 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         wconfig.setAttribute(PerfPlugin.ATTR_ShowSourceDisassembly, PerfPlugin.ATTR_ShowSourceDisassembly_default);
         wconfig.setAttribute(PerfPlugin.ATTR_ShowStat, PerfPlugin.ATTR_ShowStat_default);
         wconfig.setAttribute(PerfPlugin.ATTR_StatRunCount, PerfPlugin.ATTR_StatRunCount_default);
+        wconfig.setAttribute(PerfPlugin.ATTR_ReportThreshold, PerfPlugin.ATTR_ReportThreshold_default);
+        wconfig.setAttribute(PerfPlugin.ATTR_NativeReport, PerfPlugin.ATTR_NativeReport_default);
     }
 
 }
@@ -13,6 +13,7 @@ package org.eclipse.linuxtools.internal.perf.model;
 
 public class PMSymbol extends TreeParent {
     private boolean pathConflictFound = false;
+    private boolean summary = false;
 
     public String getFunctionName() {
         String tmpName = getName();
@@ -53,4 +54,12 @@ public class PMSymbol extends TreeParent {
     public boolean conflicted() {
         return pathConflictFound;
     }
+
+    public void markSummary() { // Stands for all the symbols below the report threshold.
+        summary = true;
+    }
+
+    public boolean isSummary() {
+        return summary;
+    }
 }
@@ -71,7 +71,7 @@ public class TreeParent {
      *
      * @return the number of samples
      */
-    private double getSamples () {
+    private synchronized double getSamples () {
         // Child of PMSymbol, distribute samples by percentage
         if (this instanceof PMLineRef) {
             if (samples == -1) {
@@ -105,12 +105,24 @@ public class TreeParent {
     }
 
     public void addChild(TreeParent child) {
-        children.add(child);
+        synchronized (this) {
+            children.add(child);
+        }
         child.setParent(this);
-        recalculatePercentage();
+        invalidateSamples();
+        if (getPercent() != -1 && this instanceof PMFile) {
+            // Children are appended, so adding the new percentage gives
+            // the same sum as re-summing all of them.
+            percent += child.getPercent();
+            if (getParent() != null && getParent().getPercent() != -1) {
+                getParent().recalculatePercentage();
+            }
+        } else {
+            recalculatePercentage();
+        }
     }
 
-    public TreeParent getChild(String name) {
+    public synchronized TreeParent getChild(String name) {
         //check if it exists
         for(TreeParent t : children) {
             if (t.equals(name))
@@ -120,23 +132,38 @@ public class TreeParent {
     }
 
     public void removeChild(TreeParent child) {
-        children.remove(child);
+        synchronized (this) {
+            children.remove(child);
+        }
         child.setParent(null);
+        invalidateSamples();
         recalculatePercentage();
     }
 
-    public TreeParent [] getChildren() {
+    public synchronized TreeParent [] getChildren() {
         return children.toArray(new TreeParent[children.size()]);
     }
 
-    public boolean hasChildren() {
+    public synchronized boolean hasChildren() {
         return children.size() > 0;
     }
 
-    public void clear() {
+    public synchronized void clear() {
         children.clear();
     }
 
+    /**
+     * Forget the number of samples accumulated by this element and its
+     * parents, as the model may be displayed while it is being built.
+     */
+    private void invalidateSamples() {
+        for (TreeParent t = this; t != null && !(t instanceof PMSymbol); t = t.getParent()) {
+            synchronized (t) {
+                t.samples = -1;
+            }
+        }
+    }
+
     private void recalculatePercentage() {
         if (getPercent() != -1 && (this instanceof PMDso || this instanceof PMFile)){
             percent = 0;
@@ -73,7 +73,11 @@ public class PerfProfileView extends ViewPart {
     }
 
     public void refreshModel() {
-        viewer.setInput(PerfPlugin.getDefault().getModelRoot());
+        TreeParent root = PerfPlugin.getDefault().getModelRoot();
+        // keep the expanded elements when partial results are refreshed
+        if (viewer.getInput() != root) {
+            viewer.setInput(root);
+        }
         viewer.refresh();
     }
 
@@ -0,0 +1,29 @@
+#!/bin/sh
+# Rebuilds the ELF test files from prog.c, and records what the binutils
+# programs answer for them. The tests compare the native ELF readers with
+# these recordings.
+set -e
+cd "$(dirname "$0")"
+FLAGS="-O0 -nostdlib -static -fno-asynchronous-unwind-tables -fno-pic -no-pie \
+ -fdebug-prefix-map=$(pwd)=/src -Wl,--build-id=none -Wl,-z,noseparate-code \
+ -Wl,-z,max-page-size=16 -Wl,-z,norelro"
+
+for v in 2 3 4 5; do
+    gcc -g -gdwarf-$v $FLAGS -o elf64-dwarf$v prog.c
+done
+gcc $FLAGS -o elf64-nodebug prog.c
+gcc -m32 -g -gdwarf-2 $FLAGS -o elf32-dwarf2 prog.c
+gcc -m32 -g -gdwarf-5 $FLAGS -o elf32-dwarf5 prog.c
+
+# same code as elf64-dwarf5 and elf64-dwarf4, with compressed debug sections
+gcc -g -gdwarf-5 $FLAGS -Wl,--compress-debug-sections=zlib -o elf64-zlib prog.c
+gcc -g -gdwarf-4 $FLAGS -Wl,--compress-debug-sections=zlib-gnu -o elf64-zlib-gnu prog.c
+gcc -g -gdwarf-5 $FLAGS -Wl,--compress-debug-sections=zstd -o elf64-zstd prog.c
+
+for f in elf32-dwarf2 elf32-dwarf5 elf64-dwarf2 elf64-dwarf3 elf64-dwarf4 elf64-dwarf5; do
+    nm $f > $f.nm
+    # every instruction, plus addresses before and after the code
+    addrs=$(objdump -d $f | grep -E '^ +[0-9a-f]+:' | awk '{print $1}' | tr -d ':')
+    last=$(echo "$addrs" | tail -1)
+    addr2line -a -f -e $f 0 $addrs $(printf '%x' $((0x$last + 64))) > $f.addr2line
+done
@@ -0,0 +1,42 @@
+int counter;
+int initialized = 3;
+
+int square(int x)
+{
+    return x * x;
+}
+
+int cube(int x)
+{
+    int y = square(x);
+    return x * y;
+}
+
+int sum(int n)
+{
+    int total = 0;
+    int i;
+    for (i = 0; i < n; i++) {
+        total += square(i);
+        total += cube(i);
+    }
+    return total;
+}
+
+static int scale(int x, int factor)
+{
+    if (x < 0) {
+        x = -x;
+    }
+    return x * factor;
+}
+
+void _start(void)
+{
+    counter = square(initialized);
+    counter += cube(counter);
+    counter += sum(counter);
+    counter += scale(counter, 2);
+    for (;;)
+        ;
+}
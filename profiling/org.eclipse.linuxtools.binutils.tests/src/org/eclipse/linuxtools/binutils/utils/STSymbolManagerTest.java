@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.cdt.utils.Addr64;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+public class STSymbolManagerTest {
+
+    /**
+     * Pool of numbered tools, which records the tools it disposes.
+     */
+    private static class NumberPool extends STSymbolManager.ToolPool<Integer> {
+        private final AtomicInteger created = new AtomicInteger();
+        private final Set<Integer> disposed = Collections.synchronizedSet(new HashSet<Integer>());
+        private volatile boolean failing;
+
+        @Override
+        Integer create() throws IOException {
+            if (failing) {
+                throw new IOException("can not start the tool");
+            }
+            return created.incrementAndGet();
+        }
+
+        @Override
+        void dispose(Integer tool) {
+            disposed.add(tool);
+        }
+    }
+
+    /**
+     * Batch which records the tool used for each element.
+     */
+    private static class RecordingBatch extends STSymbolManager.Batch<Integer> {
+        private final int[] tools;
+
+        RecordingBatch(int size) {
+            tools = new int[size];
+        }
+
+        @Override
+        void resolve(Integer tool, int index) {
+            tools[index] = tool;
+        }
+    }
+
+    private static int[] range(int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    @Test
+    public void testToolPoolReuse() throws IOException {
+        NumberPool pool = new NumberPool();
+        Integer tool = pool.acquire();
+        pool.release(tool);
+        assertSame(tool, pool.acquire());
+        assertEquals(1, pool.created.get());
+    }
+
+    @Test
+    public void testToolPoolLimit() throws Exception {
+        final NumberPool pool = new NumberPool();
+        List<Integer> tools = new ArrayList<>();
+        for (int i = 0; i < STSymbolManager.POOL_SIZE; i++) {
+            tools.add(pool.acquire());
+        }
+        assertEquals(STSymbolManager.POOL_SIZE, new HashSet<>(tools).size());
+
+        // a full pool makes the next caller wait for a tool to be released
+        final Integer[] acquired = new Integer[1];
+        Thread waiting = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    acquired[0] = pool.acquire();
+                } catch (IOException e) {
+                    // left null
+                }
+            }
+        };
+        waiting.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (waiting.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, waiting.getState());
+        pool.release(tools.get(0));
+        waiting.join(10000);
+        assertSame(tools.get(0), acquired[0]);
+        assertEquals(STSymbolManager.POOL_SIZE, pool.created.get());
+    }
+
+    @Test
+    public void testToolPoolDispose() throws IOException {
+        NumberPool pool = new NumberPool();
+        Integer busy = pool.acquire();
+
+        // not while a tool is in use
+        assertFalse(pool.disposeIfUnused(Long.MAX_VALUE));
+        pool.release(busy);
+        assertFalse(pool.disposeIfUnused(System.currentTimeMillis()));
+        assertTrue(pool.disposeIfUnused(Long.MAX_VALUE));
+        assertEquals(Collections.singleton(busy), pool.disposed);
+
+        // tools in use when the pool is disposed are disposed once released
+        pool = new NumberPool();
+        busy = pool.acquire();
+        pool.dispose();
+        assertTrue(pool.disposed.isEmpty());
+        pool.release(busy);
+        assertEquals(Collections.singleton(busy), pool.disposed);
+    }
+
+    @Test
+    public void testLRUCache() {
+        // 16 segments of 2 entries: keys multiple of 16 all go to the first segment
+        STSymbolManager.LRUCache<Integer, String> cache = new STSymbolManager.LRUCache<>(32);
+        cache.put(0, "0");
+        cache.put(16, "16");
+        assertEquals("0", cache.get(0));
+        cache.put(32, "32");
+        assertNull(cache.get(16));
+        assertEquals("0", cache.get(0));
+        assertEquals("32", cache.get(32));
+
+        // other segments are not affected
+        cache.put(1, "1");
+        assertEquals("1", cache.get(1));
+        assertEquals("0", cache.get(0));
+
+        cache.clear();
+        assertNull(cache.get(0));
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void testAddressKey() throws IOException {
+        File file = File.createTempFile("program", null);
+        try {
+            assertTrue(file.setLastModified(1000000000000L));
+            String program = STSymbolManager.AddressKey.getProgramKey(new Path(file.getPath()));
+            assertEquals(program, STSymbolManager.AddressKey.getProgramKey(new Path(file.getPath())));
+            STSymbolManager.AddressKey key = new STSymbolManager.AddressKey(program, new Addr64(BigInteger.TEN));
+            assertEquals(key, new STSymbolManager.AddressKey(program, new Addr64(BigInteger.TEN)));
+            assertEquals(key.hashCode(), new STSymbolManager.AddressKey(program, new Addr64(BigInteger.TEN)).hashCode());
+            assertFalse(key.equals(new STSymbolManager.AddressKey(program, new Addr64(BigInteger.ONE))));
+
+            // a rebuilt program does not match the entries of the previous one
+            assertTrue(file.setLastModified(1000000001000L));
+            assertFalse(program.equals(STSymbolManager.AddressKey.getProgramKey(new Path(file.getPath()))));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        NumberPool pool = new NumberPool();
+        for (int size : new int[] { 1, STSymbolManager.PARALLEL_BATCH_THRESHOLD - 1, 1000 }) {
+            RecordingBatch batch = new RecordingBatch(size);
+            batch.run(pool, range(size));
+            Set<Integer> used = new HashSet<>();
+            for (int tool : batch.tools) {
+                assertTrue(tool != 0);
+                used.add(tool);
+            }
+            assertTrue(used.size() <= STSymbolManager.POOL_SIZE);
+            if (size < STSymbolManager.PARALLEL_BATCH_THRESHOLD) {
+                assertEquals(1, used.size());
+            }
+        }
+
+        // the tools and the threads are reused by the next batches
+        for (int i = 0; i < 20; i++) {
+            new RecordingBatch(1000).run(pool, range(1000));
+        }
+        assertTrue(pool.created.get() <= STSymbolManager.POOL_SIZE);
+        assertSame(STSymbolManager.getBatchExecutor(), STSymbolManager.getBatchExecutor());
+    }
+
+    @Test
+    public void testBatchWithoutTool() {
+        NumberPool pool = new NumberPool();
+        pool.failing = true;
+        RecordingBatch batch = new RecordingBatch(1000);
+        batch.run(pool, range(1000));
+        for (int tool : batch.tools) {
+            assertEquals(0, tool);
+        }
+    }
+}
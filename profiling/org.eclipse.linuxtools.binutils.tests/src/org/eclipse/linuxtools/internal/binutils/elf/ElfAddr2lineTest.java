@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.eclipse.cdt.core.IAddress;
+import org.eclipse.cdt.utils.Addr64;
+import org.junit.Test;
+
+/**
+ * Compares the line table and the function lookups with the output of
+ * <code>addr2line -a -f</code> for every instruction of the test files.
+ */
+public class ElfAddr2lineTest {
+
+    private static void assertSameAsAddr2line(String file, String recorded) throws IOException {
+        ElfFile elf = ElfFixtures.open(file);
+        DwarfLineTable lines = DwarfLineTable.read(elf);
+        ElfSymbolTable symbols = ElfSymbolTable.read(elf, true);
+        ElfAddr2line addr2line = new ElfAddr2line(file, lines, symbols);
+        // address, function and file:line for each address
+        List<String> output = ElfFixtures.readLines(recorded);
+        assertTrue(output.size() > 30);
+        for (int i = 0; i + 2 < output.size(); i += 3) {
+            String address = output.get(i);
+            IAddress value = new Addr64(new BigInteger(address.substring(2), 16));
+            assertEquals(address, output.get(i + 1), addr2line.getFunction(value));
+            // the discriminator, when addr2line prints one, is not part of the line
+            String line = output.get(i + 2).replaceFirst(" \\(discriminator \\d+\\)$", "");
+            assertEquals(address, line, addr2line.getLine(value));
+        }
+        addr2line.dispose();
+    }
+
+    @Test
+    public void testRecordedOutput() throws IOException {
+        for (String file : ElfFixtures.RECORDED) {
+            assertSameAsAddr2line(file, file + ".addr2line");
+        }
+    }
+
+    @Test
+    public void testCompressedDebugSections() throws IOException {
+        assertSameAsAddr2line("elf64-zlib", "elf64-dwarf5.addr2line");
+        assertSameAsAddr2line("elf64-zlib-gnu", "elf64-dwarf4.addr2line");
+    }
+
+    @Test
+    public void testLineTable() throws IOException {
+        ElfFile elf = ElfFixtures.open("elf64-dwarf5");
+        DwarfLineTable lines = DwarfLineTable.read(elf);
+        long square = lookup(elf, "square");
+        // the opening brace of square()
+        assertEquals("/src/prog.c", lines.getFileName(square));
+        assertEquals(5, lines.getLineNumber(square));
+        assertNull(lines.getFileName(0));
+        assertEquals(0, lines.getLineNumber(0));
+    }
+
+    @Test
+    public void testNoDebugInformation() throws IOException {
+        ElfFile elf = ElfFixtures.open("elf64-nodebug");
+        assertNull(DwarfLineTable.read(elf));
+        assertEquals("square", ElfSymbolTable.read(elf, true).getFunction(lookup(elf, "square")));
+    }
+
+    private static long lookup(ElfFile elf, String name) throws IOException {
+        ElfSymbolTable symbols = ElfSymbolTable.read(elf, false);
+        for (int i = 0; i < symbols.size(); i++) {
+            if (symbols.getName(i).equals(name)) {
+                return symbols.getValue(i);
+            }
+        }
+        throw new AssertionError(name);
+    }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.linuxtools.internal.binutils.elf.ElfFile.Section;
+import org.junit.Test;
+
+public class ElfFileTest {
+
+    @Test
+    public void testOpen() throws IOException {
+        ElfFile elf = ElfFixtures.open("elf64-dwarf4");
+        assertTrue(elf.is64());
+        Section text = elf.getSection(".text");
+        assertNotNull(text);
+        assertTrue((text.flags & ElfFile.SHF_EXECINSTR) != 0);
+        assertEquals(ElfFile.SHT_NOBITS, elf.getSection(".bss").type);
+        assertEquals(0, elf.getContent(".bss").remaining());
+        assertNull(elf.getSection(".zdebug_line"));
+
+        elf = ElfFixtures.open("elf32-dwarf2");
+        assertFalse(elf.is64());
+        assertEquals(elf.getSection(".text").size, elf.getContent(".text").remaining());
+    }
+
+    @Test
+    public void testNotElf() {
+        try {
+            ElfFixtures.open("prog.c");
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCompressedSections() throws IOException {
+        // SHF_COMPRESSED sections, same name as the uncompressed ones
+        ElfFile zlib = ElfFixtures.open("elf64-zlib");
+        assertTrue((zlib.getSection(".debug_line").flags & ElfFile.SHF_COMPRESSED) != 0);
+        assertSameContent(ElfFixtures.open("elf64-dwarf5"), zlib, ".debug_line");
+        assertSameContent(ElfFixtures.open("elf64-dwarf5"), zlib, ".debug_info");
+
+        // .zdebug_* sections, found under the .debug_* name
+        ElfFile zlibGnu = ElfFixtures.open("elf64-zlib-gnu");
+        assertNull(zlibGnu.getSection(".debug_line"));
+        assertNotNull(zlibGnu.getSection(".zdebug_line"));
+        assertSameContent(ElfFixtures.open("elf64-dwarf4"), zlibGnu, ".debug_line");
+        assertSameContent(ElfFixtures.open("elf64-dwarf4"), zlibGnu, ".debug_str");
+    }
+
+    @Test
+    public void testUnsupportedCompression() throws IOException {
+        // zstd: left to the binutils programs
+        ElfFile elf = ElfFixtures.open("elf64-zstd");
+        try {
+            elf.getContent(".debug_line");
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        try {
+            DwarfLineTable.read(elf);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        // the symbol table is never compressed
+        assertTrue(ElfSymbolTable.read(elf, false).size() > 0);
+    }
+
+    private static void assertSameContent(ElfFile expected, ElfFile actual, String section) throws IOException {
+        ByteBuffer expectedContent = expected.getContent(section);
+        ByteBuffer actualContent = actual.getContent(section);
+        assertEquals(expected.getSection(section).size, actualContent.remaining());
+        assertEquals(expectedContent.order(), actualContent.order());
+        assertEquals(expectedContent, actualContent);
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Path;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Access to the ELF files of resources/elf, built from prog.c by build.sh,
+ * and to the addr2line and nm output recorded for them.
+ */
+final class ElfFixtures {
+
+    /** Uncompressed files, each with its recorded .nm and .addr2line output */
+    static final String[] RECORDED = { "elf32-dwarf2", "elf32-dwarf5", "elf64-dwarf2", "elf64-dwarf3",
+            "elf64-dwarf4", "elf64-dwarf5" };
+
+    private ElfFixtures() {
+    }
+
+    static File getFile(String name) throws IOException {
+        URL url = FileLocator.find(FrameworkUtil.getBundle(ElfFixtures.class), new Path("resources/elf/" + name), null);
+        if (url == null) {
+            throw new IOException("missing test file " + name);
+        }
+        try {
+            return new File(FileLocator.toFileURL(url).toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static ElfFile open(String name) throws IOException {
+        return ElfFile.open(getFile(name));
+    }
+
+    static List<String> readLines(String name) throws IOException {
+        return Files.readAllLines(getFile(name).toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.linuxtools.binutils.utils.STNMSymbolsHandler;
+import org.junit.Test;
+
+/**
+ * Compares the symbols reported by {@link ElfNM} with the output of nm.
+ */
+public class ElfNMTest {
+
+    /**
+     * Handler which prints the symbols as nm does, with the upper case type
+     * of the handler method called.
+     */
+    private static class RecordingHandler implements STNMSymbolsHandler {
+        final List<String> symbols = new ArrayList<>();
+
+        @Override
+        public void foundUndefSymbol(String symbol) {
+            symbols.add("U " + symbol);
+        }
+
+        @Override
+        public void foundTextSymbol(String symbol, String address) {
+            symbols.add(address + " T " + symbol);
+        }
+
+        @Override
+        public void foundBssSymbol(String symbol, String address) {
+            symbols.add(address + " B " + symbol);
+        }
+
+        @Override
+        public void foundDataSymbol(String symbol, String address) {
+            symbols.add(address + " D " + symbol);
+        }
+    }
+
+    private static List<String> readNM(String file) throws IOException {
+        List<String> ret = new ArrayList<>();
+        for (String line : ElfFixtures.readLines(file)) {
+            // "address type name", or "type name" for undefined symbols
+            String[] fields = line.trim().split(" +");
+            String type = fields[fields.length - 2];
+            if ("TtBbDdU".contains(type)) {
+                fields[fields.length - 2] = type.toUpperCase();
+                StringBuilder symbol = new StringBuilder(fields[0]);
+                for (int i = 1; i < fields.length; i++) {
+                    symbol.append(' ').append(fields[i]);
+                }
+                ret.add(symbol.toString());
+            }
+        }
+        Collections.sort(ret);
+        return ret;
+    }
+
+    @Test
+    public void testRecordedOutput() throws IOException {
+        for (String file : ElfFixtures.RECORDED) {
+            ElfFile elf = ElfFixtures.open(file);
+            RecordingHandler handler = new RecordingHandler();
+            new ElfNM(ElfSymbolTable.read(elf, false), elf.is64(), handler);
+            Collections.sort(handler.symbols);
+            assertEquals(file, readNM(file + ".nm"), handler.symbols);
+        }
+    }
+
+    @Test
+    public void testSymbolTypes() throws IOException {
+        ElfSymbolTable symbols = ElfSymbolTable.read(ElfFixtures.open("elf64-dwarf4"), false);
+        StringBuilder types = new StringBuilder();
+        for (String name : new String[] { "square", "scale", "counter", "initialized" }) {
+            for (int i = 0; i < symbols.size(); i++) {
+                if (symbols.getName(i).equals(name)) {
+                    types.append(symbols.getType(i));
+                }
+            }
+        }
+        // scale() is static
+        assertEquals("TtBD", types.toString());
+    }
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * DataInput implementation over a (memory-mapped) ByteBuffer, in either byte order. It is used to decode the binary
+ * files written by profiled programs, such as gmon.out or gcda files, without going through a stream.
+ * @since 5.1
+ */
+public class ByteBufferDataInput implements DataInput {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructor
+     * @param buffer
+     */
+    public ByteBufferDataInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the given file in memory, in big-endian order.
+     * @param file
+     * @return a DataInput over the content of the file
+     * @throws IOException
+     */
+    public static ByteBufferDataInput map(File file) throws IOException {
+        return new ByteBufferDataInput(mapFile(file));
+    }
+
+    /**
+     * Maps the given file in memory.
+     * @param file
+     * @param order
+     *            the byte order of the file
+     * @return a DataInput over the content of the file
+     * @throws IOException
+     */
+    public static ByteBufferDataInput map(File file, ByteOrder order) throws IOException {
+        ByteBufferDataInput input = map(file);
+        input.order(order);
+        return input;
+    }
+
+    /**
+     * Maps the given file in memory, read-only.
+     * @param file
+     * @return a big-endian buffer over the content of the file
+     * @throws IOException
+     */
+    protected static ByteBuffer mapFile(File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file); FileChannel channel = fis.getChannel()) {
+            // the mapping stays valid once the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Changes the byte order used to decode the remaining data.
+     * @param order
+     */
+    public void order(ByteOrder order) {
+        buffer.order(order);
+    }
+
+    /**
+     * Go back to the beginning of the buffer.
+     */
+    public void rewind() {
+        buffer.rewind();
+    }
+
+    /**
+     * Reads dst.length unsigned shorts at once, and adds them to dst.
+     * @param dst
+     * @throws IOException
+     */
+    public void addUnsignedShorts(int[] dst) throws IOException {
+        int n = dst.length;
+        if (buffer.remaining() < n * 2) {
+            throw new EOFException();
+        }
+        ShortBuffer shorts = buffer.asShortBuffer();
+        short[] values = new short[n];
+        shorts.get(values);
+        buffer.position(buffer.position() + n * 2);
+        for (int i = 0; i < n; i++) {
+            dst[i] += values[i] & 0xffff;
+        }
+    }
+
+    @Override
+    public final short readShort() throws IOException {
+        try {
+            return buffer.getShort();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public final int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+
+    @Override
+    public final char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    @Override
+    public final int readInt() throws IOException {
+        try {
+            return buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        try {
+            return buffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public final float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public final double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        try {
+            return buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xff;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        try {
+            buffer.get(b, off, len);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int skipped = Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    /**
+     * Reads a line of text as {@link DataInputStream#readLine()} does: each byte is one character, and a line ends at
+     * '\n', '\r' or "\r\n".
+     * @return the line, without its terminator, or <code>null</code> at the end of the buffer
+     */
+    @Override
+    public String readLine() {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        while (buffer.hasRemaining()) {
+            char c = (char) (buffer.get() & 0xff);
+            if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                    buffer.get();
+                }
+                break;
+            }
+            line.append(c);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.linuxtools.internal.Activator;
+import org.eclipse.linuxtools.internal.binutils.elf.NativeBinutilsFactory;
 
 /**
  * This class is on charge of managing "org.eclipse.linuxtools.binutils.crossCompilerBinutils" extension point.
@@ -39,7 +40,7 @@ public class STBinutilsFactoryManager {
     /**
      * Default factory
      */
-    private static DefaultBinutilsFactory defaultFactory;
+    private static ISTBinutilsFactory defaultFactory;
 
     /**
      * Private constructor: this class is implemented as a Singleton
@@ -66,7 +67,7 @@ public class STBinutilsFactoryManager {
                         ISTBinutilsFactory factory = (ISTBinutilsFactory) configurationElement
                                 .createExecutableExtension("binutilsFactory"); //$NON-NLS-1$
                         if (factory.testAvailability())
-                            return factory;
+                            return new NativeBinutilsFactory(factory);
                     }
                 }
             }
@@ -74,7 +75,7 @@ public class STBinutilsFactoryManager {
             Activator.getDefault().getLog().log(e.getStatus());
         }
         if (defaultFactory == null) {
-            defaultFactory = new DefaultBinutilsFactory();
+            defaultFactory = new NativeBinutilsFactory(new DefaultBinutilsFactory());
         }
         return defaultFactory;
     }
@@ -53,6 +53,17 @@ public class STNM {
         }
     }
 
+    /**
+     * Constructor for subclasses reading the symbols by other means than
+     * running nm.
+     *
+     * @param handler The symbol handler.
+     * @since 5.1
+     */
+    protected STNM(STNMSymbolsHandler handler) {
+        this.handler = handler;
+    }
+
     private void init(String command, String[] params, String file, IProject project) throws IOException {
         String[] args = null;
         if (params == null || params.length == 0) {
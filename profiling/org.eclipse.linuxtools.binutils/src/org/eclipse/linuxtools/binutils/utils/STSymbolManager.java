@@ -12,11 +12,25 @@
 package org.eclipse.linuxtools.binutils.utils;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.IAddress;
@@ -51,6 +65,9 @@ import org.eclipse.linuxtools.internal.Activator;
 /**
  * This class Is a utility on top of c++filt and addr2line. It allows an easy conversion between address and source
  * location, and between mangled and demangled symbols.
+ * <p>
+ * It is thread safe: each binary (resp. cpu) has a small pool of addr2line (resp. c++filt) programs, and the results
+ * are kept in LRU caches. The batch methods split large requests among the programs of a pool.
  */
 public class STSymbolManager {
 
@@ -59,25 +76,338 @@ public class STSymbolManager {
      */
     private final static long AUTO_DISPOSE_TIMEOUT = 30000;
 
+    /**
+     * Maximum number of addr2line (resp. c++filt) programs run at once for the same binary (resp. cpu).
+     */
+    final static int POOL_SIZE = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Batches smaller than this are resolved by the calling thread, with a single program.
+     */
+    final static int PARALLEL_BATCH_THRESHOLD = 64;
+
+    /**
+     * Maximum number of resolved addresses (resp. demangled symbols) kept in cache.
+     */
+    private final static int CACHE_SIZE = 65536;
+
     /**
      * Singleton instance
      */
     public final static STSymbolManager sharedInstance = new STSymbolManager();
 
-    private final static class AutoDisposeAddr2line {
-        private Addr2line addr2line;
-        private long startTime;
+    /**
+     * Threads resolving the parts of large batches, shared by all the batches. Created on first use.
+     */
+    private static ExecutorService batchExecutor;
+
+    /**
+     * Pool of instances of a tool. Each instance answers one request at a time, so it is handed out to one thread at
+     * a time.
+     */
+    abstract static class ToolPool<T> {
+        private final ArrayDeque<T> idle = new ArrayDeque<>();
+        private int count;
+        private long lastUse = System.currentTimeMillis();
+        private boolean disposed;
+
+        /**
+         * @return an instance of the tool, for the exclusive use of the caller until it is released
+         * @throws IOException if the tool can not be started
+         */
+        synchronized T acquire() throws IOException {
+            while (idle.isEmpty() && count >= POOL_SIZE && !disposed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            lastUse = System.currentTimeMillis();
+            if (!idle.isEmpty()) {
+                return idle.pop();
+            }
+            T tool = create();
+            count++;
+            return tool;
+        }
+
+        synchronized void release(T tool) {
+            lastUse = System.currentTimeMillis();
+            if (disposed) {
+                // the pool may no longer be reachable: do not keep the tool
+                count--;
+                dispose(tool);
+            } else {
+                idle.push(tool);
+            }
+            notify();
+        }
+
+        /**
+         * Dispose the pool if none of its tools has been used since {@link #AUTO_DISPOSE_TIMEOUT} ms.
+         * @return true if the pool has been disposed
+         */
+        synchronized boolean disposeIfUnused(long currentTime) {
+            if (idle.size() == count && currentTime - lastUse > AUTO_DISPOSE_TIMEOUT) {
+                dispose();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Dispose the idle tools, and the others once released.
+         */
+        synchronized void dispose() {
+            disposed = true;
+            for (T tool : idle) {
+                dispose(tool);
+            }
+            count -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+
+        abstract T create() throws IOException;
+
+        abstract void dispose(T tool);
+    }
+
+    private final static class Addr2linePool extends ToolPool<Addr2line> {
+        private final IBinaryObject program;
+        private final IProject project;
+
+        Addr2linePool(IBinaryObject program, IProject project) {
+            this.program = program;
+            this.project = project;
+        }
+
+        @Override
+        Addr2line create() throws IOException {
+            return STBinutilsFactoryManager.getAddr2line(program.getCPU(), program.getPath().toOSString(), project);
+        }
+
+        @Override
+        void dispose(Addr2line addr2line) {
+            addr2line.dispose();
+        }
+    }
+
+    private final static class CPPFiltPool extends ToolPool<CPPFilt> {
+        private final String cpu;
+        private final IProject project;
+
+        CPPFiltPool(String cpu, IProject project) {
+            this.cpu = cpu;
+            this.project = project;
+        }
+
+        @Override
+        CPPFilt create() throws IOException {
+            return STBinutilsFactoryManager.getCPPFilt(cpu, project);
+        }
+
+        @Override
+        void dispose(CPPFilt cppfilt) {
+            cppfilt.dispose();
+        }
+    }
+
+    /**
+     * LRU cache, split in segments so that threads seldom wait for each other.
+     */
+    final static class LRUCache<K, V> {
+        private static final int SEGMENTS = 16;
+        private final Map<K, V>[] segments;
+
+        @SuppressWarnings("unchecked")
+        LRUCache(int maxSize) {
+            final int segmentSize = maxSize / SEGMENTS;
+            segments = new Map[SEGMENTS];
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                        return size() > segmentSize;
+                    }
+                };
+            }
+        }
+
+        private Map<K, V> getSegment(Object key) {
+            int h = key.hashCode();
+            return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+        }
+
+        V get(K key) {
+            Map<K, V> segment = getSegment(key);
+            synchronized (segment) {
+                return segment.get(key);
+            }
+        }
+
+        void put(K key, V value) {
+            Map<K, V> segment = getSegment(key);
+            synchronized (segment) {
+                segment.put(key, value);
+            }
+        }
+
+        void clear() {
+            for (Map<K, V> segment : segments) {
+                synchronized (segment) {
+                    segment.clear();
+                }
+            }
+        }
     }
 
-    private final static class AutoDisposeCPPFilt {
-        private CPPFilt cppfilt;
-        private long startTime;
+    /**
+     * Key of the address caches. The program is identified by its path and
+     * modification time rather than by its binary object: a new binary object
+     * is built on each {@link STSymbolManager#getBinaryObject(IPath)} call, and
+     * the caches must neither keep these alive nor serve a rebuilt program.
+     */
+    final static class AddressKey {
+        private final String program;
+        private final IAddress address;
+
+        AddressKey(String program, IAddress address) {
+            this.program = program;
+            this.address = address;
+        }
+
+        /**
+         * @return the key of the given program file in the address caches
+         */
+        static String getProgramKey(IPath path) {
+            return path.toOSString() + ':' + path.toFile().lastModified();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * program.hashCode() + address.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof AddressKey)) {
+                return false;
+            }
+            AddressKey other = (AddressKey) obj;
+            return program.equals(other.program) && address.equals(other.address);
+        }
+    }
+
+    /**
+     * Resolution of several elements, split among the instances of a tool.
+     */
+    abstract static class Batch<T> {
+
+        /**
+         * Resolve the given element, and store the result.
+         * @param tool an instance of the tool, for the exclusive use of the caller
+         * @param index index of the element
+         * @throws IOException
+         */
+        abstract void resolve(T tool, int index) throws IOException;
+
+        /**
+         * Resolve the given elements.
+         * @param pool pool of the tool
+         * @param indexes indexes of the elements
+         */
+        void run(final ToolPool<T> pool, final int[] indexes) {
+            if (indexes.length < PARALLEL_BATCH_THRESHOLD || POOL_SIZE == 1) {
+                run(pool, indexes, 0, indexes.length);
+                return;
+            }
+            // the calling thread resolves the first part
+            List<Callable<Void>> tasks = new ArrayList<>(POOL_SIZE - 1);
+            for (int i = 1; i < POOL_SIZE; i++) {
+                final int from = (int) ((long) indexes.length * i / POOL_SIZE);
+                final int to = (int) ((long) indexes.length * (i + 1) / POOL_SIZE);
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        run(pool, indexes, from, to);
+                        return null;
+                    }
+                });
+            }
+            List<Future<Void>> results = new ArrayList<>(tasks.size());
+            for (Callable<Void> task : tasks) {
+                results.add(getBatchExecutor().submit(task));
+            }
+            run(pool, indexes, 0, (int) ((long) indexes.length / POOL_SIZE));
+            try {
+                for (Future<Void> result : results) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                for (Future<Void> result : results) {
+                    result.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Status s = new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getCause().getMessage(), e.getCause());
+                Activator.getDefault().getLog().log(s);
+            }
+        }
+
+        private void run(ToolPool<T> pool, int[] indexes, int from, int to) {
+            T tool;
+            try {
+                tool = pool.acquire();
+            } catch (IOException e) {
+                // the elements are left unresolved
+                return;
+            }
+            try {
+                for (int i = from; i < to; i++) {
+                    resolve(tool, indexes[i]);
+                }
+            } catch (IOException e) {
+                // the remaining elements are left unresolved
+            } finally {
+                pool.release(tool);
+            }
+        }
+    }
+
+    /**
+     * @return the threads resolving the parts of large batches. They stop once unused for
+     *         {@link #AUTO_DISPOSE_TIMEOUT} ms, and do not prevent the VM from exiting.
+     */
+    static synchronized ExecutorService getBatchExecutor() {
+        if (batchExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, AUTO_DISPOSE_TIMEOUT,
+                    TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "ST System Analysis Symbol Manager Batch"); //$NON-NLS-1$
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            batchExecutor = executor;
+        }
+        return batchExecutor;
     }
 
     /** Map of all living instance of addr2line */
-    private final HashMap<IBinaryObject, AutoDisposeAddr2line> addr2lines = new HashMap<>();
+    private final ConcurrentHashMap<IBinaryObject, ToolPool<Addr2line>> addr2lines = new ConcurrentHashMap<>();
     /** Map of all living instance of cppfilt */
-    private final HashMap<String, AutoDisposeCPPFilt> cppfilts = new HashMap<>();
+    private final ConcurrentHashMap<String, ToolPool<CPPFilt>> cppfilts = new ConcurrentHashMap<>();
+
+    private final LRUCache<AddressKey, Integer> lineNumbers = new LRUCache<>(CACHE_SIZE);
+    private final LRUCache<AddressKey, String> fileNames = new LRUCache<>(CACHE_SIZE);
+    private final LRUCache<String, String> demangledNames = new LRUCache<>(CACHE_SIZE);
 
     /**
      * Constructor
@@ -110,55 +440,38 @@ public class STSymbolManager {
     /**
      * @since 4.1
      */
-    public synchronized void reset() {
-        Iterator<Entry<IBinaryObject, AutoDisposeAddr2line>> iter = addr2lines.entrySet().iterator();
+    public void reset() {
+        Iterator<ToolPool<Addr2line>> iter = addr2lines.values().iterator();
         while (iter.hasNext()) {
-            Entry<IBinaryObject, AutoDisposeAddr2line> entry = iter.next();
-            AutoDisposeAddr2line ada2l = entry.getValue();
-            ada2l.addr2line.dispose();
-            ada2l.addr2line = null;
+            iter.next().dispose();
             iter.remove();
         }
 
-        Iterator<Entry<String, AutoDisposeCPPFilt>> iter2 = cppfilts.entrySet().iterator();
+        Iterator<ToolPool<CPPFilt>> iter2 = cppfilts.values().iterator();
         while (iter2.hasNext()) {
-            Entry<String, AutoDisposeCPPFilt> entry = iter2.next();
-            AutoDisposeCPPFilt adcppf = entry.getValue();
-            adcppf.cppfilt.dispose();
-            adcppf.cppfilt = null;
+            iter2.next().dispose();
+            iter2.remove();
         }
+
+        lineNumbers.clear();
+        fileNames.clear();
+        demangledNames.clear();
     }
 
     /**
      * each {@link #AUTO_DISPOSE_TIMEOUT} ms, the unused addr2line and c++filt programs are disposed.
      */
-    private synchronized void cleanup() {
+    private void cleanup() {
         long currentTime = System.currentTimeMillis();
-        Iterator<Entry<IBinaryObject, AutoDisposeAddr2line>> iter = addr2lines.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<IBinaryObject, AutoDisposeAddr2line> entry = iter.next();
-            AutoDisposeAddr2line ada2l = entry.getValue();
-            long diff = currentTime - ada2l.startTime;
-            if (diff > AUTO_DISPOSE_TIMEOUT) {
-                if (ada2l.addr2line != null) {
-                    ada2l.addr2line.dispose();
-                    ada2l.addr2line = null;
-                }
-                iter.remove();
+        for (Entry<IBinaryObject, ToolPool<Addr2line>> entry : addr2lines.entrySet()) {
+            if (entry.getValue().disposeIfUnused(currentTime)) {
+                addr2lines.remove(entry.getKey(), entry.getValue());
             }
         }
 
-        Iterator<Entry<String, AutoDisposeCPPFilt>> iter2 = cppfilts.entrySet().iterator();
-        while (iter2.hasNext()) {
-            Entry<String, AutoDisposeCPPFilt> entry = iter2.next();
-            AutoDisposeCPPFilt adcppf = entry.getValue();
-            long diff = currentTime - adcppf.startTime;
-            if (diff > AUTO_DISPOSE_TIMEOUT) {
-                if (adcppf.cppfilt != null) {
-                    adcppf.cppfilt.dispose();
-                    adcppf.cppfilt = null;
-                }
-                iter2.remove();
+        for (Entry<String, ToolPool<CPPFilt>> entry : cppfilts.entrySet()) {
+            if (entry.getValue().disposeIfUnused(currentTime)) {
+                cppfilts.remove(entry.getKey(), entry.getValue());
             }
         }
     }
@@ -169,7 +482,7 @@ public class STSymbolManager {
      * @param project The project to be
      * @return The demangled symbol.
      */
-    public synchronized String demangle(ISymbol symbol, IProject project) {
+    public String demangle(ISymbol symbol, IProject project) {
         String cpu = symbol.getBinaryObject().getCPU();
         String symbolName = symbol.getName();
         return demangleImpl(symbolName, cpu, project);
@@ -182,11 +495,48 @@ public class STSymbolManager {
      * @param project
      * @return The demangled symbol.
      */
-    public synchronized String demangle(IBinaryObject program, String symbolName, IProject project) {
+    public String demangle(IBinaryObject program, String symbolName, IProject project) {
         String cpu = program.getCPU();
         return demangleImpl(symbolName, cpu, project);
     }
 
+    /**
+     * Demangle the given symbols, using several c++filt programs for large batches.
+     * @param program
+     * @param symbolNames
+     * @param project
+     * @return The demangled symbols, in the same order.
+     * @since 5.1
+     */
+    public String[] demangle(IBinaryObject program, final String[] symbolNames, IProject project) {
+        final String cpu = program.getCPU();
+        final String[] ret = new String[symbolNames.length];
+        int[] misses = new int[symbolNames.length];
+        int missCount = 0;
+        for (int i = 0; i < symbolNames.length; i++) {
+            String symbolName = symbolNames[i];
+            ret[i] = isMangled(symbolName) ? demangledNames.get(cpu + ':' + symbolName) : symbolName;
+            if (ret[i] == null) {
+                misses[missCount++] = i;
+            }
+        }
+        if (missCount > 0) {
+            new Batch<CPPFilt>() {
+                @Override
+                void resolve(CPPFilt cppfilt, int index) throws IOException {
+                    ret[index] = cppfilt.getFunction(symbolNames[index]);
+                    demangledNames.put(cpu + ':' + symbolNames[index], ret[index]);
+                }
+            }.run(getCppFilt(cpu, project), Arrays.copyOf(misses, missCount));
+            for (int i = 0; i < missCount; i++) {
+                if (ret[misses[i]] == null) {
+                    ret[misses[i]] = symbolNames[misses[i]];
+                }
+            }
+        }
+        return ret;
+    }
+
     /**
      * Demangle the given symbol
      * @param symbolName
@@ -195,16 +545,34 @@ public class STSymbolManager {
      * @param symbol
      * @return
      */
-    private synchronized String demangleImpl(String symbolName, String cpu, IProject project) {
-        CPPFilt cppfilt = getCppFilt(cpu, project);
-        if (cppfilt != null && (symbolName.startsWith("_Z") || symbolName.startsWith("_G"))) { //$NON-NLS-1$ //$NON-NLS-2$
-            try {
-                symbolName = cppfilt.getFunction(symbolName);
-            } catch (IOException e) {
-                // TODO: log the error ?
+    private String demangleImpl(String symbolName, String cpu, IProject project) {
+        if (!isMangled(symbolName)) {
+            return symbolName;
+        }
+        String key = cpu + ':' + symbolName;
+        String ret = demangledNames.get(key);
+        if (ret != null) {
+            return ret;
+        }
+        ToolPool<CPPFilt> pool = getCppFilt(cpu, project);
+        CPPFilt cppfilt = null;
+        try {
+            cppfilt = pool.acquire();
+            ret = cppfilt.getFunction(symbolName);
+            demangledNames.put(key, ret);
+            return ret;
+        } catch (IOException e) {
+            // TODO: log the error ?
+            return symbolName;
+        } finally {
+            if (cppfilt != null) {
+                pool.release(cppfilt);
             }
         }
-        return symbolName;
+    }
+
+    private static boolean isMangled(String symbolName) {
+        return symbolName.startsWith("_Z") || symbolName.startsWith("_G"); //$NON-NLS-1$ //$NON-NLS-2$
     }
 
     /**
@@ -213,21 +581,64 @@ public class STSymbolManager {
      * @param project
      * @return the line number of the given address
      */
-    public synchronized int getLineNumber(IBinaryObject program, IAddress address, IProject project) {
-        Addr2line addr2line = getAddr2line(program, project);
-        if (addr2line == null) {
-            return -1;
+    public int getLineNumber(IBinaryObject program, IAddress address, IProject project) {
+        AddressKey key = new AddressKey(AddressKey.getProgramKey(program.getPath()), address);
+        Integer ret = lineNumbers.get(key);
+        if (ret != null) {
+            return ret;
         }
+        ToolPool<Addr2line> pool = getAddr2line(program, project);
+        Addr2line addr2line = null;
         try {
-            return addr2line.getLineNumber(address);
+            addr2line = pool.acquire();
+            ret = addr2line.getLineNumber(address);
+            lineNumbers.put(key, ret);
+            return ret;
         } catch (IOException e) {
             // TODO: log the error ?;
             // Perhaps log the error only once, because
             // this method is called many many times...
             return -1;
+        } finally {
+            if (addr2line != null) {
+                pool.release(addr2line);
+            }
         }
     }
 
+    /**
+     * @param program
+     * @param addresses
+     * @param project
+     * @return the line numbers of the given addresses, in the same order
+     * @since 5.1
+     */
+    public int[] getLineNumbers(IBinaryObject program, final IAddress[] addresses, IProject project) {
+        final String programKey = AddressKey.getProgramKey(program.getPath());
+        final int[] ret = new int[addresses.length];
+        int[] misses = new int[addresses.length];
+        int missCount = 0;
+        for (int i = 0; i < addresses.length; i++) {
+            Integer lineNumber = lineNumbers.get(new AddressKey(programKey, addresses[i]));
+            if (lineNumber != null) {
+                ret[i] = lineNumber;
+            } else {
+                ret[i] = -1;
+                misses[missCount++] = i;
+            }
+        }
+        if (missCount > 0) {
+            new Batch<Addr2line>() {
+                @Override
+                void resolve(Addr2line addr2line, int index) throws IOException {
+                    ret[index] = addr2line.getLineNumber(addresses[index]);
+                    lineNumbers.put(new AddressKey(programKey, addresses[index]), ret[index]);
+                }
+            }.run(getAddr2line(program, project), Arrays.copyOf(misses, missCount));
+        }
+        return ret;
+    }
+
     /**
      * @param symbol
      * @param project
@@ -245,21 +656,65 @@ public class STSymbolManager {
      * @param project
      * @return the file name of the given address
      */
-    public synchronized String getFileName(IBinaryObject program, IAddress address, IProject project) {
-        Addr2line addr2line = getAddr2line(program, project);
-        if (addr2line == null) {
-            return null;
+    public String getFileName(IBinaryObject program, IAddress address, IProject project) {
+        AddressKey key = new AddressKey(AddressKey.getProgramKey(program.getPath()), address);
+        String ret = fileNames.get(key);
+        if (ret != null) {
+            return ret;
         }
+        ToolPool<Addr2line> pool = getAddr2line(program, project);
+        Addr2line addr2line = null;
         try {
-            return addr2line.getFileName(address);
+            addr2line = pool.acquire();
+            ret = addr2line.getFileName(address);
+            if (ret != null) {
+                fileNames.put(key, ret);
+            }
+            return ret;
         } catch (IOException e) {
             // TODO: log the error ?;
             // Perhaps log the error only once, because
             // this method is called many many times...
             return null;
+        } finally {
+            if (addr2line != null) {
+                pool.release(addr2line);
+            }
         }
     }
 
+    /**
+     * @param program
+     * @param addresses
+     * @param project
+     * @return the file names of the given addresses, in the same order
+     * @since 5.1
+     */
+    public String[] getFileNames(IBinaryObject program, final IAddress[] addresses, IProject project) {
+        final String programKey = AddressKey.getProgramKey(program.getPath());
+        final String[] ret = new String[addresses.length];
+        int[] misses = new int[addresses.length];
+        int missCount = 0;
+        for (int i = 0; i < addresses.length; i++) {
+            ret[i] = fileNames.get(new AddressKey(programKey, addresses[i]));
+            if (ret[i] == null) {
+                misses[missCount++] = i;
+            }
+        }
+        if (missCount > 0) {
+            new Batch<Addr2line>() {
+                @Override
+                void resolve(Addr2line addr2line, int index) throws IOException {
+                    ret[index] = addr2line.getFileName(addresses[index]);
+                    if (ret[index] != null) {
+                        fileNames.put(new AddressKey(programKey, addresses[index]), ret[index]);
+                    }
+                }
+            }.run(getAddr2line(program, project), Arrays.copyOf(misses, missCount));
+        }
+        return ret;
+    }
+
     /**
      * @param symbol
      * @param project
@@ -272,59 +727,41 @@ public class STSymbolManager {
     }
 
     /**
-     * Gets the c++filt support for the given program Note that the instance if kept in a local hashmap, and discarded
+     * Gets the pool of c++filt programs for the given cpu. Note that the pool is kept in a local map, and discarded
      * after 30 seconds of inactivity.
      * @param cpu
      * @param project
-     * @param program
-     * @return an instance of CPPFilt suitable for the given program
+     * @return the c++filt programs suitable for the given cpu
      */
-    private synchronized CPPFilt getCppFilt(String cpu, IProject project) {
-        AutoDisposeCPPFilt adCppfilt = cppfilts.get(cpu);
-        if (adCppfilt == null) {
-            adCppfilt = new AutoDisposeCPPFilt();
-            cppfilts.put(cpu, adCppfilt);
-        }
-        if (adCppfilt.cppfilt == null) {
-            try {
-                adCppfilt.cppfilt = STBinutilsFactoryManager.getCPPFilt(cpu, project);
-            } catch (IOException e) {
-                // TODO: log the error ?;
-                // Perhaps log the error only once, because
-                // this method is called many many times...
-                return null;
+    private ToolPool<CPPFilt> getCppFilt(String cpu, IProject project) {
+        ToolPool<CPPFilt> pool = cppfilts.get(cpu);
+        if (pool == null) {
+            ToolPool<CPPFilt> newPool = new CPPFiltPool(cpu, project);
+            pool = cppfilts.putIfAbsent(cpu, newPool);
+            if (pool == null) {
+                pool = newPool;
             }
         }
-        adCppfilt.startTime = System.currentTimeMillis();
-        return adCppfilt.cppfilt;
+        return pool;
     }
 
     /**
-     * Gets the addr2line support for the given program Note that the instance if kept in a local hashmap, and discarded
-     * after 30 seconds of inactivity.
+     * Gets the pool of addr2line programs for the given program. Note that the pool is kept in a local map, and
+     * discarded after 30 seconds of inactivity.
      * @param program
      * @param project
-     * @return an instance of Addr2line suitable for the given program
+     * @return the addr2line programs suitable for the given program
      */
-    private synchronized Addr2line getAddr2line(IBinaryObject program, IProject project) {
-        AutoDisposeAddr2line adAddr2line = addr2lines.get(program);
-        if (adAddr2line == null) {
-            adAddr2line = new AutoDisposeAddr2line();
-            addr2lines.put(program, adAddr2line);
-        }
-        if (adAddr2line.addr2line == null) {
-            try {
-                adAddr2line.addr2line = STBinutilsFactoryManager.getAddr2line(program.getCPU(), program.getPath()
-                        .toOSString(), project);
-            } catch (IOException e) {
-                // TODO: log the error ?;
-                // Perhaps log the error only once, because
-                // this method is called many many times...
-                return null;
+    private ToolPool<Addr2line> getAddr2line(IBinaryObject program, IProject project) {
+        ToolPool<Addr2line> pool = addr2lines.get(program);
+        if (pool == null) {
+            ToolPool<Addr2line> newPool = new Addr2linePool(program, project);
+            pool = addr2lines.putIfAbsent(program, newPool);
+            if (pool == null) {
+                pool = newPool;
             }
         }
-        adAddr2line.startTime = System.currentTimeMillis();
-        return adAddr2line.addr2line;
+        return pool;
     }
 
     /**
@@ -0,0 +1,817 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Address to file/line table, decoded from the .debug_line section of an ELF
+ * file (DWARF 2 to 5). Lookups give the same answers as addr2line: the row
+ * with the highest address lower or equal to the looked up address, unless
+ * this row ends a sequence.
+ */
+public class DwarfLineTable {
+
+    // DW_FORM_* values
+    private static final int FORM_ADDR = 0x01;
+    private static final int FORM_BLOCK2 = 0x03;
+    private static final int FORM_BLOCK4 = 0x04;
+    private static final int FORM_DATA2 = 0x05;
+    private static final int FORM_DATA4 = 0x06;
+    private static final int FORM_DATA8 = 0x07;
+    private static final int FORM_STRING = 0x08;
+    private static final int FORM_BLOCK = 0x09;
+    private static final int FORM_BLOCK1 = 0x0a;
+    private static final int FORM_DATA1 = 0x0b;
+    private static final int FORM_FLAG = 0x0c;
+    private static final int FORM_SDATA = 0x0d;
+    private static final int FORM_STRP = 0x0e;
+    private static final int FORM_UDATA = 0x0f;
+    private static final int FORM_REF_ADDR = 0x10;
+    private static final int FORM_REF1 = 0x11;
+    private static final int FORM_REF2 = 0x12;
+    private static final int FORM_REF4 = 0x13;
+    private static final int FORM_REF8 = 0x14;
+    private static final int FORM_REF_UDATA = 0x15;
+    private static final int FORM_INDIRECT = 0x16;
+    private static final int FORM_SEC_OFFSET = 0x17;
+    private static final int FORM_EXPRLOC = 0x18;
+    private static final int FORM_FLAG_PRESENT = 0x19;
+    private static final int FORM_STRX = 0x1a;
+    private static final int FORM_ADDRX = 0x1b;
+    private static final int FORM_REF_SUP4 = 0x1c;
+    private static final int FORM_STRP_SUP = 0x1d;
+    private static final int FORM_DATA16 = 0x1e;
+    private static final int FORM_LINE_STRP = 0x1f;
+    private static final int FORM_REF_SIG8 = 0x20;
+    private static final int FORM_IMPLICIT_CONST = 0x21;
+    private static final int FORM_LOCLISTX = 0x22;
+    private static final int FORM_RNGLISTX = 0x23;
+    private static final int FORM_REF_SUP8 = 0x24;
+    private static final int FORM_STRX1 = 0x25;
+    private static final int FORM_STRX2 = 0x26;
+    private static final int FORM_STRX3 = 0x27;
+    private static final int FORM_STRX4 = 0x28;
+    private static final int FORM_ADDRX1 = 0x29;
+    private static final int FORM_ADDRX2 = 0x2a;
+    private static final int FORM_ADDRX3 = 0x2b;
+    private static final int FORM_ADDRX4 = 0x2c;
+    private static final int FORM_GNU_ADDR_INDEX = 0x1f01;
+    private static final int FORM_GNU_STR_INDEX = 0x1f02;
+    private static final int FORM_GNU_REF_ALT = 0x1f20;
+    private static final int FORM_GNU_STRP_ALT = 0x1f21;
+
+    // DW_AT_* values
+    private static final int AT_STMT_LIST = 0x10;
+    private static final int AT_COMP_DIR = 0x1b;
+    private static final int AT_STR_OFFSETS_BASE = 0x72;
+
+    // DW_UT_* values
+    private static final int UT_COMPILE = 0x01;
+    private static final int UT_PARTIAL = 0x03;
+
+    // DW_LNCT_* values
+    private static final int LNCT_PATH = 1;
+    private static final int LNCT_DIRECTORY_INDEX = 2;
+
+    // DW_LNS_* and DW_LNE_* values
+    private static final int LNS_COPY = 1;
+    private static final int LNS_ADVANCE_PC = 2;
+    private static final int LNS_ADVANCE_LINE = 3;
+    private static final int LNS_SET_FILE = 4;
+    private static final int LNS_CONST_ADD_PC = 8;
+    private static final int LNS_FIXED_ADVANCE_PC = 9;
+    private static final int LNE_END_SEQUENCE = 1;
+    private static final int LNE_SET_ADDRESS = 2;
+    private static final int LNE_DEFINE_FILE = 3;
+
+    /** Value of {@link #files} for rows ending a sequence */
+    private static final int END_SEQUENCE = -1;
+
+    // rows, sorted by address
+    private final long[] addresses;
+    private final int[] lines;
+    private final int[] files;
+    private final String[] fileNames;
+
+    private DwarfLineTable(long[] addresses, int[] lines, int[] files, String[] fileNames) {
+        this.addresses = addresses;
+        this.lines = lines;
+        this.files = files;
+        this.fileNames = fileNames;
+    }
+
+    /**
+     * Decode the line table of the given file.
+     * @param elf
+     * @return the line table, or null if the file has no .debug_line section
+     * @throws IOException if the debug information is corrupted
+     */
+    public static DwarfLineTable read(ElfFile elf) throws IOException {
+        ByteBuffer debugLine = elf.getContent(".debug_line"); //$NON-NLS-1$
+        if (debugLine == null) {
+            return null;
+        }
+        try {
+            Map<Long, String> compDirs = readCompilationDirectories(elf);
+            Decoder decoder = new Decoder(elf);
+            while (debugLine.remaining() > 0) {
+                long offset = debugLine.position();
+                decoder.decodeUnit(debugLine, compDirs.get(offset));
+            }
+            return decoder.build();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Invalid DWARF line information", e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * @param address
+     * @return the index of the row for the given address, or -1
+     */
+    private int find(long address) {
+        long key = address + Long.MIN_VALUE;
+        int low = 0;
+        int high = addresses.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (addresses[mid] + Long.MIN_VALUE <= key) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found >= 0 && files[found] == END_SEQUENCE) {
+            return -1;
+        }
+        return found;
+    }
+
+    /**
+     * @param address
+     * @return the source file of the given address, or null
+     */
+    public String getFileName(long address) {
+        int row = find(address);
+        return row < 0 ? null : fileNames[files[row]];
+    }
+
+    /**
+     * @param address
+     * @return the source line of the given address, or 0
+     */
+    public int getLineNumber(long address) {
+        int row = find(address);
+        return row < 0 ? 0 : lines[row];
+    }
+
+    /**
+     * Map the offsets of the line programs in .debug_line to the compilation
+     * directories of the compilation units using them.
+     */
+    private static Map<Long, String> readCompilationDirectories(ElfFile elf) throws IOException {
+        Map<Long, String> ret = new HashMap<>();
+        ByteBuffer info = elf.getContent(".debug_info"); //$NON-NLS-1$
+        ByteBuffer abbrev = elf.getContent(".debug_abbrev"); //$NON-NLS-1$
+        if (info == null || abbrev == null) {
+            return ret;
+        }
+        Strings strings = new Strings(elf);
+        try {
+            while (info.remaining() > 0) {
+                long length = info.getInt() & 0xffffffffL;
+                boolean dwarf64 = length == 0xffffffffL;
+                if (dwarf64) {
+                    length = info.getLong();
+                }
+                int unitEnd = (int) (info.position() + length);
+                int version = info.getShort() & 0xffff;
+                int addressSize;
+                long abbrevOffset;
+                int unitType = UT_COMPILE;
+                if (version >= 5) {
+                    unitType = info.get() & 0xff;
+                    addressSize = info.get() & 0xff;
+                    abbrevOffset = getOffset(info, dwarf64);
+                } else {
+                    abbrevOffset = getOffset(info, dwarf64);
+                    addressSize = info.get() & 0xff;
+                }
+                // only full and partial units own line programs; type and
+                // split units have more header fields
+                if (unitType == UT_COMPILE || unitType == UT_PARTIAL) {
+                    int code = (int) getULEB128(info);
+                    int[] attributes = findAbbreviation(abbrev, abbrevOffset, code);
+                    if (attributes != null) {
+                        readUnitDirectory(info, attributes, version, addressSize, dwarf64, strings, ret);
+                    }
+                }
+                info.position(unitEnd);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            // keep what could be read: relative paths stay relative
+        }
+        return ret;
+    }
+
+    private static void readUnitDirectory(ByteBuffer info, int[] attributes, int version, int addressSize,
+            boolean dwarf64, Strings strings, Map<Long, String> ret) throws IOException {
+        long stmtList = -1;
+        String compDir = null;
+        long compDirIndex = -1;
+        long strOffsetsBase = 8;
+        for (int i = 0; i < attributes.length; i += 3) {
+            int name = attributes[i];
+            int form = attributes[i + 1];
+            while (form == FORM_INDIRECT) {
+                form = (int) getULEB128(info);
+            }
+            if (name == AT_STMT_LIST) {
+                stmtList = getUnsigned(info, form, addressSize, dwarf64);
+            } else if (name == AT_STR_OFFSETS_BASE) {
+                strOffsetsBase = getUnsigned(info, form, addressSize, dwarf64);
+            } else if (name == AT_COMP_DIR) {
+                switch (form) {
+                case FORM_STRING:
+                    compDir = getString(info);
+                    break;
+                case FORM_STRP:
+                    compDir = strings.get(".debug_str", getOffset(info, dwarf64)); //$NON-NLS-1$
+                    break;
+                case FORM_LINE_STRP:
+                    compDir = strings.get(".debug_line_str", getOffset(info, dwarf64)); //$NON-NLS-1$
+                    break;
+                case FORM_STRX:
+                case FORM_STRX1:
+                case FORM_STRX2:
+                case FORM_STRX3:
+                case FORM_STRX4:
+                    compDirIndex = getUnsigned(info, form, addressSize, dwarf64);
+                    break;
+                default:
+                    skipForm(info, form, attributes[i + 2], version, addressSize, dwarf64);
+                }
+            } else {
+                skipForm(info, form, attributes[i + 2], version, addressSize, dwarf64);
+            }
+        }
+        if (compDirIndex >= 0) {
+            // DW_AT_str_offsets_base may come after DW_AT_comp_dir
+            compDir = strings.getIndexed(strOffsetsBase, compDirIndex, dwarf64);
+        }
+        if (stmtList >= 0 && compDir != null) {
+            ret.put(stmtList, compDir);
+        }
+    }
+
+    /**
+     * @return the attribute name, form and implicit constant triplets of the
+     * abbreviation with the given code, or null
+     */
+    private static int[] findAbbreviation(ByteBuffer abbrev, long offset, int code) {
+        abbrev.position((int) offset);
+        while (abbrev.remaining() > 0) {
+            long current = getULEB128(abbrev);
+            if (current == 0) {
+                return null;
+            }
+            getULEB128(abbrev); // tag
+            abbrev.get(); // children
+            List<Integer> attributes = new ArrayList<>();
+            while (true) {
+                int name = (int) getULEB128(abbrev);
+                int form = (int) getULEB128(abbrev);
+                if (name == 0 && form == 0) {
+                    break;
+                }
+                attributes.add(name);
+                attributes.add(form);
+                attributes.add(form == FORM_IMPLICIT_CONST ? (int) getSLEB128(abbrev) : 0);
+            }
+            if (current == code) {
+                int[] ret = new int[attributes.size()];
+                for (int i = 0; i < ret.length; i++) {
+                    ret[i] = attributes.get(i);
+                }
+                return ret;
+            }
+        }
+        return null;
+    }
+
+    private static void skipForm(ByteBuffer buffer, int form, int implicitConst, int version, int addressSize,
+            boolean dwarf64) {
+        int offsetSize = dwarf64 ? 8 : 4;
+        switch (form) {
+        case FORM_FLAG_PRESENT:
+        case FORM_IMPLICIT_CONST:
+            break;
+        case FORM_DATA1:
+        case FORM_REF1:
+        case FORM_FLAG:
+        case FORM_STRX1:
+        case FORM_ADDRX1:
+            skip(buffer, 1);
+            break;
+        case FORM_DATA2:
+        case FORM_REF2:
+        case FORM_STRX2:
+        case FORM_ADDRX2:
+            skip(buffer, 2);
+            break;
+        case FORM_STRX3:
+        case FORM_ADDRX3:
+            skip(buffer, 3);
+            break;
+        case FORM_DATA4:
+        case FORM_REF4:
+        case FORM_REF_SUP4:
+        case FORM_STRX4:
+        case FORM_ADDRX4:
+            skip(buffer, 4);
+            break;
+        case FORM_DATA8:
+        case FORM_REF8:
+        case FORM_REF_SIG8:
+        case FORM_REF_SUP8:
+            skip(buffer, 8);
+            break;
+        case FORM_DATA16:
+            skip(buffer, 16);
+            break;
+        case FORM_ADDR:
+            skip(buffer, addressSize);
+            break;
+        case FORM_REF_ADDR:
+            skip(buffer, version == 2 ? addressSize : offsetSize);
+            break;
+        case FORM_STRP:
+        case FORM_LINE_STRP:
+        case FORM_SEC_OFFSET:
+        case FORM_STRP_SUP:
+        case FORM_GNU_REF_ALT:
+        case FORM_GNU_STRP_ALT:
+            skip(buffer, offsetSize);
+            break;
+        case FORM_SDATA:
+            getSLEB128(buffer);
+            break;
+        case FORM_UDATA:
+        case FORM_REF_UDATA:
+        case FORM_STRX:
+        case FORM_ADDRX:
+        case FORM_LOCLISTX:
+        case FORM_RNGLISTX:
+        case FORM_GNU_ADDR_INDEX:
+        case FORM_GNU_STR_INDEX:
+            getULEB128(buffer);
+            break;
+        case FORM_STRING:
+            getString(buffer);
+            break;
+        case FORM_BLOCK1:
+            skip(buffer, buffer.get() & 0xff);
+            break;
+        case FORM_BLOCK2:
+            skip(buffer, buffer.getShort() & 0xffff);
+            break;
+        case FORM_BLOCK4:
+            skip(buffer, buffer.getInt());
+            break;
+        case FORM_BLOCK:
+        case FORM_EXPRLOC:
+            skip(buffer, (int) getULEB128(buffer));
+            break;
+        case FORM_INDIRECT:
+            skipForm(buffer, (int) getULEB128(buffer), implicitConst, version, addressSize, dwarf64);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown DWARF form: " + form); //$NON-NLS-1$
+        }
+    }
+
+    private static long getUnsigned(ByteBuffer buffer, int form, int addressSize, boolean dwarf64) {
+        switch (form) {
+        case FORM_DATA1:
+        case FORM_STRX1:
+            return buffer.get() & 0xffL;
+        case FORM_DATA2:
+        case FORM_STRX2:
+            return buffer.getShort() & 0xffffL;
+        case FORM_STRX3:
+            return getUnsigned(buffer, 3);
+        case FORM_DATA4:
+        case FORM_STRX4:
+            return buffer.getInt() & 0xffffffffL;
+        case FORM_DATA8:
+            return buffer.getLong();
+        case FORM_SEC_OFFSET:
+            return getOffset(buffer, dwarf64);
+        case FORM_UDATA:
+        case FORM_STRX:
+            return getULEB128(buffer);
+        case FORM_ADDR:
+            return getUnsigned(buffer, addressSize);
+        default:
+            throw new IllegalArgumentException("Unexpected DWARF form: " + form); //$NON-NLS-1$
+        }
+    }
+
+    private static long getUnsigned(ByteBuffer buffer, int size) {
+        long ret = 0;
+        for (int i = 0; i < size; i++) {
+            long b = buffer.get() & 0xffL;
+            if (buffer.order() == ByteOrder.LITTLE_ENDIAN) {
+                ret |= b << (8 * i);
+            } else {
+                ret = (ret << 8) | b;
+            }
+        }
+        return ret;
+    }
+
+    private static long getOffset(ByteBuffer buffer, boolean dwarf64) {
+        return dwarf64 ? buffer.getLong() : buffer.getInt() & 0xffffffffL;
+    }
+
+    private static long getULEB128(ByteBuffer buffer) {
+        long ret = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            if (shift < 64) {
+                ret |= (long) (b & 0x7f) << shift;
+            }
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return ret;
+    }
+
+    private static long getSLEB128(ByteBuffer buffer) {
+        long ret = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            if (shift < 64) {
+                ret |= (long) (b & 0x7f) << shift;
+            }
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (shift < 64 && (b & 0x40) != 0) {
+            ret |= -1L << shift;
+        }
+        return ret;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int start = buffer.position();
+        String ret = ElfFile.getString(buffer, start);
+        // move past the terminating NUL
+        int end = start;
+        while (buffer.get(end) != 0) {
+            end++;
+        }
+        buffer.position(end + 1);
+        return ret;
+    }
+
+    private static void skip(ByteBuffer buffer, int count) {
+        buffer.position(buffer.position() + count);
+    }
+
+    /**
+     * String sections, read on demand.
+     */
+    private static final class Strings {
+        private final ElfFile elf;
+        private final Map<String, ByteBuffer> sections = new HashMap<>();
+
+        Strings(ElfFile elf) {
+            this.elf = elf;
+        }
+
+        private ByteBuffer getSection(String name) throws IOException {
+            ByteBuffer ret = sections.get(name);
+            if (ret == null && !sections.containsKey(name)) {
+                ret = elf.getContent(name);
+                sections.put(name, ret);
+            }
+            return ret;
+        }
+
+        String get(String section, long offset) throws IOException {
+            ByteBuffer buffer = getSection(section);
+            return buffer == null ? null : ElfFile.getString(buffer, offset);
+        }
+
+        String getIndexed(long base, long index, boolean dwarf64) throws IOException {
+            ByteBuffer offsets = getSection(".debug_str_offsets"); //$NON-NLS-1$
+            if (offsets == null) {
+                return null;
+            }
+            offsets.position((int) (base + index * (dwarf64 ? 8 : 4)));
+            return get(".debug_str", getOffset(offsets, dwarf64)); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Runs the line programs, and collects their rows sequence by sequence.
+     */
+    private static final class Decoder {
+        private final Strings strings;
+        private final List<String> fileNames = new ArrayList<>();
+        private final Map<String, Integer> fileIndexes = new HashMap<>();
+        private final List<long[]> sequenceAddresses = new ArrayList<>();
+        private final List<int[]> sequenceRows = new ArrayList<>();
+
+        // rows of the current sequence: line and file are packed in rows
+        private long[] addresses = new long[256];
+        private int[] rows = new int[512];
+        private int rowCount;
+
+        Decoder(ElfFile elf) {
+            this.strings = new Strings(elf);
+        }
+
+        void decodeUnit(ByteBuffer buffer, String compDir) throws IOException {
+            long length = buffer.getInt() & 0xffffffffL;
+            boolean dwarf64 = length == 0xffffffffL;
+            if (dwarf64) {
+                length = buffer.getLong();
+            }
+            int unitEnd = (int) (buffer.position() + length);
+            int version = buffer.getShort() & 0xffff;
+            if (version < 2 || version > 5) {
+                buffer.position(unitEnd);
+                return;
+            }
+            int addressSize = -1;
+            if (version >= 5) {
+                addressSize = buffer.get() & 0xff;
+                buffer.get(); // segment_selector_size
+            }
+            long headerLength = getOffset(buffer, dwarf64);
+            int programStart = (int) (buffer.position() + headerLength);
+            int minInstructionLength = buffer.get() & 0xff;
+            if (version >= 4) {
+                buffer.get(); // maximum_operations_per_instruction
+            }
+            buffer.get(); // default_is_stmt
+            int lineBase = buffer.get();
+            int lineRange = buffer.get() & 0xff;
+            int opcodeBase = buffer.get() & 0xff;
+            int[] opcodeLengths = new int[opcodeBase];
+            for (int i = 1; i < opcodeBase; i++) {
+                opcodeLengths[i] = buffer.get() & 0xff;
+            }
+
+            List<String> directories = new ArrayList<>();
+            List<Integer> files = new ArrayList<>();
+            if (version >= 5) {
+                readEntries(buffer, version, addressSize, dwarf64, directories, null, compDir);
+                readEntries(buffer, version, addressSize, dwarf64, directories, files, compDir);
+            } else {
+                directories.add(compDir);
+                String directory;
+                while (!(directory = getString(buffer)).isEmpty()) {
+                    directories.add(directory);
+                }
+                // file numbers start at 1 before DWARF 5
+                files.add(-1);
+                String name;
+                while (!(name = getString(buffer)).isEmpty()) {
+                    files.add(addFile(name, directories, (int) getULEB128(buffer), compDir));
+                    getULEB128(buffer); // mtime
+                    getULEB128(buffer); // length
+                }
+            }
+
+            buffer.position(programStart);
+            run(buffer, unitEnd, minInstructionLength, lineBase, lineRange, opcodeBase, opcodeLengths, directories,
+                    files, compDir);
+            buffer.position(unitEnd);
+        }
+
+        private void readEntries(ByteBuffer buffer, int version, int addressSize, boolean dwarf64,
+                List<String> directories, List<Integer> files, String compDir) throws IOException {
+            int formatCount = buffer.get() & 0xff;
+            int[] format = new int[formatCount * 2];
+            for (int i = 0; i < format.length; i++) {
+                format[i] = (int) getULEB128(buffer);
+            }
+            long count = getULEB128(buffer);
+            for (long entry = 0; entry < count; entry++) {
+                String path = null;
+                int directory = 0;
+                for (int i = 0; i < format.length; i += 2) {
+                    int type = format[i];
+                    int form = format[i + 1];
+                    if (type == LNCT_PATH && form == FORM_STRING) {
+                        path = getString(buffer);
+                    } else if (type == LNCT_PATH && form == FORM_LINE_STRP) {
+                        path = strings.get(".debug_line_str", getOffset(buffer, dwarf64)); //$NON-NLS-1$
+                    } else if (type == LNCT_PATH && form == FORM_STRP) {
+                        path = strings.get(".debug_str", getOffset(buffer, dwarf64)); //$NON-NLS-1$
+                    } else if (type == LNCT_DIRECTORY_INDEX) {
+                        directory = (int) getUnsigned(buffer, form, addressSize, dwarf64);
+                    } else {
+                        skipForm(buffer, form, 0, version, addressSize, dwarf64);
+                    }
+                }
+                if (files == null) {
+                    directories.add(path);
+                } else {
+                    files.add(addFile(path, directories, directory, compDir));
+                }
+            }
+        }
+
+        /**
+         * @return the index of the file, built as addr2line does
+         */
+        private int addFile(String name, List<String> directories, int directory, String compDir) {
+            String path = name == null ? "??" : name; //$NON-NLS-1$
+            if (!path.startsWith("/")) { //$NON-NLS-1$
+                String dir = directory < directories.size() ? directories.get(directory) : null;
+                if (dir != null && !dir.startsWith("/") && compDir != null) { //$NON-NLS-1$
+                    dir = compDir + '/' + dir;
+                }
+                if (dir != null) {
+                    path = dir + '/' + path;
+                }
+            }
+            Integer ret = fileIndexes.get(path);
+            if (ret == null) {
+                ret = fileNames.size();
+                fileNames.add(path);
+                fileIndexes.put(path, ret);
+            }
+            return ret;
+        }
+
+        private void run(ByteBuffer buffer, int end, int minInstructionLength, int lineBase, int lineRange,
+                int opcodeBase, int[] opcodeLengths, List<String> directories, List<Integer> files, String compDir) {
+            long address = 0;
+            int file = 1;
+            int line = 1;
+            rowCount = 0;
+            while (buffer.position() < end) {
+                int opcode = buffer.get() & 0xff;
+                if (opcode >= opcodeBase) {
+                    int adjusted = opcode - opcodeBase;
+                    address += (long) (adjusted / lineRange) * minInstructionLength;
+                    line += lineBase + adjusted % lineRange;
+                    addRow(address, line, fileIndex(files, file));
+                } else if (opcode == 0) {
+                    int length = (int) getULEB128(buffer);
+                    int next = buffer.position() + length;
+                    int extended = length == 0 ? 0 : buffer.get() & 0xff;
+                    switch (extended) {
+                    case LNE_END_SEQUENCE:
+                        addRow(address, line, END_SEQUENCE);
+                        endSequence();
+                        address = 0;
+                        file = 1;
+                        line = 1;
+                        break;
+                    case LNE_SET_ADDRESS:
+                        address = getUnsigned(buffer, length - 1);
+                        break;
+                    case LNE_DEFINE_FILE:
+                        String name = getString(buffer);
+                        files.add(addFile(name, directories, (int) getULEB128(buffer), compDir));
+                        break;
+                    default:
+                        break;
+                    }
+                    buffer.position(next);
+                } else {
+                    switch (opcode) {
+                    case LNS_COPY:
+                        addRow(address, line, fileIndex(files, file));
+                        break;
+                    case LNS_ADVANCE_PC:
+                        address += getULEB128(buffer) * minInstructionLength;
+                        break;
+                    case LNS_ADVANCE_LINE:
+                        line += getSLEB128(buffer);
+                        break;
+                    case LNS_SET_FILE:
+                        file = (int) getULEB128(buffer);
+                        break;
+                    case LNS_CONST_ADD_PC:
+                        address += (long) ((255 - opcodeBase) / lineRange) * minInstructionLength;
+                        break;
+                    case LNS_FIXED_ADVANCE_PC:
+                        address += buffer.getShort() & 0xffff;
+                        break;
+                    default:
+                        // set_column, negate_stmt, set_basic_block,
+                        // set_prologue_end... do not matter here
+                        for (int i = 0; i < opcodeLengths[opcode]; i++) {
+                            getULEB128(buffer);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        private static int fileIndex(List<Integer> files, int file) {
+            if (file < 0 || file >= files.size() || files.get(file) < 0) {
+                return 0;
+            }
+            return files.get(file);
+        }
+
+        private void addRow(long address, int line, int file) {
+            if (rowCount > 0 && addresses[rowCount - 1] == address && (rows[2 * rowCount - 1] == END_SEQUENCE) == (file == END_SEQUENCE)) {
+                // as addr2line, only keep the last row of an address
+                rowCount--;
+            }
+            if (rowCount == addresses.length) {
+                addresses = Arrays.copyOf(addresses, rowCount * 2);
+                rows = Arrays.copyOf(rows, rowCount * 4);
+            }
+            addresses[rowCount] = address;
+            rows[2 * rowCount] = line;
+            rows[2 * rowCount + 1] = file;
+            rowCount++;
+        }
+
+        private void endSequence() {
+            if (rowCount > 1) {
+                sequenceAddresses.add(Arrays.copyOf(addresses, rowCount));
+                sequenceRows.add(Arrays.copyOf(rows, 2 * rowCount));
+            }
+            rowCount = 0;
+        }
+
+        DwarfLineTable build() {
+            if (fileNames.isEmpty()) {
+                fileNames.add("??"); //$NON-NLS-1$
+            }
+            Integer[] order = new Integer[sequenceAddresses.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return Long.compare(sequenceAddresses.get(o1)[0] + Long.MIN_VALUE,
+                            sequenceAddresses.get(o2)[0] + Long.MIN_VALUE);
+                }
+            });
+            int total = 0;
+            for (long[] sequence : sequenceAddresses) {
+                total += sequence.length;
+            }
+            long[] allAddresses = new long[total];
+            int[] allLines = new int[total];
+            int[] allFiles = new int[total];
+            int count = 0;
+            long previousEnd = Long.MIN_VALUE;
+            for (int index : order) {
+                long[] sequence = sequenceAddresses.get(index);
+                int[] sequenceData = sequenceRows.get(index);
+                // overlapping sequences come from code discarded by the
+                // linker; the first one wins
+                if (count > 0 && sequence[0] + Long.MIN_VALUE < previousEnd) {
+                    continue;
+                }
+                for (int i = 0; i < sequence.length; i++) {
+                    allAddresses[count] = sequence[i];
+                    allLines[count] = sequenceData[2 * i];
+                    allFiles[count] = sequenceData[2 * i + 1];
+                    count++;
+                }
+                previousEnd = sequence[sequence.length - 1] + Long.MIN_VALUE;
+            }
+            sequenceAddresses.clear();
+            sequenceRows.clear();
+            return new DwarfLineTable(Arrays.copyOf(allAddresses, count), Arrays.copyOf(allLines, count),
+                    Arrays.copyOf(allFiles, count), fileNames.toArray(new String[fileNames.size()]));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import java.io.IOException;
+
+import org.eclipse.cdt.core.IAddress;
+import org.eclipse.cdt.utils.Addr2line;
+
+/**
+ * Addr2line implementation answering from the DWARF line table and the
+ * symbol table of the ELF file, without running addr2line.
+ */
+public class ElfAddr2line extends Addr2line {
+
+    private static final String UNKNOWN = "??"; //$NON-NLS-1$
+
+    private final DwarfLineTable lineTable;
+    private final ElfSymbolTable symbols;
+
+    /**
+     * Constructor
+     *
+     * @param file The binary file.
+     * @param lineTable the line table of the file
+     * @param symbols the symbols of the file
+     * @throws IOException never: no process is started
+     */
+    public ElfAddr2line(String file, DwarfLineTable lineTable, ElfSymbolTable symbols) throws IOException {
+        super(null, null, file);
+        this.lineTable = lineTable;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Called by the super constructor: there is no addr2line process to start.
+     */
+    @Override
+    protected void init(String command, String[] params, String file) {
+    }
+
+    @Override
+    public String getLine(IAddress address) {
+        long value = address.getValue().longValue();
+        String fileName = lineTable.getFileName(value);
+        if (fileName == null) {
+            return UNKNOWN + ":0"; //$NON-NLS-1$
+        }
+        return fileName + ':' + lineTable.getLineNumber(value);
+    }
+
+    /**
+     * @return the mangled name of the function containing the address
+     */
+    @Override
+    public String getFunction(IAddress address) {
+        String ret = symbols.getFunction(address.getValue().longValue());
+        return ret == null ? UNKNOWN : ret;
+    }
+
+    @Override
+    public void dispose() {
+        // nothing to release: the tables are shared
+    }
+}
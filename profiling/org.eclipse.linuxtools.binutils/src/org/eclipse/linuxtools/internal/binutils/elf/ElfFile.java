@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Memory-mapped ELF file: header and sections. Compressed debug sections, either
+ * SHF_COMPRESSED (gABI) or .zdebug_* (GNU) ones, are inflated when read; other
+ * compression schemes are reported as an IOException so that callers fall back
+ * to the binutils programs.
+ */
+public class ElfFile {
+
+    static final int SHT_SYMTAB = 2;
+    static final int SHT_NOBITS = 8;
+    static final int SHT_DYNSYM = 11;
+    static final long SHF_WRITE = 0x1;
+    static final long SHF_ALLOC = 0x2;
+    static final long SHF_EXECINSTR = 0x4;
+    static final long SHF_COMPRESSED = 0x800;
+
+    private static final int ELFCOMPRESS_ZLIB = 1;
+    private static final String ZDEBUG_MAGIC = "ZLIB"; //$NON-NLS-1$
+
+    private static final int EI_NIDENT = 16;
+    private static final int ELFCLASS64 = 2;
+    private static final int ELFDATA2MSB = 2;
+
+    /**
+     * Section header.
+     */
+    static final class Section {
+        String name;
+        int type;
+        long flags;
+        long address;
+        long offset;
+        long size;
+        int link;
+        long entrySize;
+    }
+
+    private final ByteBuffer buffer;
+    private final boolean is64;
+    private final Section[] sections;
+
+    private ElfFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        try {
+            is64 = buffer.get(4) == ELFCLASS64;
+            buffer.order(buffer.get(5) == ELFDATA2MSB ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+            buffer.position(EI_NIDENT + 2 + 2 + 4); // e_type, e_machine, e_version
+            getAddress(); // e_entry
+            getAddress(); // e_phoff
+            long shoff = getAddress();
+            buffer.getInt(); // e_flags
+            buffer.getShort(); // e_ehsize
+            buffer.getShort(); // e_phentsize
+            buffer.getShort(); // e_phnum
+            int shentsize = buffer.getShort() & 0xffff;
+            int shnum = buffer.getShort() & 0xffff;
+            int shstrndx = buffer.getShort() & 0xffff;
+            sections = new Section[shnum];
+            for (int i = 0; i < shnum; i++) {
+                buffer.position((int) (shoff + (long) i * shentsize));
+                Section section = new Section();
+                section.name = Integer.toString(buffer.getInt()); // resolved below
+                section.type = buffer.getInt();
+                section.flags = getAddress();
+                section.address = getAddress();
+                section.offset = getAddress();
+                section.size = getAddress();
+                section.link = buffer.getInt();
+                buffer.getInt(); // sh_info
+                getAddress(); // sh_addralign
+                section.entrySize = getAddress();
+                sections[i] = section;
+            }
+            if (shstrndx < shnum) {
+                ByteBuffer names = getContent(sections[shstrndx]);
+                for (Section section : sections) {
+                    section.name = getString(names, Integer.parseInt(section.name));
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Invalid ELF file", e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Map the given ELF file.
+     * @param file
+     * @return the ELF file
+     * @throws IOException if the file can not be read, or is not an ELF file
+     */
+    public static ElfFile open(File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file); FileChannel channel = fis.getChannel()) {
+            if (channel.size() < EI_NIDENT || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + ": not an ELF file"); //$NON-NLS-1$
+            }
+            // the mapping stays valid once the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.get(0) != 0x7f || buffer.get(1) != 'E' || buffer.get(2) != 'L' || buffer.get(3) != 'F') {
+                throw new IOException(file + ": not an ELF file"); //$NON-NLS-1$
+            }
+            return new ElfFile(buffer);
+        }
+    }
+
+    /**
+     * @return true for ELFCLASS64 files
+     */
+    public boolean is64() {
+        return is64;
+    }
+
+    Section[] getSections() {
+        return sections;
+    }
+
+    /**
+     * @param name
+     * @return the first section with the given name, or null
+     */
+    Section getSection(String name) {
+        for (Section section : sections) {
+            if (name.equals(section.name)) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param section
+     * @return the content of the section, in the byte order of the file,
+     *         inflated if the section is compressed
+     * @throws IOException if the section is compressed in an unsupported way,
+     *             or its compressed content is corrupted
+     */
+    ByteBuffer getContent(Section section) throws IOException {
+        if (section.type == SHT_NOBITS) {
+            return ByteBuffer.allocate(0);
+        }
+        ByteBuffer content = buffer.duplicate();
+        content.limit((int) (section.offset + section.size));
+        content.position((int) section.offset);
+        content = content.slice().order(buffer.order());
+        try {
+            if ((section.flags & SHF_COMPRESSED) != 0) {
+                // Elf32_Chdr / Elf64_Chdr
+                int type = content.getInt();
+                if (is64) {
+                    content.getInt(); // ch_reserved
+                }
+                long size = is64 ? content.getLong() : content.getInt() & 0xffffffffL;
+                if (type != ELFCOMPRESS_ZLIB) {
+                    throw new IOException(section.name + ": unsupported compression type " + type); //$NON-NLS-1$
+                }
+                getAddress(content); // ch_addralign
+                return inflate(section, content, size);
+            }
+            if (section.name.startsWith(".zdebug") && isZdebug(content)) { //$NON-NLS-1$
+                content.position(ZDEBUG_MAGIC.length());
+                // the uncompressed size is always big-endian
+                long size = content.order(ByteOrder.BIG_ENDIAN).getLong();
+                return inflate(section, content.order(buffer.order()), size);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException(section.name + ": invalid compression header", e); //$NON-NLS-1$
+        }
+        return content;
+    }
+
+    /**
+     * @param name
+     * @return the content of the section with the given name, or null. The
+     *         .zdebug_* variant of a missing .debug_* section is used instead.
+     * @throws IOException if the section can not be inflated
+     */
+    ByteBuffer getContent(String name) throws IOException {
+        Section section = getSection(name);
+        if (section == null && name.startsWith(".debug")) { //$NON-NLS-1$
+            section = getSection(".z" + name.substring(1)); //$NON-NLS-1$
+        }
+        return section == null ? null : getContent(section);
+    }
+
+    private static boolean isZdebug(ByteBuffer content) {
+        if (content.remaining() < ZDEBUG_MAGIC.length() + 8) {
+            return false;
+        }
+        for (int i = 0; i < ZDEBUG_MAGIC.length(); i++) {
+            if (content.get(i) != ZDEBUG_MAGIC.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer inflate(Section section, ByteBuffer content, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException(section.name + ": invalid uncompressed size " + size); //$NON-NLS-1$
+        }
+        byte[] input = new byte[content.remaining()];
+        content.get(input);
+        byte[] output = new byte[(int) size];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int length = 0;
+            while (length < output.length && !inflater.finished()) {
+                int n = inflater.inflate(output, length, output.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != output.length) {
+                throw new IOException(section.name + ": truncated compressed content"); //$NON-NLS-1$
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(section.name + ": invalid compressed content", e); //$NON-NLS-1$
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(output).order(buffer.order());
+    }
+
+    private long getAddress() {
+        return getAddress(buffer);
+    }
+
+    private long getAddress(ByteBuffer from) {
+        return is64 ? from.getLong() : from.getInt() & 0xffffffffL;
+    }
+
+    /**
+     * @param buffer
+     * @param offset
+     * @return the NUL-terminated string at the given offset of the buffer
+     */
+    static String getString(ByteBuffer buffer, long offset) {
+        int start = (int) offset;
+        int end = start;
+        while (end < buffer.limit() && buffer.get(end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes);
+    }
+}
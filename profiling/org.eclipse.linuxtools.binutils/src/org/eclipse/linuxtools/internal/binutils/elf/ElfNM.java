@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import org.eclipse.linuxtools.binutils.utils.STNM;
+import org.eclipse.linuxtools.binutils.utils.STNMSymbolsHandler;
+
+/**
+ * nm implementation reading the symbol table of the ELF file directly.
+ */
+public class ElfNM extends STNM {
+
+    /**
+     * Constructor: reports all the symbols to the handler.
+     *
+     * @param symbols the symbols of the file
+     * @param is64 whether the file is an ELFCLASS64 file
+     * @param handler The symbol handler.
+     */
+    public ElfNM(ElfSymbolTable symbols, boolean is64, STNMSymbolsHandler handler) {
+        super(handler);
+        if (handler == null) {
+            return;
+        }
+        // same address format as nm
+        String format = is64 ? "%016x" : "%08x"; //$NON-NLS-1$ //$NON-NLS-2$
+        for (int i = 0; i < symbols.size(); i++) {
+            String name = symbols.getName(i);
+            switch (symbols.getType(i)) {
+            case 'U':
+                handler.foundUndefSymbol(name);
+                break;
+            case 'T':
+            case 't':
+                handler.foundTextSymbol(name, String.format(format, symbols.getValue(i)));
+                break;
+            case 'B':
+            case 'b':
+                handler.foundBssSymbol(name, String.format(format, symbols.getValue(i)));
+                break;
+            case 'D':
+            case 'd':
+                handler.foundDataSymbol(name, String.format(format, symbols.getValue(i)));
+                break;
+            default:
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.eclipse.linuxtools.internal.binutils.elf.ElfFile.Section;
+
+/**
+ * Symbols of an ELF file, classified the way nm does, with the functions
+ * sorted by address for lookups.
+ */
+public class ElfSymbolTable {
+
+    /** Symbol type, as printed by nm: one of TtBbDdU */
+    private final char[] types;
+    private final String[] names;
+    private final long[] values;
+
+    // functions, sorted by address
+    private final long[] functionStarts;
+    // end addresses, all ones for functions of unknown size
+    private final long[] functionEnds;
+    private final String[] functionNames;
+
+    private static final int STB_LOCAL = 0;
+    private static final int STB_GLOBAL = 1;
+    private static final int STT_FUNC = 2;
+    private static final int STT_SECTION = 3;
+    private static final int STT_FILE = 4;
+    private static final int SHN_UNDEF = 0;
+    private static final int SHN_LORESERVE = 0xff00;
+
+    private ElfSymbolTable(int symbolCount, int functionCount) {
+        types = new char[symbolCount];
+        names = new String[symbolCount];
+        values = new long[symbolCount];
+        functionStarts = new long[functionCount];
+        functionEnds = new long[functionCount];
+        functionNames = new String[functionCount];
+    }
+
+    /**
+     * Read the symbols of the given file.
+     * @param elf
+     * @param dynamic whether to fall back to .dynsym when the file has no .symtab
+     * @return the symbols, possibly none
+     * @throws IOException if the symbol table is compressed in an unsupported way
+     */
+    public static ElfSymbolTable read(ElfFile elf, boolean dynamic) throws IOException {
+        Section[] sections = elf.getSections();
+        Section symtab = null;
+        for (Section section : sections) {
+            if (section.type == ElfFile.SHT_SYMTAB || (dynamic && symtab == null && section.type == ElfFile.SHT_DYNSYM)) {
+                symtab = section;
+            }
+        }
+        if (symtab == null || symtab.link >= sections.length) {
+            return new ElfSymbolTable(0, 0);
+        }
+        ByteBuffer symbols = elf.getContent(symtab);
+        ByteBuffer strings = elf.getContent(sections[symtab.link]);
+        int entrySize = elf.is64() ? 24 : 16;
+        int count = symbols.limit() / entrySize;
+
+        ElfSymbolTable table = new ElfSymbolTable(count, count);
+        int symbolCount = 0;
+        int functionCount = 0;
+        // the first entry is always the null symbol
+        for (int i = 1; i < count; i++) {
+            symbols.position(i * entrySize);
+            int name = symbols.getInt();
+            long value;
+            long size;
+            int info;
+            int shndx;
+            if (elf.is64()) {
+                info = symbols.get() & 0xff;
+                symbols.get(); // st_other
+                shndx = symbols.getShort() & 0xffff;
+                value = symbols.getLong();
+                size = symbols.getLong();
+            } else {
+                value = symbols.getInt() & 0xffffffffL;
+                size = symbols.getInt() & 0xffffffffL;
+                info = symbols.get() & 0xff;
+                symbols.get(); // st_other
+                shndx = symbols.getShort() & 0xffff;
+            }
+            int bind = info >> 4;
+            int type = info & 0xf;
+            if (type == STT_SECTION || type == STT_FILE || name == 0) {
+                continue;
+            }
+            char nmType = classify(bind, shndx, sections);
+            if (nmType == 0) {
+                continue;
+            }
+            String symbolName = ElfFile.getString(strings, name);
+            table.types[symbolCount] = nmType;
+            table.names[symbolCount] = symbolName;
+            table.values[symbolCount] = value;
+            symbolCount++;
+            if (type == STT_FUNC && shndx != SHN_UNDEF) {
+                table.functionStarts[functionCount] = value;
+                table.functionEnds[functionCount] = size == 0 ? -1L : value + size;
+                table.functionNames[functionCount] = symbolName;
+                functionCount++;
+            }
+        }
+        return table.trim(symbolCount, functionCount);
+    }
+
+    /**
+     * @return the nm type of the symbol, or 0 if nm would not report it as a
+     * text, data, bss or undefined symbol
+     */
+    private static char classify(int bind, int shndx, Section[] sections) {
+        if (bind != STB_LOCAL && bind != STB_GLOBAL) {
+            // weak and unique symbols are reported as W, V or u
+            return 0;
+        }
+        if (shndx == SHN_UNDEF) {
+            return bind == STB_GLOBAL ? 'U' : 0;
+        }
+        if (shndx >= SHN_LORESERVE || shndx >= sections.length) {
+            // absolute and common symbols
+            return 0;
+        }
+        Section section = sections[shndx];
+        char type;
+        if ((section.flags & ElfFile.SHF_EXECINSTR) != 0) {
+            type = 'T';
+        } else if ((section.flags & ElfFile.SHF_ALLOC) == 0) {
+            return 0;
+        } else if (section.type == ElfFile.SHT_NOBITS) {
+            type = 'B';
+        } else if ((section.flags & ElfFile.SHF_WRITE) != 0) {
+            type = 'D';
+        } else {
+            // read-only data
+            return 0;
+        }
+        return bind == STB_LOCAL ? Character.toLowerCase(type) : type;
+    }
+
+    private ElfSymbolTable trim(int symbolCount, int functionCount) {
+        ElfSymbolTable table = new ElfSymbolTable(symbolCount, functionCount);
+        System.arraycopy(types, 0, table.types, 0, symbolCount);
+        System.arraycopy(names, 0, table.names, 0, symbolCount);
+        System.arraycopy(values, 0, table.values, 0, symbolCount);
+
+        Integer[] order = new Integer[functionCount];
+        for (int i = 0; i < functionCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                int ret = Long.compare(functionStarts[o1] + Long.MIN_VALUE, functionStarts[o2] + Long.MIN_VALUE);
+                // lookups take the last candidate: prefer global symbols,
+                // which come last in the table
+                return ret != 0 ? ret : Integer.compare(o1, o2);
+            }
+        });
+        for (int i = 0; i < functionCount; i++) {
+            table.functionStarts[i] = functionStarts[order[i]];
+            table.functionEnds[i] = functionEnds[order[i]];
+            table.functionNames[i] = functionNames[order[i]];
+        }
+        return table;
+    }
+
+    /**
+     * @return the number of symbols
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param index
+     * @return the nm type of the symbol: one of TtBbDdU
+     */
+    public char getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * @param index
+     * @return the name of the symbol
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * @param index
+     * @return the value of the symbol
+     */
+    public long getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @param address
+     * @return the name of the function containing the given address, or null
+     */
+    public String getFunction(long address) {
+        int low = 0;
+        int high = functionStarts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (functionStarts[mid] + Long.MIN_VALUE <= address + Long.MIN_VALUE) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found >= 0 && address + Long.MIN_VALUE < functionEnds[found] + Long.MIN_VALUE) {
+            return functionNames[found];
+        }
+        return null;
+    }
+}
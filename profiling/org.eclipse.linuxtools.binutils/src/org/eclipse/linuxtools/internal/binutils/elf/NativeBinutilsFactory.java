@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.binutils.elf;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.cdt.utils.Addr2line;
+import org.eclipse.cdt.utils.CPPFilt;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.linuxtools.binutils.utils.ISTBinutilsFactory;
+import org.eclipse.linuxtools.binutils.utils.STNM;
+import org.eclipse.linuxtools.binutils.utils.STNMSymbolsHandler;
+import org.eclipse.linuxtools.internal.Activator;
+import org.eclipse.linuxtools.internal.binutils.preferences.BinutilsPreferencePage;
+
+/**
+ * Binutils factory answering addr2line and nm requests on local ELF files
+ * without starting any process. Other requests, and files that can not be
+ * read this way, are handled by the wrapped factory.
+ */
+public class NativeBinutilsFactory implements ISTBinutilsFactory {
+
+    /**
+     * Tables of a file, shared by all the addr2line instances of the file.
+     */
+    private static final class Tables {
+        final long lastModified;
+        final long length;
+        // null if the file has no usable line information
+        final DwarfLineTable lines;
+        final ElfSymbolTable symbols;
+
+        Tables(File file, DwarfLineTable lines, ElfSymbolTable symbols) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.lines = lines;
+            this.symbols = symbols;
+        }
+
+        boolean isUpToDate(File file) {
+            return lastModified == file.lastModified() && length == file.length();
+        }
+    }
+
+    private static final Map<String, SoftReference<Tables>> cache = new ConcurrentHashMap<>();
+
+    private final ISTBinutilsFactory delegate;
+
+    /**
+     * Constructor
+     * @param delegate the factory used when the file can not be read directly
+     */
+    public NativeBinutilsFactory(ISTBinutilsFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Addr2line getAddr2line(String path, IProject project) throws IOException {
+        if (isEnabled()) {
+            Tables tables = getTables(path);
+            if (tables != null && tables.lines != null) {
+                return new ElfAddr2line(path, tables.lines, tables.symbols);
+            }
+        }
+        return delegate.getAddr2line(path, project);
+    }
+
+    @Override
+    public CPPFilt getCPPFilt(IProject project) throws IOException {
+        return delegate.getCPPFilt(project);
+    }
+
+    @Override
+    public STNM getNM(String path, STNMSymbolsHandler handler, IProject project) throws IOException {
+        if (isEnabled()) {
+            ElfFile elf = open(new File(path));
+            if (elf != null) {
+                try {
+                    return new ElfNM(ElfSymbolTable.read(elf, false), elf.is64(), handler);
+                } catch (IOException e) {
+                    // compressed in a way only nm knows
+                }
+            }
+        }
+        return delegate.getNM(path, handler, project);
+    }
+
+    @Override
+    public boolean testAvailability() {
+        return delegate.testAvailability();
+    }
+
+    private static boolean isEnabled() {
+        return Activator.getDefault().getPreferenceStore().getBoolean(BinutilsPreferencePage.PREFKEY_NATIVE_SYMBOLS);
+    }
+
+    /**
+     * @param path
+     * @return the tables of the given file, or null if it is not a local ELF file
+     */
+    private static Tables getTables(String path) {
+        File file = new File(path);
+        SoftReference<Tables> ref = cache.get(path);
+        Tables tables = ref == null ? null : ref.get();
+        if (tables != null && tables.isUpToDate(file)) {
+            return tables;
+        }
+        ElfFile elf = open(file);
+        if (elf == null) {
+            return null;
+        }
+        ElfSymbolTable symbols;
+        try {
+            symbols = ElfSymbolTable.read(elf, true);
+        } catch (IOException e) {
+            return null;
+        }
+        DwarfLineTable lines;
+        try {
+            lines = DwarfLineTable.read(elf);
+        } catch (IOException e) {
+            // corrupted, or compressed in a way only addr2line knows: let
+            // addr2line make sense of it
+            lines = null;
+        }
+        // concurrent loads of the same file are harmless: the last one is kept
+        tables = new Tables(file, lines, symbols);
+        cache.put(path, new SoftReference<>(tables));
+        return tables;
+    }
+
+    private static ElfFile open(File file) {
+        if (!file.isFile()) {
+            // remote project, or missing file
+            return null;
+        }
+        try {
+            return ElfFile.open(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
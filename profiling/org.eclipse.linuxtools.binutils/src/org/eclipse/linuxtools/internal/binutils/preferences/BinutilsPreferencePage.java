@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.binutils.preferences;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
@@ -31,6 +32,8 @@ public class BinutilsPreferencePage extends FieldEditorPreferencePage implements
     public static final String PREFKEY_NM_CMD = "PREFKEY_NM_CMD"; //$NON-NLS-1$
     public static final String PREFKEY_NM_ARGS = "PREFKEY_NM_ARGS"; //$NON-NLS-1$
 
+    public static final String PREFKEY_NATIVE_SYMBOLS = "PREFKEY_NATIVE_SYMBOLS"; //$NON-NLS-1$
+
     public BinutilsPreferencePage() {
         super(Messages.BinutilsPreferencePage_title, FieldEditorPreferencePage.GRID);
         this.setPreferenceStore(Activator.getDefault().getPreferenceStore());
@@ -57,6 +60,9 @@ public class BinutilsPreferencePage extends FieldEditorPreferencePage implements
         this.addField(fnm);
         StringFieldEditor fnmArgs = new StringFieldEditor(PREFKEY_NM_ARGS, Messages.BinutilsPreferencePage_nm_flags, this.getFieldEditorParent());
         this.addField(fnmArgs);
+
+        BooleanFieldEditor fnative = new BooleanFieldEditor(PREFKEY_NATIVE_SYMBOLS, Messages.BinutilsPreferencePage_native_symbols, this.getFieldEditorParent());
+        this.addField(fnative);
     }
 
     /*
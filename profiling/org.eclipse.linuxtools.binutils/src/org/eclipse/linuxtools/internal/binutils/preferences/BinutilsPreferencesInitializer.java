@@ -32,6 +32,7 @@ public class BinutilsPreferencesInitializer extends AbstractPreferenceInitialize
         store.setDefault(BinutilsPreferencePage.PREFKEY_CPPFILT_ARGS, ""); //$NON-NLS-1$
         store.setDefault(BinutilsPreferencePage.PREFKEY_NM_CMD, NM_CMD);
         store.setDefault(BinutilsPreferencePage.PREFKEY_NM_ARGS, ""); //$NON-NLS-1$
+        store.setDefault(BinutilsPreferencePage.PREFKEY_NATIVE_SYMBOLS, true);
     }
 
 }
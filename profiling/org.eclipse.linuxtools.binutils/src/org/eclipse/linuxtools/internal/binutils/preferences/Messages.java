@@ -19,6 +19,7 @@ public class Messages extends NLS {
     public static String BinutilsPreferencePage_cppfilt;
     public static String BinutilsPreferencePage_cppfilt_flags;
     public static String BinutilsPreferencePage_description;
+    public static String BinutilsPreferencePage_native_symbols;
     public static String BinutilsPreferencePage_nm;
     public static String BinutilsPreferencePage_nm_flags;
     public static String BinutilsPreferencePage_title;
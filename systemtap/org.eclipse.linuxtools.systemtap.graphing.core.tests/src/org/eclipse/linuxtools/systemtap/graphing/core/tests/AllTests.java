@@ -16,7 +16,9 @@ import org.eclipse.linuxtools.systemtap.graphing.core.tests.aggregates.CountAggr
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.aggregates.MaxAggregateTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.aggregates.MinAggregateTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.aggregates.SumAggregateTest;
+import org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row.BoundedRowDataSetTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row.FilteredRowDataSetTest;
+import org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row.LineParserTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row.RowDataSetTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row.RowEntryTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row.RowParserTest;
@@ -29,6 +31,7 @@ import org.eclipse.linuxtools.systemtap.graphing.core.tests.filters.RangeFilterT
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.filters.SortFilterTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.filters.UniqueFilterTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.structures.ChartStreamDaemonTest;
+import org.eclipse.linuxtools.systemtap.graphing.core.tests.structures.DownsamplerTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.structures.NumberTypeTest;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.structures.UpdateManagerTest;
 import org.junit.runner.RunWith;
@@ -45,7 +48,9 @@ import org.junit.runners.Suite;
         // DataSets
 
         // DataSets.Row
+        BoundedRowDataSetTest.class,
         FilteredRowDataSetTest.class,
+        LineParserTest.class,
         RowDataSetTest.class,
         RowEntryTest.class,
         RowParserTest.class,
@@ -60,7 +65,7 @@ import org.junit.runners.Suite;
         UniqueFilterTest.class,
 
         // Structures
-        ChartStreamDaemonTest.class, NumberTypeTest.class,
+        ChartStreamDaemonTest.class, DownsamplerTest.class, NumberTypeTest.class,
         UpdateManagerTest.class })
 public class AllTests {
 }
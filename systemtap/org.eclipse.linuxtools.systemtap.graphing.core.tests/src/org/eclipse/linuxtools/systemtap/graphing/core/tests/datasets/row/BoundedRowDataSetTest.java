@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.linuxtools.systemtap.graphing.core.adapters.ScrollAdapter;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IColumnView;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataEntry;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataSet;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.BoundedRowDataSet;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.FilteredRowDataSet;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.RowDataSet;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.RowEntry;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoundedRowDataSetTest {
+
+    @Before
+    public void setUp() {
+        data = new BoundedRowDataSet(new String[] {"a", "b", "c"}, 3);
+        append(data, "1", "1.5", "x");
+        append(data, "2", "2.5", "y");
+    }
+
+    private static void append(IDataSet set, String... row) {
+        RowEntry entry = new RowEntry();
+        entry.putRow(0, row);
+        set.setData(entry);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new BoundedRowDataSet(new String[] {"a"}, 0);
+    }
+
+    @Test
+    public void testGetRow() {
+        assertEquals(2, data.getRowCount());
+        Object[] row = data.getRow(1);
+        assertEquals(Long.valueOf(2), row[0]);
+        assertEquals(Double.valueOf(2.5), row[1]);
+        assertSame("y", row[2]);
+        assertNull(data.getRow(2));
+        assertNull(data.getRow(-1));
+    }
+
+    @Test
+    public void testWrapAround() {
+        append(data, "3", "3.5", "z");
+        append(data, "4", "4.5", "w");
+        append(data, "5", "5.5", "v");
+
+        assertEquals(3, data.getEntryCount());
+        Object[] col = data.getColumn(0);
+        assertEquals(3, col.length);
+        assertEquals(Long.valueOf(3), col[0]);
+        assertEquals(Long.valueOf(5), col[2]);
+
+        // Row numbers keep counting from the first row appended.
+        col = data.getColumn(IDataSet.COL_ROW_NUM);
+        assertEquals(Long.valueOf(3), col[0]);
+        assertEquals(Long.valueOf(5), col[2]);
+
+        assertNull(data.getColumn(1, 0, 4));
+        col = data.getColumn(2, 1, 3);
+        assertEquals(2, col.length);
+        assertSame("w", col[0]);
+        assertSame("v", col[1]);
+    }
+
+    @Test
+    public void testMixedColumn() {
+        append(data, "three", "3", "z");
+
+        Object[] col = data.getColumn(0);
+        assertEquals("1", col[0]);
+        assertEquals("2", col[1]);
+        assertEquals("three", col[2]);
+
+        col = data.getColumn(1);
+        assertEquals("1.5", col[0]);
+        assertEquals("3", col[2]);
+    }
+
+    @Test
+    public void testColumnView() {
+        append(data, "3", "3.5", "z");
+        append(data, "4", "4.5", "w");
+
+        IColumnView view = data.getColumnView(1, 1, 3);
+        assertEquals(2, view.size());
+        assertEquals(3.5, view.getDouble(0), 0);
+        assertEquals(4.5, view.getDouble(1), 0);
+        assertTrue(Double.isNaN(data.getColumnView(2, 0, 1).getDouble(0)));
+        assertNull(data.getColumnView(0, 0, 4));
+
+        ScrollAdapter adapter = new ScrollAdapter(data, IDataSet.COL_ROW_NUM, new int[] {0, 1}, null);
+        assertEquals(4.5, adapter.getYSeriesMax(1, 0, 3).doubleValue(), 0);
+        Object[][] records = adapter.getData();
+        assertEquals(3, records.length);
+        assertEquals(Long.valueOf(4), records[2][0]);
+        assertEquals(Long.valueOf(4), records[2][1]);
+        assertEquals(Double.valueOf(4.5), records[2][2]);
+    }
+
+    @Test
+    public void testRemove() {
+        append(data, "3", "3.5", "z");
+        append(data, "4", "4.5", "w");
+
+        IDataEntry last = data.getEntry(2);
+        assertSame(last, data.getEntry(2));
+        assertTrue(data.remove(last));
+        assertEquals(2, data.getEntryCount());
+
+        RowEntry entry = new RowEntry();
+        entry.putRow(0, new String[] {"2", "2.5", "y"});
+        assertTrue(data.remove(entry));
+        assertFalse(data.remove(entry));
+        assertEquals(1, data.getEntryCount());
+        assertSame("z", data.getRow(0)[2]);
+
+        assertFalse(data.remove(1));
+        assertTrue(data.remove(0));
+        assertEquals(0, data.getEntryCount());
+    }
+
+    @Test
+    public void testFiltered() {
+        FilteredRowDataSet filtered = new FilteredRowDataSet(data);
+        append(filtered, "3", "3.5", "z");
+        append(filtered, "4", "4.5", "w");
+
+        assertEquals(3, filtered.getEntryCount());
+        assertEquals(Long.valueOf(4), filtered.getRow(2)[0]);
+    }
+
+    @Test
+    public void testReadWriteFile() throws IOException {
+        File file = File.createTempFile("bounded", ".txt");
+        try {
+            assertTrue(data.writeToFile(file));
+
+            RowDataSet read = new BoundedRowDataSet(data.getTitles(), 1);
+            assertTrue(read.readFromFile(file));
+            assertEquals(1, read.getEntryCount());
+            assertEquals(Double.valueOf(2.5), read.getRow(0)[1]);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private BoundedRowDataSet data;
+}
@@ -13,18 +13,28 @@ package org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.SumAggregate;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IColumnView;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataEntry;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.FilteredRowDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.RowDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.RowEntry;
 import org.eclipse.linuxtools.systemtap.graphing.core.filters.IDataSetFilter;
+import org.eclipse.linuxtools.systemtap.graphing.core.filters.MatchFilter;
 import org.eclipse.linuxtools.systemtap.graphing.core.filters.RangeFilter;
 import org.eclipse.linuxtools.systemtap.graphing.core.filters.SortFilter;
+import org.eclipse.linuxtools.systemtap.graphing.core.filters.UniqueFilter;
+import org.eclipse.linuxtools.systemtap.graphing.core.tests.MockDataSet;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -271,6 +281,121 @@ public class FilteredRowDataSetTest  {
         assertEquals(4, ((Integer)row[0]).intValue());
         assertEquals(3, ((Integer)row[2]).intValue());
     }
+    @Test
+    public void testAppendedRows() {
+        data.remove(0);
+        data.remove(0);
+
+        IDataSetFilter[] filters = new IDataSetFilter[] {
+                new RangeFilter(1, 0, 50, RangeFilter.INCLUSIVE | RangeFilter.INSIDE_BOUNDS),
+                new UniqueFilter(0, new SumAggregate()),
+                new SortFilter(2, SortFilter.DESCENDING)};
+        for(IDataSetFilter filter : filters) {
+            fdata.addFilter(filter);
+        }
+
+        for(int i=0; i<60; i++) {
+            append(String.valueOf(i % 7), String.valueOf(i), String.valueOf(i * 3 % 11));
+            if(i % 4 == 0) {
+                assertFiltered(filters);
+            }
+        }
+        assertFiltered(filters);
+        assertEquals(7, fdata.getRowCount());
+    }
+
+    @Test
+    public void testAppendedRowsInOrder() {
+        data.remove(0);
+        data.remove(0);
+
+        IDataSetFilter[] filters = new IDataSetFilter[] {
+                new MatchFilter(2, "x", MatchFilter.KEEP_MATCHING),
+                new SortFilter(1, SortFilter.ASCENDING)};
+        for(IDataSetFilter filter : filters) {
+            fdata.addFilter(filter);
+        }
+
+        append("a", "1", "x");
+        append("b", "2", "y");
+        assertEquals(1, fdata.getRowCount());
+        IDataEntry first = fdata.getEntry(0);
+
+        // Rows that sort after the others are added to the filtered rows already there.
+        append("c", "3", "x");
+        append("d", "3", "x");
+        assertEquals(3, fdata.getRowCount());
+        assertSame(first, fdata.getEntry(0));
+        assertSame("d", fdata.getRow(2)[0]);
+        assertFiltered(filters);
+
+        // Rows that sort before them have the filters applied to all of the rows.
+        append("e", "0", "x");
+        assertEquals(4, fdata.getRowCount());
+        assertSame("e", fdata.getRow(0)[0]);
+        assertFiltered(filters);
+    }
+
+    @Test
+    public void testReadsWhileAppending() throws InterruptedException {
+        data.remove(0);
+        data.remove(0);
+
+        IDataSetFilter[] filters = new IDataSetFilter[] {
+                new UniqueFilter(0, new SumAggregate()),
+                new SortFilter(0, SortFilter.ASCENDING)};
+        for(IDataSetFilter filter : filters) {
+            fdata.addFilter(filter);
+        }
+
+        // Both threads read the filtered data while one of them appends rows.
+        Thread appender = new Thread() {
+            @Override
+            public void run() {
+                for(int i=0; i<5000; i++) {
+                    RowEntry entry = new RowEntry();
+                    entry.putRow(0, new String[] {String.valueOf(i % 50), String.valueOf(i), "x"});
+                    fdata.append(entry);
+                    fdata.getRowCount();
+                }
+            }
+        };
+        appender.start();
+        while(appender.isAlive()) {
+            int count = fdata.getRowCount();
+            IColumnView view = fdata.getColumnView(1, 0, count);
+            for(int i=0; i<view.size(); i++) {
+                assertNotNull(view.get(i));
+            }
+            assertEquals(count, fdata.getColumn(0, 0, count).length);
+        }
+        appender.join();
+
+        assertFiltered(filters);
+        assertEquals(50, fdata.getRowCount());
+    }
+
+    private void append(String... row) {
+        RowEntry entry = new RowEntry();
+        entry.putRow(0, row);
+        data.append(entry);
+    }
+
+    private void assertFiltered(IDataSetFilter[] filters) {
+        List<Object>[] expected = MockDataSet.createArrayList(data.getColCount(), new Object());
+        for(int i=0; i<expected.length; i++) {
+            expected[i] = new ArrayList<>(Arrays.asList(data.getColumn(i)));
+        }
+        for(IDataSetFilter filter : filters) {
+            expected = filter.filter(expected);
+        }
+
+        assertEquals(expected[0].size(), fdata.getRowCount());
+        for(int i=0; i<expected.length; i++) {
+            assertEquals(expected[i], Arrays.asList(fdata.getColumn(i)));
+        }
+    }
+
     @Test
     public void testGetFilters() {
         assertEquals(0, fdata.getFilters().length);
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.tests.datasets.row;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataEntry;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.LineParser;
+import org.junit.Test;
+
+public class LineParserTest {
+
+    @Test
+    public void testParse() {
+        LineParser parser = new LineParser("^(-?\\d+) {0,4}(\\d+): (.+)$");
+        assertNull(parser.parse(null));
+        assertNull(parser.parse(new StringBuilder("")));
+
+        StringBuilder s = new StringBuilder("bogus\n");
+        assertNull(parser.parse(s));
+        assertEquals("", s.toString());
+
+        s.append("-12   007: open\n");
+        IDataEntry entry = parser.parse(s);
+        assertNotNull(entry);
+        assertEquals("", s.toString());
+        Object[] row = entry.getRow(0);
+        assertEquals(3, row.length);
+        assertEquals(Long.valueOf(-12), row[0]);
+        assertEquals("007", row[1]);
+        assertEquals("open", row[2]);
+
+        // An unfinished line is kept until it matches.
+        s.append("12 3");
+        assertNull(parser.parse(s));
+        s.append("4: a: b");
+        row = parser.parse(s).getRow(0);
+        assertEquals(Long.valueOf(12), row[0]);
+        assertEquals(Long.valueOf(34), row[1]);
+        assertEquals("a: b", row[2]);
+    }
+
+    @Test
+    public void testMatchesRegex() {
+        String[] regExs = new String[] {
+                "^(\\d+)(\\d+)$",
+                "^(.+) (.+)$",
+                "^ {0,5}(-?\\d+)\\.(\\d+)\\|(\\w*)$",
+                "^(0x[a-f0-9]+),([A-F0-9]+)x?$",
+                "^\\[(.{3})\\] (\\+|-?\\d+)$",
+                "^(\\d{2,3})([^0-9]+)$",
+                "^((a))$",
+                "^(\\d+)*$",
+        };
+        String[] lines = new String[] {
+                "", "12", "123 45", " a b c", "   -7.08|x_1", "-7.0|", "0xff,FF", "0xfg,1x",
+                "[abc] -4", "[ab] 4", "[a b] +", "12345abc", "1234", "a", "12\r", "a b\u0085c",
+        };
+
+        for(String regEx : regExs) {
+            Pattern pattern = Pattern.compile(regEx, Pattern.MULTILINE);
+            for(String line : lines) {
+                LineParser parser = new LineParser(regEx);
+                IDataEntry entry = parser.parse(new StringBuilder(line + "\n"));
+
+                Matcher matcher = pattern.matcher(line + "\n");
+                if(!matcher.find()) {
+                    assertNull(regEx + " " + line, entry);
+                    continue;
+                }
+                assertNotNull(regEx + " " + line, entry);
+                Object[] row = entry.getRow(0);
+                assertEquals(matcher.groupCount(), row.length);
+                for(int i=0; i<row.length; i++) {
+                    assertEquals(regEx + " " + line, matcher.group(i+1), null == row[i] ? null : row[i].toString());
+                }
+            }
+        }
+    }
+}
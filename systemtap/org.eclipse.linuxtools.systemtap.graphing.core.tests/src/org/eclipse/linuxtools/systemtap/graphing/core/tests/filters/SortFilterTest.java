@@ -16,8 +16,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.linuxtools.systemtap.graphing.core.filters.IDataSetFilterState;
 import org.eclipse.linuxtools.systemtap.graphing.core.filters.SortFilter;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.MockDataSet;
 import org.junit.Before;
@@ -90,6 +92,44 @@ public class SortFilterTest {
         assertNotNull(filter.filter(data));
     }
     @Test
+    public void testDescending() {
+        ArrayList<Object>[] data = MockDataSet.buildArray(3, 10, 3);
+        for(int i=0; i<data[1].size(); i++) {
+            data[1].set(i, "" + i);
+        }
+
+        // Equal rows are in the reverse order of an ascending sort.
+        List<Object> ascending = new SortFilter(0, SortFilter.ASCENDING).filter(data)[1];
+        List<Object> descending = new SortFilter(0, SortFilter.DESCENDING).filter(data)[1];
+        Collections.reverse(ascending);
+        assertEquals(ascending, descending);
+    }
+    @Test
+    public void testAppend() {
+        ArrayList<Object>[] data = MockDataSet.buildArray(3, 10, 3);
+        // Tell the rows with equal values apart.
+        for(int i=0; i<data[1].size(); i++) {
+            data[1].set(i, "" + i);
+        }
+        for(int style : new int[] {SortFilter.ASCENDING, SortFilter.DESCENDING}) {
+            SortFilter filter = new SortFilter(0, style);
+            IDataSetFilterState state = filter.createState();
+            for(int i=0; i<data[0].size(); i+=4) {
+                List<Object>[] rows = MockDataSet.createArrayList(data.length, new Object());
+                for(int j=0; j<rows.length; j++) {
+                    rows[j] = new ArrayList<>(data[j].subList(i, Math.min(i+4, data[j].size())));
+                }
+                state.append(rows);
+            }
+
+            // Equal rows are in the same order as when sorting all of them at once.
+            List<Object>[] data2 = filter.filter(data);
+            for(int j=0; j<data.length; j++) {
+                assertEquals(data2[j], state.getData()[j]);
+            }
+        }
+    }
+    @Test
     public void testGetID() {
         assertEquals(SortFilter.ID, filter.getID());
     }
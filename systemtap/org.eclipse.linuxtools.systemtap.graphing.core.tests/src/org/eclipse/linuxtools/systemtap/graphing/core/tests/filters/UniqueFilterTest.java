@@ -16,10 +16,14 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.AverageAggregate;
+import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.CountAggregate;
 import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.MaxAggregate;
 import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.SumAggregate;
+import org.eclipse.linuxtools.systemtap.graphing.core.filters.IDataSetFilterState;
 import org.eclipse.linuxtools.systemtap.graphing.core.filters.UniqueFilter;
 import org.eclipse.linuxtools.systemtap.graphing.core.tests.MockDataSet;
 import org.junit.Before;
@@ -73,6 +77,50 @@ public class UniqueFilterTest  {
         filter = new UniqueFilter(0, new SumAggregate());
         assertNotNull(filter.filter(data));
     }
+    @Test
+    public void testAggregates() {
+        List<Object>[] data = MockDataSet.createArrayList(3, new Object());
+        data[0] = new ArrayList<Object>(Arrays.asList("a", "b", "a", "a"));
+        data[1] = new ArrayList<Object>(Arrays.asList("1", "2", "3.5", "4"));
+        data[2] = new ArrayList<Object>(Arrays.asList("x", "y", "z", "x"));
+
+        List<Object>[] data2 = new UniqueFilter(0, new MaxAggregate()).filter(data);
+        assertEquals(2, data2[0].size());
+        assertEquals("b", data2[0].get(0));
+        assertEquals("a", data2[0].get(1));
+        assertEquals(Double.valueOf(4), data2[1].get(1));
+        assertEquals("x/z", data2[2].get(1));
+
+        data2 = new UniqueFilter(0, new CountAggregate()).filter(data);
+        assertEquals(Integer.valueOf(1), data2[1].get(0));
+        assertEquals(Integer.valueOf(3), data2[1].get(1));
+
+        data2 = new UniqueFilter(0, new AverageAggregate()).filter(data);
+        assertEquals(Long.valueOf(2), data2[1].get(0));
+        assertEquals(Double.valueOf(8.5 / 3), data2[1].get(1));
+    }
+
+    @Test
+    public void testNumbersThenText() {
+        List<Object>[] data = MockDataSet.createArrayList(2, new Object());
+        data[0] = new ArrayList<Object>(Arrays.asList("a", "a", "a", "a"));
+        data[1] = new ArrayList<Object>(Arrays.asList("1", "2", "x", "2"));
+
+        List<Object>[] data2 = new UniqueFilter(0, new SumAggregate()).filter(data);
+        assertEquals(1, data2[0].size());
+        assertEquals("1/2/x", data2[1].get(0));
+
+        // The numbers are kept when the text comes in a later append.
+        IDataSetFilterState state = new UniqueFilter(0, new SumAggregate()).createState();
+        data[0] = new ArrayList<Object>(Arrays.asList("a", "a"));
+        data[1] = new ArrayList<Object>(Arrays.asList("1", "2"));
+        state.append(data);
+        data[0] = new ArrayList<Object>(Arrays.asList("a"));
+        data[1] = new ArrayList<Object>(Arrays.asList("x"));
+        state.append(data);
+        assertEquals("1/2/x", state.getData()[1].get(0));
+    }
+
     @Test
     public void testGetID() {
         assertEquals(UniqueFilter.ID, filter.getID());
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.tests.structures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.linuxtools.systemtap.graphing.core.structures.Downsampler;
+import org.junit.Test;
+
+public class DownsamplerTest {
+
+    @Test
+    public void testFewPoints() {
+        double[] x = new double[] {0, 1, 2, 3};
+        double[] y = new double[] {5, 6, 7, 8};
+        assertNull(Downsampler.downsampleLine(x, y, 0, 3, 1));
+        assertNull(Downsampler.downsampleLine(x, y, 0, 3, 0));
+        assertNull(Downsampler.downsamplePoints(x, y, 0, 3, 4, 5, 8, 4));
+        assertSame(y, Downsampler.select(y, null));
+    }
+
+    @Test
+    public void testUnsorted() {
+        double[] x = new double[100];
+        double[] y = new double[100];
+        for(int i=0; i<x.length; i++) {
+            x[i] = i % 10;
+        }
+        assertNull(Downsampler.downsampleLine(x, y, 0, 10, 2));
+    }
+
+    @Test
+    public void testDownsampleLine() {
+        double[] x = new double[1000];
+        double[] y = new double[1000];
+        for(int i=0; i<x.length; i++) {
+            x[i] = i;
+            y[i] = i % 7;
+        }
+        y[503] = -100;
+        y[504] = 100;
+
+        int[] keep = Downsampler.downsampleLine(x, y, 0, 1000, 10);
+        assertTrue(keep.length <= 40);
+        assertEquals(0, keep[0]);
+        assertEquals(999, keep[keep.length-1]);
+        for(int i=1; i<keep.length; i++) {
+            assertTrue(keep[i-1] < keep[i]);
+        }
+
+        // Each column keeps its first, lowest, highest and last point.
+        int column = 0;
+        while(keep[column] < 500) {
+            column++;
+        }
+        int[] columnKeep = new int[] {keep[column], keep[column+1], keep[column+2], keep[column+3], keep[column+4]};
+        assertArrayEquals(new int[] {500, 503, 504, 599, 600}, columnKeep);
+        assertArrayEquals(new double[] {3, -100, 100, 4}, Downsampler.select(y, new int[] {500, 503, 504, 599}), 0);
+    }
+
+    @Test
+    public void testVisibleRange() {
+        double[] x = new double[1000];
+        double[] y = new double[1000];
+        for(int i=0; i<x.length; i++) {
+            x[i] = i;
+        }
+
+        // Only the nearest point outside the range on each side is kept.
+        int[] keep = Downsampler.downsampleLine(x, y, 100.5, 199.5, 10);
+        assertEquals(100, keep[0]);
+        assertEquals(200, keep[keep.length-1]);
+
+        keep = Downsampler.downsampleLine(x, y, 100, 109, 10);
+        assertEquals(12, keep.length);
+        assertEquals(99, keep[0]);
+        assertEquals(110, keep[11]);
+
+        keep = Downsampler.downsampleLine(x, y, 2000, 3000, 10);
+        assertArrayEquals(new int[] {999}, keep);
+    }
+
+    @Test
+    public void testDownsamplePoints() {
+        double[] x = new double[] {0, 0.1, 5, 9.9, 9.9, 20, 5};
+        double[] y = new double[] {0, 0.1, 5, 9.9, 0.5, 5, -1};
+        int[] keep = Downsampler.downsamplePoints(x, y, 0, 10, 2, 0, 10, 2);
+        assertArrayEquals(new int[] {0, 2, 4}, keep);
+    }
+}
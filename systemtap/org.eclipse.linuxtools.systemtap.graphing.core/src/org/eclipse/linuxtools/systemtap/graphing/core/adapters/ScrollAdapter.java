@@ -14,8 +14,10 @@ package org.eclipse.linuxtools.systemtap.graphing.core.adapters;
 import java.util.Arrays;
 
 import org.eclipse.linuxtools.internal.systemtap.graphing.core.Localization;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IColumnView;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IHistoricalDataSet;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.RowDataSet;
 
 public class ScrollAdapter implements IAdapter {
     public ScrollAdapter(IHistoricalDataSet data, int xSeries, int[] ySeries, String key) {
@@ -35,6 +37,17 @@ public class ScrollAdapter implements IAdapter {
         if(start < 0 || end > data.getRowCount() || start > end)
             return null;
 
+        if(data instanceof RowDataSet) {
+            IColumnView view = ((RowDataSet) data).getColumnView(series, start, end);
+            double max = Double.NEGATIVE_INFINITY;
+            for(int i=0; i<view.size(); i++) {
+                double cur = view.getDouble(i);
+                if(max < cur)
+                    max = cur;
+            }
+            return new Double(max);
+        }
+
         Number max = new Double(Double.NEGATIVE_INFINITY);
         Number cur;
 
@@ -80,6 +93,10 @@ public class ScrollAdapter implements IAdapter {
     //[Row][Column]
     @Override
     public Object[][] getData(int start, int end) {
+        if(data instanceof RowDataSet) {
+            return getRowData((RowDataSet) data, start, end);
+        }
+
         Object[][] o = new Object[Math.min(end-start,getRecordCount())][ySeries.length+1];
 
         Object[] x = data.getHistoricalData(key, xSeries, start, end);
@@ -97,6 +114,26 @@ public class ScrollAdapter implements IAdapter {
         return o;
     }
 
+    /**
+     * Fills in the records straight from views of the data set's columns,
+     * without copying each column out first.
+     */
+    private Object[][] getRowData(RowDataSet rows, int start, int end) {
+        IColumnView x = rows.getColumnView(xSeries, start, end);
+        IColumnView[] y = new IColumnView[ySeries.length];
+        for(int i=0; i<ySeries.length; i++)
+            y[i] = rows.getColumnView(ySeries[i], start, end);
+
+        Object[][] o = new Object[x.size()][ySeries.length+1];
+        for(int j,i=0; i<o.length; i++) {
+            o[i][0] = x.get(i);
+            for(j=0; j<ySeries.length; j++)
+                o[i][j+1] = y[j].get(i);
+        }
+
+        return o;
+    }
+
     private IHistoricalDataSet data;
     private int xSeries;
     private int[] ySeries;
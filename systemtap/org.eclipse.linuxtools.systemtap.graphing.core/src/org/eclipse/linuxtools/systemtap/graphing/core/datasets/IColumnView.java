@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.datasets;
+
+/**
+ * A read-only window onto a range of one column of a data set. Values are
+ * read from the data set on demand rather than copied out of it, so a view
+ * is only meant to be used right after it is taken.
+ * @since 2.0
+ */
+public interface IColumnView {
+    int size();
+    Object get(int index);
+
+    /**
+     * @param index The position of the value in this view.
+     * @return The value as a double, or {@link Double#NaN} if it is not numeric.
+     */
+    double getDouble(int index);
+}
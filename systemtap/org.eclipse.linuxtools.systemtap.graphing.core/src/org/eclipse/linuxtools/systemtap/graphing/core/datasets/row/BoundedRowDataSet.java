@@ -0,0 +1,435 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.datasets.row;
+
+import java.util.Arrays;
+
+import org.eclipse.linuxtools.internal.systemtap.graphing.core.Localization;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IColumnView;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataEntry;
+
+/**
+ * A {@link RowDataSet} that keeps only the most recent rows, up to a fixed
+ * capacity. Once full, each appended row replaces the oldest one.
+ *
+ * Rows are not kept as entries but spread over one array per column. A
+ * column whose values are all integers is stored as a <code>long[]</code>,
+ * one whose values are all decimals as a <code>double[]</code>, and any
+ * other column as interned strings. Values are returned as {@link Long},
+ * {@link Double} or {@link String} accordingly, with the same text as the
+ * values that were appended.
+ *
+ * Row numbers keep counting from the first row ever appended, so they do
+ * not change when older rows are dropped.
+ * @since 2.0
+ */
+public class BoundedRowDataSet extends RowDataSet {
+
+    /**
+     * The number of rows a bounded data set created for a running script keeps.
+     */
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    private static final int INITIAL_LENGTH = 64;
+
+    public BoundedRowDataSet(String[] titles, int capacity) {
+        super(titles);
+        if(capacity <= 0) {
+            throw new IllegalArgumentException(Localization.getString("BoundedRowDataSet.InvalidCapacity") + capacity); //$NON-NLS-1$
+        }
+        this.capacity = capacity;
+        columns = new Column[Math.max(getColCount(), 0)];
+        length = Math.min(INITIAL_LENGTH, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void append(IDataEntry entry) {
+        Object[] row = entry.getRow(null);
+        if(row.length != this.getColCount())
+            throw new ArrayIndexOutOfBoundsException(Localization.getString("RowDataSet.ArraySizeMismatch") + row.length + " != " + this.getColCount()); //$NON-NLS-1$ //$NON-NLS-2$
+
+        if(count == capacity) {
+            head = slot(1);
+            dropped++;
+            count--;
+        } else if(count == length) {
+            length = Math.min(length * 2, capacity);
+            for(Column column : columns) {
+                if(null != column) {
+                    column.resize(length);
+                }
+            }
+        }
+
+        int slot = slot(count);
+        for(int i=0; i<row.length; i++) {
+            put(i, slot, row[i]);
+        }
+        count++;
+    }
+
+    private void put(int col, int slot, Object value) {
+        if(null == columns[col]) {
+            columns[col] = Column.create(value, length);
+        }
+        if(!columns[col].set(slot, value)) {
+            // The value does not fit the column's type, so fall back to strings.
+            StringColumn strings = new StringColumn(length);
+            for(int r=0; r<count; r++) {
+                int s = slot(r);
+                strings.set(s, columns[col].get(s));
+            }
+            columns[col] = strings;
+            strings.set(slot, value);
+        }
+    }
+
+    private int slot(int row) {
+        int slot = head + row;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+
+    private Object value(int row, int col) {
+        if(COL_ROW_NUM == col) {
+            return Long.valueOf(dropped + row + 1);
+        }
+        Column column = columns[col];
+        return null == column ? null : column.get(slot(row));
+    }
+
+    private double doubleValue(int row, int col) {
+        if(COL_ROW_NUM == col) {
+            return dropped + row + 1;
+        }
+        Column column = columns[col];
+        return null == column ? Double.NaN : column.getDouble(slot(row));
+    }
+
+    @Override
+    public Object[] getRow(int row) {
+        if(row < 0 || row >= count) {
+            return null;
+        }
+        Object[] values = new Object[columns.length];
+        for(int i=0; i<values.length; i++) {
+            values[i] = value(row, i);
+        }
+        return values;
+    }
+
+    @Override
+    public Object[] getHistoricalData(String key, int col, int start, int end) {
+        if(start > end || start < 0 || end > count || col < COL_ROW_NUM || col >= this.getColCount()) {
+            return null;
+        }
+
+        Object[] d = new Object[end-start];
+        for(int i=0; i<d.length; i++) {
+            d[i] = value(start+i, col);
+        }
+        return d;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The view reads straight from the column arrays. Appending rows to a full
+     * data set moves the rows it shows.
+     */
+    @Override
+    public IColumnView getColumnView(final int col, final int start, int end) {
+        if(start > end || start < 0 || end > count || col < COL_ROW_NUM || col >= this.getColCount()) {
+            return null;
+        }
+
+        final int size = end-start;
+        return new IColumnView() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Object get(int index) {
+                return value(start+index, col);
+            }
+
+            @Override
+            public double getDouble(int index) {
+                return doubleValue(start+index, col);
+            }
+        };
+    }
+
+    @Override
+    public int getEntryCount() {
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Entries are built from the stored values. The entry last built for the
+     * newest row is kept while that row is still at the same position, so
+     * that asking for it again returns the same entry as long as rows have
+     * only been appended since.
+     */
+    @Override
+    public IDataEntry getEntry(int entry) {
+        if(entry < 0 || entry >= count) {
+            return null;
+        }
+        if(null != newest && dropped + entry == newestRow) {
+            return newest;
+        }
+        RowEntry e = new RowEntry();
+        e.putRow(0, getRow(entry));
+        if(entry == count-1) {
+            newest = e;
+            newestRow = dropped + entry;
+        }
+        return e;
+    }
+
+    @Override
+    public boolean remove(IDataEntry entry) {
+        if(null == entry) {
+            return false;
+        }
+        if(entry == newest && newestRow >= dropped) {
+            return remove((int) (newestRow - dropped));
+        }
+
+        Object[] row = entry.getRow(null);
+        for(int r=0; r<count; r++) {
+            if(matches(r, row)) {
+                return remove(r);
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(int r, Object[] row) {
+        if(null == row || row.length != columns.length) {
+            return false;
+        }
+        for(int i=0; i<row.length; i++) {
+            Object value = value(r, i);
+            if(null == value ? null != row[i] : null == row[i] || !value.toString().equals(row[i].toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(int entry) {
+        if(entry < 0 || entry >= count) {
+            return false;
+        }
+        for(int r=entry; r<count-1; r++) {
+            int from = slot(r+1), to = slot(r);
+            for(Column column : columns) {
+                if(null != column) {
+                    column.set(to, column.get(from));
+                }
+            }
+        }
+        count--;
+        newest = null;
+        return true;
+    }
+
+    /**
+     * One column of the ring, with one value per slot.
+     */
+    private abstract static class Column {
+        static Column create(Object value, int length) {
+            if(value instanceof Long || value instanceof Integer
+                    || value instanceof String && isLong((String) value)) {
+                return new LongColumn(length);
+            } else if(value instanceof Double
+                    || value instanceof String && isDouble((String) value)) {
+                return new DoubleColumn(length);
+            }
+            return new StringColumn(length);
+        }
+
+        /**
+         * @return <code>false</code> if the value cannot be stored in this column.
+         */
+        abstract boolean set(int slot, Object value);
+        abstract Object get(int slot);
+        abstract double getDouble(int slot);
+        abstract void resize(int length);
+    }
+
+    private static class LongColumn extends Column {
+        LongColumn(int length) {
+            values = new long[length];
+        }
+
+        @Override
+        boolean set(int slot, Object value) {
+            if(value instanceof Long || value instanceof Integer) {
+                values[slot] = ((Number) value).longValue();
+            } else if(value instanceof String && isLong((String) value)) {
+                values[slot] = Long.parseLong((String) value);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        Object get(int slot) {
+            return Long.valueOf(values[slot]);
+        }
+
+        @Override
+        double getDouble(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        void resize(int length) {
+            values = Arrays.copyOf(values, length);
+        }
+
+        private long[] values;
+    }
+
+    private static class DoubleColumn extends Column {
+        DoubleColumn(int length) {
+            values = new double[length];
+        }
+
+        @Override
+        boolean set(int slot, Object value) {
+            if(value instanceof Double) {
+                values[slot] = ((Double) value).doubleValue();
+            } else if(value instanceof String && isDouble((String) value)) {
+                values[slot] = Double.parseDouble((String) value);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        Object get(int slot) {
+            return Double.valueOf(values[slot]);
+        }
+
+        @Override
+        double getDouble(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        void resize(int length) {
+            values = Arrays.copyOf(values, length);
+        }
+
+        private double[] values;
+    }
+
+    private static class StringColumn extends Column {
+        StringColumn(int length) {
+            values = new String[length];
+        }
+
+        @Override
+        boolean set(int slot, Object value) {
+            values[slot] = null == value ? null : value.toString().intern();
+            return true;
+        }
+
+        @Override
+        Object get(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        double getDouble(int slot) {
+            String value = values[slot];
+            if(null == value) {
+                return Double.NaN;
+            }
+            try {
+                return Double.parseDouble(value);
+            } catch(NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        @Override
+        void resize(int length) {
+            values = Arrays.copyOf(values, length);
+        }
+
+        private String[] values;
+    }
+
+    /**
+     * @return <code>true</code> if the string is a long written the way
+     * {@link Long#toString(long)} would write it.
+     */
+    private static boolean isLong(String s) {
+        int start = s.startsWith("-") ? 1 : 0; //$NON-NLS-1$
+        int digits = s.length() - start;
+        if(digits == 0 || digits > 19 || (s.charAt(start) == '0' && (digits > 1 || start > 0))) {
+            return false;
+        }
+        for(int i=start; i<s.length(); i++) {
+            char c = s.charAt(i);
+            if(c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if(digits < 19) {
+            return true;
+        }
+        try {
+            Long.parseLong(s);
+            return true;
+        } catch(NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the string is a double written the way
+     * {@link Double#toString(double)} would write it.
+     */
+    private static boolean isDouble(String s) {
+        if(s.isEmpty() || (s.charAt(0) != '-' && (s.charAt(0) < '0' || s.charAt(0) > '9'))) {
+            return false;
+        }
+        try {
+            return Double.toString(Double.parseDouble(s)).equals(s);
+        } catch(NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private final int capacity;
+    private final Column[] columns;
+    private int length;
+    private int head;
+    private int count;
+    private long dropped;
+    private IDataEntry newest;
+    private long newestRow;
+}
@@ -15,10 +15,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.linuxtools.internal.systemtap.graphing.core.GraphingCorePlugin;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IColumnView;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataEntry;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IFilteredDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.filters.IDataSetFilter;
+import org.eclipse.linuxtools.systemtap.graphing.core.filters.IDataSetFilterState;
+import org.eclipse.linuxtools.systemtap.graphing.core.filters.IIncrementalDataSetFilter;
 
+/**
+ * A data set that shows the rows of another one through a list of filters.
+ * Charts read the filtered data from their own threads while rows are
+ * appended, so the rebuild, the reads and the changes all lock the data set,
+ * and the column views it returns lock it for each value they read.
+ */
 public class FilteredRowDataSet extends RowDataSet implements IFilteredDataSet {
     public FilteredRowDataSet(RowDataSet data) {
         super(data.getTitles());
@@ -37,48 +46,80 @@ public class FilteredRowDataSet extends RowDataSet implements IFilteredDataSet {
 
     //Overwrite methods to insure data is removed from the original DataSet
     @Override
-    public void append(IDataEntry entry) {
+    public synchronized void append(IDataEntry entry) {
         original.append(entry);
     }
 
     @Override
-    public boolean remove(IDataEntry entry) {
+    public synchronized boolean remove(IDataEntry entry) {
         return original.remove(entry);
     }
 
     @Override
-    public boolean remove(int entry) {
+    public synchronized boolean remove(int entry) {
         return original.remove(entry);
     }
     //End overwrite methods to insure data is removed from the original DataSet
 
      //Overwrite to ensure the data returned has all the filters applied
     @Override
-    public Object[] getColumn(int col, int start, int end) {
+    public synchronized Object[] getColumn(int col, int start, int end) {
         rebuildDataSet();
         return super.getColumn(col, start, end);
     }
 
     @Override
-    public Object[] getRow(int row) {
+    public synchronized Object[] getRow(int row) {
         rebuildDataSet();
         return super.getRow(row);
     }
 
     @Override
-    public Object[] getHistoricalData(String key, int col, int start, int end) {
+    public synchronized Object[] getHistoricalData(String key, int col, int start, int end) {
         rebuildDataSet();
         return super.getHistoricalData(key, col, start, end);
     }
 
     @Override
-    public int getEntryCount() {
+    public IColumnView getColumnView(int col, int start, int end) {
+        final IColumnView view;
+        synchronized(this) {
+            rebuildDataSet();
+            view = super.getColumnView(col, start, end);
+        }
+        if(null == view) {
+            return null;
+        }
+        return new IColumnView() {
+            @Override
+            public int size() {
+                return view.size();
+            }
+
+            @Override
+            public Object get(int index) {
+                synchronized(FilteredRowDataSet.this) {
+                    return view.get(index);
+                }
+            }
+
+            @Override
+            public double getDouble(int index) {
+                synchronized(FilteredRowDataSet.this) {
+                    return view.getDouble(index);
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized int getEntryCount() {
         rebuildDataSet();
         return super.getEntryCount();
     }
 
     @Override
-    public IDataEntry getEntry(int entry) {
+    public synchronized IDataEntry getEntry(int entry) {
         rebuildDataSet();
         return super.getEntry(entry);
     }
@@ -86,54 +127,124 @@ public class FilteredRowDataSet extends RowDataSet implements IFilteredDataSet {
 
     //IFilteredDataSet Methods
     @Override
-    public void addFilter(IDataSetFilter filter) {
+    public synchronized void addFilter(IDataSetFilter filter) {
         filters.add(filter);
         filtersChanged = true;
     }
 
     @Override
-    public boolean removeFilter(IDataSetFilter filter) {
+    public synchronized boolean removeFilter(IDataSetFilter filter) {
         filtersChanged = filters.remove(filter);
         return filtersChanged;
     }
 
     @Override
-    public void clearFilters() {
+    public synchronized void clearFilters() {
         filters.clear();
         filtersChanged = true;
     }
 
     @Override
-    public IDataSetFilter[] getFilters() {
+    public synchronized IDataSetFilter[] getFilters() {
         IDataSetFilter[] f = new IDataSetFilter[filters.size()];
         filters.toArray(f);
         return f;
     }
     //End IFilteredDataSet Methods
 
+    /**
+     * Brings the filtered data up to date with the original data. When rows
+     * have only been appended to the original data since the last rebuild,
+     * just those rows are passed through the filters, each of which keeps
+     * the state it reached the last time. Any other change filters all of
+     * the data again. Callers hold the lock of the data set.
+     */
     private void rebuildDataSet() {
-        IDataEntry top = original.getEntry(original.getEntryCount()-1);
+        int count = original.getRowCount();
+        boolean appended = !filtersChanged && null != states && count > dataCount
+                && (0 == dataCount || original.getEntry(dataCount-1) == topData);
+        IDataEntry top = original.getEntry(count-1);
 
-        if(filtersChanged || dataCount != original.getRowCount() || topData != top) {
-            dataCount = original.getRowCount();
-            topData = top;
+        if(appended || filtersChanged || dataCount != count || topData != top) {
+            boolean full = !appended;
+            if(full) {
+                states = new IDataSetFilterState[filters.size()];
+            }
 
-            List<Object>[] filterData = getFilterData();
+            List<Object>[] filterData = getFilterData(appended ? dataCount : 0, count);
             for(int i=0; i<filters.size(); i++) {
-                filterData = filters.get(i).filter(filterData);
+                if(full) {
+                    states[i] = createState(filters.get(i));
+                }
+                List<Object>[] added = states[i].append(filterData);
+                if(null == added) {
+                    filterData = states[i].getData();
+                    full = true;
+                } else {
+                    filterData = added;
+                }
+            }
+
+            if(full) {
+                setFilteredData(filterData);
+            } else {
+                addFilteredData(filterData);
             }
-            setFilteredData(filterData);
+            filtersChanged = false;
+            dataCount = count;
+            topData = top;
+        }
+    }
+
+    private static IDataSetFilterState createState(IDataSetFilter filter) {
+        if(filter instanceof IIncrementalDataSetFilter) {
+            return ((IIncrementalDataSetFilter) filter).createState();
+        }
+        return new FullFilterState(filter);
+    }
+
+    /**
+     * The state of a filter that can only filter all of the data at once.
+     */
+    private static class FullFilterState implements IDataSetFilterState {
+        FullFilterState(IDataSetFilter filter) {
+            this.filter = filter;
         }
+
+        @Override
+        public List<Object>[] append(List<Object>[] data) {
+            if(null == input) {
+                input = GraphingCorePlugin.createArrayList(data.length);
+                for(int i=0; i<input.length; i++) {
+                    input[i] = new ArrayList<>(data[i]);
+                }
+            } else {
+                for(int i=0; i<input.length; i++) {
+                    input[i].addAll(data[i]);
+                }
+            }
+            output = filter.filter(input);
+            return null;
+        }
+
+        @Override
+        public List<Object>[] getData() {
+            return output;
+        }
+
+        private final IDataSetFilter filter;
+        private ArrayList<Object>[] input;
+        private List<Object>[] output;
     }
 
-    private ArrayList<Object>[] getFilterData() {
+    private ArrayList<Object>[] getFilterData(int start, int end) {
         ArrayList<Object>[] data = GraphingCorePlugin.createArrayList(original.getColCount());
         for(int i=0; i<data.length; i++) {
-            data[i] = new ArrayList<>();
+            data[i] = new ArrayList<>(end-start);
         }
 
         Object[] row;
-        for(int j,i=0; i<original.getRowCount(); i++) {
+        for(int j,i=start; i<end; i++) {
             row = original.getRow(i);
             for(j=0; j<data.length; j++) {
                 data[j].add(row[j]);
@@ -145,7 +256,10 @@ public class FilteredRowDataSet extends RowDataSet implements IFilteredDataSet {
 
     private void setFilteredData(List<?>[] data) {
         this.data = new ArrayList<>();
+        addFilteredData(data);
+    }
 
+    private void addFilteredData(List<?>[] data) {
         RowEntry entry;
         Object[] row;
         for(int j,i=0; i<data[0].size(); i++) {
@@ -162,6 +276,7 @@ public class FilteredRowDataSet extends RowDataSet implements IFilteredDataSet {
     private RowDataSet original;
     private List<IDataSetFilter> filters;
 
+    private IDataSetFilterState[] states;
     private boolean filtersChanged;
     private int dataCount;
     private Object topData;
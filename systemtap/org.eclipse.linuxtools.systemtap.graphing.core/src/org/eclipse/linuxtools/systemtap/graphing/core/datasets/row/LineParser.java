@@ -21,6 +21,13 @@ import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataSetParser;
  * A DataSetParser for parsing a string, line-by-line, with a preconstructed
  * single-line regex string.
  *
+ * A regex of the form <code>^...$</code> that is simple enough, such as one
+ * generated from a printf statement, is matched against each line without
+ * {@link java.util.regex}, and its integer groups are returned as numbers
+ * rather than strings. Lines that such a regex does not match can never be
+ * matched by it, so they are removed from the string as they are parsed.
+ * Any other regex is matched against the whole string.
+ *
  * @author aferrazz
  * @since 1.1
  *
@@ -28,6 +35,7 @@ import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataSetParser;
 public class LineParser implements IDataSetParser {
     public LineParser(String regEx) {
         wholePattern = Pattern.compile(regEx, Pattern.MULTILINE);
+        linePattern = LinePattern.compile(regEx);
     }
 
     @Override
@@ -35,7 +43,50 @@ public class LineParser implements IDataSetParser {
         if(null == s) {
             return null;
         }
+        if(null == linePattern) {
+            return parseRegex(s);
+        }
+
+        int start = 0;
+        while(start < s.length()) {
+            int newline = s.indexOf("\n", start); //$NON-NLS-1$
+            int end = newline < 0 ? s.length() : newline;
+            if(end > start && s.charAt(end-1) == '\r') {
+                end--;
+            }
+            if(hasLineBreak(s, start, end)) {
+                // The regex sees more lines here than this parser does.
+                return parseRegex(s);
+            }
+
+            Object[] data = linePattern.match(s, start, end);
+            if(null != data) {
+                RowEntry e = new RowEntry();
+                e.putRow(0, data);
+                s.delete(0, s.length());
+                return e;
+            }
+            if(newline < 0) {
+                break;
+            }
+            start = newline+1;
+        }
+
+        s.delete(0, start);
+        return null;
+    }
+
+    private static boolean hasLineBreak(CharSequence s, int start, int end) {
+        for(int i=start; i<end; i++) {
+            char c = s.charAt(i);
+            if(c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    private IDataEntry parseRegex(StringBuilder s) {
         RowEntry e = null;
         Matcher wholeMatcher = wholePattern.matcher(s);
 
@@ -55,4 +106,5 @@ public class LineParser implements IDataSetParser {
     }
 
     private Pattern wholePattern;
+    private LinePattern linePattern;
 }
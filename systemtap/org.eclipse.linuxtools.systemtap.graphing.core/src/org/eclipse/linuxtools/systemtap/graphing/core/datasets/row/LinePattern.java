@@ -0,0 +1,438 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.datasets.row;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single-line regex of the kind generated from the printf statements of
+ * a script, compiled into a list of character matchers that are matched
+ * directly against a line, without {@link java.util.regex}.
+ *
+ * Only regexes of the form <code>^...$</code> are compiled, made of literal
+ * characters, <code>.</code>, <code>\d</code>, <code>\w</code> and simple
+ * character classes, each optionally followed by a greedy quantifier, with
+ * capturing groups that are neither nested nor quantified. These can never
+ * match across lines, and match each line the same way as the regex would.
+ *
+ * A group made of just <code>\d+</code> or <code>-?\d+</code> is converted
+ * straight to a {@link Long} when its text is written the way
+ * {@link Long#toString(long)} would write it. All other groups are returned
+ * as strings.
+ */
+final class LinePattern {
+
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * @param regEx The regex to compile.
+     * @return The compiled regex, or <code>null</code> if it cannot be
+     * compiled and should be matched as a regex instead.
+     */
+    static LinePattern compile(String regEx) {
+        int length = regEx.length();
+        if(length < 2 || regEx.charAt(0) != '^' || regEx.charAt(length-1) != '$' || isEscaped(regEx, length-1)) {
+            return null;
+        }
+
+        List<Item> items = new ArrayList<>();
+        List<Integer> groupStarts = new ArrayList<>();
+        int groupStart = -1;
+        boolean quantifiable = false;
+        int i = 1;
+        while(i < length-1) {
+            char c = regEx.charAt(i);
+            Item item = null;
+            switch(c) {
+            case '(':
+                if(groupStart >= 0 || regEx.charAt(i+1) == '?') {
+                    return null;
+                }
+                groupStart = items.size();
+                quantifiable = false;
+                i++;
+                continue;
+            case ')':
+                if(groupStart < 0 || groupStart == items.size()) {
+                    return null;
+                }
+                for(int g=groupStart; g<items.size(); g++) {
+                    items.get(g).group = groupStarts.size();
+                }
+                groupStarts.add(Integer.valueOf(groupStart));
+                items.get(groupStart).startsGroup = true;
+                items.get(items.size()-1).endsGroup = true;
+                groupStart = -1;
+                quantifiable = false;
+                i++;
+                continue;
+            case '?':
+            case '*':
+            case '+':
+            case '{':
+                if(!quantifiable) {
+                    return null;
+                }
+                i = quantify(regEx, i, items.get(items.size()-1));
+                if(i < 0) {
+                    return null;
+                }
+                quantifiable = false;
+                continue;
+            case '.':
+                item = new Item(Item.ANY);
+                i++;
+                break;
+            case '[':
+                item = new Item(Item.SET);
+                i = parseSet(regEx, i+1, item);
+                if(i < 0) {
+                    return null;
+                }
+                break;
+            case '\\':
+                item = parseEscape(regEx.charAt(i+1));
+                if(null == item) {
+                    return null;
+                }
+                i += 2;
+                break;
+            case '^':
+            case '$':
+            case '|':
+            case '\n':
+            case '\r':
+                return null;
+            default:
+                item = new Item(c);
+                i++;
+            }
+            items.add(item);
+            quantifiable = true;
+        }
+        if(groupStart >= 0) {
+            return null;
+        }
+
+        LinePattern pattern = new LinePattern(items, groupStarts.size());
+        for(int g=0; g<groupStarts.size(); g++) {
+            pattern.numeric[g] = isNumeric(items, groupStarts.get(g).intValue());
+        }
+        return pattern;
+    }
+
+    private static boolean isEscaped(String regEx, int index) {
+        int backslashes = 0;
+        while(index-backslashes > 0 && regEx.charAt(index-backslashes-1) == '\\') {
+            backslashes++;
+        }
+        return (backslashes & 1) == 1;
+    }
+
+    /**
+     * Applies the quantifier at <code>i</code> to the item.
+     * @return The index after the quantifier, or -1 if it is not supported.
+     */
+    private static int quantify(String regEx, int i, Item item) {
+        char c = regEx.charAt(i);
+        if(c == '?') {
+            item.min = 0;
+            item.max = 1;
+            i++;
+        } else if(c == '*') {
+            item.min = 0;
+            item.max = Integer.MAX_VALUE;
+            i++;
+        } else if(c == '+') {
+            item.min = 1;
+            item.max = Integer.MAX_VALUE;
+            i++;
+        } else {
+            int close = regEx.indexOf('}', i);
+            if(close < 0 || close >= regEx.length()-1) {
+                return -1;
+            }
+            String bounds = regEx.substring(i+1, close);
+            int comma = bounds.indexOf(',');
+            try {
+                if(comma < 0) {
+                    item.min = item.max = Integer.parseInt(bounds);
+                } else {
+                    item.min = Integer.parseInt(bounds.substring(0, comma));
+                    item.max = comma == bounds.length()-1 ? Integer.MAX_VALUE : Integer.parseInt(bounds.substring(comma+1));
+                }
+            } catch(NumberFormatException e) {
+                return -1;
+            }
+            if(item.min < 0 || item.max < item.min) {
+                return -1;
+            }
+            i = close+1;
+        }
+
+        // Lazy and possessive quantifiers match differently, so leave them to the regex.
+        if(i < regEx.length()-1 && (regEx.charAt(i) == '?' || regEx.charAt(i) == '+')) {
+            return -1;
+        }
+        return i;
+    }
+
+    /**
+     * Reads the character class starting at <code>i</code> into the item.
+     * @return The index after the class, or -1 if it is not supported.
+     */
+    private static int parseSet(String regEx, int i, Item item) {
+        StringBuilder ranges = new StringBuilder();
+        if(regEx.charAt(i) == '^') {
+            return -1;
+        }
+        while(i < regEx.length()-1 && regEx.charAt(i) != ']') {
+            char c = regEx.charAt(i);
+            if(c == '[' || c == '&') {
+                return -1;
+            } else if(c == '\\') {
+                char e = regEx.charAt(i+1);
+                if(e == 'd') {
+                    ranges.append('0').append('9');
+                    i += 2;
+                    continue;
+                } else if(Character.isLetterOrDigit(e)) {
+                    return -1;
+                }
+                c = e;
+                i++;
+            }
+            i++;
+            char last = c;
+            if(regEx.charAt(i) == '-' && regEx.charAt(i+1) != ']') {
+                last = regEx.charAt(i+1);
+                if(last == '\\' || last == '[') {
+                    return -1;
+                }
+                i += 2;
+            }
+            ranges.append(c).append(last);
+        }
+        if(regEx.charAt(i) != ']' || ranges.length() == 0) {
+            return -1;
+        }
+        item.set = ranges.toString().toCharArray();
+        return i+1;
+    }
+
+    private static Item parseEscape(char c) {
+        if(c == 'd') {
+            return new Item(Item.DIGIT);
+        } else if(c == 'w') {
+            return new Item(Item.WORD);
+        } else if(c == 't') {
+            return new Item('\t');
+        } else if(Character.isLetterOrDigit(c)) {
+            return null;
+        }
+        return new Item(c);
+    }
+
+    /**
+     * @return <code>true</code> if the group starting at the item is
+     * <code>(\d+)</code> or <code>(-?\d+)</code>.
+     */
+    private static boolean isNumeric(List<Item> items, int start) {
+        Item first = items.get(start);
+        if(first.type == '-' && first.min == 0 && first.max == 1 && !first.endsGroup) {
+            first = items.get(start+1);
+        }
+        return first.type == Item.DIGIT && first.min == 1 && first.max == Integer.MAX_VALUE && first.endsGroup;
+    }
+
+    private LinePattern(List<Item> items, int groups) {
+        this.items = items.toArray(new Item[items.size()]);
+        numeric = new boolean[groups];
+        firstItems = new int[groups];
+        lastItems = new int[groups];
+        for(int i=0; i<this.items.length; i++) {
+            if(this.items[i].startsGroup) {
+                firstItems[this.items[i].group] = i;
+            }
+            if(this.items[i].endsGroup) {
+                lastItems[this.items[i].group] = i;
+            }
+        }
+        positions = new int[this.items.length];
+        counts = new int[this.items.length];
+        line = new char[128];
+    }
+
+    /**
+     * Matches the pattern against one line, without its line terminator.
+     *
+     * @param s The text holding the line.
+     * @param start The index of the line's first character.
+     * @param end The index after the line's last character.
+     * @return The value of each group, or <code>null</code> if the line does not match.
+     */
+    Object[] match(StringBuilder s, int start, int end) {
+        int length = end-start;
+        if(line.length < length) {
+            line = new char[Math.max(line.length*2, length)];
+        }
+        s.getChars(start, end, line, 0);
+        if(!match(length)) {
+            return null;
+        }
+
+        Object[] data = new Object[numeric.length];
+        for(int g=0; g<data.length; g++) {
+            int from = positions[firstItems[g]];
+            int to = positions[lastItems[g]] + counts[lastItems[g]];
+            Long num = numeric[g] ? toLong(line, from, to) : null;
+            data[g] = null != num ? num : new String(line, from, to-from);
+        }
+        return data;
+    }
+
+    /**
+     * Matches the items against the first <code>length</code> characters of
+     * the line, trying the longest match of each item first and backing off
+     * one character at a time, as a greedy regex does. Where each item
+     * matched is left in <code>positions</code> and <code>counts</code>.
+     */
+    private boolean match(int length) {
+        char[] chars = line;
+        int item = 0, pos = 0;
+        while(true) {
+            if(item < items.length) {
+                Item it = items[item];
+                int n = it.scan(chars, pos, Math.min(it.max, length-pos));
+                if(n >= it.min) {
+                    positions[item] = pos;
+                    counts[item] = n;
+                    pos += n;
+                    item++;
+                    continue;
+                }
+            } else if(pos == length) {
+                return true;
+            }
+
+            // Give a character back from the last item that can spare one.
+            do {
+                if(--item < 0) {
+                    return false;
+                }
+            } while(counts[item] == items[item].min);
+            pos = positions[item] + --counts[item];
+            item++;
+        }
+    }
+
+    private static Long toLong(char[] chars, int start, int end) {
+        boolean negative = start < end && chars[start] == '-';
+        int first = negative ? start+1 : start;
+        int digits = end-first;
+        if(digits == 0 || digits > MAX_DIGITS || (chars[first] == '0' && (digits > 1 || negative))) {
+            return null;
+        }
+        long value = 0;
+        for(int i=first; i<end; i++) {
+            value = value*10 + (chars[i] - '0');
+        }
+        return Long.valueOf(negative ? -value : value);
+    }
+
+    /**
+     * One character matcher, with how many times in a row it may match.
+     */
+    private static class Item {
+        static final int ANY = -1;
+        static final int DIGIT = -2;
+        static final int WORD = -3;
+        static final int SET = -4;
+
+        Item(int type) {
+            this.type = type;
+        }
+
+        /**
+         * @return How many of the <code>max</code> characters from <code>pos</code>
+         * on this matches in a row.
+         */
+        int scan(char[] chars, int pos, int max) {
+            int n = 0;
+            switch(type) {
+            case ANY:
+                while(n < max && !isLineBreak(chars[pos+n])) {
+                    n++;
+                }
+                break;
+            case DIGIT:
+                while(n < max && isDigit(chars[pos+n])) {
+                    n++;
+                }
+                break;
+            case WORD:
+                while(n < max && (isDigit(chars[pos+n]) || isLetter(chars[pos+n]) || chars[pos+n] == '_')) {
+                    n++;
+                }
+                break;
+            case SET:
+                while(n < max && inSet(chars[pos+n])) {
+                    n++;
+                }
+                break;
+            default:
+                while(n < max && chars[pos+n] == type) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        private static boolean isLineBreak(char c) {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isLetter(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+
+        private boolean inSet(char c) {
+            for(int i=0; i<set.length; i+=2) {
+                if(c >= set[i] && c <= set[i+1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private final int type;
+        private char[] set;
+        private int min = 1;
+        private int max = 1;
+        private int group = -1;
+        private boolean startsGroup;
+        private boolean endsGroup;
+    }
+
+    private final Item[] items;
+    private final boolean[] numeric;
+    private final int[] firstItems;
+    private final int[] lastItems;
+    private final int[] positions;
+    private final int[] counts;
+    private char[] line;
+}
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.linuxtools.internal.systemtap.graphing.core.Localization;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IColumnView;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataEntry;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IHistoricalDataSet;
 
@@ -174,6 +175,53 @@ public class RowDataSet implements IHistoricalDataSet {
         return d;
     }
 
+    /**
+     * Returns a view of the rows <code>start</code> to <code>end</code> of a column
+     * that reads the values from this data set instead of copying them out.
+     * @param col The column to view, or {@link #COL_ROW_NUM} for the row numbers.
+     * @param start The first row of the view.
+     * @param end The row after the last row of the view.
+     * @return The view, or <code>null</code> if the column or range is invalid.
+     * @since 2.0
+     */
+    public IColumnView getColumnView(final int col, final int start, int end) {
+        if(start > end || start < 0 || end > getRowCount() || col < COL_ROW_NUM || col >= this.getColCount()) {
+            return null;
+        }
+
+        final List<IDataEntry> rows = data;
+        final int size = Math.min(end-start, rows.size());
+        return new IColumnView() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Object get(int index) {
+                if(COL_ROW_NUM == col) {
+                    return Integer.valueOf(start+index+1);
+                }
+                return rows.get(start+index).getColumn(col)[0];
+            }
+
+            @Override
+            public double getDouble(int index) {
+                Object value = get(index);
+                if(value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                } else if(null == value) {
+                    return Double.NaN;
+                }
+                try {
+                    return Double.parseDouble(value.toString());
+                } catch(NumberFormatException e) {
+                    return Double.NaN;
+                }
+            }
+        };
+    }
+
     @Override
     public int getEntryCount() {
         return data.size();
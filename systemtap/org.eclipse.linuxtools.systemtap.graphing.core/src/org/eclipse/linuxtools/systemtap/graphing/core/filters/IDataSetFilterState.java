@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.filters;
+
+import java.util.List;
+
+/**
+ * The result of applying an {@link IIncrementalDataSetFilter} to data that
+ * is only ever appended to, kept up to date one batch of rows at a time.
+ * @since 2.0
+ */
+public interface IDataSetFilterState {
+    /**
+     * Filters rows appended to the data.
+     *
+     * @param data The appended rows, one list per column.
+     *
+     * @return The rows this added to the end of the filtered data, or <code>null</code>
+     * if the filtered data changed in some other way.
+     */
+    List<Object>[] append(List<Object>[] data);
+
+    /**
+     * @return All of the filtered data, one list per column.
+     */
+    List<Object>[] getData();
+}
@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.filters;
+
+/**
+ * A filter that can bring its result up to date with rows appended to the
+ * data without filtering all of the data again.
+ * @since 2.0
+ */
+public interface IIncrementalDataSetFilter extends IDataSetFilter {
+    /**
+     * @return A new state holding the result of filtering no rows at all.
+     */
+    IDataSetFilterState createState();
+}
@@ -15,11 +15,10 @@ import java.text.MessageFormat;
 import java.util.List;
 
 import org.eclipse.linuxtools.internal.systemtap.graphing.core.Localization;
-import org.eclipse.linuxtools.systemtap.structures.Copier;
 
 
 
-public class MatchFilter implements IDataSetFilter {
+public class MatchFilter implements IIncrementalDataSetFilter {
     public MatchFilter(int column, Object value, int style) {
         this.column = column;
         this.value = value;
@@ -39,17 +38,21 @@ public class MatchFilter implements IDataSetFilter {
             return null;
         }
 
-        List<Object>[] newData = Copier.copy(data);
-        boolean equals;
-        for(int j, i=newData[column].size()-1; i>=0; i--) {
-            equals = newData[column].get(i).toString().equals(value.toString());    //TODO: Find better equivilance method
-            if((equals && REMOVE_MATCHING == (style & 1)) || (!equals && KEEP_MATCHING == (style & 1))) {
-                for(j=0; j<newData.length; j++) {
-                    newData[j].remove(i);
-                }
+        return createState().append(data);
+    }
+
+    /**
+     * @since 2.0
+     */
+    @Override
+    public IDataSetFilterState createState() {
+        return new RowFilterState(column) {
+            @Override
+            boolean keep(Object v) {
+                boolean equals = v.toString().equals(value.toString());    //TODO: Find better equivilance method
+                return !((equals && REMOVE_MATCHING == (style & 1)) || (!equals && KEEP_MATCHING == (style & 1)));
             }
-        }
-        return newData;
+        };
     }
 
     @Override
@@ -16,11 +16,10 @@ import java.util.List;
 
 import org.eclipse.linuxtools.internal.systemtap.graphing.core.Localization;
 import org.eclipse.linuxtools.systemtap.graphing.core.structures.NumberType;
-import org.eclipse.linuxtools.systemtap.structures.Copier;
 
 
 
-public class RangeFilter implements IDataSetFilter {
+public class RangeFilter implements IIncrementalDataSetFilter {
     /**
      * Create a new Range Filter for a table of data.
      * @param column The index of the table's column to apply the filter to.
@@ -53,15 +52,20 @@ public class RangeFilter implements IDataSetFilter {
             return null;
         }
 
-        List<Object>[] newData = Copier.copy(data);
-        for(int j,i=newData[column].size()-1; i>=0; i--) {
-            if(!inBounds(NumberType.obj2num(newData[column].get(i)))) {
-                for(j=0; j<newData.length; j++) {
-                    newData[j].remove(i);
-                }
+        return createState().append(data);
+    }
+
+    /**
+     * @since 2.0
+     */
+    @Override
+    public IDataSetFilterState createState() {
+        return new RowFilterState(column) {
+            @Override
+            boolean keep(Object value) {
+                return inBounds(NumberType.obj2num(value));
             }
-        }
-        return newData;
+        };
     }
 
     @Override
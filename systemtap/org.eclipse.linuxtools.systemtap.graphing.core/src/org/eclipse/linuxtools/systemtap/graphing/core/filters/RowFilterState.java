@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.filters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.linuxtools.internal.systemtap.graphing.core.GraphingCorePlugin;
+
+/**
+ * The state of a filter that decides on each row by itself, from the value
+ * in one column. Appended rows can only ever append to its result.
+ */
+abstract class RowFilterState implements IDataSetFilterState {
+    RowFilterState(int column) {
+        this.column = column;
+    }
+
+    /**
+     * @param value The row's value in the filtered column.
+     * @return <code>true</code> if the row is kept.
+     */
+    abstract boolean keep(Object value);
+
+    @Override
+    public List<Object>[] append(List<Object>[] data) {
+        ArrayList<Object>[] added = GraphingCorePlugin.createArrayList(data.length);
+        for(int i=0; i<added.length; i++) {
+            added[i] = new ArrayList<>();
+        }
+
+        for(int j,i=0; i<data[column].size(); i++) {
+            if(keep(data[column].get(i))) {
+                for(j=0; j<data.length; j++) {
+                    added[j].add(data[j].get(i));
+                }
+            }
+        }
+
+        if(null == kept) {
+            kept = GraphingCorePlugin.createArrayList(data.length);
+            for(int i=0; i<kept.length; i++) {
+                kept[i] = new ArrayList<>(added[i]);
+            }
+        } else {
+            for(int i=0; i<kept.length; i++) {
+                kept[i].addAll(added[i]);
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public List<Object>[] getData() {
+        return kept;
+    }
+
+    private final int column;
+    private ArrayList<Object>[] kept;
+}
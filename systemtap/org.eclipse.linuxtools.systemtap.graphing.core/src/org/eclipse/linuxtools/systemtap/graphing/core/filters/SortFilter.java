@@ -11,24 +11,26 @@
 
 package org.eclipse.linuxtools.systemtap.graphing.core.filters;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.eclipse.linuxtools.internal.systemtap.graphing.core.GraphingCorePlugin;
 import org.eclipse.linuxtools.internal.systemtap.graphing.core.Localization;
 import org.eclipse.linuxtools.systemtap.graphing.core.structures.NumberType;
-import org.eclipse.linuxtools.systemtap.structures.Copier;
 import org.eclipse.linuxtools.systemtap.structures.IndexedObject;
 import org.eclipse.linuxtools.systemtap.structures.Sort;
 
 
 
-public class SortFilter implements IDataSetFilter {
+public class SortFilter implements IIncrementalDataSetFilter {
     public SortFilter(int column, int ordering) {
         this.column = column;
         this.style = (ordering==ASCENDING ? ASCENDING : DESCENDING);
     }
 
     /**
-     * Apply the RangeFilter to the passed dataset.
+     * Apply the SortFilter to the passed dataset.
      *
      * @param data The dataset to filter.
      *
@@ -39,30 +41,161 @@ public class SortFilter implements IDataSetFilter {
         if(column < 0 || column >= data.length)
             return null;
 
-        List<Object>[] newData = Copier.copy(data);
-        IndexedObject[] items = new IndexedObject[newData[0].size()];
+        IDataSetFilterState state = createState();
+        state.append(data);
+        return state.getData();
+    }
+
+    /**
+     * @since 2.0
+     */
+    @Override
+    public IDataSetFilterState createState() {
+        return new SortState();
+    }
+
+    /**
+     * Keeps the rows in the order they were appended along with the value
+     * each is sorted by, and the ascending order of the rows. Rows are sorted
+     * the way the whole dataset always was, descending being the reverse of
+     * ascending, so that the filtered data does not depend on how the rows
+     * were appended. Appended rows that sort after all of the others are
+     * sorted by themselves, which puts them in the same order; otherwise all
+     * of the rows are sorted again.
+     */
+    private class SortState implements IDataSetFilterState {
+        @Override
+        public List<Object>[] append(List<Object>[] data) {
+            if(null == rows) {
+                rows = GraphingCorePlugin.createArrayList(data.length);
+                for(int i=0; i<rows.length; i++) {
+                    rows[i] = new ArrayList<>();
+                }
+            }
 
-        try {
-            for(int i=0; i<newData[column].size(); i++)
-                items[i] = new IndexedObject(i, NumberType.cleanObj2Num(newData[column].get(i)));
-        } catch(NumberFormatException nfe) {
-            for(int i=0; i<newData[column].size(); i++)
-                items[i] = new IndexedObject(i, newData[column].get(i));
+            // Only as many rows are sorted as the shortest column has.
+            int size = data[column].size();
+            for(List<Object> col : data) {
+                size = Math.min(size, col.size());
+            }
+            int first = keys.size();
+            for(int i=0; i<rows.length; i++) {
+                rows[i].addAll(data[i].subList(0, size));
+            }
+            if(numeric) {
+                try {
+                    for(int i=first; i<first+size; i++) {
+                        keys.add(NumberType.cleanObj2Num(rows[column].get(i)));
+                    }
+                } catch(NumberFormatException nfe) {
+                    // Not every value is a number, so sort all of the rows again by their values.
+                    numeric = false;
+                    keys = new ArrayList<>(rows[column]);
+                    order = sort(0, keys.size());
+                    sorted = null;
+                    return null;
+                }
+            } else {
+                keys.addAll(rows[column].subList(first, first+size));
+            }
+
+            int[] added = sort(first, size);
+            if(0 < first && 0 < size && compareValues(keys.get(order[first-1]), keys.get(added[0])) > 0) {
+                order = sort(0, keys.size());
+                sorted = null;
+                return null;
+            }
+            int[] all = Arrays.copyOf(order, first+size);
+            System.arraycopy(added, 0, all, first, size);
+            order = all;
+            if(DESCENDING == style && 0 < size) {
+                // The rows go before the others.
+                sorted = null;
+                return null;
+            }
+
+            List<Object>[] addedRows = getRows(added);
+            if(null != sorted) {
+                for(int i=0; i<sorted.length; i++) {
+                    sorted[i].addAll(addedRows[i]);
+                }
+            }
+            return addedRows;
         }
 
-        Sort.quicksort(items, 0, items.length-1);
+        /**
+         * @return The indexes of the given rows, in ascending order.
+         */
+        private int[] sort(int first, int size) {
+            SortKey[] items = new SortKey[size];
+            for(int i=0; i<size; i++) {
+                items[i] = new SortKey(first+i, keys.get(first+i));
+            }
+            Sort.quicksort(items, 0, items.length-1);
+            int[] indexes = new int[size];
+            for(int i=0; i<size; i++) {
+                indexes[i] = items[i].index;
+            }
+            return indexes;
+        }
 
-        for(int j, i=0; i<newData.length; i++) {
-            for(j=0; j<items.length; j++) {
-                if(DESCENDING == style)
-                    newData[i].add(newData[i].get(items[items.length-j-1].index));
-                else
-                    newData[i].add(newData[i].get(items[j].index));
+        private ArrayList<Object>[] getRows(int[] indexes) {
+            ArrayList<Object>[] result = GraphingCorePlugin.createArrayList(rows.length);
+            for(int j=0; j<result.length; j++) {
+                result[j] = new ArrayList<>(indexes.length);
+                for(int i=0; i<indexes.length; i++) {
+                    result[j].add(rows[j].get(indexes[DESCENDING == style ? indexes.length-i-1 : i]));
+                }
             }
-            for(j=0; j<items.length; j++)
-                newData[i].remove(0);
+            return result;
+        }
+
+        @Override
+        public List<Object>[] getData() {
+            if(null == sorted) {
+                sorted = getRows(order);
+            }
+            return sorted;
+        }
+
+        private ArrayList<Object>[] rows;
+        private ArrayList<Object> keys = new ArrayList<>();
+        private int[] order = new int[0];
+        private ArrayList<Object>[] sorted;
+        private boolean numeric = true;
+    }
+
+    /**
+     * Value of a row, compared in ascending order.
+     */
+    private static class SortKey extends IndexedObject {
+        SortKey(int i, Object v) {
+            super(i, v);
+        }
+
+        @Override
+        public int compareTo(IndexedObject o) {
+            return compareValues(val, o.val);
+        }
+    }
+
+    /**
+     * Compares two values in ascending order. Numbers are compared by value,
+     * anything else the way {@link IndexedObject} does.
+     */
+    private static int compareValues(Object a, Object b) {
+        if(a instanceof Number && b instanceof Number) {
+            return compareNumbers((Number) a, (Number) b);
+        }
+        return new IndexedObject(0, a).compareTo(new IndexedObject(0, b));
+    }
+
+    private static int compareNumbers(Number a, Number b) {
+        if(a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
         }
-        return newData;
+        long x = a.longValue(), y = b.longValue();
+        return x < y ? -1 : (x == y ? 0 : 1);
     }
 
     @Override
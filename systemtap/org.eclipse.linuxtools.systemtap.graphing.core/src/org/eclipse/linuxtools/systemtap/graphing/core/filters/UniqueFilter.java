@@ -12,6 +12,9 @@
 package org.eclipse.linuxtools.systemtap.graphing.core.filters;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import org.eclipse.linuxtools.internal.systemtap.graphing.core.GraphingCorePlugin;
@@ -23,75 +26,211 @@ import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.MaxAggregate;
 import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.MinAggregate;
 import org.eclipse.linuxtools.systemtap.graphing.core.aggregates.SumAggregate;
 import org.eclipse.linuxtools.systemtap.graphing.core.structures.NumberType;
-import org.eclipse.linuxtools.systemtap.structures.Copier;
 
 
-public class UniqueFilter implements IDataSetFilter {
+public class UniqueFilter implements IIncrementalDataSetFilter {
     public UniqueFilter(int column, IDataAggregate aggregate) {
         this.column = column;
         this.aggregate = aggregate;
     }
 
     /**
-     * Verify that the number passed is in the bounds of the created filter.
+     * Merges the rows that have the same value in the filtered column into
+     * one row, placed where the last of them was. The other columns of the
+     * merged row are aggregated, or merged as text if they are not numeric.
      *
-     * @param data The data to verify.
+     * @param data The data to filter.
      *
-     * @return True if the number is within bounds.
+     * @return The filtered data.
      */
     @Override
     public List<Object>[] filter(List<Object>[] data) {
-        if(column < 0 || column >= data.length) {
+        if(null == data || column < 0 || column >= data.length) {
             return null;
         }
 
-        List<Object>[] newData = Copier.copy(data);
-        ArrayList<Object>[] aggregates = GraphingCorePlugin.createArrayList(newData.length);
-        for(int i=0; i<aggregates.length;i++) {
-            aggregates[i] = new ArrayList<>();
-        }
+        IDataSetFilterState state = createState();
+        state.append(data);
+        return state.getData();
+    }
+
+    /**
+     * @since 2.0
+     */
+    @Override
+    public IDataSetFilterState createState() {
+        return new UniqueState();
+    }
+
+    /**
+     * Keeps one group per value of the filtered column, ordered by the last
+     * row of each. Every group keeps a running aggregate of each of the
+     * other columns, so appended rows only update the groups they fall in.
+     */
+    private class UniqueState implements IDataSetFilterState {
+        @Override
+        public List<Object>[] append(List<Object>[] data) {
+            width = data.length;
+            rows = null;
 
-        for(int k,j,i=newData[0].size()-1; i>=0; i--) {
-            for(j=i-1; j>=0; j--) {
-                if(newData[column].get(i).toString().equals(newData[column].get(j).toString())) {    //TODO: Find better equivilance method
-                    i--;
-                    for(k=0; k<newData.length; k++) {
-                        aggregates[k].add(newData[k].get(j));
-                        newData[k].remove(j);
+            List<Group> created = new ArrayList<>();
+            boolean onlyCreated = true;
+            for(int i=0; i<data[column].size(); i++) {
+                Object key = data[column].get(i);
+                String name = key.toString();    //TODO: Find better equivilance method
+                Group group = groups.remove(name);
+                if(null == group) {
+                    group = new Group(width);
+                    created.add(group);
+                } else {
+                    onlyCreated = false;
+                }
+                group.key = key;
+                for(int j=0; j<width; j++) {
+                    if(j != column) {
+                        group.columns[j].add(data[j].get(i));
                     }
                 }
+                groups.put(name, group);
             }
-            for(k=0; k<newData.length; k++) {
-                aggregates[k].add(newData[k].get(i));
-                if(k!=column) {
-                    newData[k].remove(i);
-                    try {
-                        newData[k].add(i, aggregate.aggregate(NumberType.cleanObj2Num(aggregates[k].toArray())));
-                    } catch(NumberFormatException nfe) {
-                        newData[k].add(i, columnMerge(aggregates[k].toArray()));
-                    }
+
+            return onlyCreated ? toData(created) : null;
+        }
+
+        @Override
+        public List<Object>[] getData() {
+            if(null == rows) {
+                rows = toData(groups.values());
+            }
+            return rows;
+        }
+
+        private List<Object>[] toData(Collection<Group> list) {
+            ArrayList<Object>[] newData = GraphingCorePlugin.createArrayList(width);
+            for(int i=0; i<newData.length; i++) {
+                newData[i] = new ArrayList<>(list.size());
+            }
+            for(Group group : list) {
+                for(int i=0; i<newData.length; i++) {
+                    newData[i].add(i == column ? group.key : group.columns[i].getValue());
+                }
+            }
+            return newData;
+        }
+
+        private LinkedHashMap<String, Group> groups = new LinkedHashMap<>();
+        private List<Object>[] rows;
+        private int width;
+    }
+
+    private class Group {
+        Group(int width) {
+            columns = new Accumulator[width];
+            for(int i=0; i<width; i++) {
+                if(i != column) {
+                    columns[i] = new Accumulator();
                 }
-                aggregates[k].clear();
             }
         }
-        return newData;
+
+        private Object key;
+        private Accumulator[] columns;
     }
 
     /**
-     * Merges two passed columns into a StringBuilder object.
-     *
-     * @param col The columns to merge.
-     *
-     * @return The StringBuilder object made as a result of the merge.
+     * The running aggregate of one column of a group. The aggregates this
+     * package knows are kept as a running sum, count, minimum and maximum;
+     * any other aggregate is given all of the values each time. The distinct
+     * values are kept as text too, so that once a value is not a number all
+     * of them are merged as text instead.
      */
-    private String columnMerge(Object[] col) {
-        StringBuilder sb = new StringBuilder(col[0].toString());
-        for(int i=1; i<col.length; i++) {
-            if(sb.indexOf(col[i].toString()) < 0) {
-                sb.append("/" + col[i].toString()); //$NON-NLS-1$
+    private class Accumulator {
+        Accumulator() {
+            if(!isRunning()) {
+                values = new ArrayList<>();
+            }
+        }
+
+        void add(Object value) {
+            String s = value.toString();
+            if(null == strings) {
+                columnMerge(s);
+                return;
+            }
+            try {
+                Number num = NumberType.cleanObj2Num(value);
+                if(null == type || num instanceof Double && !(type instanceof Double)) {
+                    type = num;
+                }
+                double d = num.doubleValue();
+                sum += d;
+                min = Math.min(min, d);
+                max = Math.max(max, d);
+                count++;
+                if(null != values) {
+                    values.add(num);
+                }
+                strings.add(s);
+            } catch(NumberFormatException nfe) {
+                for(String previous : strings) {
+                    columnMerge(previous);
+                }
+                columnMerge(s);
+                strings = null;
+                values = null;
             }
         }
-        return sb.toString();
+
+        /**
+         * Merges the passed value into the text of the column.
+         *
+         * @param s The value to merge.
+         */
+        private void columnMerge(String s) {
+            if(null == text) {
+                text = new StringBuilder(s);
+            } else if(text.indexOf(s) < 0) {
+                text.append("/" + s); //$NON-NLS-1$
+            }
+        }
+
+        Object getValue() {
+            if(null != text) {
+                return text.toString();
+            }
+            String id = aggregate.getID();
+            if(id.equals(SumAggregate.ID)) {
+                return NumberType.getNumber(type, sum);
+            } else if(id.equals(AverageAggregate.ID)) {
+                return NumberType.getNumber(type, sum / count);
+            } else if(id.equals(CountAggregate.ID)) {
+                return Integer.valueOf(count);
+            } else if(id.equals(MaxAggregate.ID)) {
+                return NumberType.getNumber(type, max);
+            } else if(id.equals(MinAggregate.ID)) {
+                return NumberType.getNumber(type, min);
+            }
+            return aggregate.aggregate(values.toArray(new Number[values.size()]));
+        }
+
+        private Number type;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int count;
+        private List<Number> values;
+        private LinkedHashSet<String> strings = new LinkedHashSet<>();
+        private StringBuilder text;
+    }
+
+    /**
+     * @return <code>true</code> if the aggregate is one whose value can be
+     * kept up to date without keeping all of the values.
+     */
+    private boolean isRunning() {
+        String id = aggregate.getID();
+        return id.equals(SumAggregate.ID) || id.equals(AverageAggregate.ID) || id.equals(CountAggregate.ID)
+                || id.equals(MaxAggregate.ID) || id.equals(MinAggregate.ID);
     }
 
     @Override
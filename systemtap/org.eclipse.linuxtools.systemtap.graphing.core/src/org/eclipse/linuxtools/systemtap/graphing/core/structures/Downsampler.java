@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.systemtap.graphing.core.structures;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Picks which points of a series to draw when there are more of them than
+ * there are pixels to draw them on, so that the series looks the same as
+ * if all of its points were drawn.
+ * @since 2.0
+ */
+public final class Downsampler {
+
+    /**
+     * The number of points kept per pixel column of a line.
+     */
+    private static final int POINTS_PER_COLUMN = 4;
+
+    private Downsampler() {
+    }
+
+    /**
+     * Picks the points of a line whose x-values never decrease. Each pixel
+     * column keeps its first and last point, which join it to the columns
+     * around it, and the points with its smallest and largest y-value, so
+     * every peak is kept. Of the points outside the visible x-range, only
+     * the nearest one on each side is kept.
+     *
+     * @param x The x-values of the line's points, in the order they are joined.
+     * @param y The y-values of the line's points.
+     * @param lower The smallest visible x-value.
+     * @param upper The largest visible x-value.
+     * @param width The number of pixel columns the visible x-range spans.
+     *
+     * @return The indices of the points to draw, in ascending order, or
+     * <code>null</code> if all of the points should be drawn.
+     */
+    public static int[] downsampleLine(double[] x, double[] y, double lower, double upper, int width) {
+        int n = x.length;
+        if(width <= 0 || !(upper > lower) || n <= POINTS_PER_COLUMN * width || !isSorted(x)) {
+            return null;
+        }
+
+        int from = Math.max(0, firstAtLeast(x, lower) - 1);
+        int to = Math.min(n - 1, firstAtLeast(x, Math.nextUp(upper)));
+        int[] keep = new int[Math.min(to - from + 1, POINTS_PER_COLUMN * (width + 2))];
+        int count = 0;
+        if(to - from + 1 <= keep.length) {
+            for(int i=from; i<=to; i++) {
+                keep[count++] = i;
+            }
+            return keep;
+        }
+
+        double columnWidth = (upper - lower) / width;
+        int column = column(x[from], lower, columnWidth, width);
+        int first = from, last = from, min = from, max = from;
+        for(int i=from+1; i<=to; i++) {
+            int c = column(x[i], lower, columnWidth, width);
+            if(c != column) {
+                count = addColumn(keep, count, first, min, max, last);
+                column = c;
+                first = min = max = i;
+            } else if(y[i] < y[min]) {
+                min = i;
+            } else if(y[i] > y[max]) {
+                max = i;
+            }
+            last = i;
+        }
+        count = addColumn(keep, count, first, min, max, last);
+        return Arrays.copyOf(keep, count);
+    }
+
+    /**
+     * Picks the points of a scatter plot, keeping the first point that falls
+     * in each visible pixel and dropping points outside the visible ranges.
+     *
+     * @param x The x-values of the points.
+     * @param y The y-values of the points.
+     * @param lowerX The smallest visible x-value.
+     * @param upperX The largest visible x-value.
+     * @param width The number of pixel columns the visible x-range spans.
+     * @param lowerY The smallest visible y-value.
+     * @param upperY The largest visible y-value.
+     * @param height The number of pixel rows the visible y-range spans.
+     *
+     * @return The indices of the points to draw, in ascending order, or
+     * <code>null</code> if all of the points should be drawn.
+     */
+    public static int[] downsamplePoints(double[] x, double[] y, double lowerX, double upperX, int width,
+            double lowerY, double upperY, int height) {
+        int n = x.length;
+        if(width <= 0 || height <= 0 || !(upperX > lowerX) || !(upperY > lowerY) || n <= width) {
+            return null;
+        }
+
+        double columnWidth = (upperX - lowerX) / width;
+        double rowHeight = (upperY - lowerY) / height;
+        BitSet drawn = new BitSet(width * height);
+        int[] keep = new int[Math.min(n, width * height)];
+        int count = 0;
+        for(int i=0; i<n && count<keep.length; i++) {
+            if(!(x[i] >= lowerX && x[i] <= upperX && y[i] >= lowerY && y[i] <= upperY)) {
+                continue;
+            }
+            int pixel = column(x[i], lowerX, columnWidth, width) * height + column(y[i], lowerY, rowHeight, height);
+            if(!drawn.get(pixel)) {
+                drawn.set(pixel);
+                keep[count++] = i;
+            }
+        }
+        return Arrays.copyOf(keep, count);
+    }
+
+    /**
+     * @return The values at the given indices, or the values themselves if
+     * <code>indices</code> is <code>null</code>.
+     */
+    public static double[] select(double[] values, int[] indices) {
+        if(null == indices) {
+            return values;
+        }
+        double[] selected = new double[indices.length];
+        for(int i=0; i<indices.length; i++) {
+            selected[i] = values[indices[i]];
+        }
+        return selected;
+    }
+
+    private static boolean isSorted(double[] x) {
+        for(int i=1; i<x.length; i++) {
+            if(!(x[i-1] <= x[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The index of the first value not less than <code>value</code>
+     * in the sorted values, or their length if there is none.
+     */
+    private static int firstAtLeast(double[] x, double value) {
+        int lo = 0, hi = x.length;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(x[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return The pixel the value falls in, with -1 for values before the
+     * visible range and <code>pixels</code> for values after it.
+     */
+    private static int column(double value, double lower, double pixelSize, int pixels) {
+        if(value < lower) {
+            return -1;
+        }
+        int c = (int) ((value - lower) / pixelSize);
+        return Math.min(c, value > lower + pixelSize * pixels ? pixels : pixels - 1);
+    }
+
+    /**
+     * Adds the points kept for one pixel column, in the order of their indices.
+     */
+    private static int addColumn(int[] keep, int count, int first, int min, int max, int last) {
+        int lo = Math.min(min, max), hi = Math.max(min, max);
+        keep[count++] = first;
+        if(lo != first) {
+            keep[count++] = lo;
+        }
+        if(hi != lo && hi != last) {
+            keep[count++] = hi;
+        }
+        if(last != first) {
+            keep[count++] = last;
+        }
+        return count;
+    }
+}
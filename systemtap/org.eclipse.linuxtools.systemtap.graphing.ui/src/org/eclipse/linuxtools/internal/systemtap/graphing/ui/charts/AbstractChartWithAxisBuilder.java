@@ -12,11 +12,16 @@
 
 package org.eclipse.linuxtools.internal.systemtap.graphing.ui.charts;
 
+import java.util.Arrays;
+
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.linuxtools.internal.systemtap.graphing.ui.charts.listeners.ChartWithAxisMouseMoveListener;
 import org.eclipse.linuxtools.internal.systemtap.graphing.ui.preferences.GraphingPreferenceConstants;
 import org.eclipse.linuxtools.systemtap.graphing.core.adapters.IAdapter;
+import org.eclipse.linuxtools.systemtap.graphing.core.structures.Downsampler;
 import org.eclipse.linuxtools.systemtap.graphing.ui.charts.AbstractChartBuilder;
+import org.eclipse.swt.events.ControlAdapter;
+import org.eclipse.swt.events.ControlEvent;
 import org.eclipse.swt.events.PaintEvent;
 import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.graphics.Font;
@@ -24,6 +29,7 @@ import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.swtchart.IAxis;
 import org.swtchart.ISeries;
 import org.swtchart.ITitle;
@@ -119,6 +125,13 @@ public abstract class AbstractChartWithAxisBuilder extends AbstractChartBuilder
         super.createChart();
         applyTitleBoundsListener();
         chartMouseMoveListener = new ChartWithAxisMouseMoveListener(chart, chart.getPlotArea());
+        chart.getPlotArea().addControlListener(new ControlAdapter() {
+            @Override
+            public void controlResized(ControlEvent e) {
+                // Pick the points to plot again for the new number of pixels.
+                handleUpdateEvent();
+            }
+        });
     }
 
     /**
@@ -226,84 +239,207 @@ public abstract class AbstractChartWithAxisBuilder extends AbstractChartBuilder
     }
 
     /**
-     * Builds X series.
+     * The values of each series read from the chart's adapter, without the
+     * points missing either value.
+     */
+    private static class SeriesData {
+        SeriesData(int maxItems, int records, int series) {
+            this.maxItems = maxItems;
+            this.records = records;
+            x = new double[series][];
+            y = new double[series][];
+        }
+
+        final int maxItems;
+        final int records;
+        final double[][] x;
+        final double[][] y;
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * The points of each series to plot for one view of the chart's data.
+     */
+    private static class SeriesView {
+        SeriesView(SeriesData data, Range rangeX, Range rangeY, int width, int height) {
+            this.data = data;
+            this.rangeX = rangeX;
+            this.rangeY = rangeY;
+            this.width = width;
+            this.height = height;
+            x = new double[data.x.length][];
+            y = new double[data.y.length][];
+        }
+
+        boolean shows(SeriesData data, Range rangeX, Range rangeY, int width, int height) {
+            return this.data == data && this.width == width && this.height == height
+                    && this.rangeX.lower == rangeX.lower && this.rangeX.upper == rangeX.upper
+                    && this.rangeY.lower == rangeY.lower && this.rangeY.upper == rangeY.upper;
+        }
+
+        final SeriesData data;
+        final Range rangeX;
+        final Range rangeY;
+        final int width;
+        final int height;
+        final double[][] x;
+        final double[][] y;
+    }
+
+    private volatile SeriesData seriesData;
+    private volatile SeriesView seriesView;
+    private volatile int plotWidth;
+    private volatile int plotHeight;
+
+    /**
+     * @return <code>true</code> if the chart joins its points with lines, so that
+     * only the points that shape the lines in each column of pixels need plotting.
+     * Otherwise only one point in each pixel is plotted.
+     * @since 4.0
      */
+    protected boolean joinsPoints() {
+        return true;
+    }
+
     @Override
-    protected void buildXSeries() {
+    public void handleUpdateEvent() {
+        // Updates from the update thread read in new data and pick the points
+        // to plot there, leaving the UI thread only to hand them to the chart.
+        if (chart != null && !chart.isDisposed() && Display.getCurrent() == null) {
+            prepareXSeries();
+        }
+        super.handleUpdateEvent();
+    }
+
+    /**
+     * Reads the chart's data from its adapter and picks the points of each series
+     * to plot, ready for the next call to {@link #buildXSeries()}. This is called
+     * off the UI thread, so must not touch the chart.
+     * @since 4.0
+     */
+    protected void prepareXSeries() {
+        SeriesData data = readSeriesData();
+        if (data != null) {
+            seriesView = createSeriesView(data, plotWidth, plotHeight);
+        }
+    }
+
+    /**
+     * Reads in from the adapter all x/y points to plot, and keeps them for later updates.
+     * @return The points read, or <code>null</code> if there is no data.
+     */
+    private SeriesData readSeriesData() {
         Object data[][] = adapter.getData();
         if (data == null || data.length == 0) {
-            return;
+            seriesData = null;
+            return null;
         }
 
-        int start = 0, len = Math.min(this.maxItems, data.length), leny = data[0].length-1;
-        if (this.maxItems < data.length) {
-            start = data.length - this.maxItems;
+        int items = this.maxItems;
+        int start = 0, len = Math.min(items, data.length), leny = data[0].length-1;
+        if (items < data.length) {
+            start = data.length - items;
         }
 
-        Double[] all_valx = new Double[len];
-        Double[][] all_valy = new Double[leny][len];
         // Will want to centre view around points, so be as accurate with max/min as possible.
-        double maxX = Double.NEGATIVE_INFINITY;
-        double maxY = maxX;
-        double minX = Double.POSITIVE_INFINITY;
-        double minY = minX;
-
-        // Read in from the data array all x/y points to plot.
         // In the case of an empty (null) value in either axis, ignore both x & y axis data for that point.
+        SeriesData read = new SeriesData(items, data.length, leny);
+        double[] valx = new double[len];
+        boolean[] hasx = new boolean[len];
         for (int i = 0; i < len; i++) {
-            for (int j = 0; j < leny + 1; j++) {
-                Double val = getDoubleOrNullValue(data[start + i][j]);
-                if (j == 0) {
-                    if (val != null) {
-                        all_valx[i] = val;
-                        maxX = Math.max(val, maxX);
-                        minX = Math.min(val, minX);
-                    } else {
-                        break;
-                    }
-                } else if (val != null) {
-                    all_valy[j-1][i] = val;
-                    maxY = Math.max(val, maxY);
-                    minY = Math.min(val, minY);
+            Double val = getDoubleOrNullValue(data[start + i][0]);
+            if (val != null) {
+                valx[i] = val.doubleValue();
+                hasx[i] = true;
+                read.maxX = Math.max(valx[i], read.maxX);
+                read.minX = Math.min(valx[i], read.minX);
+            }
+        }
+
+        // Now create dense arrays of x/y values that exclude null values.
+        for (int j = 0; j < leny; j++) {
+            double[] x = new double[len];
+            double[] y = new double[len];
+            int len_trim = 0;
+            for (int i = 0; i < len; i++) {
+                Double val = hasx[i] ? getDoubleOrNullValue(data[start + i][j + 1]) : null;
+                if (val != null) {
+                    x[len_trim] = valx[i];
+                    y[len_trim] = val.doubleValue();
+                    read.maxY = Math.max(y[len_trim], read.maxY);
+                    read.minY = Math.min(y[len_trim], read.minY);
+                    len_trim++;
                 }
             }
+            read.x[j] = Arrays.copyOf(x, len_trim);
+            read.y[j] = Arrays.copyOf(y, len_trim);
+        }
+        seriesData = read;
+        return read;
+    }
+
+    /**
+     * Picks the points of each series to plot in the visible ranges of the axes,
+     * keeping only as many as the plot area has pixels to show.
+     */
+    private SeriesView createSeriesView(SeriesData data, int width, int height) {
+        Range rangeX = getRangeX(data.minX, data.maxX);
+        Range rangeY = getRangeY(data.minY, data.maxY);
+        SeriesView view = new SeriesView(data, rangeX, rangeY, width, height);
+        boolean joined = joinsPoints();
+        for (int i = 0; i < data.x.length; i++) {
+            int[] keep = joined
+                    ? Downsampler.downsampleLine(data.x[i], data.y[i], rangeX.lower, rangeX.upper, width)
+                    : Downsampler.downsamplePoints(data.x[i], data.y[i], rangeX.lower, rangeX.upper, width,
+                            rangeY.lower, rangeY.upper, height);
+            view.x[i] = Downsampler.select(data.x[i], keep);
+            view.y[i] = Downsampler.select(data.y[i], keep);
         }
+        return view;
+    }
 
-        // Now create dense arrays of x/y values that exclude null values,
-        // and plot those values to the chart.
+    /**
+     * Builds X series.
+     */
+    @Override
+    protected void buildXSeries() {
+        Rectangle bounds = chart.getPlotArea().getBounds();
+        plotWidth = bounds.width;
+        plotHeight = bounds.height;
+
+        // Use the data last read off the UI thread, unless there is more of it by now.
+        SeriesData data = seriesData;
+        if (data == null || data.maxItems != maxItems || data.records != adapter.getRecordCount()) {
+            data = readSeriesData();
+            if (data == null) {
+                return;
+            }
+        }
+        SeriesView view = seriesView;
+        if (view == null || !view.shows(data, getRangeX(data.minX, data.maxX),
+                getRangeY(data.minY, data.maxY), bounds.width, bounds.height)) {
+            view = createSeriesView(data, bounds.width, bounds.height);
+            seriesView = view;
+        }
 
         ISeries allSeries[] = chart.getSeriesSet().getSeries();
         ISeries series = null;
-        for (int i = 0; i < leny; i++) {
+        for (int i = 0; i < view.x.length; i++) {
             if (i >= allSeries.length) {
                 series = createChartISeries(i);
             } else {
-                series = chart.getSeriesSet().getSeries()[i];
+                series = allSeries[i];
             }
-
-            double[] valx = new double[len];
-            double[] valy = new double[len];
-            int len_trim = 0;
-            for (int j = 0; j < len; j++) {
-                if (all_valx[j] != null && all_valy[i][j] != null) {
-                    valx[len_trim] = all_valx[j].doubleValue();
-                    valy[len_trim] = all_valy[i][j].doubleValue();
-                    len_trim++;
-                }
-            }
-            double[] valx_trim = new double[len_trim];
-            double[] valy_trim = new double[len_trim];
-            for (int j = 0; j < len_trim; j++) {
-                valx_trim[j] = valx[j];
-                valy_trim[j] = valy[j];
-            }
-            series.setXSeries(valx_trim);
-            series.setYSeries(valy_trim);
+            series.setXSeries(view.x[i]);
+            series.setYSeries(view.y[i]);
         }
 
         if (series != null && series.getXSeries().length > 0) {
-            applyRangeX(minX, maxX);
-            applyRangeY(minY, maxY);
+            applyRangeX(data.minX, data.maxX);
+            applyRangeY(data.minY, data.maxY);
         }
         chart.redraw();
     }
@@ -314,14 +450,22 @@ public abstract class AbstractChartWithAxisBuilder extends AbstractChartBuilder
      * @param max The largest x-value that should be in range.
      */
     private void applyRangeX(double min, double max) {
-        IAxis axis = chart.getAxisSet().getXAxis(0);
+        chart.getAxisSet().getXAxis(0).setRange(getRangeX(min, max));
+    }
+
+    /**
+     * @param min The smallest x-value that should be in range.
+     * @param max The largest x-value that should be in range.
+     * @return The visible range of the chart's x-axis.
+     */
+    private Range getRangeX(double min, double max) {
         double actualRange = max - min;
         double scaledRange = actualRange * scale;
         double marginL = scaledRange > 0 ? scaledRange * getChartMarginXL() : 1;
         double marginU = scaledRange > 0 ? scaledRange * getChartMarginXU() : 1;
 
         double lower = (actualRange - scaledRange) * scroll + min;
-        axis.setRange(new Range(lower - marginL, lower + scaledRange + marginU));
+        return new Range(lower - marginL, lower + scaledRange + marginU);
     }
 
     /**
@@ -331,14 +475,22 @@ public abstract class AbstractChartWithAxisBuilder extends AbstractChartBuilder
      * @since 3.0
      */
     protected void applyRangeY(double min, double max) {
-        IAxis axis = chart.getAxisSet().getYAxis(0);
+        chart.getAxisSet().getYAxis(0).setRange(getRangeY(min, max));
+    }
+
+    /**
+     * @param min The smallest y-value that should be in range.
+     * @param max The largest y-value that should be in range.
+     * @return The visible range of the chart's y-axis.
+     */
+    private Range getRangeY(double min, double max) {
         double actualRange = max - min;
         double scaledRange = actualRange * scaleY;
         double marginL = scaledRange > 0 ? scaledRange * getChartMarginYL() : 1;
         double marginU = scaledRange > 0 ? scaledRange * getChartMarginYU() : 1;
 
         double lower = (actualRange - scaledRange) * scrollY + min;
-        axis.setRange(new Range(lower - marginL, lower + scaledRange + marginU));
+        return new Range(lower - marginL, lower + scaledRange + marginU);
     }
 
     @Override
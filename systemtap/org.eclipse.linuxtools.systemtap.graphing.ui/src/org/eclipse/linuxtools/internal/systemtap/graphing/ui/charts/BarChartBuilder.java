@@ -51,6 +51,11 @@ public class BarChartBuilder extends AbstractChartWithAxisBuilder {
         return series;
     }
 
+    @Override
+    protected void prepareXSeries() {
+        // Bar charts show every category, so read their data as they build their series.
+    }
+
     @Override
     protected void buildXSeries() {
         Object data[][] = adapter.getData();
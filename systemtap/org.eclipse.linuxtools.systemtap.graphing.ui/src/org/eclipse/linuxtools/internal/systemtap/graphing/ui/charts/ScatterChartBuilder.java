@@ -38,4 +38,9 @@ public class ScatterChartBuilder extends LineChartBuilder {
         series.setLineStyle(LineStyle.NONE);
         return series;
     }
+
+    @Override
+    protected boolean joinsPoints() {
+        return false;
+    }
 }
@@ -13,6 +13,7 @@ package org.eclipse.linuxtools.systemtap.graphing.ui.wizards.dataset;
 
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.IFilteredDataSet;
+import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.BoundedRowDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.FilteredRowDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.row.RowDataSet;
 import org.eclipse.linuxtools.systemtap.graphing.core.datasets.table.FilteredTableDataSet;
@@ -30,9 +31,17 @@ public final class DataSetFactory {
         return null;
     }
 
+    /**
+     * Creates a filtered data set to collect the output of a running script.
+     * Row data sets only keep the {@link BoundedRowDataSet#DEFAULT_CAPACITY}
+     * most recent rows, so that long running scripts do not use up the heap.
+     * @param id The ID of the kind of data set to create.
+     * @param labels The titles of the data set's columns.
+     * @return The new data set.
+     */
     public static IFilteredDataSet createFilteredDataSet(String id, String[] labels) {
         if(id.equals(RowDataSet.ID)) {
-            return new FilteredRowDataSet(labels);
+            return new FilteredRowDataSet(new BoundedRowDataSet(labels, BoundedRowDataSet.DEFAULT_CAPACITY));
         } else if(id.equals(TableDataSet.ID)) {
             return new FilteredTableDataSet(labels);
         }
@@ -11,12 +11,20 @@
 
 package org.eclipse.linuxtools.systemtap.structures.tests.runnable;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.linuxtools.systemtap.structures.listeners.IGobblerListener;
 import org.eclipse.linuxtools.systemtap.structures.runnable.StreamGobbler;
 import org.junit.Before;
 import org.junit.Test;
@@ -71,5 +79,110 @@ public class StreamGobblerTest{
         assertFalse(sg.isRunning());
     }
 
+    @Test
+    public void testLines() {
+        // Enough data to span several reads, including one very long line.
+        StringBuilder data = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            String l = "line " + i + '\n'; //$NON-NLS-1$
+            data.append(l);
+            expected.add(l);
+        }
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            longLine.append('x');
+        }
+        longLine.append('\n');
+        data.append(longLine);
+        expected.add(longLine.toString());
+        data.append("partial"); //$NON-NLS-1$
+        expected.add("partial"); //$NON-NLS-1$
+
+        final List<String> lines = new ArrayList<>();
+        StreamGobbler gobbler = new StreamGobbler(new ByteArrayInputStream(data.toString().getBytes()));
+        gobbler.addDataListener(new IGobblerListener() {
+            @Override
+            public void handleDataEvent(String line) {
+                lines.add(line);
+            }
+        });
+        gobbler.start();
+        gobbler.stop();
+
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    public void testFailingListener() {
+        final List<String> lines = new ArrayList<>();
+        StreamGobbler gobbler = new StreamGobbler(new ByteArrayInputStream("a\nb\n".getBytes())); //$NON-NLS-1$
+        gobbler.addDataListener(new IGobblerListener() {
+            @Override
+            public void handleDataEvent(String line) {
+                throw new IllegalStateException(line);
+            }
+        });
+        gobbler.addDataListener(new IGobblerListener() {
+            @Override
+            public void handleDataEvent(String line) {
+                lines.add(line);
+            }
+        });
+        gobbler.start();
+        gobbler.stop();
+
+        // The other listener still gets every line, and the final event.
+        assertEquals(Arrays.asList("a\n", "b\n", ""), lines); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    @Test
+    public void testSlowListener() throws InterruptedException {
+        final int size = 64 << 20;
+        final AtomicLong read = new AtomicLong();
+        InputStream stream = new InputStream() {
+            @Override
+            public int read() {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) == -1 ? -1 : b[0];
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                len = (int) Math.min(len, size - read.get());
+                if (len <= 0)
+                    return -1;
+                Arrays.fill(b, off, off + len, (byte) 'x');
+                b[off + len - 1] = '\n';
+                read.addAndGet(len);
+                return len;
+            }
+        };
+
+        final CountDownLatch release = new CountDownLatch(1);
+        StreamGobbler gobbler = new StreamGobbler(stream);
+        gobbler.addDataListener(new IGobblerListener() {
+            @Override
+            public void handleDataEvent(String line) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        gobbler.start();
+
+        try {
+            // The reader waits for the blocked listener instead of queuing the whole stream.
+            Thread.sleep(500);
+            assertTrue(read.get() < size / 4);
+        } finally {
+            release.countDown();
+        }
+        gobbler.stop();
+        assertEquals(size, read.get());
+    }
+
     StreamGobbler sg;
 }
@@ -13,24 +13,45 @@ package org.eclipse.linuxtools.systemtap.structures.runnable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.internal.systemtap.structures.StructuresPlugin;
 import org.eclipse.linuxtools.systemtap.structures.listeners.IGobblerListener;
 
 /**
  * A separate thread to listen to an InputStream and pull all the data
  * out of it. When data is found a new event is fired share the data with
  * any <code>IDataListener</code> that is listening.
+ *
+ * The stream is read in large blocks and split into lines by the reading
+ * thread. The lines of each block are handed as one batch to a second
+ * thread, which fires the data events, so slow listeners do not hold up
+ * the reading of the stream. Only a few batches are queued at a time;
+ * past that the reading thread waits for the listeners.
  * @author Ryan Morse
  */
 public class StreamGobbler implements Runnable {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_BATCHES = 16;
+    private static final Charset CHARSET = Charset.defaultCharset();
+
     public StreamGobbler(InputStream is) {
         if(null != is) {
             this.is = is;
-            line = new StringBuilder();
-            listeners = new ArrayList<>();
+            line = new byte[256];
+            batches = new ArrayBlockingQueue<>(MAX_BATCHES);
+            listeners = new CopyOnWriteArrayList<>();
         }
     }
 
@@ -42,6 +63,9 @@ public class StreamGobbler implements Runnable {
      */
     //Make sure to call this method to start the StreamGobbler
     public void start() {
+        done = false;
+        dispatcher = new Thread(new Dispatcher(), "StreamGobbler dispatcher"); //$NON-NLS-1$
+        dispatcher.start();
         reader = new Thread(this, "StreamGobbler"); //$NON-NLS-1$
         reader.start();
     }
@@ -57,25 +81,74 @@ public class StreamGobbler implements Runnable {
     /**
      * The main method of this class. It monitors the provided thread to see
      * when new data is available and then appends it to its current list of
-     * data.  When a new line is read it will fire a DataEvent for listeners
-     * to get a hold of the data.
+     * data.  When new lines are read they are queued for the dispatcher
+     * thread, which fires a DataEvent per line for listeners to get a hold
+     * of the data.
      */
     @Override
     public void run() {
         if (reader != Thread.currentThread())
             return;
 
+        byte[] buffer = new byte[BUFFER_SIZE];
         try {
-            int val = is.read();
-            while(val != -1) {
-                line.append((char)val);
-
-                if ('\n' == val)
-                    this.fireNewDataEvent();
+            int count = is.read(buffer, 0, buffer.length);
+            while(count != -1) {
+                splitLines(buffer, count);
+                count = is.read(buffer, 0, buffer.length);
+            }
+        } catch (IOException ioe) {    // If stream closed before thread shuts down
+        } catch (InterruptedException e) {
+            // Stop reading; the batches already queued are still dispatched.
+            Thread.currentThread().interrupt();
+        } finally {
+            done = true;
+            LockSupport.unpark(dispatcher);
+        }
+    }
 
-                val = is.read();
+    /**
+     * Splits the bytes read into complete lines, keeping their line
+     * terminators, and queues them as one batch. Whatever follows the last
+     * line terminator is kept until the rest of its line arrives. Waits
+     * while the queue is full.
+     */
+    private void splitLines(byte[] buffer, int count) throws InterruptedException {
+        List<String> batch = null;
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] != '\n')
+                continue;
+
+            if (batch == null)
+                batch = new ArrayList<>();
+            if (lineLength == 0) {
+                batch.add(new String(buffer, start, i + 1 - start, CHARSET));
+            } else {
+                appendToLine(buffer, start, i + 1 - start);
+                batch.add(takeLine());
             }
-        } catch (IOException ioe) {}    // If stream closed before thread shuts down
+            start = i + 1;
+        }
+        appendToLine(buffer, start, count - start);
+
+        if (batch != null) {
+            batches.put(batch);
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void appendToLine(byte[] buffer, int offset, int length) {
+        if (lineLength + length > line.length)
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        System.arraycopy(buffer, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private String takeLine() {
+        String l = new String(line, 0, lineLength, CHARSET);
+        lineLength = 0;
+        return l;
     }
 
     /**
@@ -86,16 +159,19 @@ public class StreamGobbler implements Runnable {
     public synchronized void stop() {
         if (reader != null){
             try {
-                // Wait for the reader thread to finish.
+                // Wait for the reader thread to finish, then for the dispatcher
+                // to deliver whatever the reader queued.
                 reader.join();
+                dispatcher.join();
             } catch (InterruptedException e) {
                 // The thread was interrupted; nothing to do; finish stopping.
             }
             reader = null;
+            dispatcher = null;
         }
         notify();
         // Fire one last time to ensure listeners have gotten everything.
-        this.fireNewDataEvent();
+        this.fireNewDataEvent(takeLine());
     }
 
     /**
@@ -106,22 +182,18 @@ public class StreamGobbler implements Runnable {
             stop();
         line = null;
         reader = null;
+        dispatcher = null;
         is = null;
     }
 
-    /**
-     * Fires new events to everything that is monitoring this stream. Then clears
-     * the current line of data.
-     */
-    private void fireNewDataEvent() {
-        this.fireNewDataEvent(line.toString());
-        line.delete(0, line.length());
-    }
-
     public void fireNewDataEvent(String l) {
-        synchronized (listeners) {
-            for(int i = 0; i < listeners.size(); i++){
-                listeners.get(i).handleDataEvent(l);
+        for (IGobblerListener listener : listeners) {
+            try {
+                listener.handleDataEvent(l);
+            } catch (RuntimeException e) {
+                // A failing listener must not stop the others or the dispatcher.
+                Platform.getLog(Platform.getBundle(StructuresPlugin.PLUGIN_ID)).log(
+                        new Status(IStatus.ERROR, StructuresPlugin.PLUGIN_ID, Messages.StreamGobbler_listenerFailed, e));
             }
         }
     }
@@ -131,10 +203,8 @@ public class StreamGobbler implements Runnable {
      * @param l A listener that needs to monitor the stream.
      */
     public void addDataListener(IGobblerListener l) {
-        synchronized (listeners) {
-            if(l != null && !listeners.contains(l)){
-                listeners.add(l);
-            }
+        if(l != null) {
+            listeners.addIfAbsent(l);
         }
     }
 
@@ -143,14 +213,40 @@ public class StreamGobbler implements Runnable {
      * @param l A listener that is monitoring the stream and should be removed
      */
     public void removeDataListener(IGobblerListener l) {
-        synchronized (listeners) {
-            if(listeners.contains(l))
-                listeners.remove(l);
+        listeners.remove(l);
+    }
+
+    /**
+     * Fires the data events for the batches queued by the reader thread,
+     * in the order they were read, until the reader is done and the queue
+     * has been drained.
+     */
+    private class Dispatcher implements Runnable {
+        @Override
+        public void run() {
+            while (true) {
+                List<String> batch = batches.poll();
+                if (batch != null) {
+                    for (String l : batch) {
+                        fireNewDataEvent(l);
+                    }
+                } else if (done) {
+                    // Everything queued before done was set is visible now.
+                    if (batches.isEmpty())
+                        return;
+                } else {
+                    LockSupport.park(this);
+                }
+            }
         }
     }
 
-    private List<IGobblerListener> listeners;
-    private StringBuilder line;
+    private CopyOnWriteArrayList<IGobblerListener> listeners;
+    private BlockingQueue<List<String>> batches;
+    private byte[] line;
+    private int lineLength;
+    private volatile boolean done;
     private Thread reader;
+    private Thread dispatcher;
     private InputStream is;
-}
\ No newline at end of file
+}
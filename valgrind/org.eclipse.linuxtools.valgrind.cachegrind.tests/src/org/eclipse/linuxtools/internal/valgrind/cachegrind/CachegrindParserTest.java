@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.cachegrind;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindFile;
+import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindFunction;
+import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindLine;
+import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the windows and the parallel chunks of {@link CachegrindParser}
+ * give the same result as parsing the whole file on one thread.
+ */
+public class CachegrindParserTest {
+
+    private static final String HEADER = "desc: I1 cache:         32768 B, 64 B, 8-way associative\n" //$NON-NLS-1$
+            + "desc: D1 cache:         32768 B, 64 B, 8-way associative\n" //$NON-NLS-1$
+            + "cmd: ./cpptest\n" //$NON-NLS-1$
+            + "events: Ir I1mr ILmr Dr\n"; //$NON-NLS-1$
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        // the PID is taken from the file name
+        file = new File(Files.createTempDirectory("cachegrind").toFile(), "cachegrind_1770.txt"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+    private CachegrindOutput parse(CachegrindParser parser) throws IOException {
+        CachegrindOutput output = new CachegrindOutput();
+        parser.parse(output, file);
+        return output;
+    }
+
+    /**
+     * @return the files, functions and lines of an output, one per line
+     */
+    private static String describe(CachegrindOutput output) {
+        StringBuilder ret = new StringBuilder();
+        ret.append(output.getPid()).append(Arrays.toString(output.getEvents()))
+                .append(Arrays.toString(output.getSummary())).append('\n');
+        for (CachegrindFile cgFile : output.getFiles()) {
+            ret.append(cgFile.getPath()).append('\n');
+            for (CachegrindFunction function : cgFile.getFunctions()) {
+                ret.append(' ').append(function.getName()).append(Arrays.toString(function.getTotals())).append('\n');
+                for (CachegrindLine line : function.getLines()) {
+                    ret.append("  ").append(line.getLine()).append(Arrays.toString(line.getValues())).append('\n'); //$NON-NLS-1$
+                }
+            }
+        }
+        return ret.toString();
+    }
+
+    private void write(String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testParse() throws IOException {
+        write(HEADER + "fl=/src/test.c\n" //$NON-NLS-1$
+                + "fn=main\n" //$NON-NLS-1$
+                + "5 3 1 1\n" //$NON-NLS-1$
+                + "6 10 0 0 4\n" //$NON-NLS-1$
+                + "fn=square\n" //$NON-NLS-1$
+                + "2 7 1 1 2\n" //$NON-NLS-1$
+                + "summary: 20 2 2 6\n"); //$NON-NLS-1$
+        CachegrindOutput output = parse(CachegrindParser.getParser());
+        assertEquals(Integer.valueOf(1770), output.getPid());
+        assertArrayEquals(new String[] { "Ir", "I1mr", "ILmr", "Dr" }, output.getEvents()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        assertArrayEquals(new long[] { 20, 2, 2, 6 }, output.getSummary());
+        CachegrindFunction[] functions = output.getFiles()[0].getFunctions();
+        assertEquals(2, functions.length);
+        // missing trailing values are zero
+        assertArrayEquals(new long[] { 3, 1, 1, 0 }, functions[0].getLines()[0].getValues());
+        assertArrayEquals(new long[] { 13, 1, 1, 4 }, functions[0].getTotals());
+        assertEquals(2, functions[1].getLines()[0].getLine());
+    }
+
+    @Test
+    public void testWindowsAndChunks() throws IOException {
+        StringBuilder text = new StringBuilder(HEADER);
+        for (int i = 0; text.length() < (3 << 20) / 2; i++) {
+            text.append("fl=/src/file").append(i).append(".c\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            for (int j = 0; j < 1 + i % 5; j++) {
+                text.append("fn=function").append(j).append('\n'); //$NON-NLS-1$
+                for (int k = 0; k < 1 + (i + j) % 40; k++) {
+                    text.append(k + 1).append(' ').append(i + k).append(' ').append(j).append(' ').append(k % 2);
+                    if (k % 3 > 0) {
+                        text.append(' ').append(i * k);
+                    }
+                    text.append('\n');
+                }
+            }
+        }
+        text.append("summary: 1 2 3 4\n"); //$NON-NLS-1$
+        write(text.toString());
+        assertTrue(file.length() > 1 << 20);
+
+        String expected = describe(parse(new CachegrindParser(Integer.MAX_VALUE, Integer.MAX_VALUE, 1, 1)));
+        // parallel chunks, with the default limits
+        assertEquals(expected, describe(parse(new CachegrindParser(1 << 30, 1 << 20, 1 << 18, 4))));
+        // windows which end in the middle of the header, of files and of functions
+        assertEquals(expected, describe(parse(new CachegrindParser(100, Integer.MAX_VALUE, 1, 1))));
+        assertEquals(expected, describe(parse(new CachegrindParser(4099, 0, 256, 3))));
+        assertEquals(expected, describe(parse(new CachegrindParser(1 << 18, 1 << 16, 1 << 12, 4))));
+    }
+
+    @Test
+    public void testLineLongerThanWindow() throws IOException {
+        write(HEADER + "fl=/src/test.c\n" //$NON-NLS-1$
+                + "fn=main\n" //$NON-NLS-1$
+                + "5 3 1 1\n"); //$NON-NLS-1$
+        try {
+            parse(new CachegrindParser(20, Integer.MAX_VALUE, 1, 1));
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -10,13 +10,15 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.cachegrind.tests;
 
+import org.eclipse.linuxtools.internal.valgrind.cachegrind.CachegrindParserTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ BasicCachegrindTest.class, CModelLabelsTest.class,
         DoubleClickTest.class, LaunchConfigTabTest.class,
-        MultiProcessTest.class, ExpandCollapseTest.class, ShortcutTest.class })
+        MultiProcessTest.class, ExpandCollapseTest.class, ShortcutTest.class,
+        CachegrindParserTest.class })
 public class AllTests {
 // suite class
 }
@@ -10,35 +10,78 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.cachegrind;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindDescription;
 import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindFile;
 import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindFunction;
-import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindLine;
 import org.eclipse.linuxtools.internal.valgrind.cachegrind.model.CachegrindOutput;
 import org.eclipse.linuxtools.valgrind.core.ValgrindParserUtils;
 
+/**
+ * Parser for Cachegrind output files.
+ *
+ * The file is mapped into memory, one window of whole lines at a time, and
+ * scanned byte by byte. The header is read first, then the <code>fl=</code>
+ * sections of each window are split into chunks which are parsed in parallel
+ * for large windows. The line data of each function is kept in a packed
+ * matrix rather than one object per line.
+ */
 public final class CachegrindParser {
     private static final String COLON = ":"; //$NON-NLS-1$
     private static final String SPACE = " "; //$NON-NLS-1$
-    private static final String EQUALS = "="; //$NON-NLS-1$
-
-    private static final String CMD = "cmd"; //$NON-NLS-1$
-    private static final String DESC = "desc"; //$NON-NLS-1$
-    private static final String FL = "fl"; //$NON-NLS-1$
-    private static final String FN = "fn"; //$NON-NLS-1$
-    private static final String EVENTS = "events"; //$NON-NLS-1$
-    private static final String SUMMARY = "summary"; //$NON-NLS-1$
 
     private static final String COMMA = ","; //$NON-NLS-1$
 
+    private static final byte[] CMD = "cmd:".getBytes(); //$NON-NLS-1$
+    private static final byte[] DESC_PREFIX = "desc:".getBytes(); //$NON-NLS-1$
+    private static final byte[] EVENTS = "events:".getBytes(); //$NON-NLS-1$
+    private static final byte[] FL = "fl=".getBytes(); //$NON-NLS-1$
+    private static final byte[] FN = "fn=".getBytes(); //$NON-NLS-1$
+    private static final byte[] SUMMARY = "summary:".getBytes(); //$NON-NLS-1$
+
+    // the most of the file mapped at once, as a buffer is indexed by int
+    private static final long WINDOW_SIZE = 1 << 30;
+    // windows smaller than this are parsed on the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int MIN_CHUNK_SIZE = 1 << 18;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
     protected static CachegrindParser instance;
 
+    private final long windowSize;
+    private final int parallelThreshold;
+    private final int minChunkSize;
+    private final int threads;
+
     private CachegrindParser() {
+        this(WINDOW_SIZE, PARALLEL_THRESHOLD, MIN_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a parser with the given limits, so that tests can use small
+     * windows and chunks.
+     */
+    CachegrindParser(long windowSize, int parallelThreshold, int minChunkSize, int threads) {
+        this.windowSize = windowSize;
+        this.parallelThreshold = parallelThreshold;
+        this.minChunkSize = minChunkSize;
+        this.threads = threads;
     }
 
     public static CachegrindParser getParser() {
@@ -49,62 +92,245 @@ public final class CachegrindParser {
     }
 
     public void parse(CachegrindOutput output, File cgOut) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(cgOut))) {
-            output.setPid(ValgrindParserUtils.parsePID(cgOut.getName(), CachegrindLaunchDelegate.OUT_PREFIX));
-
-            String line;
-            CachegrindFile curFl = null;
-            CachegrindFunction curFn = null;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith(EVENTS + COLON)) {
-                    output.setEvents(ValgrindParserUtils.parseStrValue(line, COLON + SPACE).split(SPACE));
-                } else if (line.startsWith(CMD + COLON)) {
-                    //continue
-                } else if (line.startsWith(DESC + COLON)) {
-                    CachegrindDescription description = parseDescription(line);
-                    output.addDescription(description);
-                } else if (line.startsWith(FL + EQUALS)) {
-                    curFl = new CachegrindFile(output, ValgrindParserUtils.parseStrValue(line, EQUALS));
-                    output.addFile(curFl);
-                } else if (line.startsWith(FN + EQUALS)) {
-                    if (curFl != null) {
-                        curFn = new CachegrindFunction(curFl, ValgrindParserUtils.parseStrValue(line, EQUALS));
-                        curFl.addFunction(curFn);
-                    } else {
-                        ValgrindParserUtils.fail(line);
-                    }
-                } else if (line.startsWith(SUMMARY + COLON)) {
-                    long[] summary = parseData(line, ValgrindParserUtils.parseStrValue(line, COLON + SPACE).split(SPACE));
-                    output.setSummary(summary);
+        output.setPid(ValgrindParserUtils.parsePID(cgOut.getName(), CachegrindLaunchDelegate.OUT_PREFIX));
+
+        List<Chunk> chunks = new ArrayList<>();
+        int eventCount = 0;
+        try (FileInputStream fis = new FileInputStream(cgOut); FileChannel channel = fis.getChannel()) {
+            long size = channel.size();
+            long offset = 0;
+            boolean header = true;
+            Chunk last = null;
+            while (offset < size) {
+                ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, windowSize));
+                int limit = buf.limit();
+                if (offset + limit < size) {
+                    // the rest of the last line goes into the next window
+                    limit = lastLineEnd(buf);
                 }
-                else { // line data
-                    String[] tokens = line.split(SPACE, 2);
-                    if (ValgrindParserUtils.isNumber(tokens[0])) {
-                        int lineNo = Integer.parseInt(tokens[0]);
-
-                        long[] data = parseData(line, tokens[1].split(SPACE));
-                        if (curFn != null) {
-                            curFn.addLine(new CachegrindLine(curFn, lineNo, data));
-                        } else {
-                            ValgrindParserUtils.fail(line);
-                        }
-                    } else {
-                        ValgrindParserUtils.fail(line);
-                    }
+                int pos = 0;
+                if (header) {
+                    pos = parseHeader(output, buf, limit);
+                    header = pos == limit;
+                    String[] events = output.getEvents();
+                    eventCount = events != null ? events.length : 0;
+                }
+                if (pos < limit) {
+                    chunks.addAll(parseChunks(buf, pos, limit, eventCount, last));
+                    last = chunks.get(chunks.size() - 1);
                 }
+                offset += limit;
+            }
+        }
+
+        List<Section> sections = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            sections.addAll(chunk.sections);
+            if (chunk.summary != null) {
+                output.setSummary(chunk.summary);
+            }
+        }
+
+        // the model elements look up the CDT model, build them on this thread
+        for (Section section : sections) {
+            CachegrindFile file = new CachegrindFile(output, section.path);
+            output.addFile(file);
+            for (FunctionData data : section.functions) {
+                CachegrindFunction function = new CachegrindFunction(file, data.name);
+                function.setLines(Arrays.copyOf(data.lineNumbers, data.count),
+                        Arrays.copyOf(data.values, data.count * eventCount), data.count, eventCount);
+                file.addFunction(function);
             }
         }
     }
 
-    private long[] parseData(String line, String[] data) throws IOException {
-        long[] result = new long[data.length];
-        for (int i = 0; i < data.length; i++) {
-            if (!ValgrindParserUtils.isNumber(data[i])) {
+    /**
+     * Parses the header lines of the file, up to the first file.
+     *
+     * @return the start of the first <code>fl=</code> line, or
+     *         <code>limit</code> if the header goes on
+     */
+    private int parseHeader(CachegrindOutput output, ByteBuffer buf, int limit) throws IOException {
+        int pos = 0;
+        while (pos < limit && !startsWith(buf, pos, FL)) {
+            int end = lineEnd(buf, pos, limit);
+            String line = decode(buf, pos, trimEnd(buf, pos, end));
+            if (startsWith(buf, pos, EVENTS)) {
+                output.setEvents(ValgrindParserUtils.parseStrValue(line, COLON + SPACE).split(SPACE));
+            } else if (startsWith(buf, pos, DESC_PREFIX)) {
+                output.addDescription(parseDescription(line));
+            } else if (startsWith(buf, pos, SUMMARY)) {
+                output.setSummary(parseSummary(buf, pos, trimEnd(buf, pos, end)));
+            } else if (!startsWith(buf, pos, CMD) && !line.isEmpty()) {
+                // function or line data outside of a file
                 ValgrindParserUtils.fail(line);
             }
-            result[i] = Long.parseLong(data[i]);
+            pos = Math.min(end + 1, limit);
+        }
+        return pos;
+    }
+
+    /**
+     * Parses the file sections between <code>start</code> and
+     * <code>limit</code>, on several threads if the range is large.
+     *
+     * @param previous the last chunk of the previous window, whose section
+     *            and function go on at <code>start</code>, or null
+     * @return the parsed chunks in file order
+     */
+    private List<Chunk> parseChunks(final ByteBuffer buf, int start, int limit, final int eventCount, Chunk previous) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        if (threads < 2 || limit - start < parallelThreshold) {
+            Chunk chunk = new Chunk(previous);
+            chunk.parse(buf, start, limit, eventCount);
+            chunks.add(chunk);
+            return chunks;
+        }
+
+        // split into chunks on file boundaries, a few per thread to even out the load
+        int chunkSize = Math.max(minChunkSize, (limit - start) / (threads * 4));
+        List<int[]> ranges = new ArrayList<>();
+        while (start < limit) {
+            int end = nextFile(buf, start + chunkSize, limit);
+            ranges.add(new int[] { start, end });
+            start = end;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, ranges.size()));
+        try {
+            List<Future<Chunk>> results = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                final int[] range = ranges.get(i);
+                // only the first chunk can go on with the previous window
+                final Chunk chunk = new Chunk(i == 0 ? previous : null);
+                results.add(executor.submit(new Callable<Chunk>() {
+                    @Override
+                    public Chunk call() throws IOException {
+                        chunk.parse(buf, range[0], range[1], eventCount);
+                        return chunk;
+                    }
+                }));
+            }
+            for (Future<Chunk> result : results) {
+                chunks.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the start of the first <code>fl=</code> line at or after
+     *         <code>pos</code>, or <code>limit</code>
+     */
+    private static int nextFile(ByteBuffer buf, int pos, int limit) {
+        if (pos >= limit) {
+            return limit;
+        }
+        while (pos > 0 && buf.get(pos - 1) != '\n') {
+            pos = lineEnd(buf, pos, limit) + 1;
+            if (pos >= limit) {
+                return limit;
+            }
+        }
+        while (pos < limit && !startsWith(buf, pos, FL)) {
+            pos = lineEnd(buf, pos, limit) + 1;
+        }
+        return Math.min(pos, limit);
+    }
+
+    private static int lineEnd(ByteBuffer buf, int pos, int limit) {
+        while (pos < limit && buf.get(pos) != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * @return the end of the last whole line of a window which is not the
+     *         end of the file
+     */
+    private static int lastLineEnd(ByteBuffer buf) throws IOException {
+        int pos = buf.limit();
+        while (pos > 0 && buf.get(pos - 1) != '\n') {
+            pos--;
+        }
+        if (pos == 0) {
+            // a line longer than the window
+            ValgrindParserUtils.fail(decode(buf, 0, Math.min(buf.limit(), 256)));
+        }
+        return pos;
+    }
+
+    private static int trimEnd(ByteBuffer buf, int start, int end) {
+        if (end > start && buf.get(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean startsWith(ByteBuffer buf, int pos, byte[] prefix) {
+        if (pos + prefix.length > buf.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf.get(pos + i) != prefix[i]) {
+                return false;
+            }
         }
-        return result;
+        return true;
+    }
+
+    private static String decode(ByteBuffer buf, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buf.get(start + i);
+        }
+        return new String(bytes, CHARSET);
+    }
+
+    private static long[] parseSummary(ByteBuffer buf, int start, int end) throws IOException {
+        int pos = start + SUMMARY.length;
+        if (pos >= end || buf.get(pos) != ' ') {
+            ValgrindParserUtils.fail(decode(buf, start, end));
+        }
+        long[] summary = new long[0];
+        int count = 0;
+        pos++;
+        while (pos < end) {
+            int next = pos;
+            long value = 0;
+            while (next < end && buf.get(next) != ' ') {
+                byte b = buf.get(next);
+                if (b < '0' || b > '9') {
+                    ValgrindParserUtils.fail(decode(buf, start, end));
+                }
+                value = value * 10 + (b - '0');
+                next++;
+            }
+            if (next == pos) {
+                // consecutive or trailing spaces
+                if (next + 1 < end) {
+                    ValgrindParserUtils.fail(decode(buf, start, end));
+                }
+            } else {
+                if (count == summary.length) {
+                    summary = Arrays.copyOf(summary, Math.max(16, count * 2));
+                }
+                summary[count++] = value;
+            }
+            pos = next + 1;
+        }
+        return Arrays.copyOf(summary, count);
     }
 
     private CachegrindDescription parseDescription(String line) throws IOException {
@@ -123,4 +349,128 @@ public final class CachegrindParser {
         }
         return desc;
     }
-}
\ No newline at end of file
+
+    /**
+     * The parsed result of a range of the file, consisting of whole
+     * <code>fl=</code> sections, except at the start of a window where the
+     * section of the previous window may go on.
+     */
+    private static class Chunk {
+        List<Section> sections = new ArrayList<>();
+        long[] summary;
+        // the section and function which the next lines belong to
+        Section section;
+        FunctionData function;
+
+        Chunk(Chunk previous) {
+            if (previous != null) {
+                section = previous.section;
+                function = previous.function;
+            }
+        }
+
+        void parse(ByteBuffer buf, int pos, int limit, int eventCount) throws IOException {
+            while (pos < limit) {
+                int end = lineEnd(buf, pos, limit);
+                int lineEnd = trimEnd(buf, pos, end);
+                if (pos < lineEnd) {
+                    byte first = buf.get(pos);
+                    if (first >= '0' && first <= '9') {
+                        if (function == null) {
+                            ValgrindParserUtils.fail(decode(buf, pos, lineEnd));
+                        }
+                        function.addLine(buf, pos, lineEnd, eventCount);
+                    } else if (startsWith(buf, pos, FN)) {
+                        if (section == null) {
+                            ValgrindParserUtils.fail(decode(buf, pos, lineEnd));
+                        }
+                        function = new FunctionData(decode(buf, pos + FN.length, lineEnd));
+                        section.functions.add(function);
+                    } else if (startsWith(buf, pos, FL)) {
+                        section = new Section(decode(buf, pos + FL.length, lineEnd));
+                        sections.add(section);
+                        function = null;
+                    } else if (startsWith(buf, pos, SUMMARY)) {
+                        summary = parseSummary(buf, pos, lineEnd);
+                    } else if (!startsWith(buf, pos, CMD)) {
+                        ValgrindParserUtils.fail(decode(buf, pos, lineEnd));
+                    }
+                }
+                pos = end + 1;
+            }
+        }
+    }
+
+    private static class Section {
+        String path;
+        List<FunctionData> functions = new ArrayList<>();
+
+        Section(String path) {
+            this.path = path;
+        }
+    }
+
+    private static class FunctionData {
+        String name;
+        int count;
+        int[] lineNumbers = new int[4];
+        long[] values = new long[0];
+
+        FunctionData(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Parses a line of the form <code>line value1 value2 ...</code> into
+         * the next row of the value matrix.
+         */
+        void addLine(ByteBuffer buf, int start, int end, int eventCount) throws IOException {
+            if (count == lineNumbers.length) {
+                lineNumbers = Arrays.copyOf(lineNumbers, count * 2);
+            }
+            if (values.length < (count + 1) * eventCount) {
+                values = Arrays.copyOf(values, Math.max(4, count * 2) * eventCount);
+            }
+
+            int row = count * eventCount;
+            int pos = start;
+            int lineNo = 0;
+            byte b;
+            while (pos < end && (b = buf.get(pos)) != ' ') {
+                if (b < '0' || b > '9') {
+                    ValgrindParserUtils.fail(decode(buf, start, end));
+                }
+                lineNo = lineNo * 10 + (b - '0');
+                pos++;
+            }
+
+            int index = 0;
+            while (pos < end) {
+                // skip the separator
+                pos++;
+                if (pos == end || buf.get(pos) == ' ') {
+                    continue;
+                }
+                if (index == eventCount) {
+                    // more values than events
+                    ValgrindParserUtils.fail(decode(buf, start, end));
+                }
+                long value = 0;
+                while (pos < end && (b = buf.get(pos)) != ' ') {
+                    if (b < '0' || b > '9') {
+                        ValgrindParserUtils.fail(decode(buf, start, end));
+                    }
+                    value = value * 10 + (b - '0');
+                    pos++;
+                }
+                values[row + index++] = value;
+            }
+            if (index == 0) {
+                ValgrindParserUtils.fail(decode(buf, start, end));
+            }
+            // missing trailing values are zero
+            Arrays.fill(values, row + index, row + eventCount, 0);
+            lineNumbers[count++] = lineNo;
+        }
+    }
+}
@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.cachegrind.model;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.cdt.core.model.CModelException;
@@ -26,8 +26,12 @@ import org.eclipse.core.runtime.IAdaptable;
 public class CachegrindFunction implements ICachegrindElement {
     private CachegrindFile parent;
     private String name;
-    private List<CachegrindLine> lines;
+    private int lineCount;
+    private int[] lineNumbers;
+    // values of all lines, one row of totals.length values per line
+    private long[] values;
     private long[] totals;
+    private CachegrindLine[] lines;
 
     private IAdaptable model;
 
@@ -36,7 +40,9 @@ public class CachegrindFunction implements ICachegrindElement {
     public CachegrindFunction(CachegrindFile parent, String name) {
         this.parent = parent;
         this.name = name;
-        lines = new ArrayList<>();
+        lineNumbers = new int[0];
+        values = new long[0];
+        totals = new long[0];
 
         IAdaptable pModel = parent.getModel();
         if (pModel instanceof ICElement) {
@@ -89,15 +95,28 @@ public class CachegrindFunction implements ICachegrindElement {
         return element;
     }
 
-    public void addLine(CachegrindLine line) {
-        long[] values = line.getValues();
-        if (totals == null) {
-            totals = new long[values.length];
-        }
-        for (int i = 0; i < values.length; i++) {
-            totals[i] += values[i];
+    /**
+     * Sets the line data of this function.
+     *
+     * @param lineNumbers the source line of each line, at least
+     *            <code>count</code> entries
+     * @param values the event counts of each line, packed into rows of
+     *            <code>eventCount</code> values
+     * @param count the number of lines
+     * @param eventCount the number of events per line
+     */
+    public void setLines(int[] lineNumbers, long[] values, int count, int eventCount) {
+        this.lineNumbers = lineNumbers;
+        this.values = values;
+        lineCount = count;
+        totals = new long[eventCount];
+        for (int i = 0; i < count; i++) {
+            int row = i * eventCount;
+            for (int j = 0; j < eventCount; j++) {
+                totals[j] += values[row + j];
+            }
         }
-        lines.add(line);
+        lines = null;
     }
 
     public String getName() {
@@ -114,14 +133,22 @@ public class CachegrindFunction implements ICachegrindElement {
     }
 
     public CachegrindLine[] getLines() {
-        return lines.toArray(new CachegrindLine[lines.size()]);
+        if (lines == null) {
+            int eventCount = totals.length;
+            lines = new CachegrindLine[lineCount];
+            for (int i = 0; i < lineCount; i++) {
+                lines[i] = new CachegrindLine(this, lineNumbers[i],
+                        Arrays.copyOfRange(values, i * eventCount, (i + 1) * eventCount));
+            }
+        }
+        return lines.clone();
     }
 
     @Override
     public ICachegrindElement[] getChildren() {
         ICachegrindElement[] children = null;
         // if there is only a summary don't return any children
-        if (lines.get(0).getLine() > 0) {
+        if (lineCount > 0 && lineNumbers[0] > 0) {
             children = getLines();
         }
         return children;
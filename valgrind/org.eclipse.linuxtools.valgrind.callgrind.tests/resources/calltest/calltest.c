@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+#include <stdio.h>
+
+static int bar(int n) {
+	int i, sum = 0;
+	for (i = 0; i < n; i++) {
+		sum += i;
+	}
+	return sum;
+}
+
+static int foo(int n) {
+	return bar(n) + bar(n / 2);
+}
+
+static int fact(int n) {
+	return n <= 1 ? 1 : n * fact(n - 1);
+}
+
+int main() {
+	int result = foo(1000) + foo(10) + bar(100) + fact(4);
+	printf("%d\n", result);
+	return 0;
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind.tests;
+
+import org.eclipse.linuxtools.internal.valgrind.callgrind.CallgrindPlugin;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindGraph;
+import org.eclipse.linuxtools.internal.valgrind.tests.AbstractValgrindTest;
+
+public abstract class AbstractCallgrindTest extends AbstractValgrindTest {
+
+    @Override
+    protected String getToolID() {
+        return CallgrindPlugin.TOOL_ID;
+    }
+
+    protected int getFunctionByName(CallgrindGraph graph, String name) {
+        int function = -1;
+        for (int i = 0; i < graph.getFunctionCount(); i++) {
+            if (graph.getFunctionName(i).equals(name)) {
+                function = i;
+            }
+        }
+        return function;
+    }
+
+}
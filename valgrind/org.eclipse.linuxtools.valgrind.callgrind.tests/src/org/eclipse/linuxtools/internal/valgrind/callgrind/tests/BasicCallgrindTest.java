@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.CallgrindNode;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.CallgrindViewPart;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindGraph;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindOutput;
+import org.eclipse.linuxtools.internal.valgrind.ui.ValgrindUIPlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BasicCallgrindTest extends AbstractCallgrindTest {
+
+    @Before
+    public void prep() throws Exception {
+        proj = createProjectAndBuild("calltest"); //$NON-NLS-1$
+    }
+
+    @Override
+    @After
+    public void tearDown() throws CoreException {
+        deleteProject(proj);
+        super.tearDown();
+    }
+
+    private CallgrindOutput launch() throws Exception {
+        ILaunchConfiguration config = createConfiguration(proj.getProject());
+        doLaunch(config, "testDefaults"); //$NON-NLS-1$
+
+        CallgrindViewPart view = (CallgrindViewPart) ValgrindUIPlugin
+                .getDefault().getView().getDynamicView();
+        assertEquals(1, view.getOutputs().length);
+        return view.getOutputs()[0];
+    }
+
+    @Test
+    public void testOutput() throws Exception {
+        CallgrindOutput output = launch();
+        assertEquals(Integer.valueOf(4321), output.getPid());
+        assertArrayEquals(new String[] { "Ir" }, output.getEvents()); //$NON-NLS-1$
+        assertArrayEquals(new long[] { 10592 }, output.getTotals());
+        assertEquals(5, output.getGraph().getFunctionCount());
+    }
+
+    @Test
+    public void testCosts() throws Exception {
+        CallgrindGraph graph = launch().getGraph();
+        int main = getFunctionByName(graph, "main"); //$NON-NLS-1$
+        int foo = getFunctionByName(graph, "foo"); //$NON-NLS-1$
+        int bar = getFunctionByName(graph, "bar"); //$NON-NLS-1$
+        assertEquals(32, graph.getSelfCost(main, 0));
+        assertEquals(10592, graph.getInclusiveCost(main, 0));
+        assertEquals(26, graph.getSelfCost(foo, 0));
+        assertEquals(9000, graph.getInclusiveCost(foo, 0));
+        assertEquals(9674, graph.getSelfCost(bar, 0));
+        assertEquals(9674, graph.getInclusiveCost(bar, 0));
+        assertEquals(29, graph.getLine(main));
+        assertEquals(13, graph.getLine(bar));
+    }
+
+    @Test
+    public void testCallCounts() throws Exception {
+        CallgrindGraph graph = launch().getGraph();
+        assertEquals(0, graph.getCallCount(getFunctionByName(graph, "main"))); //$NON-NLS-1$
+        assertEquals(2, graph.getCallCount(getFunctionByName(graph, "foo"))); //$NON-NLS-1$
+        assertEquals(5, graph.getCallCount(getFunctionByName(graph, "bar"))); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testRecursion() throws Exception {
+        CallgrindGraph graph = launch().getGraph();
+        int fact = getFunctionByName(graph, "fact"); //$NON-NLS-1$
+        // self-recursive calls must not be counted twice
+        assertEquals(60, graph.getSelfCost(fact, 0));
+        assertEquals(60, graph.getInclusiveCost(fact, 0));
+        assertEquals(4, graph.getCallCount(fact));
+    }
+
+    @Test
+    public void testUnknownFile() throws Exception {
+        CallgrindGraph graph = launch().getGraph();
+        int printf = getFunctionByName(graph, "printf"); //$NON-NLS-1$
+        assertEquals("???", graph.getFile(printf)); //$NON-NLS-1$
+        assertEquals("/usr/lib64/libc-2.20.so", graph.getObject(printf)); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testHotPath() throws Exception {
+        CallgrindGraph graph = launch().getGraph();
+        int main = getFunctionByName(graph, "main"); //$NON-NLS-1$
+        int foo = getFunctionByName(graph, "foo"); //$NON-NLS-1$
+        int bar = getFunctionByName(graph, "bar"); //$NON-NLS-1$
+        assertArrayEquals(new int[] { main, foo, bar }, graph.getHotPath(main, 0));
+    }
+
+    @Test
+    public void testCallers() throws Exception {
+        CallgrindOutput output = launch();
+        CallgrindGraph graph = output.getGraph();
+        int bar = getFunctionByName(graph, "bar"); //$NON-NLS-1$
+        CallgrindNode node = new CallgrindNode(output, output, bar, -1, true);
+        assertTrue(node.hasChildren());
+        CallgrindNode[] callers = node.getChildren();
+        assertEquals(2, callers.length);
+        long calls = 0;
+        for (CallgrindNode caller : callers) {
+            assertTrue(caller.isCall());
+            calls += caller.getCalls();
+        }
+        assertEquals(5, calls);
+
+        CallgrindNode callees = new CallgrindNode(output, output, bar, -1, false);
+        assertFalse(callees.hasChildren());
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.linuxtools.internal.valgrind.callgrind.CallgrindParser;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindGraph;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CallgrindParserTest {
+
+    private static final String PART_1 = "# callgrind format\n" //$NON-NLS-1$
+            + "version: 1\n" //$NON-NLS-1$
+            + "pid: 1770\n" //$NON-NLS-1$
+            + "cmd: ./calltest\n" //$NON-NLS-1$
+            + "part: 1\n" //$NON-NLS-1$
+            + "positions: line\n" //$NON-NLS-1$
+            + "events: Ir Dr\n" //$NON-NLS-1$
+            + "summary: 104 5\n" //$NON-NLS-1$
+            + "ob=(1) /src/calltest\n" //$NON-NLS-1$
+            + "fl=(1) /src/calltest.c\n" //$NON-NLS-1$
+            + "fn=(1) main\n" //$NON-NLS-1$
+            + "29 4\n" //$NON-NLS-1$
+            + "cfn=(2) foo\n" //$NON-NLS-1$
+            + "calls=2 21\n" //$NON-NLS-1$
+            + "+1 100 5\n" //$NON-NLS-1$
+            + "fn=(2)\n" //$NON-NLS-1$
+            + "21 100 5\n"; //$NON-NLS-1$
+
+    // the names defined by the first part are used compressed
+    private static final String PART_2 = "# callgrind format\n" //$NON-NLS-1$
+            + "version: 1\n" //$NON-NLS-1$
+            + "pid: 1770\n" //$NON-NLS-1$
+            + "cmd: ./calltest\n" //$NON-NLS-1$
+            + "part: 2\n" //$NON-NLS-1$
+            + "positions: line\n" //$NON-NLS-1$
+            + "events: Ir Dr\n" //$NON-NLS-1$
+            + "summary: 50 2\n" //$NON-NLS-1$
+            + "ob=(1)\n" //$NON-NLS-1$
+            + "fl=(1)\n" //$NON-NLS-1$
+            + "fn=(2)\n" //$NON-NLS-1$
+            + "+22 40 2\n" //$NON-NLS-1$
+            + "fn=(1)\n" //$NON-NLS-1$
+            + "30 10\n" //$NON-NLS-1$
+            + "cfn=(2)\n" //$NON-NLS-1$
+            + "calls=1 21\n" //$NON-NLS-1$
+            + "* 40 2\n"; //$NON-NLS-1$
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        // the PID is taken from the file name
+        file = new File(Files.createTempDirectory("callgrind").toFile(), "callgrind_1770.txt"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+    private CallgrindOutput parse(String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        CallgrindOutput output = new CallgrindOutput();
+        CallgrindParser.getParser().parse(output, file);
+        return output;
+    }
+
+    private static int getFunction(CallgrindGraph graph, String name) {
+        for (int i = 0; i < graph.getFunctionCount(); i++) {
+            if (graph.getFunctionName(i).equals(name)) {
+                return i;
+            }
+        }
+        throw new AssertionError(name);
+    }
+
+    @Test
+    public void testParts() throws IOException {
+        CallgrindOutput output = parse(PART_1 + PART_2);
+        assertArrayEquals(new String[] { "Ir", "Dr" }, output.getEvents()); //$NON-NLS-1$ //$NON-NLS-2$
+        assertArrayEquals(new long[] { 154, 7 }, output.getTotals());
+
+        // the costs and calls of both parts are added up
+        CallgrindGraph graph = output.getGraph();
+        assertEquals(2, graph.getFunctionCount());
+        int main = getFunction(graph, "main"); //$NON-NLS-1$
+        int foo = getFunction(graph, "foo"); //$NON-NLS-1$
+        assertEquals(14, graph.getSelfCost(main, 0));
+        assertEquals(154, graph.getInclusiveCost(main, 0));
+        assertEquals(7, graph.getInclusiveCost(main, 1));
+        assertEquals(140, graph.getSelfCost(foo, 0));
+        assertEquals(3, graph.getCallCount(foo));
+    }
+
+    @Test
+    public void testPartWithoutTotals() throws IOException {
+        // the totals are then those of the graph
+        CallgrindOutput output = parse(PART_1 + PART_2.replace("summary: 50 2\n", "") //$NON-NLS-1$ //$NON-NLS-2$
+                .replace("30 10", "30 20")); //$NON-NLS-1$ //$NON-NLS-2$
+        assertArrayEquals(new long[] { 164, 7 }, output.getTotals());
+    }
+
+    @Test
+    public void testDifferentEvents() {
+        try {
+            parse(PART_1 + PART_2.replace("events: Ir Dr", "events: Ir Dr Dw")); //$NON-NLS-1$ //$NON-NLS-2$
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not supported")); //$NON-NLS-1$
+        }
+    }
+}
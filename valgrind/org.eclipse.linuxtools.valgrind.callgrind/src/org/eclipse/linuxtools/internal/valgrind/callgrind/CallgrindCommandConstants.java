@@ -0,0 +1,20 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+public final class CallgrindCommandConstants {
+    // Valgrind program arguments
+    public static final String OPT_CALLGRIND_OUTFILE = "--callgrind-out-file"; //$NON-NLS-1$
+    public static final String OPT_DUMP_INSTR = "--dump-instr"; //$NON-NLS-1$
+    public static final String OPT_COLLECT_JUMPS = "--collect-jumps"; //$NON-NLS-1$
+    public static final String OPT_CACHE_SIM = "--cache-sim"; //$NON-NLS-1$
+    public static final String OPT_BRANCH_SIM = "--branch-sim"; //$NON-NLS-1$
+}
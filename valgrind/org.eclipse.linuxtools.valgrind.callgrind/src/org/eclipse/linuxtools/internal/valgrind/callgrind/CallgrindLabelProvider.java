@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+import java.text.DecimalFormat;
+
+import org.eclipse.debug.ui.DebugUITools;
+import org.eclipse.debug.ui.IDebugUIConstants;
+import org.eclipse.jface.viewers.CellLabelProvider;
+import org.eclipse.jface.viewers.ViewerCell;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindOutput;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.ui.plugin.AbstractUIPlugin;
+
+public class CallgrindLabelProvider extends CellLabelProvider {
+
+    private static final String NAME_NOT_FOUND_SYMBOL = "???"; //$NON-NLS-1$
+
+    // columns of the view
+    static final int LOCATION = 0;
+    static final int INCLUSIVE = 1;
+    static final int SELF = 2;
+    static final int CALLS = 3;
+
+    protected DecimalFormat df = new DecimalFormat("#,##0"); //$NON-NLS-1$
+
+    private static final Image FUNC_IMG = AbstractUIPlugin.imageDescriptorFromPlugin(CallgrindPlugin.PLUGIN_ID, "icons/function_obj.gif").createImage(); //$NON-NLS-1$
+
+    @Override
+    public void update(ViewerCell cell) {
+        Object element = cell.getElement();
+        int index = cell.getColumnIndex();
+
+        if (element instanceof CallgrindNode) {
+            CallgrindNode node = (CallgrindNode) element;
+            if (index != LOCATION && node.getOutput().getGraph().getEventCount() == 0) {
+                return;
+            }
+            switch (index) {
+            case LOCATION:
+                cell.setText(node.getName());
+                cell.setImage(FUNC_IMG);
+                break;
+            case INCLUSIVE:
+                cell.setText(df.format(node.getInclusiveCost(0)));
+                break;
+            case SELF:
+                // the self cost is not split up by caller
+                cell.setText(node.isCall() ? "" : df.format(node.getSelfCost(0))); //$NON-NLS-1$
+                break;
+            case CALLS:
+                cell.setText(df.format(node.getCalls()));
+                break;
+            default:
+                break;
+            }
+        } else if (element instanceof CallgrindOutput) {
+            CallgrindOutput output = (CallgrindOutput) element;
+            if (index == LOCATION) {
+                cell.setText(NLS.bind(Messages.getString("CallgrindViewPart.Total_PID"), output.getPid())); //$NON-NLS-1$
+                cell.setImage(DebugUITools.getImage(IDebugUIConstants.IMG_OBJS_REGISTER));
+            } else if ((index == INCLUSIVE || index == SELF) && output.getTotals().length > 0) {
+                cell.setText(df.format(output.getTotals()[0]));
+            }
+        }
+    }
+
+    @Override
+    public String getToolTipText(Object element) {
+        String tooltip = null;
+        if (element instanceof CallgrindNode) {
+            CallgrindNode node = (CallgrindNode) element;
+            if (node.getName().contains(NAME_NOT_FOUND_SYMBOL)) {
+                tooltip = Messages.getString("CallgrindViewPart.Tooltip_no_debug_info"); //$NON-NLS-1$
+            } else {
+                tooltip = node.getFile();
+            }
+        }
+        return tooltip;
+    }
+}
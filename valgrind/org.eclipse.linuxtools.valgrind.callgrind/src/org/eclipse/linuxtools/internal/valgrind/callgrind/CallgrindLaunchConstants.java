@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+public final class CallgrindLaunchConstants {
+    // LaunchConfiguration attributes
+    public static final String ATTR_CALLGRIND_DUMP_INSTR = CallgrindPlugin.PLUGIN_ID + ".DUMP_INSTR"; //$NON-NLS-1$
+    public static final String ATTR_CALLGRIND_COLLECT_JUMPS = CallgrindPlugin.PLUGIN_ID + ".COLLECT_JUMPS"; //$NON-NLS-1$
+    public static final String ATTR_CALLGRIND_CACHE_SIM = CallgrindPlugin.PLUGIN_ID + ".CACHE_SIM"; //$NON-NLS-1$
+    public static final String ATTR_CALLGRIND_BRANCH_SIM = CallgrindPlugin.PLUGIN_ID + ".BRANCH_SIM"; //$NON-NLS-1$
+
+    public static final boolean DEFAULT_CALLGRIND_DUMP_INSTR = false;
+    public static final boolean DEFAULT_CALLGRIND_COLLECT_JUMPS = false;
+    public static final boolean DEFAULT_CALLGRIND_CACHE_SIM = false;
+    public static final boolean DEFAULT_CALLGRIND_BRANCH_SIM = false;
+}
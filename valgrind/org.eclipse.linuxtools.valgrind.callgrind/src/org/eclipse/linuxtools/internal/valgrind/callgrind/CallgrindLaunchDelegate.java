@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.eclipse.cdt.debug.core.ICDTLaunchConfigurationConstants;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindOutput;
+import org.eclipse.linuxtools.valgrind.launch.IValgrindLaunchDelegate;
+import org.eclipse.linuxtools.valgrind.ui.IValgrindToolView;
+import org.osgi.framework.Version;
+
+public class CallgrindLaunchDelegate implements IValgrindLaunchDelegate {
+    protected static final String OUT_PREFIX = "callgrind_"; //$NON-NLS-1$
+    protected static final String OUT_SUFFIX = ".txt"; //$NON-NLS-1$
+    protected static final String OUT_FILE = OUT_PREFIX + "%p" + OUT_SUFFIX; //$NON-NLS-1$
+    protected static final FileFilter CALLGRIND_FILTER = new FileFilter() {
+        @Override
+        public boolean accept(File pathname) {
+            // files of intermediate dumps get a numeric suffix and are not read
+            return pathname.getName().startsWith(OUT_PREFIX) && pathname.getName().endsWith(OUT_SUFFIX);
+        }
+    };
+
+    private static final String EQUALS = "="; //$NON-NLS-1$
+    private static final String NO = "no"; //$NON-NLS-1$
+    private static final String YES = "yes"; //$NON-NLS-1$
+    private CallgrindOutput[] outputs;
+
+    @Override
+    public void handleLaunch(ILaunchConfiguration config, ILaunch launch, IPath logDir, IProgressMonitor monitor) throws CoreException {
+        try {
+            monitor.beginTask(Messages.getString("CallgrindLaunchDelegate.Parsing_Callgrind_Output"), 3); //$NON-NLS-1$
+
+            File[] callgrindOutputs = logDir.toFile().listFiles(CALLGRIND_FILTER);
+
+            if (callgrindOutputs.length > 0) {
+                parseOutput(callgrindOutputs, monitor);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            abort(Messages.getString("CallgrindLaunchDelegate.Error_parsing_output"), e, ICDTLaunchConfigurationConstants.ERR_INTERNAL_ERROR); //$NON-NLS-1$
+        } finally {
+            monitor.done();
+        }
+    }
+
+    private void parseOutput(File[] callgrindOutputs, IProgressMonitor monitor) throws IOException {
+        outputs = new CallgrindOutput[callgrindOutputs.length];
+
+        for (int i = 0; i < callgrindOutputs.length; i++) {
+            outputs[i] = new CallgrindOutput();
+            CallgrindParser.getParser().parse(outputs[i], callgrindOutputs[i]);
+        }
+        monitor.worked(2);
+    }
+
+    @Override
+    public String[] getCommandArray(ILaunchConfiguration config, Version ver, IPath logDir) throws CoreException {
+        ArrayList<String> opts = new ArrayList<>();
+
+        opts.add(CallgrindCommandConstants.OPT_CALLGRIND_OUTFILE + EQUALS + logDir.append(OUT_FILE).toOSString());
+        opts.add(CallgrindCommandConstants.OPT_DUMP_INSTR + EQUALS + (config.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_DUMP_INSTR, CallgrindLaunchConstants.DEFAULT_CALLGRIND_DUMP_INSTR) ? YES : NO));
+        opts.add(CallgrindCommandConstants.OPT_COLLECT_JUMPS + EQUALS + (config.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_COLLECT_JUMPS, CallgrindLaunchConstants.DEFAULT_CALLGRIND_COLLECT_JUMPS) ? YES : NO));
+        opts.add(CallgrindCommandConstants.OPT_CACHE_SIM + EQUALS + (config.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_CACHE_SIM, CallgrindLaunchConstants.DEFAULT_CALLGRIND_CACHE_SIM) ? YES : NO));
+        opts.add(CallgrindCommandConstants.OPT_BRANCH_SIM + EQUALS + (config.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_BRANCH_SIM, CallgrindLaunchConstants.DEFAULT_CALLGRIND_BRANCH_SIM) ? YES : NO));
+        return opts.toArray(new String[opts.size()]);
+    }
+
+    @Override
+    public void initializeView(IValgrindToolView view, String contentDescription, IProgressMonitor monitor)
+            throws CoreException {
+        if (outputs != null && view instanceof CallgrindViewPart) {
+            ((CallgrindViewPart) view).setOutputs(outputs);
+        }
+        monitor.worked(1);
+    }
+
+    /**
+     * Throws a core exception with an error status object built from the given
+     * message, lower level exception, and error code.
+     *
+     * @param message
+     *            the status message
+     * @param exception
+     *            lower level exception associated with the error, or
+     *            <code>null</code> if none
+     * @param code
+     *            error code
+     */
+    private void abort(String message, Throwable exception, int code) throws CoreException {
+        IStatus status;
+        if (exception != null) {
+            MultiStatus multiStatus = new MultiStatus(CallgrindPlugin.PLUGIN_ID, code, message, exception);
+            multiStatus.add(new Status(IStatus.ERROR, CallgrindPlugin.PLUGIN_ID, code, exception.getLocalizedMessage(), exception));
+            status= multiStatus;
+        } else {
+            status= new Status(IStatus.ERROR, CallgrindPlugin.PLUGIN_ID, code, message, null);
+        }
+        throw new CoreException(status);
+    }
+
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindGraph;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindOutput;
+
+/**
+ * A function in the call tree of {@link CallgrindViewPart}. The children are
+ * created when first requested, so the tree can follow recursive calls as far
+ * as the user expands it.
+ */
+public class CallgrindNode {
+    private final CallgrindOutput output;
+    private final Object parent;
+    private final int function;
+    private final int call;
+    private final boolean callers;
+    private CallgrindNode[] children;
+
+    /**
+     * @param output the output of the function
+     * @param parent the parent element in the tree
+     * @param function the function index in the output's graph
+     * @param call the call that leads to this node, or -1 for a top-level
+     *            function
+     * @param callers whether the children are the callers rather than the
+     *            callees of the function
+     */
+    public CallgrindNode(CallgrindOutput output, Object parent, int function, int call, boolean callers) {
+        this.output = output;
+        this.parent = parent;
+        this.function = function;
+        this.call = call;
+        this.callers = callers;
+    }
+
+    public CallgrindNode[] getChildren() {
+        if (children == null) {
+            CallgrindGraph graph = output.getGraph();
+            int[] calls = callers ? graph.getCallers(function) : graph.getCallees(function);
+            children = new CallgrindNode[calls.length];
+            for (int i = 0; i < calls.length; i++) {
+                int child = callers ? graph.getCallSource(calls[i]) : graph.getCallTarget(calls[i]);
+                children[i] = new CallgrindNode(output, this, child, calls[i], callers);
+            }
+        }
+        return children;
+    }
+
+    public boolean hasChildren() {
+        CallgrindGraph graph = output.getGraph();
+        return (callers ? graph.getCallerCount(function) : graph.getCalleeCount(function)) > 0;
+    }
+
+    public Object getParent() {
+        return parent;
+    }
+
+    public CallgrindOutput getOutput() {
+        return output;
+    }
+
+    public int getFunction() {
+        return function;
+    }
+
+    /**
+     * @return whether this node is reached through a call rather than being
+     *         a top-level function
+     */
+    public boolean isCall() {
+        return call >= 0;
+    }
+
+    public String getName() {
+        return output.getGraph().getFunctionName(function);
+    }
+
+    public String getFile() {
+        return output.getGraph().getFile(function);
+    }
+
+    /**
+     * @return the inclusive cost of the function, or of the call for nodes
+     *         reached through a call
+     */
+    public long getInclusiveCost(int event) {
+        CallgrindGraph graph = output.getGraph();
+        return call < 0 ? graph.getInclusiveCost(function, event) : graph.getCallCost(call, event);
+    }
+
+    public long getSelfCost(int event) {
+        return output.getGraph().getSelfCost(function, event);
+    }
+
+    /**
+     * @return how often the function was called, or how often the call was
+     *         made for nodes reached through a call
+     */
+    public long getCalls() {
+        CallgrindGraph graph = output.getGraph();
+        return call < 0 ? graph.getCallCount(function) : graph.getCalls(call);
+    }
+}
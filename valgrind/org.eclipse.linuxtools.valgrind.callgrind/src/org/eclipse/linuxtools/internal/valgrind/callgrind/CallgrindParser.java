@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindGraphBuilder;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindOutput;
+import org.eclipse.linuxtools.valgrind.core.ValgrindParserUtils;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Parser for Callgrind output files.
+ *
+ * Supports the compressed format Callgrind writes by default: names given as
+ * <code>(id) name</code> once and as <code>(id)</code> afterwards, and
+ * positions relative to the previous cost line (<code>+n</code>,
+ * <code>-n</code> and <code>*</code>). The file is scanned as bytes, only
+ * names are decoded into strings.
+ *
+ * The parts of a file with several dumps, each starting with a
+ * <code>part:</code> line, are added up into a single graph. They must count
+ * the same events.
+ */
+public final class CallgrindParser {
+    private static final String LINE = "line"; //$NON-NLS-1$
+    private static final String WHITESPACE = "\\s+"; //$NON-NLS-1$
+
+    private static final byte[] CALLS = "calls=".getBytes(); //$NON-NLS-1$
+    private static final byte[] CFI = "cfi=".getBytes(); //$NON-NLS-1$
+    private static final byte[] CFL = "cfl=".getBytes(); //$NON-NLS-1$
+    private static final byte[] CFN = "cfn=".getBytes(); //$NON-NLS-1$
+    private static final byte[] CMD = "cmd:".getBytes(); //$NON-NLS-1$
+    private static final byte[] COB = "cob=".getBytes(); //$NON-NLS-1$
+    private static final byte[] EVENTS = "events:".getBytes(); //$NON-NLS-1$
+    private static final byte[] FE = "fe=".getBytes(); //$NON-NLS-1$
+    private static final byte[] FI = "fi=".getBytes(); //$NON-NLS-1$
+    private static final byte[] FL = "fl=".getBytes(); //$NON-NLS-1$
+    private static final byte[] FN = "fn=".getBytes(); //$NON-NLS-1$
+    private static final byte[] JCND = "jcnd=".getBytes(); //$NON-NLS-1$
+    private static final byte[] JUMP = "jump=".getBytes(); //$NON-NLS-1$
+    private static final byte[] OB = "ob=".getBytes(); //$NON-NLS-1$
+    private static final byte[] PART = "part:".getBytes(); //$NON-NLS-1$
+    private static final byte[] POSITIONS = "positions:".getBytes(); //$NON-NLS-1$
+    private static final byte[] SUMMARY = "summary:".getBytes(); //$NON-NLS-1$
+    private static final byte[] TOTALS = "totals:".getBytes(); //$NON-NLS-1$
+
+    private static final String UNKNOWN = "???"; //$NON-NLS-1$
+
+    // kinds of names
+    private static final int OBJECT = 0;
+    private static final int FILE = 1;
+    private static final int NAME = 2;
+
+    protected static CallgrindParser instance;
+
+    private CallgrindParser() {
+    }
+
+    public static CallgrindParser getParser() {
+        if (instance == null) {
+            instance = new CallgrindParser();
+        }
+        return instance;
+    }
+
+    public void parse(CallgrindOutput output, File cgOut) throws IOException {
+        output.setPid(ValgrindParserUtils.parsePID(cgOut.getName(), CallgrindLaunchDelegate.OUT_PREFIX));
+        try (InputStream in = new FileInputStream(cgOut)) {
+            new Reader(in, output).parse();
+        }
+    }
+
+    /**
+     * The state of parsing a single file.
+     */
+    private static class Reader {
+        private final InputStream in;
+        private final CallgrindOutput output;
+        private final Charset charset = Charset.defaultCharset();
+
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int limit;
+        private byte[] line = new byte[256];
+        private int length;
+
+        private CallgrindGraphBuilder builder;
+        private String[] events;
+        private int lineIndex = 0;
+        private long[] lastPosition = new long[1];
+        private long[] nextPosition = new long[1];
+        private long[] costs = new long[0];
+
+        // compressed name ids of each kind, mapped to the builder's indices
+        private int[][] ids = new int[3][0];
+
+        private int object = -1;
+        private int file = -1;
+        private int inlineFile = -1;
+        private int function = -1;
+        private int calledObject = -1;
+        private int calledFile = -1;
+        private int calledName = -1;
+
+        private boolean callPending;
+        private long callCount;
+        private int callTarget;
+        private boolean jumpPending;
+
+        private int parts;
+        // totals of the previous parts, and of the current one if given
+        private long[] totals;
+        private long[] partTotals;
+        private boolean missingTotals;
+
+        Reader(InputStream in, CallgrindOutput output) {
+            this.in = in;
+            this.output = output;
+        }
+
+        void parse() throws IOException {
+            while (readLine()) {
+                if (length == 0 || line[0] == '#') {
+                    continue;
+                }
+                byte first = line[0];
+                if ((first >= '0' && first <= '9') || first == '+' || first == '-' || first == '*') {
+                    parseCostLine();
+                } else if (startsWith(FN)) {
+                    int name = resolve(FN.length, NAME);
+                    function = getBuilder().getFunction(getObject(), getFile(), name);
+                    inlineFile = file;
+                } else if (startsWith(CALLS)) {
+                    parseCallLine();
+                } else if (startsWith(CFN)) {
+                    calledName = resolve(CFN.length, NAME);
+                } else if (startsWith(CFI) || startsWith(CFL)) {
+                    calledFile = resolve(CFI.length, FILE);
+                } else if (startsWith(COB)) {
+                    calledObject = resolve(COB.length, OBJECT);
+                } else if (startsWith(FI) || startsWith(FE)) {
+                    inlineFile = resolve(FI.length, FILE);
+                } else if (startsWith(FL)) {
+                    file = resolve(FL.length, FILE);
+                    inlineFile = file;
+                } else if (startsWith(OB)) {
+                    object = resolve(OB.length, OBJECT);
+                } else if (startsWith(JUMP) || startsWith(JCND)) {
+                    // the next line is the position of the jump
+                    jumpPending = true;
+                } else if (startsWith(PART)) {
+                    if (++parts > 1) {
+                        startPart();
+                    }
+                } else if (startsWith(EVENTS)) {
+                    String[] partEvents = value(EVENTS.length).split(WHITESPACE);
+                    if (builder != null) {
+                        // the costs of all parts go into the same graph
+                        if (!Arrays.equals(events, partEvents)) {
+                            throw new IOException(NLS.bind(Messages.getString("CallgrindParser.Different_events_unsupported"), //$NON-NLS-1$
+                                    value(EVENTS.length)));
+                        }
+                    } else {
+                        events = partEvents;
+                        costs = new long[events.length];
+                        output.setEvents(events);
+                    }
+                } else if (startsWith(POSITIONS)) {
+                    String[] positions = value(POSITIONS.length).split(WHITESPACE);
+                    lineIndex = Arrays.asList(positions).indexOf(LINE);
+                    lastPosition = new long[positions.length];
+                    nextPosition = new long[positions.length];
+                } else if (startsWith(TOTALS) || startsWith(SUMMARY)) {
+                    int start = startsWith(TOTALS) ? TOTALS.length : SUMMARY.length;
+                    parseCosts(start);
+                    partTotals = Arrays.copyOf(costs, costs.length);
+                } else if (startsWith(CMD)) {
+                    output.setCmd(value(CMD.length));
+                }
+                // other header lines carry nothing we display
+            }
+
+            CallgrindGraphBuilder graph = getBuilder();
+            endPart();
+            // the graph has the totals of any part which does not give them
+            output.setTotals(missingTotals ? graph.getTotals() : totals);
+            output.setGraph(graph.build());
+        }
+
+        private void endPart() {
+            if (partTotals == null) {
+                missingTotals = true;
+            } else if (totals == null) {
+                totals = partTotals;
+            } else {
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += partTotals[i];
+                }
+            }
+            partTotals = null;
+        }
+
+        /**
+         * Ends the current part. The positions and the current names start
+         * again, but the compressed names stay defined.
+         */
+        private void startPart() {
+            endPart();
+            Arrays.fill(lastPosition, 0);
+            object = -1;
+            file = -1;
+            inlineFile = -1;
+            function = -1;
+            calledObject = -1;
+            calledFile = -1;
+            calledName = -1;
+            callPending = false;
+            jumpPending = false;
+        }
+
+        private void parseCostLine() throws IOException {
+            int pos = parsePosition(0, nextPosition);
+            long[] swap = lastPosition;
+            lastPosition = nextPosition;
+            nextPosition = swap;
+            if (jumpPending) {
+                jumpPending = false;
+                return;
+            }
+            if (function < 0) {
+                fail();
+            }
+            parseCosts(pos);
+            if (callPending) {
+                builder.addCall(function, callTarget, callCount, costs);
+                callPending = false;
+                // the called object and file only apply to a single call
+                calledObject = -1;
+                calledFile = -1;
+            } else {
+                int lineNo = 0;
+                if (lineIndex >= 0 && inlineFile == file) {
+                    lineNo = (int) lastPosition[lineIndex];
+                }
+                builder.addCost(function, lineNo, costs);
+            }
+        }
+
+        private void parseCallLine() throws IOException {
+            if (function < 0 || calledName < 0) {
+                fail();
+            }
+            int pos = CALLS.length;
+            int end = pos;
+            long count = 0;
+            while (end < length && line[end] >= '0' && line[end] <= '9') {
+                count = count * 10 + (line[end++] - '0');
+            }
+            if (end == pos) {
+                fail();
+            }
+            // the target position is not used, but must be well formed
+            parsePosition(end, nextPosition);
+
+            callCount = count;
+            callTarget = builder.getFunction(calledObject >= 0 ? calledObject : getObject(),
+                    calledFile >= 0 ? calledFile : getFile(), calledName);
+            callPending = true;
+        }
+
+        /**
+         * Parses a position, which is relative to the previous cost line if
+         * compressed.
+         *
+         * @return the offset after the position
+         */
+        private int parsePosition(int pos, long[] result) throws IOException {
+            for (int i = 0; i < result.length; i++) {
+                while (pos < length && line[pos] == ' ') {
+                    pos++;
+                }
+                if (pos == length) {
+                    fail();
+                }
+                byte b = line[pos];
+                if (b == '*') {
+                    result[i] = lastPosition[i];
+                    pos++;
+                } else if (b == '+' || b == '-') {
+                    int start = ++pos;
+                    long value = 0;
+                    while (pos < length && line[pos] >= '0' && line[pos] <= '9') {
+                        value = value * 10 + (line[pos++] - '0');
+                    }
+                    if (pos == start) {
+                        fail();
+                    }
+                    result[i] = b == '+' ? lastPosition[i] + value : lastPosition[i] - value;
+                } else if (b == '0' && pos + 1 < length && (line[pos + 1] == 'x' || line[pos + 1] == 'X')) {
+                    pos += 2;
+                    int start = pos;
+                    long value = 0;
+                    int digit;
+                    while (pos < length && (digit = Character.digit(line[pos], 16)) >= 0) {
+                        value = value * 16 + digit;
+                        pos++;
+                    }
+                    if (pos == start) {
+                        fail();
+                    }
+                    result[i] = value;
+                } else if (b >= '0' && b <= '9') {
+                    long value = 0;
+                    while (pos < length && line[pos] >= '0' && line[pos] <= '9') {
+                        value = value * 10 + (line[pos++] - '0');
+                    }
+                    result[i] = value;
+                } else {
+                    fail();
+                }
+            }
+            return pos;
+        }
+
+        /**
+         * Parses the event counts from <code>pos</code> on into
+         * {@link #costs}, missing trailing counts are zero.
+         */
+        private void parseCosts(int pos) throws IOException {
+            int index = 0;
+            while (pos < length) {
+                byte b = line[pos];
+                if (b == ' ' || b == '\t') {
+                    pos++;
+                    continue;
+                }
+                if (index == costs.length || b < '0' || b > '9') {
+                    fail();
+                }
+                long value = 0;
+                while (pos < length && line[pos] >= '0' && line[pos] <= '9') {
+                    value = value * 10 + (line[pos++] - '0');
+                }
+                costs[index++] = value;
+            }
+            Arrays.fill(costs, index, costs.length, 0);
+        }
+
+        /**
+         * Resolves a name that may be compressed to its index in the
+         * builder.
+         *
+         * @param table the compressed ids of the kind of name
+         * @param pos the start of the name
+         * @param kind the kind of name
+         * @return the index of the name
+         */
+        private int resolve(int pos, int kind) throws IOException {
+            if (pos < length && line[pos] == '(') {
+                int end = pos + 1;
+                int id = 0;
+                while (end < length && line[end] >= '0' && line[end] <= '9') {
+                    id = id * 10 + (line[end++] - '0');
+                }
+                if (end == pos + 1 || end == length || line[end] != ')') {
+                    fail();
+                }
+                end++;
+                if (end < length) {
+                    // definition
+                    while (end < length && line[end] == ' ') {
+                        end++;
+                    }
+                    int[] table = ids[kind];
+                    if (id >= table.length) {
+                        int size = table.length;
+                        table = Arrays.copyOf(table, Math.max(id + 1, size * 2));
+                        Arrays.fill(table, size, table.length, -1);
+                        ids[kind] = table;
+                    }
+                    table[id] = add(kind, decode(end, length));
+                    return table[id];
+                }
+                if (id >= ids[kind].length || ids[kind][id] < 0) {
+                    // reference to an undefined name
+                    fail();
+                }
+                return ids[kind][id];
+            }
+            return add(kind, decode(pos, length));
+        }
+
+        private int add(int kind, String name) throws IOException {
+            CallgrindGraphBuilder graph = getBuilder();
+            switch (kind) {
+            case OBJECT:
+                return graph.addObject(name);
+            case FILE:
+                return graph.addFile(name);
+            default:
+                return graph.addName(name);
+            }
+        }
+
+        private int getObject() throws IOException {
+            if (object < 0) {
+                object = getBuilder().addObject(UNKNOWN);
+            }
+            return object;
+        }
+
+        private int getFile() throws IOException {
+            if (file < 0) {
+                file = getBuilder().addFile(UNKNOWN);
+                inlineFile = file;
+            }
+            return file;
+        }
+
+        private CallgrindGraphBuilder getBuilder() {
+            if (builder == null) {
+                if (events == null) {
+                    events = new String[0];
+                    output.setEvents(events);
+                }
+                builder = new CallgrindGraphBuilder(events.length);
+            }
+            return builder;
+        }
+
+        private boolean startsWith(byte[] prefix) {
+            if (length < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (line[i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String value(int pos) {
+            return decode(pos, length).trim();
+        }
+
+        private String decode(int start, int end) {
+            return new String(line, start, end - start, charset);
+        }
+
+        private void fail() throws IOException {
+            ValgrindParserUtils.fail(decode(0, length));
+        }
+
+        /**
+         * Reads the next line into {@link #line}.
+         *
+         * @return false at the end of the file
+         */
+        private boolean readLine() throws IOException {
+            length = 0;
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer);
+                    position = 0;
+                    if (limit < 0) {
+                        limit = 0;
+                        return length > 0;
+                    }
+                }
+                byte b = buffer[position++];
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+/**
+ * The activator class controls the plug-in life cycle
+ */
+public class CallgrindPlugin {
+
+    // The plug-in ID
+    public static final String PLUGIN_ID = "org.eclipse.linuxtools.valgrind.callgrind"; //$NON-NLS-1$
+
+    public static final String TOOL_ID = "org.eclipse.linuxtools.valgrind.launch.callgrind"; //$NON-NLS-1$
+}
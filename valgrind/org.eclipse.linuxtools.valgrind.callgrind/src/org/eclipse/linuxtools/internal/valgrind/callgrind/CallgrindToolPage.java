@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.ui.AbstractLaunchConfigurationTab;
+import org.eclipse.linuxtools.internal.valgrind.launch.LaunchConfigurationConstants;
+import org.eclipse.linuxtools.valgrind.launch.IValgrindToolPage;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.events.SelectionListener;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.osgi.framework.Version;
+
+public class CallgrindToolPage extends AbstractLaunchConfigurationTab
+        implements IValgrindToolPage {
+    // Callgrind controls
+    private Button dumpInstrButton;
+    private Button collectJumpsButton;
+    private Button cacheButton;
+    private Button branchButton;
+
+    private boolean isInitializing = false;
+    private SelectionListener selectListener = new SelectionAdapter() {
+        @Override
+        public void widgetSelected(SelectionEvent e) {
+            updateLaunchConfigurationDialog();
+        }
+    };
+
+    @Override
+    public void createControl(Composite parent) {
+        Composite top = new Composite(parent, SWT.NONE);
+        top.setLayout(new GridLayout());
+        top.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+        dumpInstrButton = new Button(top, SWT.CHECK);
+        dumpInstrButton.setText(Messages.getString("CallgrindToolPage.Dump_Instructions")); //$NON-NLS-1$
+        dumpInstrButton.addSelectionListener(selectListener);
+
+        collectJumpsButton = new Button(top, SWT.CHECK);
+        collectJumpsButton.setText(Messages.getString("CallgrindToolPage.Collect_Jumps")); //$NON-NLS-1$
+        collectJumpsButton.addSelectionListener(selectListener);
+
+        // Event options
+        cacheButton = new Button(top, SWT.CHECK);
+        cacheButton.setText(Messages.getString("CallgrindToolPage.Profile_Cache")); //$NON-NLS-1$
+        cacheButton.addSelectionListener(selectListener);
+
+        branchButton = new Button(top, SWT.CHECK);
+        branchButton.setText(Messages.getString("CallgrindToolPage.Profile_Branch")); //$NON-NLS-1$
+        branchButton.addSelectionListener(selectListener);
+    }
+
+    @Override
+    public String getName() {
+        return Messages.getString("CallgrindToolPage.Callgrind_Options"); //$NON-NLS-1$
+    }
+
+    @Override
+    public void initializeFrom(ILaunchConfiguration configuration) {
+        isInitializing = true;
+        try {
+            dumpInstrButton.setSelection(configuration.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_DUMP_INSTR, CallgrindLaunchConstants.DEFAULT_CALLGRIND_DUMP_INSTR));
+            collectJumpsButton.setSelection(configuration.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_COLLECT_JUMPS, CallgrindLaunchConstants.DEFAULT_CALLGRIND_COLLECT_JUMPS));
+            cacheButton.setSelection(configuration.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_CACHE_SIM, CallgrindLaunchConstants.DEFAULT_CALLGRIND_CACHE_SIM));
+            branchButton.setSelection(configuration.getAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_BRANCH_SIM, CallgrindLaunchConstants.DEFAULT_CALLGRIND_BRANCH_SIM));
+        } catch (CoreException e) {
+            e.printStackTrace();
+        }
+        isInitializing = false;
+    }
+
+    @Override
+    public void performApply(ILaunchConfigurationWorkingCopy configuration) {
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_DUMP_INSTR, dumpInstrButton.getSelection());
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_COLLECT_JUMPS, collectJumpsButton.getSelection());
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_CACHE_SIM, cacheButton.getSelection());
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_BRANCH_SIM, branchButton.getSelection());
+    }
+
+    @Override
+    public void setDefaults(ILaunchConfigurationWorkingCopy configuration) {
+        configuration.setAttribute(LaunchConfigurationConstants.ATTR_TOOL, CallgrindPlugin.TOOL_ID);
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_DUMP_INSTR, CallgrindLaunchConstants.DEFAULT_CALLGRIND_DUMP_INSTR);
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_COLLECT_JUMPS, CallgrindLaunchConstants.DEFAULT_CALLGRIND_COLLECT_JUMPS);
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_CACHE_SIM, CallgrindLaunchConstants.DEFAULT_CALLGRIND_CACHE_SIM);
+        configuration.setAttribute(CallgrindLaunchConstants.ATTR_CALLGRIND_BRANCH_SIM, CallgrindLaunchConstants.DEFAULT_CALLGRIND_BRANCH_SIM);
+    }
+
+    @Override
+    public void setValgrindVersion(Version ver) {
+        // no constraints
+    }
+
+    @Override
+    protected void updateLaunchConfigurationDialog() {
+        if (!isInitializing) {
+            super.updateLaunchConfigurationDialog();
+        }
+    }
+
+    public Button getDumpInstrButton() {
+        return dumpInstrButton;
+    }
+
+    public Button getCollectJumpsButton() {
+        return collectJumpsButton;
+    }
+
+    public Button getCacheButton() {
+        return cacheButton;
+    }
+
+    public Button getBranchButton() {
+        return branchButton;
+    }
+}
@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.action.IMenuListener;
+import org.eclipse.jface.action.IMenuManager;
+import org.eclipse.jface.action.MenuManager;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.viewers.ColumnViewerToolTipSupport;
+import org.eclipse.jface.viewers.DoubleClickEvent;
+import org.eclipse.jface.viewers.IDoubleClickListener;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.ITreeSelection;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.jface.viewers.TreeSelection;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.TreeViewerColumn;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindGraph;
+import org.eclipse.linuxtools.internal.valgrind.callgrind.model.CallgrindOutput;
+import org.eclipse.linuxtools.profiling.ui.ProfileUIUtils;
+import org.eclipse.linuxtools.valgrind.ui.CollapseAction;
+import org.eclipse.linuxtools.valgrind.ui.IValgrindToolView;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.events.SelectionListener;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Menu;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeColumn;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.part.ViewPart;
+import org.eclipse.ui.plugin.AbstractUIPlugin;
+
+public class CallgrindViewPart extends ViewPart implements IValgrindToolView {
+
+    public static final String CALLERS_ACTION = CallgrindPlugin.PLUGIN_ID
+    + ".callersAction"; //$NON-NLS-1$
+
+    private static final String UNKNOWN_FILE = "???"; //$NON-NLS-1$
+    private static final int COLUMN_SIZE = 100;
+
+    private CallgrindOutput[] outputs;
+    private TreeViewer viewer;
+    private TreeViewerColumn inclusiveColumn;
+    private TreeViewerColumn selfColumn;
+
+    private CallgrindLabelProvider labelProvider;
+    private CallgrindTreeContentProvider contentProvider;
+    private IDoubleClickListener doubleClickListener;
+    private Action hotPathAction;
+    private CollapseAction collapseAction;
+
+    @Override
+    public void createPartControl(Composite parent) {
+        Composite top = new Composite(parent, SWT.NONE);
+        GridLayout topLayout = new GridLayout();
+        topLayout.marginHeight = topLayout.marginWidth = 0;
+        top.setLayout(topLayout);
+        top.setLayoutData(new GridData(GridData.FILL_BOTH));
+
+        viewer = new TreeViewer(top, SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL
+                | SWT.FULL_SELECTION);
+
+        labelProvider = new CallgrindLabelProvider();
+        ColumnViewerToolTipSupport.enableFor(viewer);
+
+        Tree tree = viewer.getTree();
+        tree.setHeaderVisible(true);
+        tree.setLinesVisible(true);
+        tree.setLayoutData(new GridData(GridData.FILL_BOTH));
+
+        createColumn(Messages.getString("CallgrindViewPart.Location"), COLUMN_SIZE * 4); //$NON-NLS-1$
+        inclusiveColumn = createColumn(null, COLUMN_SIZE);
+        selfColumn = createColumn(null, COLUMN_SIZE);
+        createColumn(Messages.getString("CallgrindViewPart.Calls"), COLUMN_SIZE); //$NON-NLS-1$
+
+        // most expensive first
+        tree.setSortColumn(inclusiveColumn.getColumn());
+        tree.setSortDirection(SWT.DOWN);
+        viewer.setComparator(new CallgrindComparator());
+
+        contentProvider = new CallgrindTreeContentProvider();
+        viewer.setContentProvider(contentProvider);
+        viewer.setLabelProvider(labelProvider);
+        viewer.setAutoExpandLevel(2);
+        doubleClickListener = new IDoubleClickListener() {
+            @Override
+            public void doubleClick(DoubleClickEvent event) {
+                Object selection = ((StructuredSelection) event.getSelection()).getFirstElement();
+                if (selection instanceof CallgrindNode) {
+                    CallgrindNode node = (CallgrindNode) selection;
+                    String path = node.getFile();
+                    if (!UNKNOWN_FILE.equals(path)) {
+                        try {
+                            ProfileUIUtils.openEditorAndSelect(path, node.getOutput().getGraph().getLine(node.getFunction()));
+                        } catch (PartInitException|BadLocationException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }
+        };
+        viewer.addDoubleClickListener(doubleClickListener);
+
+        hotPathAction = new Action(Messages.getString("CallgrindViewPart.Expand_Hot_Path")) { //$NON-NLS-1$
+            @Override
+            public void run() {
+                Object element = ((ITreeSelection) viewer.getSelection()).getFirstElement();
+                if (element instanceof CallgrindNode) {
+                    expandHotPath((CallgrindNode) element);
+                }
+            }
+        };
+        collapseAction = new CollapseAction(viewer);
+
+        MenuManager manager = new MenuManager();
+        manager.addMenuListener(new IMenuListener() {
+            @Override
+            public void menuAboutToShow(IMenuManager manager) {
+                ITreeSelection selection = (ITreeSelection) viewer.getSelection();
+                Object element = selection.getFirstElement();
+                if (contentProvider.hasChildren(element)) {
+                    if (element instanceof CallgrindNode && !contentProvider.isCallers()) {
+                        manager.add(hotPathAction);
+                    }
+                    manager.add(collapseAction);
+                }
+            }
+        });
+
+        manager.setRemoveAllWhenShown(true);
+        Menu contextMenu = manager.createContextMenu(viewer.getTree());
+        viewer.getControl().setMenu(contextMenu);
+    }
+
+    private TreeViewerColumn createColumn(String text, int width) {
+        TreeViewerColumn column = new TreeViewerColumn(viewer, SWT.NONE);
+        if (text != null) {
+            column.getColumn().setText(text);
+        }
+        column.getColumn().setWidth(width);
+        column.getColumn().setResizable(true);
+        column.getColumn().addSelectionListener(getHeaderListener());
+        column.setLabelProvider(labelProvider);
+        return column;
+    }
+
+    @Override
+    public void setFocus() {
+        viewer.getTree().setFocus();
+    }
+
+    @Override
+    public IAction[] getToolbarActions() {
+        Action callersAction = new Action(
+                Messages.getString("CallgrindViewPart.Show_Callers"), IAction.AS_CHECK_BOX) { //$NON-NLS-1$
+            @Override
+            public void run() {
+                contentProvider.setCallers(isChecked());
+                viewer.refresh();
+            }
+        };
+        callersAction.setId(CALLERS_ACTION);
+        callersAction.setImageDescriptor(AbstractUIPlugin.imageDescriptorFromPlugin(
+                CallgrindPlugin.PLUGIN_ID, "icons/call_hierarchy.gif")); //$NON-NLS-1$
+        callersAction.setToolTipText(Messages
+                .getString("CallgrindViewPart.Show_Callers")); //$NON-NLS-1$
+        return new IAction[] { callersAction };
+    }
+
+    @Override
+    public void refreshView() {
+        if (outputs != null && outputs.length > 0) {
+            String[] events = outputs[0].getEvents();
+            if (events.length > 0) {
+                inclusiveColumn.getColumn().setText(NLS.bind(Messages.getString("CallgrindViewPart.Inclusive"), events[0])); //$NON-NLS-1$
+                selfColumn.getColumn().setText(NLS.bind(Messages.getString("CallgrindViewPart.Self"), events[0])); //$NON-NLS-1$
+            }
+            viewer.setInput(outputs);
+            viewer.getTree().layout(true);
+        }
+    }
+
+    /**
+     * Expands the most expensive chain of calls below a node and selects
+     * its end.
+     */
+    private void expandHotPath(CallgrindNode node) {
+        CallgrindGraph graph = node.getOutput().getGraph();
+        int[] path = graph.getHotPath(node.getFunction(), 0);
+
+        List<Object> segments = new ArrayList<>();
+        for (Object element = node; element != null; element = contentProvider.getParent(element)) {
+            segments.add(0, element);
+        }
+        CallgrindNode current = node;
+        for (int i = 1; i < path.length; i++) {
+            CallgrindNode next = null;
+            for (CallgrindNode child : current.getChildren()) {
+                if (child.getFunction() == path[i]) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            segments.add(next);
+            current = next;
+        }
+        viewer.setSelection(new TreeSelection(new TreePath(segments.toArray())), true);
+    }
+
+    public void setOutputs(CallgrindOutput[] outputs) {
+        this.outputs = outputs;
+    }
+
+    public CallgrindOutput[] getOutputs() {
+        return outputs;
+    }
+
+    public TreeViewer getViewer() {
+        return viewer;
+    }
+
+    public IDoubleClickListener getDoubleClickListener() {
+        return doubleClickListener;
+    }
+
+    private SelectionListener getHeaderListener() {
+        return new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                TreeColumn column = (TreeColumn) e.widget;
+                Tree tree = viewer.getTree();
+                if (column.equals(tree.getSortColumn())) {
+                    int direction = tree.getSortDirection() == SWT.UP ? SWT.DOWN
+                            : SWT.UP;
+                    tree.setSortDirection(direction);
+                } else {
+                    tree.setSortDirection(SWT.UP);
+                }
+                tree.setSortColumn(column);
+                viewer.refresh();
+            }
+        };
+    }
+
+    private static class CallgrindComparator extends ViewerComparator {
+        @Override
+        public int compare(Viewer viewer, Object e1, Object e2) {
+            if (!(e1 instanceof CallgrindNode && e2 instanceof CallgrindNode)) {
+                return 0;
+            }
+            Tree tree = ((TreeViewer) viewer).getTree();
+            CallgrindNode n1 = (CallgrindNode) e1;
+            CallgrindNode n2 = (CallgrindNode) e2;
+            boolean costs = n1.getOutput().getGraph().getEventCount() > 0;
+
+            int result;
+            switch (Arrays.asList(tree.getColumns()).indexOf(tree.getSortColumn())) {
+            case CallgrindLabelProvider.INCLUSIVE:
+                result = costs ? Long.compare(n1.getInclusiveCost(0), n2.getInclusiveCost(0)) : 0;
+                break;
+            case CallgrindLabelProvider.SELF:
+                result = costs ? Long.compare(n1.getSelfCost(0), n2.getSelfCost(0)) : 0;
+                break;
+            case CallgrindLabelProvider.CALLS:
+                result = Long.compare(n1.getCalls(), n2.getCalls());
+                break;
+            default:
+                result = n1.getName().compareTo(n2.getName());
+                break;
+            }
+
+            // ascending or descending
+            return tree.getSortDirection() == SWT.UP ? result : -result;
+        }
+    }
+
+    protected static class CallgrindTreeContentProvider implements ITreeContentProvider {
+        private boolean callers;
+        private Map<CallgrindOutput, CallgrindNode[]> functions = new HashMap<>();
+
+        public void setCallers(boolean callers) {
+            this.callers = callers;
+            functions.clear();
+        }
+
+        public boolean isCallers() {
+            return callers;
+        }
+
+        @Override
+        public Object[] getChildren(Object parentElement) {
+            Object[] result = null;
+            if (parentElement instanceof CallgrindOutput[]) {
+                result = (CallgrindOutput[]) parentElement;
+            } else if (parentElement instanceof CallgrindOutput) {
+                result = getFunctions((CallgrindOutput) parentElement);
+            } else if (parentElement instanceof CallgrindNode) {
+                result = ((CallgrindNode) parentElement).getChildren();
+            }
+            return result;
+        }
+
+        private CallgrindNode[] getFunctions(CallgrindOutput output) {
+            CallgrindNode[] nodes = functions.get(output);
+            if (nodes == null) {
+                nodes = new CallgrindNode[output.getGraph().getFunctionCount()];
+                for (int i = 0; i < nodes.length; i++) {
+                    nodes[i] = new CallgrindNode(output, output, i, -1, callers);
+                }
+                functions.put(output, nodes);
+            }
+            return nodes;
+        }
+
+        @Override
+        public Object getParent(Object element) {
+            Object parent = null;
+            if (element instanceof CallgrindNode) {
+                parent = ((CallgrindNode) element).getParent();
+            }
+            return parent;
+        }
+
+        @Override
+        public boolean hasChildren(Object element) {
+            if (element instanceof CallgrindNode) {
+                return ((CallgrindNode) element).hasChildren();
+            }
+            Object[] children = getChildren(element);
+            return children != null && children.length > 0;
+        }
+
+        @Override
+        public Object[] getElements(Object inputElement) {
+            return getChildren(inputElement);
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+            functions.clear();
+        }
+
+    }
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind.model;
+
+import java.util.Arrays;
+
+/**
+ * The call graph of a Callgrind profile.
+ *
+ * Functions and calls are identified by their index. All data is held in
+ * primitive arrays: costs are packed into rows of {@link #getEventCount()}
+ * values, and the calls of each function are grouped by caller and by callee
+ * so both directions can be walked without searching. Inclusive costs are
+ * computed once when the graph is built.
+ */
+public class CallgrindGraph {
+    private final int eventCount;
+
+    private final String[] names;
+    private final String[] files;
+    private final String[] objects;
+
+    private final int[] functionName;
+    private final int[] functionFile;
+    private final int[] functionObject;
+    private final int[] functionLine;
+    private final long[] selfCost;
+    private final long[] inclusiveCost;
+
+    private final int[] callSource;
+    private final int[] callTarget;
+    private final long[] callCount;
+    private final long[] callCost;
+
+    // calls grouped by source, the calls of function i are
+    // calleeCalls[calleeStart[i]] to calleeCalls[calleeStart[i + 1] - 1]
+    private final int[] calleeStart;
+    private final int[] calleeCalls;
+    // calls grouped by target
+    private final int[] callerStart;
+    private final int[] callerCalls;
+
+    CallgrindGraph(int eventCount, String[] names, String[] files, String[] objects,
+            int[] functionName, int[] functionFile, int[] functionObject, int[] functionLine, long[] selfCost,
+            int[] callSource, int[] callTarget, long[] callCount, long[] callCost) {
+        this.eventCount = eventCount;
+        this.names = names;
+        this.files = files;
+        this.objects = objects;
+        this.functionName = functionName;
+        this.functionFile = functionFile;
+        this.functionObject = functionObject;
+        this.functionLine = functionLine;
+        this.selfCost = selfCost;
+        this.callSource = callSource;
+        this.callTarget = callTarget;
+        this.callCount = callCount;
+        this.callCost = callCost;
+
+        int functions = functionName.length;
+        calleeStart = new int[functions + 1];
+        calleeCalls = groupCalls(callSource, calleeStart);
+        callerStart = new int[functions + 1];
+        callerCalls = groupCalls(callTarget, callerStart);
+
+        // the cost of a call already includes everything below it, except
+        // for direct recursion which is part of the self cost as well
+        inclusiveCost = Arrays.copyOf(selfCost, selfCost.length);
+        for (int call = 0; call < callSource.length; call++) {
+            int source = callSource[call];
+            if (source != callTarget[call]) {
+                for (int i = 0; i < eventCount; i++) {
+                    inclusiveCost[source * eventCount + i] += callCost[call * eventCount + i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the calls into buckets by the given function.
+     *
+     * @param function the source or target of each call
+     * @param start receives the start of each bucket
+     * @return the call indices, grouped by function
+     */
+    private static int[] groupCalls(int[] function, int[] start) {
+        for (int call = 0; call < function.length; call++) {
+            start[function[call] + 1]++;
+        }
+        for (int i = 1; i < start.length; i++) {
+            start[i] += start[i - 1];
+        }
+        int[] next = Arrays.copyOf(start, start.length - 1);
+        int[] calls = new int[function.length];
+        for (int call = 0; call < function.length; call++) {
+            calls[next[function[call]]++] = call;
+        }
+        return calls;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getFunctionCount() {
+        return functionName.length;
+    }
+
+    public String getFunctionName(int function) {
+        return names[functionName[function]];
+    }
+
+    public String getFile(int function) {
+        return files[functionFile[function]];
+    }
+
+    public String getObject(int function) {
+        return objects[functionObject[function]];
+    }
+
+    /**
+     * @return the first source line with costs of the function, or 0 if
+     *         unknown
+     */
+    public int getLine(int function) {
+        return functionLine[function];
+    }
+
+    public long getSelfCost(int function, int event) {
+        return selfCost[function * eventCount + event];
+    }
+
+    public long getInclusiveCost(int function, int event) {
+        return inclusiveCost[function * eventCount + event];
+    }
+
+    /**
+     * @return how often the function was called
+     */
+    public long getCallCount(int function) {
+        long count = 0;
+        for (int i = callerStart[function]; i < callerStart[function + 1]; i++) {
+            count += callCount[callerCalls[i]];
+        }
+        return count;
+    }
+
+    public int getCalleeCount(int function) {
+        return calleeStart[function + 1] - calleeStart[function];
+    }
+
+    public int getCallerCount(int function) {
+        return callerStart[function + 1] - callerStart[function];
+    }
+
+    /**
+     * @return the calls made by the function
+     */
+    public int[] getCallees(int function) {
+        return Arrays.copyOfRange(calleeCalls, calleeStart[function], calleeStart[function + 1]);
+    }
+
+    /**
+     * @return the calls made to the function
+     */
+    public int[] getCallers(int function) {
+        return Arrays.copyOfRange(callerCalls, callerStart[function], callerStart[function + 1]);
+    }
+
+    public int getCallSource(int call) {
+        return callSource[call];
+    }
+
+    public int getCallTarget(int call) {
+        return callTarget[call];
+    }
+
+    public long getCalls(int call) {
+        return callCount[call];
+    }
+
+    /**
+     * @return the inclusive cost of all calls from the source to the target
+     */
+    public long getCallCost(int call, int event) {
+        return callCost[call * eventCount + event];
+    }
+
+    /**
+     * Follows the most expensive calls down from a function.
+     *
+     * @param function the function to start from
+     * @param event the event to compare the calls by
+     * @return the functions on the path, starting with <code>function</code>
+     */
+    public int[] getHotPath(int function, int event) {
+        boolean[] visited = new boolean[getFunctionCount()];
+        int[] path = new int[16];
+        int length = 0;
+        int current = function;
+        while (current >= 0) {
+            visited[current] = true;
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = current;
+
+            int next = -1;
+            long max = 0;
+            for (int i = calleeStart[current]; i < calleeStart[current + 1]; i++) {
+                int call = calleeCalls[i];
+                long cost = callCost[call * eventCount + event];
+                if (cost > max && !visited[callTarget[call]]) {
+                    max = cost;
+                    next = callTarget[call];
+                }
+            }
+            current = next;
+        }
+        return Arrays.copyOf(path, length);
+    }
+}
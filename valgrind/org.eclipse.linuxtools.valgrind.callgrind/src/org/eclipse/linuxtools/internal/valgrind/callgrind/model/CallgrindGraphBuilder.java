@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the costs and calls of a Callgrind profile into a
+ * {@link CallgrindGraph}.
+ */
+public class CallgrindGraphBuilder {
+    private final int eventCount;
+
+    private final NameTable names = new NameTable();
+    private final NameTable files = new NameTable();
+    private final NameTable objects = new NameTable();
+
+    private final Map<FunctionKey, Integer> functions = new HashMap<>();
+    private int functionCount;
+    private int[] functionName = new int[64];
+    private int[] functionFile = new int[64];
+    private int[] functionObject = new int[64];
+    private int[] functionLine = new int[64];
+    private long[] selfCost;
+
+    private final Map<Long, Integer> calls = new HashMap<>();
+    private int callCount;
+    private int[] callSource = new int[64];
+    private int[] callTarget = new int[64];
+    private long[] callCalls = new long[64];
+    private long[] callCost;
+
+    public CallgrindGraphBuilder(int eventCount) {
+        this.eventCount = eventCount;
+        selfCost = new long[64 * eventCount];
+        callCost = new long[64 * eventCount];
+    }
+
+    public int addName(String name) {
+        return names.add(name);
+    }
+
+    public int addFile(String file) {
+        return files.add(file);
+    }
+
+    public int addObject(String object) {
+        return objects.add(object);
+    }
+
+    /**
+     * @return the index of the function, which is added if it is new
+     */
+    public int getFunction(int object, int file, int name) {
+        FunctionKey key = new FunctionKey(object, file, name);
+        Integer function = functions.get(key);
+        if (function == null) {
+            if (functionCount == functionName.length) {
+                int capacity = functionCount * 2;
+                functionName = Arrays.copyOf(functionName, capacity);
+                functionFile = Arrays.copyOf(functionFile, capacity);
+                functionObject = Arrays.copyOf(functionObject, capacity);
+                functionLine = Arrays.copyOf(functionLine, capacity);
+                selfCost = Arrays.copyOf(selfCost, capacity * eventCount);
+            }
+            functionName[functionCount] = name;
+            functionFile[functionCount] = file;
+            functionObject[functionCount] = object;
+            function = functionCount++;
+            functions.put(key, function);
+        }
+        return function;
+    }
+
+    /**
+     * Adds to the self cost of a function.
+     *
+     * @param function the function
+     * @param line the source line of the cost in the file of the function,
+     *            or 0
+     * @param costs the cost per event
+     */
+    public void addCost(int function, int line, long[] costs) {
+        int row = function * eventCount;
+        for (int i = 0; i < eventCount; i++) {
+            selfCost[row + i] += costs[i];
+        }
+        if (line > 0 && (functionLine[function] == 0 || line < functionLine[function])) {
+            functionLine[function] = line;
+        }
+    }
+
+    /**
+     * Adds calls from one function to another.
+     *
+     * @param source the calling function
+     * @param target the called function
+     * @param count the number of calls
+     * @param costs the inclusive cost of the calls per event
+     */
+    public void addCall(int source, int target, long count, long[] costs) {
+        Long key = ((long) source << 32) | target;
+        Integer call = calls.get(key);
+        if (call == null) {
+            if (callCount == callSource.length) {
+                int capacity = callCount * 2;
+                callSource = Arrays.copyOf(callSource, capacity);
+                callTarget = Arrays.copyOf(callTarget, capacity);
+                callCalls = Arrays.copyOf(callCalls, capacity);
+                callCost = Arrays.copyOf(callCost, capacity * eventCount);
+            }
+            callSource[callCount] = source;
+            callTarget[callCount] = target;
+            call = callCount++;
+            calls.put(key, call);
+        }
+        callCalls[call] += count;
+        int row = call * eventCount;
+        for (int i = 0; i < eventCount; i++) {
+            callCost[row + i] += costs[i];
+        }
+    }
+
+    /**
+     * @return the sum of the self costs of all functions
+     */
+    public long[] getTotals() {
+        long[] totals = new long[eventCount];
+        for (int function = 0; function < functionCount; function++) {
+            for (int i = 0; i < eventCount; i++) {
+                totals[i] += selfCost[function * eventCount + i];
+            }
+        }
+        return totals;
+    }
+
+    public CallgrindGraph build() {
+        return new CallgrindGraph(eventCount, names.toArray(), files.toArray(), objects.toArray(),
+                Arrays.copyOf(functionName, functionCount), Arrays.copyOf(functionFile, functionCount),
+                Arrays.copyOf(functionObject, functionCount), Arrays.copyOf(functionLine, functionCount),
+                Arrays.copyOf(selfCost, functionCount * eventCount),
+                Arrays.copyOf(callSource, callCount), Arrays.copyOf(callTarget, callCount),
+                Arrays.copyOf(callCalls, callCount), Arrays.copyOf(callCost, callCount * eventCount));
+    }
+
+    private static class NameTable {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int add(String name) {
+            Integer index = indices.get(name);
+            if (index == null) {
+                index = names.size();
+                names.add(name);
+                indices.put(name, index);
+            }
+            return index;
+        }
+
+        String[] toArray() {
+            return names.toArray(new String[names.size()]);
+        }
+    }
+
+    private static class FunctionKey {
+        private final int object;
+        private final int file;
+        private final int name;
+
+        FunctionKey(int object, int file, int name) {
+            this.object = object;
+            this.file = file;
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode() {
+            return (object * 31 + file) * 31 + name;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FunctionKey)) {
+                return false;
+            }
+            FunctionKey other = (FunctionKey) obj;
+            return object == other.object && file == other.file && name == other.name;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.callgrind.model;
+
+/**
+ * The result of a single Callgrind output file.
+ */
+public class CallgrindOutput {
+    private Integer pid;
+    private String cmd;
+    private String[] events;
+    private long[] totals;
+    private CallgrindGraph graph;
+
+    public void setPid(Integer pid) {
+        this.pid = pid;
+    }
+
+    public void setCmd(String cmd) {
+        this.cmd = cmd;
+    }
+
+    public void setEvents(String[] events) {
+        this.events = events;
+    }
+
+    public void setTotals(long[] totals) {
+        this.totals = totals;
+    }
+
+    public void setGraph(CallgrindGraph graph) {
+        this.graph = graph;
+    }
+
+    public Integer getPid() {
+        return pid;
+    }
+
+    public String getCmd() {
+        return cmd;
+    }
+
+    public String[] getEvents() {
+        return events;
+    }
+
+    /**
+     * @return the total cost of the program per event, as reported in the
+     *         file or else summed up from the self costs
+     */
+    public long[] getTotals() {
+        return totals;
+    }
+
+    public CallgrindGraph getGraph() {
+        return graph;
+    }
+}
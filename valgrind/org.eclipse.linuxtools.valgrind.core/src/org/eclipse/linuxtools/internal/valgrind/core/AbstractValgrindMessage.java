@@ -16,14 +16,15 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 
 public class AbstractValgrindMessage implements IValgrindMessage {
+    private static final IValgrindMessage[] NO_CHILDREN = new IValgrindMessage[0];
 
     private IValgrindMessage parent;
     private ILaunch launch;
+    // most messages are stack frames, without children
     private ArrayList<IValgrindMessage> children;
     private String text;
 
     public AbstractValgrindMessage(IValgrindMessage parent, String text, ILaunch launch) {
-        children = new ArrayList<>();
         this.parent = parent;
         this.text = text;
         this.launch = launch;
@@ -33,8 +34,24 @@ public class AbstractValgrindMessage implements IValgrindMessage {
         }
     }
 
+    /**
+     * Constructor for a message its parent builds on demand, which is
+     * therefore not added to the children of the parent.
+     *
+     * @param parent the parent message
+     * @param text the text of the message
+     */
+    AbstractValgrindMessage(IValgrindMessage parent, String text) {
+        this.parent = parent;
+        this.text = text;
+        this.launch = parent.getLaunch();
+    }
+
     @Override
     public void addChild(IValgrindMessage message) {
+        if (children == null) {
+            children = new ArrayList<>(2);
+        }
         children.add(message);
     }
 
@@ -50,9 +67,21 @@ public class AbstractValgrindMessage implements IValgrindMessage {
 
     @Override
     public IValgrindMessage[] getChildren() {
+        if (children == null) {
+            return NO_CHILDREN;
+        }
         return children.toArray(new IValgrindMessage[children.size()]);
     }
 
+    /**
+     * Returns whether the message has children, without building them.
+     *
+     * @return true if {@link #getChildren()} is not empty
+     */
+    public boolean hasChildren() {
+        return children != null;
+    }
+
     @Override
     public String getText() {
         return text;
@@ -17,97 +17,191 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
+import java.util.regex.Pattern;
 
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.linuxtools.valgrind.core.CommandLineConstants;
 import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 import org.eclipse.linuxtools.valgrind.core.ValgrindParserUtils;
 
+/**
+ * Parser of the Valgrind logs. Logs can be parsed at once, or line by line
+ * while they are written. Stack frames are kept in a {@link ValgrindFrameStore},
+ * and repeated errors are aggregated.
+ */
 public class ValgrindCoreParser {
     private static final String AT = "at"; //$NON-NLS-1$
     private static final String BY = "by"; //$NON-NLS-1$
+    // PID string, might encounter warnings also #325130
+    // fixed #423371 - handle timestamp (e.g. ==00:00:00:01.175 52756728==)
+    private static final Pattern PID_PATTERN = Pattern.compile("==([\\d:\\.]+\\s)?\\d+==|\\*\\*\\d+\\*\\*"); //$NON-NLS-1$
 
     private List<IValgrindMessage> messages;
     private int pid;
     private ILaunch launch;
+    private final ValgrindFrameStore store;
+    // top-level message being parsed
+    private IValgrindMessage current;
 
-    public ValgrindCoreParser(File inputFile, ILaunch launch) throws IOException {
-        this.launch = launch;
-        // keep track of nested messages and their corresponding indents
-        Stack<IValgrindMessage> messageStack = new Stack<>();
-        Stack<Integer> indentStack = new Stack<>();
-        messages = new ArrayList<>();
+    // keep track of nested messages and their corresponding indents
+    private final Stack<IValgrindMessage> messageStack = new Stack<>();
+    private final Stack<Integer> indentStack = new Stack<>();
+    // number of top-level messages returned by getCompletedMessages
+    private int completed = 0;
 
+    public ValgrindCoreParser(File inputFile, ILaunch launch) throws IOException {
+        this(ValgrindParserUtils.parsePID(inputFile.getName(), CommandLineConstants.LOG_PREFIX), launch);
         try (BufferedReader br = new BufferedReader(new FileReader(inputFile))) {
-            pid = ValgrindParserUtils.parsePID(inputFile.getName(), CommandLineConstants.LOG_PREFIX);
             String line;
             while ((line = br.readLine()) != null) {
-                // remove PID string
-                // might encounter warnings also #325130
-                // fixed #423371 - handle timestamp (e.g. ==00:00:00:01.175 52756728==)
-                line = line.replaceFirst("==([\\d:\\.]+\\s)?\\d+==|\\*\\*\\d+\\*\\*", ""); //$NON-NLS-1$ //$NON-NLS-2$
-
-                int indent;
-                for (indent = 0; indent < line.length()
-                && line.charAt(indent) == ' '; indent++){}
-
-                line = line.trim();
-                if (!line.isEmpty()) {
-                    /*
-                     * indent == 1 -> top level message
-                     * indent > 1 -> child message
-                     * indent == 0 -> should not occur
-                     */
-                    if (indent == 1) {
-                        // top-level message, clear stacks
-                        IValgrindMessage message = getMessage(null, line);
-                        messages.add(message);
-                        messageStack.clear();
-                        messageStack.push(message);
-                        indentStack.clear();
-                        indentStack.push(indent);
-                    }
-                    else if (indent > 1) {
-                        /**
-                         * We assume that an indented child message has a
-                         * parent, but this may not be the case.
-                         * See BZ #360225
-                         */
-                        if (indentStack.isEmpty()){
-                            // pretend this is a top level message
-                            IValgrindMessage message = getMessage(null, line);
-                            messages.add(message);
-                            messageStack.clear();
-                            messageStack.push(message);
-                            indentStack.clear();
-                            indentStack.push(1);
-                        }else{
-                            // find this message's parent
-                            while (indent <= indentStack.peek()) {
-                                messageStack.pop();
-                                indentStack.pop();
-                            }
-
-                            messageStack.push(getMessage(messageStack.peek(), line));
-                            indentStack.push(indent);
-                        }
+                parseLine(line);
+            }
+        }
+        finish();
+    }
+
+    /**
+     * Constructor for a log parsed line by line, with {@link #parseLine(String)}.
+     *
+     * @param pid the process the log is about
+     * @param launch the launch of the process
+     */
+    public ValgrindCoreParser(int pid, ILaunch launch) {
+        this(pid, launch, new ValgrindFrameStore());
+    }
+
+    /**
+     * Constructor for a log parsed line by line, whose frames are kept in the
+     * given store, shared with the other logs of the launch.
+     *
+     * @param pid the process the log is about
+     * @param launch the launch of the process
+     * @param store the store of the stack frames
+     */
+    public ValgrindCoreParser(int pid, ILaunch launch, ValgrindFrameStore store) {
+        this.pid = pid;
+        this.launch = launch;
+        this.store = store;
+        messages = new ArrayList<>();
+    }
+
+    /**
+     * Parse the next line of the log. The parsing state is kept from one
+     * line to the next, so the line must be complete.
+     *
+     * @param line the line, without line terminator
+     */
+    public void parseLine(String line) {
+        // remove PID string
+        line = PID_PATTERN.matcher(line).replaceFirst(""); //$NON-NLS-1$
+
+        int indent;
+        for (indent = 0; indent < line.length()
+        && line.charAt(indent) == ' '; indent++){}
+
+        line = line.trim();
+        if (!line.isEmpty()) {
+            /*
+             * indent == 1 -> top level message
+             * indent > 1 -> child message
+             * indent == 0 -> should not occur
+             */
+            if (indent == 1) {
+                // top-level message, clear stacks
+                IValgrindMessage message = getMessage(null, line);
+                complete(message);
+                messageStack.clear();
+                messageStack.push(message);
+                indentStack.clear();
+                indentStack.push(indent);
+            }
+            else if (indent > 1) {
+                /**
+                 * We assume that an indented child message has a
+                 * parent, but this may not be the case.
+                 * See BZ #360225
+                 */
+                if (indentStack.isEmpty()){
+                    // pretend this is a top level message
+                    IValgrindMessage message = getMessage(null, line);
+                    complete(message);
+                    messageStack.clear();
+                    messageStack.push(message);
+                    indentStack.clear();
+                    indentStack.push(1);
+                }else{
+                    // find this message's parent
+                    while (indent <= indentStack.peek()) {
+                        messageStack.pop();
+                        indentStack.pop();
                     }
+
+                    messageStack.push(getMessage(messageStack.peek(), line));
+                    indentStack.push(indent);
                 }
             }
         }
     }
 
+    /**
+     * Indicate the end of the log: the last top-level message is complete.
+     */
+    public void finish() {
+        complete(null);
+    }
+
+    /**
+     * Complete the current top-level message, which is aggregated with the
+     * previous occurrences of the same error.
+     *
+     * @param next the next top-level message, or null at the end of the log
+     */
+    private void complete(IValgrindMessage next) {
+        if (current instanceof ValgrindError) {
+            ValgrindError error = (ValgrindError) current;
+            if (store.aggregate(error) == error) {
+                messages.add(error);
+            }
+        } else if (current != null) {
+            messages.add(current);
+        }
+        current = next;
+    }
+
+    /**
+     * Returns the top-level messages completed since the last call. A
+     * message is complete once the next top-level message starts, or at the
+     * end of the log.
+     *
+     * @return the newly completed messages
+     */
+    public IValgrindMessage[] getCompletedMessages() {
+        List<IValgrindMessage> ret = messages.subList(completed, messages.size());
+        completed = messages.size();
+        return ret.toArray(new IValgrindMessage[ret.size()]);
+    }
+
     private IValgrindMessage getMessage(IValgrindMessage message, String line) {
         if (line.startsWith(AT) || line.startsWith(BY)) {
             Object[] parsed = ValgrindParserUtils.parseFilename(line);
             String filename = (String) parsed[0];
             int lineNo = (Integer) parsed[1];
+            if (message instanceof ValgrindError) {
+                // frames are kept by their error, which stands for them in
+                // the stack of nested messages
+                ((ValgrindError) message).addFrame(store.internFrame(line, filename, lineNo));
+                return message;
+            }
             return new ValgrindStackFrame(message, line, launch, filename, lineNo);
         }
-        return new ValgrindError(message, line, launch, pid);
+        return new ValgrindError(message, line, launch, pid, store);
     }
 
     public IValgrindMessage[] getMessages() {
-        return messages.toArray(new IValgrindMessage[messages.size()]);
+        List<IValgrindMessage> ret = new ArrayList<>(messages);
+        if (current != null) {
+            ret.add(current);
+        }
+        return ret.toArray(new IValgrindMessage[ret.size()]);
     }
 }
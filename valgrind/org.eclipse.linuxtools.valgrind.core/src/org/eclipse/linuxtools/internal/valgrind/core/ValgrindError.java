@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.core;
 
+import java.util.Arrays;
+
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 
@@ -17,13 +19,148 @@ import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 public class ValgrindError extends AbstractValgrindMessage {
     protected int pid;
 
+    // the stack of the error, in the store once the error is complete
+    private final ValgrindFrameStore store;
+    private int[] frames;
+    private int frameCount;
+    private int stack = -1;
+    private int count = 1;
+
     public ValgrindError(IValgrindMessage message, String text, ILaunch launch, int pid) {
+        this(message, text, launch, pid, null);
+    }
+
+    /**
+     * Constructor for an error whose stack frames are kept in the given store.
+     *
+     * @param message the parent message, or null
+     * @param text the description of the error
+     * @param launch the launch of the program
+     * @param pid the process of the error
+     * @param store the store of the stack frames of the launch
+     */
+    public ValgrindError(IValgrindMessage message, String text, ILaunch launch, int pid, ValgrindFrameStore store) {
         super(message, text, launch);
         this.pid = pid;
+        this.store = store;
     }
 
     @Override
     public String getText() {
         return super.getText() + " [PID: " + pid + "]"; //$NON-NLS-1$ //$NON-NLS-2$
     }
+
+    /**
+     * Add the next frame of the stack of the error.
+     *
+     * @param frame the id of the frame in the store
+     */
+    public void addFrame(int frame) {
+        if (super.hasChildren() || stack != -1) {
+            // the stack comes first: keep the order of the output
+            new ValgrindStackFrame(this, store.getText(frame), getLaunch(), store.getFile(frame), store.getLine(frame));
+            return;
+        }
+        if (frames == null) {
+            frames = new int[8];
+        } else if (frameCount == frames.length) {
+            frames = Arrays.copyOf(frames, frameCount * 2);
+        }
+        frames[frameCount++] = frame;
+    }
+
+    /**
+     * Move the stacks of the error and its nested errors to the store.
+     */
+    void storeStacks() {
+        if (frames != null) {
+            stack = store.internStack(frames, frameCount);
+            frames = null;
+            frameCount = 0;
+        }
+        for (IValgrindMessage child : super.getChildren()) {
+            if (child instanceof ValgrindError) {
+                ((ValgrindError) child).storeStacks();
+            }
+        }
+    }
+
+    /**
+     * Returns the frames of the stack of the error.
+     *
+     * @return the ids of the frames in the store, innermost first
+     */
+    public int[] getFrames() {
+        if (frames != null) {
+            return Arrays.copyOf(frames, frameCount);
+        }
+        int[] ret = new int[store == null ? 0 : store.getDepth(stack)];
+        int node = stack;
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = store.getFrame(node);
+            node = store.getCaller(node);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the store of the frames of the error, or null if the frames
+     *         are regular children
+     */
+    public ValgrindFrameStore getFrameStore() {
+        return store;
+    }
+
+    /**
+     * @return the node of the stack of the error in the store, or -1 if the
+     *         stack is not stored yet
+     */
+    int getStack() {
+        return stack;
+    }
+
+    /**
+     * Returns the children of the error other than the frames of its stack,
+     * e.g. the auxiliary description of the error with its own stack.
+     *
+     * @return the nested messages
+     */
+    public IValgrindMessage[] getNestedMessages() {
+        return super.getChildren();
+    }
+
+    /**
+     * Returns the children of the error: the frames of its stack, built on
+     * demand from the store, followed by the nested messages.
+     */
+    @Override
+    public IValgrindMessage[] getChildren() {
+        int[] stackFrames = getFrames();
+        IValgrindMessage[] nested = super.getChildren();
+        if (stackFrames.length == 0) {
+            return nested;
+        }
+        IValgrindMessage[] ret = new IValgrindMessage[stackFrames.length + nested.length];
+        for (int i = 0; i < stackFrames.length; i++) {
+            ret[i] = new ValgrindStackFrame(this, store, stackFrames[i], i);
+        }
+        System.arraycopy(nested, 0, ret, stackFrames.length, nested.length);
+        return ret;
+    }
+
+    @Override
+    public boolean hasChildren() {
+        return frameCount > 0 || stack != -1 || super.hasChildren();
+    }
+
+    /**
+     * @return the number of occurrences of the error
+     */
+    public int getCount() {
+        return count;
+    }
+
+    void addOccurrences(int occurrences) {
+        count += occurrences;
+    }
 }
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+
+/**
+ * Compact store of the stack frames of the Valgrind errors of a launch.
+ * Frames are interned and referred to by id, stacks are nodes of a tree
+ * shared by all the stacks ending with the same callers, and errors with the
+ * same description and stacks are aggregated into one error counting their
+ * occurrences.
+ */
+public class ValgrindFrameStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // interned frames: text, file and line, by id
+    private final Map<String, Integer> frameIds = new HashMap<>();
+    private final Map<String, String> fileNames = new HashMap<>();
+    private String[] texts = new String[INITIAL_CAPACITY];
+    private String[] files = new String[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int frameCount;
+
+    // stack nodes: a frame and the node of its caller, -1 for the outermost
+    // frame of a stack
+    private int[] nodeFrames = new int[INITIAL_CAPACITY];
+    private int[] nodeCallers = new int[INITIAL_CAPACITY];
+    private int nodeCount;
+    // open addressing table of the nodes, holding node id + 1
+    private int[] nodeTable = new int[INITIAL_CAPACITY * 2];
+
+    private final Map<ErrorKey, ValgrindError> errors = new HashMap<>();
+
+    /**
+     * Returns the id of the given frame. Frames are identified by their text,
+     * which includes their location.
+     *
+     * @param text the text of the frame, e.g. "at 0x4004E2: main (test.c:16)"
+     * @param file the file of the frame
+     * @param line the line of the frame, 0 if unknown
+     * @return the id of the frame
+     */
+    public int internFrame(String text, String file, int line) {
+        Integer id = frameIds.get(text);
+        if (id != null) {
+            return id;
+        }
+        if (frameCount == texts.length) {
+            int capacity = frameCount * 2;
+            texts = Arrays.copyOf(texts, capacity);
+            files = Arrays.copyOf(files, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+        if (file != null) {
+            String interned = fileNames.get(file);
+            if (interned == null) {
+                fileNames.put(file, file);
+            } else {
+                file = interned;
+            }
+        }
+        texts[frameCount] = text;
+        files[frameCount] = file;
+        lines[frameCount] = line;
+        frameIds.put(text, frameCount);
+        return frameCount++;
+    }
+
+    public String getText(int frame) {
+        return texts[frame];
+    }
+
+    public String getFile(int frame) {
+        return files[frame];
+    }
+
+    public int getLine(int frame) {
+        return lines[frame];
+    }
+
+    /**
+     * Returns the stack of the given frames, sharing the nodes of the callers
+     * with the stacks already stored.
+     *
+     * @param frames the frames, innermost first
+     * @param count the number of frames
+     * @return the node of the innermost frame, or -1 for an empty stack
+     */
+    public int internStack(int[] frames, int count) {
+        int node = -1;
+        for (int i = count - 1; i >= 0; i--) {
+            node = internNode(frames[i], node);
+        }
+        return node;
+    }
+
+    /**
+     * @param node a stack node
+     * @return the frame of the node
+     */
+    public int getFrame(int node) {
+        return nodeFrames[node];
+    }
+
+    /**
+     * @param node a stack node
+     * @return the node of the caller, or -1 if the frame is the outermost one
+     */
+    public int getCaller(int node) {
+        return nodeCallers[node];
+    }
+
+    /**
+     * @param node a stack node, or -1
+     * @return the number of frames of the stack
+     */
+    public int getDepth(int node) {
+        int depth = 0;
+        for (; node != -1; node = nodeCallers[node]) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * @return the number of distinct frames
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return the number of stack nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Store the stacks of a complete error, and aggregate it with the
+     * previous errors of the same process with the same description and
+     * stacks.
+     *
+     * @param error a complete top-level error
+     * @return the given error if it occurs for the first time, or else the
+     *         previous occurrence, whose count was incremented
+     */
+    public ValgrindError aggregate(ValgrindError error) {
+        error.storeStacks();
+        ErrorKey key = new ErrorKey(error);
+        ValgrindError previous = errors.get(key);
+        if (previous == null) {
+            errors.put(key, error);
+            return error;
+        }
+        previous.addOccurrences(error.getCount());
+        return previous;
+    }
+
+    private int internNode(int frame, int caller) {
+        int mask = nodeTable.length - 1;
+        int slot = hash(frame, caller) & mask;
+        for (int entry; (entry = nodeTable[slot]) != 0; slot = (slot + 1) & mask) {
+            if (nodeFrames[entry - 1] == frame && nodeCallers[entry - 1] == caller) {
+                return entry - 1;
+            }
+        }
+        if (nodeCount == nodeFrames.length) {
+            nodeFrames = Arrays.copyOf(nodeFrames, nodeCount * 2);
+            nodeCallers = Arrays.copyOf(nodeCallers, nodeCount * 2);
+        }
+        nodeFrames[nodeCount] = frame;
+        nodeCallers[nodeCount] = caller;
+        nodeTable[slot] = ++nodeCount;
+        // keep the table at most half full
+        if (nodeCount * 2 > nodeTable.length) {
+            rehash();
+        }
+        return nodeCount - 1;
+    }
+
+    private void rehash() {
+        nodeTable = new int[nodeTable.length * 2];
+        int mask = nodeTable.length - 1;
+        for (int node = 0; node < nodeCount; node++) {
+            int slot = hash(nodeFrames[node], nodeCallers[node]) & mask;
+            while (nodeTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            nodeTable[slot] = node + 1;
+        }
+    }
+
+    private static int hash(int frame, int caller) {
+        int h = frame * 0x9E3779B1 + caller;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Key of an error, equal for errors with the same description, stacks
+     * and nested messages.
+     */
+    private static final class ErrorKey {
+        private final ValgrindError error;
+        private final int hash;
+
+        ErrorKey(ValgrindError error) {
+            this.error = error;
+            hash = hashCode(error);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ErrorKey && hash == ((ErrorKey) obj).hash
+                    && equals(error, ((ErrorKey) obj).error);
+        }
+
+        private static int hashCode(IValgrindMessage message) {
+            int h = message.getText().hashCode();
+            if (message instanceof ValgrindError) {
+                h = h * 31 + ((ValgrindError) message).getStack();
+                for (IValgrindMessage child : ((ValgrindError) message).getNestedMessages()) {
+                    h = h * 31 + hashCode(child);
+                }
+            }
+            return h;
+        }
+
+        private static boolean equals(IValgrindMessage m1, IValgrindMessage m2) {
+            if (m1.getClass() != m2.getClass() || !m1.getText().equals(m2.getText())) {
+                return false;
+            }
+            if (m1 instanceof ValgrindError) {
+                ValgrindError e1 = (ValgrindError) m1;
+                ValgrindError e2 = (ValgrindError) m2;
+                if (e1.getStack() != e2.getStack()) {
+                    return false;
+                }
+                IValgrindMessage[] children1 = e1.getNestedMessages();
+                IValgrindMessage[] children2 = e2.getNestedMessages();
+                if (children1.length != children2.length) {
+                    return false;
+                }
+                for (int i = 0; i < children1.length; i++) {
+                    if (!equals(children1[i], children2[i])) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
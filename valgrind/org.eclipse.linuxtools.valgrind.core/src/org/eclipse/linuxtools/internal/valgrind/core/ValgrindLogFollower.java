@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.linuxtools.valgrind.core.CommandLineConstants;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+import org.eclipse.linuxtools.valgrind.core.ValgrindParserUtils;
+
+/**
+ * Follows the Valgrind logs of an output directory while they are written.
+ * Each call to {@link #poll()} parses what was appended to the logs since the
+ * previous call, so errors can be shown before the profiled program exits.
+ */
+public class ValgrindLogFollower {
+
+    private static final FileFilter LOG_FILTER = new FileFilter() {
+        @Override
+        public boolean accept(File pathname) {
+            String name = pathname.getName();
+            return name.startsWith(CommandLineConstants.LOG_PREFIX) && name.endsWith(".txt"); //$NON-NLS-1$
+        }
+    };
+
+    /**
+     * A followed log: the parser keeps its state between two reads.
+     */
+    private static final class Log {
+        final File file;
+        final ValgrindCoreParser parser;
+        long offset = 0;
+        // incomplete last line
+        final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        Log(File file, ValgrindCoreParser parser) {
+            this.file = file;
+            this.parser = parser;
+        }
+    }
+
+    private final File directory;
+    private final ILaunch launch;
+    private final Map<File, Log> logs = new LinkedHashMap<>();
+    // frames of the errors of all the logs
+    private final ValgrindFrameStore store = new ValgrindFrameStore();
+    private final byte[] buffer = new byte[64 * 1024];
+
+    /**
+     * Constructor
+     *
+     * @param directory the directory Valgrind writes its logs to
+     * @param launch the launch of the profiled program
+     */
+    public ValgrindLogFollower(File directory, ILaunch launch) {
+        this.directory = directory;
+        this.launch = launch;
+    }
+
+    /**
+     * Parse the lines appended to the logs since the last call. New logs,
+     * e.g. of traced children, are picked up as they appear.
+     *
+     * @return the top-level messages completed since the last call
+     * @throws IOException if a log can not be read
+     */
+    public IValgrindMessage[] poll() throws IOException {
+        File[] files = directory.listFiles(LOG_FILTER);
+        if (files != null) {
+            for (File file : files) {
+                if (!logs.containsKey(file)) {
+                    int pid = ValgrindParserUtils.parsePID(file.getName(), CommandLineConstants.LOG_PREFIX);
+                    logs.put(file, new Log(file, new ValgrindCoreParser(pid, launch, store)));
+                }
+            }
+        }
+        List<IValgrindMessage> ret = new ArrayList<>();
+        for (Log log : logs.values()) {
+            read(log);
+            ret.addAll(Arrays.asList(log.parser.getCompletedMessages()));
+        }
+        return ret.toArray(new IValgrindMessage[ret.size()]);
+    }
+
+    /**
+     * Parse the rest of the logs, once Valgrind has exited.
+     *
+     * @return the top-level messages completed since the last call to
+     *         {@link #poll()}
+     * @throws IOException if a log can not be read
+     */
+    public IValgrindMessage[] finish() throws IOException {
+        List<IValgrindMessage> ret = new ArrayList<>(Arrays.asList(poll()));
+        for (Log log : logs.values()) {
+            if (log.pending.size() > 0) {
+                // last line without line terminator
+                log.parser.parseLine(log.pending.toString());
+                log.pending.reset();
+            }
+            log.parser.finish();
+            ret.addAll(Arrays.asList(log.parser.getCompletedMessages()));
+        }
+        return ret.toArray(new IValgrindMessage[ret.size()]);
+    }
+
+    /**
+     * Returns all the messages read so far, log by log.
+     *
+     * @return the messages of each log
+     */
+    public List<IValgrindMessage[]> getLogMessages() {
+        List<IValgrindMessage[]> ret = new ArrayList<>(logs.size());
+        for (Log log : logs.values()) {
+            ret.add(log.parser.getMessages());
+        }
+        return ret;
+    }
+
+    private void read(Log log) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(log.file, "r")) { //$NON-NLS-1$
+            if (file.length() < log.offset) {
+                // truncated: nothing sensible can be done with what was read
+                return;
+            }
+            file.seek(log.offset);
+            int count;
+            while ((count = file.read(buffer)) > 0) {
+                log.offset += count;
+                int start = 0;
+                for (int i = 0; i < count; i++) {
+                    if (buffer[i] == '\n') {
+                        log.pending.write(buffer, start, i - start);
+                        log.parser.parseLine(takeLine(log.pending));
+                        start = i + 1;
+                    }
+                }
+                log.pending.write(buffer, start, count - start);
+            }
+        }
+    }
+
+    private static String takeLine(ByteArrayOutputStream pending) {
+        // same charset as the FileReader of ValgrindCoreParser
+        String line = pending.toString();
+        pending.reset();
+        if (line.endsWith("\r")) { //$NON-NLS-1$
+            line = line.substring(0, line.length() - 1);
+        }
+        return line;
+    }
+}
@@ -16,11 +16,24 @@ import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 public class ValgrindStackFrame extends AbstractValgrindMessage {
     protected String file;
     protected int line;
+    // position in the stack of an error, for frames built from the store
+    private final int index;
 
     public ValgrindStackFrame(IValgrindMessage message, String text, ILaunch launch, String file, int line) {
         super(message, text, launch);
         this.file = file;
         this.line = line;
+        index = -1;
+    }
+
+    /**
+     * Constructor for a frame of the stack of an error, built from the store.
+     */
+    ValgrindStackFrame(ValgrindError error, ValgrindFrameStore store, int frame, int index) {
+        super(error, store.getText(frame));
+        this.file = store.getFile(frame);
+        this.line = store.getLine(frame);
+        this.index = index;
     }
 
     public String getFile() {
@@ -31,4 +44,26 @@ public class ValgrindStackFrame extends AbstractValgrindMessage {
         return line;
     }
 
+    // frames built from the store are built again each time the children of
+    // their error are requested: the same frame of the same error is equal
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (index < 0 || !(obj instanceof ValgrindStackFrame)) {
+            return false;
+        }
+        ValgrindStackFrame other = (ValgrindStackFrame) obj;
+        return index == other.index && getParent() == other.getParent();
+    }
+
+    @Override
+    public int hashCode() {
+        if (index < 0) {
+            return super.hashCode();
+        }
+        return System.identityHashCode(getParent()) * 31 + index;
+    }
+
 }
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.core;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+
+/**
+ * Error read from the XML output of Valgrind, with the fields the text
+ * output only has in its wording.
+ */
+public class ValgrindXmlError extends ValgrindError {
+    private final long unique;
+    private final int threadId;
+    private final String kind;
+    private final long leakedBytes;
+    private final long leakedBlocks;
+    private String suppression;
+
+    /**
+     * Constructor
+     *
+     * @param message the parent message, or null
+     * @param text the description of the error
+     * @param launch the launch of the program
+     * @param pid the process of the error
+     * @param store the store of the stack frames of the launch
+     * @param unique the identifier of the error in the output
+     * @param threadId the thread the error occurred in
+     * @param kind the kind of the error, e.g. InvalidRead or Leak_DefinitelyLost
+     * @param leakedBytes the number of bytes lost, or -1 for other errors than leaks
+     * @param leakedBlocks the number of blocks lost, or -1 for other errors than leaks
+     */
+    public ValgrindXmlError(IValgrindMessage message, String text, ILaunch launch, int pid, ValgrindFrameStore store,
+            long unique, int threadId, String kind, long leakedBytes, long leakedBlocks) {
+        super(message, text, launch, pid, store);
+        this.unique = unique;
+        this.threadId = threadId;
+        this.kind = kind;
+        this.leakedBytes = leakedBytes;
+        this.leakedBlocks = leakedBlocks;
+    }
+
+    public long getUnique() {
+        return unique;
+    }
+
+    public int getThreadId() {
+        return threadId;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public long getLeakedBytes() {
+        return leakedBytes;
+    }
+
+    public long getLeakedBlocks() {
+        return leakedBlocks;
+    }
+
+    /**
+     * Returns the suppression of the error, as written by --gen-suppressions.
+     *
+     * @return the text of the suppression, or null if none was generated
+     */
+    public String getSuppression() {
+        return suppression;
+    }
+
+    void setSuppression(String suppression) {
+        this.suppression = suppression;
+    }
+}
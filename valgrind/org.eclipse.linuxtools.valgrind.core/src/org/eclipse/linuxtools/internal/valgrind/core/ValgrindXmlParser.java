@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.core;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.linuxtools.valgrind.core.CommandLineConstants;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+import org.eclipse.linuxtools.valgrind.core.ValgrindParserUtils;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Parser of the XML output of Valgrind (--xml=yes), as described by its
+ * protocol version 4. The document is streamed, and the messages are the same
+ * as the ones {@link ValgrindCoreParser} builds from the text output; errors
+ * are {@link ValgrindXmlError}s, with their kind, thread and leak sizes.
+ * Stack frames are kept in a {@link ValgrindFrameStore}, and repeated errors
+ * are aggregated.
+ */
+public class ValgrindXmlParser {
+    private static final String ROOT = "valgrindoutput"; //$NON-NLS-1$
+    private static final String PID = "pid"; //$NON-NLS-1$
+    private static final String ERROR = "error"; //$NON-NLS-1$
+    private static final String ANNOUNCE_THREAD = "announcethread"; //$NON-NLS-1$
+    private static final String UNIQUE = "unique"; //$NON-NLS-1$
+    private static final String TID = "tid"; //$NON-NLS-1$
+    private static final String KIND = "kind"; //$NON-NLS-1$
+    private static final String WHAT = "what"; //$NON-NLS-1$
+    private static final String XWHAT = "xwhat"; //$NON-NLS-1$
+    private static final String AUXWHAT = "auxwhat"; //$NON-NLS-1$
+    private static final String XAUXWHAT = "xauxwhat"; //$NON-NLS-1$
+    private static final String TEXT = "text"; //$NON-NLS-1$
+    private static final String LEAKED_BYTES = "leakedbytes"; //$NON-NLS-1$
+    private static final String LEAKED_BLOCKS = "leakedblocks"; //$NON-NLS-1$
+    private static final String STACK = "stack"; //$NON-NLS-1$
+    private static final String FRAME = "frame"; //$NON-NLS-1$
+    private static final String IP = "ip"; //$NON-NLS-1$
+    private static final String OBJ = "obj"; //$NON-NLS-1$
+    private static final String FN = "fn"; //$NON-NLS-1$
+    private static final String DIR = "dir"; //$NON-NLS-1$
+    private static final String FILE = "file"; //$NON-NLS-1$
+    private static final String LINE = "line"; //$NON-NLS-1$
+    private static final String SUPPRESSION = "suppression"; //$NON-NLS-1$
+    private static final String RAWTEXT = "rawtext"; //$NON-NLS-1$
+    private static final String HTHREADID = "hthreadid"; //$NON-NLS-1$
+    private static final String ISROOTTHREAD = "isrootthread"; //$NON-NLS-1$
+
+    private final List<IValgrindMessage> messages = new ArrayList<>();
+    private final ILaunch launch;
+    private final ValgrindFrameStore store;
+    private int pid;
+
+    /**
+     * Parse the given XML output.
+     *
+     * @param inputFile the file written by Valgrind (--xml-file)
+     * @param launch the launch of the program
+     * @throws IOException if the file can not be read, is not a Valgrind
+     *             XML output, or has invalid numbers
+     */
+    public ValgrindXmlParser(File inputFile, ILaunch launch) throws IOException {
+        this(inputFile, launch, new ValgrindFrameStore());
+    }
+
+    /**
+     * Parse the given XML output, keeping the frames in the given store.
+     *
+     * @param inputFile the file written by Valgrind (--xml-file)
+     * @param launch the launch of the program
+     * @param store the store of the stack frames, shared with the other
+     *            outputs of the launch
+     * @throws IOException if the file can not be read, is not a Valgrind
+     *             XML output, or has invalid numbers
+     */
+    public ValgrindXmlParser(File inputFile, ILaunch launch, ValgrindFrameStore store) throws IOException {
+        this.launch = launch;
+        this.store = store;
+        pid = ValgrindParserUtils.parsePID(inputFile.getName(), CommandLineConstants.LOG_PREFIX);
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        boolean started = false;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(inputFile))) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                reader.nextTag();
+                if (!ROOT.equals(reader.getLocalName())) {
+                    throw new IOException(Messages.getString("ValgrindXmlParser.Not_valgrind_output")); //$NON-NLS-1$
+                }
+                started = true;
+                parseOutput(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // the output of a killed program ends abruptly: keep the errors
+            // read so far
+            if (!started) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the top-level messages of the output.
+     *
+     * @return the messages
+     */
+    public IValgrindMessage[] getMessages() {
+        return messages.toArray(new IValgrindMessage[messages.size()]);
+    }
+
+    private void parseOutput(XMLStreamReader reader) throws XMLStreamException, IOException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if (PID.equals(name)) {
+                pid = getInt(reader);
+            } else if (ERROR.equals(name)) {
+                addMessage(parseError(reader));
+            } else if (ANNOUNCE_THREAD.equals(name)) {
+                addMessage(parseAnnounceThread(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void addMessage(ValgrindError error) {
+        if (store.aggregate(error) == error) {
+            messages.add(error);
+        }
+    }
+
+    private ValgrindError parseError(XMLStreamReader reader) throws XMLStreamException, IOException {
+        long unique = -1;
+        int tid = -1;
+        String kind = null;
+        ValgrindXmlError error = null;
+        // where the next stack goes: the error, or its last auxiliary message
+        ValgrindError stackParent = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if (UNIQUE.equals(name)) {
+                // hexadecimal
+                unique = getLong(reader, true);
+            } else if (TID.equals(name)) {
+                tid = getInt(reader);
+            } else if (KIND.equals(name)) {
+                kind = reader.getElementText().trim();
+            } else if (WHAT.equals(name)) {
+                error = new ValgrindXmlError(null, reader.getElementText().trim(), launch, pid, store, unique, tid, kind, -1, -1);
+                stackParent = error;
+            } else if (XWHAT.equals(name)) {
+                String text = null;
+                long leakedBytes = -1;
+                long leakedBlocks = -1;
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    String field = reader.getLocalName();
+                    if (TEXT.equals(field)) {
+                        text = reader.getElementText().trim();
+                    } else if (LEAKED_BYTES.equals(field)) {
+                        leakedBytes = getLong(reader, false);
+                    } else if (LEAKED_BLOCKS.equals(field)) {
+                        leakedBlocks = getLong(reader, false);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+                error = new ValgrindXmlError(null, text, launch, pid, store, unique, tid, kind, leakedBytes, leakedBlocks);
+                stackParent = error;
+            } else if (error != null && AUXWHAT.equals(name)) {
+                stackParent = new ValgrindError(error, reader.getElementText().trim(), launch, pid, store);
+            } else if (error != null && XAUXWHAT.equals(name)) {
+                stackParent = new ValgrindError(error, parseText(reader), launch, pid, store);
+            } else if (stackParent != null && STACK.equals(name)) {
+                parseStack(reader, stackParent);
+            } else if (error != null && SUPPRESSION.equals(name)) {
+                error.setSuppression(parseSuppression(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        if (error == null) {
+            // should not occur: all errors have a description
+            error = new ValgrindXmlError(null, kind, launch, pid, store, unique, tid, kind, -1, -1);
+        }
+        return error;
+    }
+
+    private ValgrindError parseAnnounceThread(XMLStreamReader reader) throws XMLStreamException, IOException {
+        ValgrindError announce = null;
+        String threadId = null;
+        boolean root = false;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if (HTHREADID.equals(name)) {
+                threadId = reader.getElementText().trim();
+            } else if (ISROOTTHREAD.equals(name)) {
+                root = true;
+                skipElement(reader);
+            } else if (STACK.equals(name)) {
+                announce = new ValgrindError(null, "Thread #" + threadId + " was created", launch, pid, store); //$NON-NLS-1$ //$NON-NLS-2$
+                parseStack(reader, announce);
+            } else {
+                skipElement(reader);
+            }
+        }
+        if (announce == null) {
+            String text = root ? " is the program's root thread" : " was created"; //$NON-NLS-1$ //$NON-NLS-2$
+            announce = new ValgrindError(null, "Thread #" + threadId + text, launch, pid, store); //$NON-NLS-1$
+        }
+        return announce;
+    }
+
+    private void parseStack(XMLStreamReader reader, ValgrindError parent) throws XMLStreamException, IOException {
+        boolean first = true;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (FRAME.equals(reader.getLocalName())) {
+                parseFrame(reader, parent, first);
+                first = false;
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void parseFrame(XMLStreamReader reader, ValgrindError parent, boolean first) throws XMLStreamException, IOException {
+        String ip = null;
+        String obj = null;
+        String fn = null;
+        String dir = null;
+        String file = null;
+        int line = 0;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if (IP.equals(name)) {
+                ip = reader.getElementText().trim();
+            } else if (OBJ.equals(name)) {
+                obj = reader.getElementText().trim();
+            } else if (FN.equals(name)) {
+                fn = reader.getElementText().trim();
+            } else if (DIR.equals(name)) {
+                dir = reader.getElementText().trim();
+            } else if (FILE.equals(name)) {
+                file = reader.getElementText().trim();
+            } else if (LINE.equals(name)) {
+                line = getInt(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        // same wording as the text output
+        StringBuilder text = new StringBuilder(first ? "at " : "by "); //$NON-NLS-1$ //$NON-NLS-2$
+        text.append(ip).append(": ").append(fn == null ? "???" : fn); //$NON-NLS-1$ //$NON-NLS-2$
+        String path;
+        if (file != null) {
+            path = dir == null ? file : dir + '/' + file;
+            text.append(" (").append(path).append(':').append(line).append(')'); //$NON-NLS-1$
+        } else {
+            path = obj;
+            if (obj != null) {
+                text.append(" (in ").append(obj).append(')'); //$NON-NLS-1$
+            }
+        }
+        parent.addFrame(store.internFrame(text.toString(), path, line));
+    }
+
+    /**
+     * Returns the number of the current element.
+     *
+     * @throws IOException if the element is not a number
+     */
+    private static int getInt(XMLStreamReader reader) throws XMLStreamException, IOException {
+        String text = reader.getElementText().trim();
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw invalidNumber(reader, text, e);
+        }
+    }
+
+    /**
+     * Returns the number of the current element.
+     *
+     * @param decode whether the number may be hexadecimal (0x...)
+     * @throws IOException if the element is not a number
+     */
+    private static long getLong(XMLStreamReader reader, boolean decode) throws XMLStreamException, IOException {
+        String text = reader.getElementText().trim();
+        try {
+            return decode ? Long.decode(text) : Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw invalidNumber(reader, text, e);
+        }
+    }
+
+    private static IOException invalidNumber(XMLStreamReader reader, String text, NumberFormatException cause) {
+        // the reader is at the end tag of the element
+        Location location = reader.getLocation();
+        String message = NLS.bind(Messages.getString("ValgrindXmlParser.Invalid_number"), //$NON-NLS-1$
+                new Object[] { text, reader.getLocalName(), location.getLineNumber(), location.getColumnNumber() });
+        return new IOException(message, cause);
+    }
+
+    private static String parseText(XMLStreamReader reader) throws XMLStreamException {
+        String text = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (TEXT.equals(reader.getLocalName())) {
+                text = reader.getElementText().trim();
+            } else {
+                skipElement(reader);
+            }
+        }
+        return text;
+    }
+
+    private static String parseSuppression(XMLStreamReader reader) throws XMLStreamException {
+        String text = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (RAWTEXT.equals(reader.getLocalName())) {
+                text = reader.getElementText().trim();
+            } else {
+                skipElement(reader);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Skip the current element, with its content.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@ public interface CommandLineConstants {
 
     String OPT_XML = "--xml"; //$NON-NLS-1$
     String OPT_LOGFILE = "--log-file"; //$NON-NLS-1$
+    String OPT_XMLFILE = "--xml-file"; //$NON-NLS-1$
     String OPT_QUIET = "-q"; //$NON-NLS-1$
     String OPT_VERSION = "--version"; //$NON-NLS-1$
 
@@ -31,6 +31,9 @@ public final class LaunchConfigurationConstants {
     public static final String ATTR_GENERAL_BELOWMAIN = PLUGIN_ID + ".GENERAL_BELOWMAIN"; //$NON-NLS-1$
     public static final String ATTR_GENERAL_MAXFRAME = PLUGIN_ID + ".GENERAL_MAXFRAME"; //$NON-NLS-1$
     public static final String ATTR_GENERAL_SUPPFILES = PLUGIN_ID + ".GENERAL_SUPPFILES"; //$NON-NLS-1$
+    public static final String ATTR_GENERAL_LIVE_LOG = PLUGIN_ID + ".GENERAL_LIVE_LOG"; //$NON-NLS-1$
+    public static final String ATTR_GENERAL_XML = PLUGIN_ID + ".GENERAL_XML"; //$NON-NLS-1$
+    public static final String ATTR_GENERAL_MAX_MARKERS = PLUGIN_ID + ".GENERAL_MAX_MARKERS"; //$NON-NLS-1$
 
     // 3.4.0 specific
     public static final String ATTR_GENERAL_MAINSTACK_BOOL = PLUGIN_ID + ".GENERAL_MAINSTACK_BOOL"; //$NON-NLS-1$
@@ -51,6 +54,9 @@ public final class LaunchConfigurationConstants {
     public static final boolean DEFAULT_GENERAL_BELOWMAIN = false;
     public static final int DEFAULT_GENERAL_MAXFRAME = 2000000;
     public static final List<String> DEFAULT_GENERAL_SUPPFILES = Collections.emptyList();
+    public static final boolean DEFAULT_GENERAL_LIVE_LOG = false;
+    public static final boolean DEFAULT_GENERAL_XML = false;
+    public static final int DEFAULT_GENERAL_MAX_MARKERS = 10000; // 0 for no limit
 
     // 3.4.0 specific
     public static final boolean DEFAULT_GENERAL_MAINSTACK_BOOL = false;
@@ -14,18 +14,13 @@ package org.eclipse.linuxtools.internal.valgrind.launch;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 import org.eclipse.cdt.debug.core.CDebugUtils;
 import org.eclipse.cdt.debug.core.ICDTLaunchConfigurationConstants;
 import org.eclipse.cdt.launch.AbstractCLaunchDelegate;
-import org.eclipse.core.filesystem.URIUtil;
-import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
@@ -42,15 +37,11 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.model.IProcess;
-import org.eclipse.debug.core.model.ISourceLocator;
-import org.eclipse.debug.core.sourcelookup.containers.LocalFileStorage;
-import org.eclipse.debug.ui.DebugUITools;
-import org.eclipse.debug.ui.sourcelookup.ISourceLookupResult;
 import org.eclipse.linuxtools.internal.valgrind.core.ValgrindCommand;
-import org.eclipse.linuxtools.internal.valgrind.core.ValgrindCoreParser;
-import org.eclipse.linuxtools.internal.valgrind.core.ValgrindError;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindFrameStore;
 import org.eclipse.linuxtools.internal.valgrind.core.ValgrindInfo;
-import org.eclipse.linuxtools.internal.valgrind.core.ValgrindStackFrame;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindLogFollower;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindXmlParser;
 import org.eclipse.linuxtools.internal.valgrind.ui.ValgrindUIPlugin;
 import org.eclipse.linuxtools.internal.valgrind.ui.ValgrindViewPart;
 import org.eclipse.linuxtools.valgrind.core.CommandLineConstants;
@@ -67,12 +58,18 @@ public class ValgrindLaunchConfigurationDelegate extends AbstractCLaunchDelegate
     private static final String EQUALS = "="; //$NON-NLS-1$
 
     private static final String LOG_FILE = CommandLineConstants.LOG_PREFIX + "%p.txt"; //$NON-NLS-1$
-    private static final FileFilter LOG_FILTER = new FileFilter() {
+    private static final String XML_FILE = CommandLineConstants.LOG_PREFIX + "%p.xml"; //$NON-NLS-1$
+    private static final FileFilter XML_FILTER = new FileFilter() {
         @Override
         public boolean accept(File pathname) {
-            return pathname.getName().startsWith(CommandLineConstants.LOG_PREFIX);
+            String name = pathname.getName();
+            return name.startsWith(CommandLineConstants.LOG_PREFIX) && name.endsWith(".xml"); //$NON-NLS-1$
         }
     };
+    // tools with an XML output
+    private static final List<String> XML_TOOLS = Arrays.asList("memcheck", "helgrind"); //$NON-NLS-1$ //$NON-NLS-2$
+    // the logs are read every second when followed
+    private static final int LIVE_LOG_POLL_TICKS = 10;
 
     protected String toolID;
     protected ValgrindCommand command;
@@ -157,16 +154,33 @@ public class ValgrindLaunchConfigurationDelegate extends AbstractCLaunchDelegate
             process = createNewProcess(launch, command.getProcess(), commandArray[0]);
             // set the command line used
             process.setAttribute(IProcess.ATTR_CMDLINE, command.getCommandLine());
-            while (!process.isTerminated()) {
+            ValgrindLogFollower follower = new ValgrindLogFollower(outputPath.toFile(), launch);
+            // the XML output is only complete once Valgrind exits
+            boolean liveLog = !useXml(config)
+                    && config.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_LIVE_LOG, LaunchConfigurationConstants.DEFAULT_GENERAL_LIVE_LOG);
+            if (liveLog) {
+                // show the errors as Valgrind reports them
+                ValgrindUIPlugin.getDefault().createView(createLaunchStr(), null);
+                ValgrindUIPlugin.getDefault().showView();
+            }
+            for (int i = 1; !process.isTerminated(); i++) {
                 Thread.sleep(100);
+                if (liveLog && i % LIVE_LOG_POLL_TICKS == 0) {
+                    IValgrindMessage[] newMessages = follower.poll();
+                    if (newMessages.length > 0) {
+                        ValgrindUIPlugin.getDefault().addMessages(newMessages);
+                    }
+                }
             }
 
             // store these for use by other classes
             getPlugin().setCurrentLaunchConfiguration(config);
             getPlugin().setCurrentLaunch(launch);
 
-            // parse Valgrind logs
-            IValgrindMessage[] messages = parseLogs(outputPath);
+            // parse the rest of the Valgrind logs
+            follower.finish();
+            List<IValgrindMessage[]> logMessages = parseXmlLogs(outputPath);
+            IValgrindMessage[] messages = getMessages(logMessages != null ? logMessages : follower.getLogMessages());
 
             // create launch summary string to distinguish this launch
             launchStr = createLaunchStr();
@@ -206,70 +220,52 @@ public class ValgrindLaunchConfigurationDelegate extends AbstractCLaunchDelegate
     }
 
     protected IValgrindMessage[] parseLogs(IPath outputPath) throws IOException, CoreException {
-        List<IValgrindMessage> messages = new ArrayList<>();
+        List<IValgrindMessage[]> logMessages = parseXmlLogs(outputPath);
+        if (logMessages == null) {
+            ValgrindLogFollower follower = new ValgrindLogFollower(outputPath.toFile(), launch);
+            follower.finish();
+            logMessages = follower.getLogMessages();
+        }
+        return getMessages(logMessages);
+    }
 
-        for (File log : outputPath.toFile().listFiles(LOG_FILTER)) {
-            ValgrindCoreParser parser = new ValgrindCoreParser(log, launch);
-            IValgrindMessage[] results = parser.getMessages();
+    /**
+     * Parse the XML outputs of Valgrind, which describe the errors better
+     * than the text logs when they were requested.
+     *
+     * @param outputPath the output directory
+     * @return the messages of each XML output, or null if there is none
+     * @throws IOException if an output can not be read
+     */
+    private List<IValgrindMessage[]> parseXmlLogs(IPath outputPath) throws IOException {
+        File[] files = outputPath.toFile().listFiles(XML_FILTER);
+        if (files == null || files.length == 0) {
+            return null;
+        }
+        Arrays.sort(files);
+        List<IValgrindMessage[]> logMessages = new ArrayList<>(files.length);
+        ValgrindFrameStore store = new ValgrindFrameStore();
+        for (File file : files) {
+            logMessages.add(new ValgrindXmlParser(file, launch, store).getMessages());
+        }
+        return logMessages;
+    }
+
+    private IValgrindMessage[] getMessages(List<IValgrindMessage[]> logMessages) throws CoreException {
+        List<IValgrindMessage> messages = new ArrayList<>();
 
+        for (IValgrindMessage[] results : logMessages) {
             if (results.length == 0){
                 results = new IValgrindMessage[1];
                 results[0] = new ValgrindInfo(null, Messages.getString("ValgrindOutputView.No_output"), launch); //$NON-NLS-1$
             }
             messages.addAll(Arrays.asList(results));
-            createMarkers(results);
         }
 
-        return messages.toArray(new IValgrindMessage[messages.size()]);
-    }
-
-    private void createMarkers(IValgrindMessage[] messages) throws CoreException {
-        // find the topmost stack frame within the workspace to annotate with marker
-        // traverse nested errors as well
-        Stack<IValgrindMessage> messageStack = new Stack<>();
-        messageStack.addAll(Arrays.asList(messages));
-        while (!messageStack.isEmpty()) {
-            IValgrindMessage message = messageStack.pop();
-            IMarker marker = null;
-            IValgrindMessage[] children = message.getChildren();
-            for (int i = 0; i < children.length; i++) {
-                // if we've found our marker we don't care about any further frames in this stack
-                if (children[i] instanceof ValgrindStackFrame && marker == null) {
-                    ValgrindStackFrame frame = (ValgrindStackFrame) children[i];
-                    if (frame.getLine() > 0) {
-                        ISourceLocator locator = frame.getLaunch().getSourceLocator();
-                        ISourceLookupResult result = DebugUITools.lookupSource(frame.getFile(), locator);
-                        Object sourceElement = result.getSourceElement();
-
-                        if (sourceElement != null) {
-                            // Resolve IResource in case we get a LocalFileStorage object
-                            if (sourceElement instanceof LocalFileStorage) {
-                                IPath filePath = ((LocalFileStorage) sourceElement).getFullPath();
-                                URI fileURI = URIUtil.toURI(filePath);
-                                IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-                                IFile[] files = root.findFilesForLocationURI(fileURI);
-                                if (files.length > 0) {
-                                    // Take the first match
-                                    sourceElement = files[0];
-                                }
-                            }
-
-                            if (sourceElement instanceof IResource) {
-                                IResource resource = (IResource) sourceElement;
-                                marker = resource.createMarker(ValgrindLaunchPlugin.MARKER_TYPE);
-                                marker.setAttribute(IMarker.MESSAGE, message.getText());
-                                marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
-                                marker.setAttribute(IMarker.LINE_NUMBER, frame.getLine());
-                            }
-                        }
-                    }
-                }
-                else if (children[i] instanceof ValgrindError) {
-                    // nested error
-                    messageStack.push(children[i]);
-                }
-            }
-        }
+        IValgrindMessage[] ret = messages.toArray(new IValgrindMessage[messages.size()]);
+        int maxMarkers = config.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAX_MARKERS, LaunchConfigurationConstants.DEFAULT_GENERAL_MAX_MARKERS);
+        new ValgrindMarkerCreator(maxMarkers).createMarkers(ret, launch);
+        return ret;
     }
 
     protected IProcess createNewProcess(ILaunch launch, Process systemProcess, String programName) {
@@ -330,6 +326,10 @@ public class ValgrindLaunchConfigurationDelegate extends AbstractCLaunchDelegate
         opts.add(CommandLineConstants.OPT_TOOL + EQUALS + getPlugin().getToolName(toolID));
         opts.add(CommandLineConstants.OPT_QUIET); // suppress uninteresting output
         opts.add(CommandLineConstants.OPT_LOGFILE + EQUALS + outputPath.append(LOG_FILE).toOSString());
+        if (useXml(config)) {
+            opts.add(CommandLineConstants.OPT_XML + EQUALS + YES);
+            opts.add(CommandLineConstants.OPT_XMLFILE + EQUALS + outputPath.append(XML_FILE).toOSString());
+        }
 
         opts.add(CommandLineConstants.OPT_TRACECHILD + EQUALS + (config.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_TRACECHILD, LaunchConfigurationConstants.DEFAULT_GENERAL_TRACECHILD) ? YES : NO));
         opts.add(CommandLineConstants.OPT_CHILDSILENT + EQUALS + YES); // necessary for parsing
@@ -370,6 +370,11 @@ public class ValgrindLaunchConfigurationDelegate extends AbstractCLaunchDelegate
         return opts.toArray(ret);
     }
 
+    private boolean useXml(ILaunchConfiguration config) throws CoreException {
+        return config.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_XML, LaunchConfigurationConstants.DEFAULT_GENERAL_XML)
+                && XML_TOOLS.contains(getPlugin().getToolName(toolID));
+    }
+
     protected String getTool(ILaunchConfiguration config) throws CoreException {
         return config.getAttribute(LaunchConfigurationConstants.ATTR_TOOL, LaunchConfigurationConstants.DEFAULT_TOOL);
     }
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.launch;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+import org.eclipse.core.filesystem.URIUtil;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.model.ISourceLocator;
+import org.eclipse.debug.core.sourcelookup.containers.LocalFileStorage;
+import org.eclipse.debug.ui.DebugUITools;
+import org.eclipse.debug.ui.sourcelookup.ISourceLookupResult;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindError;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindStackFrame;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+
+/**
+ * Creates the markers of the errors of a launch, on the topmost frame of each
+ * error within the workspace. The source files of the frames are looked up
+ * once each, one after the other as they share the launch's source locator,
+ * and the markers are created in a single workspace operation.
+ */
+public class ValgrindMarkerCreator {
+    private static final String[] MARKER_ATTRIBUTES = { IMarker.MESSAGE, IMarker.SEVERITY, IMarker.LINE_NUMBER };
+
+    private final int maxMarkers;
+
+    /**
+     * An error with the frames that may hold its marker.
+     */
+    private static final class Candidate {
+        final IValgrindMessage message;
+        final ValgrindStackFrame[] frames;
+        final int count;
+        final int order;
+
+        Candidate(IValgrindMessage message, ValgrindStackFrame[] frames, int count, int order) {
+            this.message = message;
+            this.frames = frames;
+            this.count = count;
+            this.order = order;
+        }
+    }
+
+    /**
+     * A marker to create.
+     */
+    private static final class MarkerInfo {
+        final IResource resource;
+        final String text;
+        final int line;
+        final int count;
+        final int order;
+
+        MarkerInfo(IResource resource, String text, int line, int count, int order) {
+            this.resource = resource;
+            this.text = text;
+            this.line = line;
+            this.count = count;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxMarkers the maximum number of markers to create, 0 for no
+     *            limit. Past the limit, the markers of the most frequent
+     *            errors are kept.
+     */
+    public ValgrindMarkerCreator(int maxMarkers) {
+        this.maxMarkers = maxMarkers;
+    }
+
+    /**
+     * Create the markers of the given messages and of their nested errors.
+     *
+     * @param messages the top-level messages
+     * @param launch the launch the messages come from
+     * @throws CoreException if the markers can not be created
+     */
+    public void createMarkers(IValgrindMessage[] messages, ILaunch launch) throws CoreException {
+        List<Candidate> candidates = getCandidates(messages);
+        Set<String> files = new LinkedHashSet<>();
+        for (Candidate candidate : candidates) {
+            for (ValgrindStackFrame frame : candidate.frames) {
+                files.add(frame.getFile());
+            }
+        }
+        Map<String, IResource> resources = lookupSources(files, launch.getSourceLocator());
+
+        List<MarkerInfo> infos = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            // the topmost frame within the workspace holds the marker
+            for (ValgrindStackFrame frame : candidate.frames) {
+                IResource resource = resources.get(frame.getFile());
+                if (resource != null) {
+                    infos.add(new MarkerInfo(resource, candidate.message.getText(), frame.getLine(),
+                            candidate.count, candidate.order));
+                    break;
+                }
+            }
+        }
+        if (infos.isEmpty()) {
+            return;
+        }
+        final List<MarkerInfo> markers = getMostFrequent(infos);
+
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        workspace.run(new IWorkspaceRunnable() {
+            @Override
+            public void run(IProgressMonitor monitor) throws CoreException {
+                for (MarkerInfo info : markers) {
+                    IMarker marker = info.resource.createMarker(ValgrindLaunchPlugin.MARKER_TYPE);
+                    marker.setAttributes(MARKER_ATTRIBUTES, new Object[] { info.text, IMarker.SEVERITY_ERROR, info.line });
+                }
+            }
+        }, workspace.getRoot(), IWorkspace.AVOID_UPDATE, null);
+    }
+
+    /**
+     * Returns the errors with source frames, nested errors included.
+     */
+    private static List<Candidate> getCandidates(IValgrindMessage[] messages) {
+        List<Candidate> candidates = new ArrayList<>();
+        Stack<IValgrindMessage> messageStack = new Stack<>();
+        for (IValgrindMessage top : messages) {
+            int count = top instanceof ValgrindError ? ((ValgrindError) top).getCount() : 1;
+            messageStack.push(top);
+            while (!messageStack.isEmpty()) {
+                IValgrindMessage message = messageStack.pop();
+                List<ValgrindStackFrame> frames = new ArrayList<>();
+                for (IValgrindMessage child : message.getChildren()) {
+                    if (child instanceof ValgrindStackFrame) {
+                        if (((ValgrindStackFrame) child).getLine() > 0) {
+                            frames.add((ValgrindStackFrame) child);
+                        }
+                    } else if (child instanceof ValgrindError) {
+                        // nested error
+                        messageStack.push(child);
+                    }
+                }
+                if (!frames.isEmpty()) {
+                    candidates.add(new Candidate(message, frames.toArray(new ValgrindStackFrame[frames.size()]),
+                            count, candidates.size()));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the given markers limited to those of the most frequent errors
+     * when there are more than the maximum number of markers. The limit is
+     * applied once the markers are resolved, so that errors with no frame in
+     * the workspace do not take the place of others.
+     */
+    private List<MarkerInfo> getMostFrequent(List<MarkerInfo> markers) {
+        if (maxMarkers <= 0 || markers.size() <= maxMarkers) {
+            return markers;
+        }
+        // keep the most frequent errors, in their order of appearance
+        Collections.sort(markers, new Comparator<MarkerInfo>() {
+            @Override
+            public int compare(MarkerInfo m1, MarkerInfo m2) {
+                int ret = Integer.compare(m2.count, m1.count);
+                return ret != 0 ? ret : Integer.compare(m1.order, m2.order);
+            }
+        });
+        List<MarkerInfo> kept = new ArrayList<>(markers.subList(0, maxMarkers));
+        Collections.sort(kept, new Comparator<MarkerInfo>() {
+            @Override
+            public int compare(MarkerInfo m1, MarkerInfo m2) {
+                return Integer.compare(m1.order, m2.order);
+            }
+        });
+        return kept;
+    }
+
+    /**
+     * Look the given files up. The lookups go through the launch's source
+     * locator, which is not safe to use from several threads, so they are
+     * done one at a time.
+     *
+     * @return the workspace resources of the files found in the workspace
+     */
+    private static Map<String, IResource> lookupSources(Set<String> files, ISourceLocator locator) {
+        Map<String, IResource> resources = new HashMap<>();
+        for (String file : files) {
+            IResource resource = lookupSource(file, locator);
+            if (resource != null) {
+                resources.put(file, resource);
+            }
+        }
+        return resources;
+    }
+
+    private static IResource lookupSource(String file, ISourceLocator locator) {
+        ISourceLookupResult result = DebugUITools.lookupSource(file, locator);
+        Object sourceElement = result.getSourceElement();
+
+        // Resolve IResource in case we get a LocalFileStorage object
+        if (sourceElement instanceof LocalFileStorage) {
+            IPath filePath = ((LocalFileStorage) sourceElement).getFullPath();
+            URI fileURI = URIUtil.toURI(filePath);
+            IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+            IFile[] files = root.findFilesForLocationURI(fileURI);
+            if (files.length > 0) {
+                // Take the first match
+                sourceElement = files[0];
+            }
+        }
+        return sourceElement instanceof IResource ? (IResource) sourceElement : null;
+    }
+}
@@ -64,12 +64,15 @@ public class ValgrindOptionsTab extends AbstractLaunchConfigurationTab {
     protected Button traceChildrenButton;
     protected Button childSilentButton;
     protected Button runFreeresButton;
+    protected Button liveLogButton;
+    protected Button xmlButton;
 
     protected Button demangleButton;
     protected Spinner numCallersSpinner;
     protected Button errorLimitButton;
     protected Button showBelowMainButton;
     protected Spinner maxStackFrameSpinner;
+    protected Spinner maxMarkersSpinner;
     protected Button mainStackSizeButton;
     protected Spinner mainStackSizeSpinner;
     protected Button dSymUtilButton;
@@ -265,6 +268,16 @@ public class ValgrindOptionsTab extends AbstractLaunchConfigurationTab {
         runFreeresButton.setText(Messages.getString("ValgrindOptionsTab.run_freeres")); //$NON-NLS-1$
         runFreeresButton.addSelectionListener(selectListener);
         runFreeresButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+        liveLogButton = new Button(basicTop, SWT.CHECK);
+        liveLogButton.setText(Messages.getString("ValgrindOptionsTab.live_log")); //$NON-NLS-1$
+        liveLogButton.addSelectionListener(selectListener);
+        liveLogButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+        xmlButton = new Button(basicTop, SWT.CHECK);
+        xmlButton.setText(Messages.getString("ValgrindOptionsTab.xml")); //$NON-NLS-1$
+        xmlButton.addSelectionListener(selectListener);
+        xmlButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
     }
 
     private void createErrorOptions(Composite top) {
@@ -310,6 +323,16 @@ public class ValgrindOptionsTab extends AbstractLaunchConfigurationTab {
         maxStackFrameSpinner.addModifyListener(modifyListener);
         maxStackFrameSpinner.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
 
+        Composite maxMarkersTop = new Composite(errorTop, SWT.NONE);
+        maxMarkersTop.setLayout(new GridLayout(2, false));
+        Label maxMarkersLabel = new Label(maxMarkersTop, SWT.NONE);
+        maxMarkersLabel.setText(Messages.getString("ValgrindOptionsTab.max_markers")); //$NON-NLS-1$
+        maxMarkersLabel.setToolTipText(Messages.getString("ValgrindOptionsTab.max_markers_tooltip")); //$NON-NLS-1$
+        maxMarkersSpinner = new Spinner(maxMarkersTop, SWT.BORDER);
+        maxMarkersSpinner.setMaximum(Integer.MAX_VALUE);
+        maxMarkersSpinner.addModifyListener(modifyListener);
+        maxMarkersSpinner.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
         //Option only visible for valgrind > 3.4.0
         mainStackSizeTop = new Composite(errorTop, SWT.NONE);
         GridLayout mainStackSizeLayout = new GridLayout(2, false);
@@ -526,11 +549,14 @@ public class ValgrindOptionsTab extends AbstractLaunchConfigurationTab {
 
             traceChildrenButton.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_TRACECHILD, LaunchConfigurationConstants.DEFAULT_GENERAL_TRACECHILD));
             runFreeresButton.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_FREERES, LaunchConfigurationConstants.DEFAULT_GENERAL_FREERES));
+            liveLogButton.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_LIVE_LOG, LaunchConfigurationConstants.DEFAULT_GENERAL_LIVE_LOG));
+            xmlButton.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_XML, LaunchConfigurationConstants.DEFAULT_GENERAL_XML));
             demangleButton.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_DEMANGLE, LaunchConfigurationConstants.DEFAULT_GENERAL_DEMANGLE));
             numCallersSpinner.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_NUMCALLERS, LaunchConfigurationConstants.DEFAULT_GENERAL_NUMCALLERS));
             errorLimitButton.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_ERRLIMIT, LaunchConfigurationConstants.DEFAULT_GENERAL_ERRLIMIT));
             showBelowMainButton.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_BELOWMAIN, LaunchConfigurationConstants.DEFAULT_GENERAL_BELOWMAIN));
             maxStackFrameSpinner.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAXFRAME, LaunchConfigurationConstants.DEFAULT_GENERAL_MAXFRAME));
+            maxMarkersSpinner.setSelection(configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAX_MARKERS, LaunchConfigurationConstants.DEFAULT_GENERAL_MAX_MARKERS));
             java.util.List<String> suppFiles = configuration.getAttribute(LaunchConfigurationConstants.ATTR_GENERAL_SUPPFILES, LaunchConfigurationConstants.DEFAULT_GENERAL_SUPPFILES);
             suppFileList.setItems(suppFiles.toArray(new String[suppFiles.size()]));
 
@@ -592,12 +618,15 @@ public class ValgrindOptionsTab extends AbstractLaunchConfigurationTab {
 
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_TRACECHILD, traceChildrenButton.getSelection());
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_FREERES, runFreeresButton.getSelection());
+        configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_LIVE_LOG, liveLogButton.getSelection());
+        configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_XML, xmlButton.getSelection());
 
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_DEMANGLE, demangleButton.getSelection());
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_NUMCALLERS, numCallersSpinner.getSelection());
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_ERRLIMIT, errorLimitButton.getSelection());
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_BELOWMAIN, showBelowMainButton.getSelection());
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAXFRAME, maxStackFrameSpinner.getSelection());
+        configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAX_MARKERS, maxMarkersSpinner.getSelection());
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_SUPPFILES, Arrays.asList(suppFileList.getItems()));
 
         // 3.4.0 specific
@@ -627,12 +656,15 @@ public class ValgrindOptionsTab extends AbstractLaunchConfigurationTab {
             configuration.setAttribute(LaunchConfigurationConstants.ATTR_TOOL, LaunchConfigurationConstants.DEFAULT_TOOL);
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_TRACECHILD, LaunchConfigurationConstants.DEFAULT_GENERAL_TRACECHILD);
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_FREERES, LaunchConfigurationConstants.DEFAULT_GENERAL_FREERES);
+        configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_LIVE_LOG, LaunchConfigurationConstants.DEFAULT_GENERAL_LIVE_LOG);
+        configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_XML, LaunchConfigurationConstants.DEFAULT_GENERAL_XML);
 
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_DEMANGLE, LaunchConfigurationConstants.DEFAULT_GENERAL_DEMANGLE);
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_NUMCALLERS, LaunchConfigurationConstants.DEFAULT_GENERAL_NUMCALLERS);
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_ERRLIMIT, LaunchConfigurationConstants.DEFAULT_GENERAL_ERRLIMIT);
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_BELOWMAIN, LaunchConfigurationConstants.DEFAULT_GENERAL_BELOWMAIN);
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAXFRAME, LaunchConfigurationConstants.DEFAULT_GENERAL_MAXFRAME);
+        configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAX_MARKERS, LaunchConfigurationConstants.DEFAULT_GENERAL_MAX_MARKERS);
         configuration.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_SUPPFILES, LaunchConfigurationConstants.DEFAULT_GENERAL_SUPPFILES);
 
         // 3.4.0 specific
@@ -704,6 +736,10 @@ public class ValgrindOptionsTab extends AbstractLaunchConfigurationTab {
         return maxStackFrameSpinner;
     }
 
+    public Spinner getMaxMarkersSpinner() {
+        return maxMarkersSpinner;
+    }
+
     public Button getMainStackSizeButton() {
         return mainStackSizeButton;
     }
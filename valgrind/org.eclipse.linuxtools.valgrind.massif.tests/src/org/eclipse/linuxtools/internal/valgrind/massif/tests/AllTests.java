@@ -17,6 +17,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({ DoubleClickTest.class, ChartTests.class, TreeTest.class,
         BasicMassifTest.class, LaunchConfigTabTest.class,
         ExportWizardTest.class, MultiProcessTest.class,
-        ExpandCollapseTest.class, SortTest.class, ChartExportTest.class, ShortcutTest.class })
+        ExpandCollapseTest.class, SortTest.class, ChartExportTest.class, ShortcutTest.class, DiffTest.class,
+        MassifSnapshotStoreTest.class })
 public class AllTests {
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.massif.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifDiffNode;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifHeapDiff;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifLaunchConstants;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifViewPart;
+import org.eclipse.linuxtools.internal.valgrind.ui.ValgrindUIPlugin;
+import org.eclipse.swt.widgets.TreeItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DiffTest extends AbstractMassifTest {
+    @Before
+    public void prep() throws Exception {
+        proj = createProjectAndBuild("alloctest"); //$NON-NLS-1$
+    }
+
+    @Override
+    @After
+    public void tearDown() throws CoreException {
+        deleteProject(proj);
+        super.tearDown();
+    }
+
+    private MassifViewPart launch() throws Exception {
+        ILaunchConfiguration config = createConfiguration(proj.getProject());
+        ILaunchConfigurationWorkingCopy wc = config.getWorkingCopy();
+        wc.setAttribute(MassifLaunchConstants.ATTR_MASSIF_DETAILEDFREQ, 2);
+        wc.doSave();
+        doLaunch(config, "testTreeNodes"); //$NON-NLS-1$
+
+        return (MassifViewPart) ValgrindUIPlugin.getDefault().getView().getDynamicView();
+    }
+
+    @Test
+    public void testCompareSnapshots() throws Exception {
+        MassifViewPart view = launch();
+        MassifSnapshot[] snapshots = view.getSnapshots();
+        MassifSnapshot peak = MassifHeapDiff.getPeak(snapshots);
+        assertNotNull(peak);
+
+        // first detailed snapshot
+        view.compareSnapshots(snapshots[1], peak);
+
+        TreeViewer viewer = view.getDiffViewer().getViewer();
+        MassifDiffNode root = (MassifDiffNode) viewer.getInput();
+        assertEquals(snapshots[1].getRoot().getBytes(), root.getBytesBefore());
+        assertEquals(peak.getRoot().getBytes(), root.getBytesAfter());
+
+        long before = 0;
+        long after = 0;
+        for (MassifDiffNode child : root.getChildren()) {
+            before += child.getBytesBefore();
+            after += child.getBytesAfter();
+        }
+        assertEquals(root.getBytesBefore(), before);
+        assertEquals(root.getBytesAfter(), after);
+
+        // largest growth first
+        TreeItem[] items = viewer.getTree().getItem(0).getItems();
+        for (int i = 0; i < items.length - 1; i++) {
+            long first = ((MassifDiffNode) items[i].getData()).getDelta();
+            long second = ((MassifDiffNode) items[i + 1].getData()).getDelta();
+            assertTrue(first >= second);
+        }
+    }
+
+    @Test
+    public void testCompareOutput() throws Exception {
+        MassifViewPart view = launch();
+
+        // the same run: nothing grows
+        view.compareOutput(view.getOutput().getStore(view.getPid()));
+
+        MassifDiffNode root = (MassifDiffNode) view.getDiffViewer().getViewer().getInput();
+        checkUnchanged(root);
+    }
+
+    private void checkUnchanged(MassifDiffNode node) {
+        assertEquals(0, node.getDelta());
+        for (MassifDiffNode child : node.getChildren()) {
+            checkUnchanged(child);
+        }
+    }
+}
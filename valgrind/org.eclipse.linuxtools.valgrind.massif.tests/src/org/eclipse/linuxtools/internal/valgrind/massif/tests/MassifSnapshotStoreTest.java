@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.massif.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifHeapTreeNode;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifParser;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshotStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MassifSnapshotStoreTest {
+
+    private static final String HEADER = "desc: --detailed-freq=1\n" //$NON-NLS-1$
+            + "cmd: ./alloctest\n" //$NON-NLS-1$
+            + "time_unit: i\n" //$NON-NLS-1$
+            + "#-----------\n" //$NON-NLS-1$
+            + "snapshot=0\n" //$NON-NLS-1$
+            + "#-----------\n" //$NON-NLS-1$
+            + "time=0\n" //$NON-NLS-1$
+            + "mem_heap_B=0\n" //$NON-NLS-1$
+            + "mem_heap_extra_B=0\n" //$NON-NLS-1$
+            + "mem_stacks_B=0\n" //$NON-NLS-1$
+            + "heap_tree=empty\n" //$NON-NLS-1$
+            + "#-----------\n" //$NON-NLS-1$
+            + "snapshot=1\n" //$NON-NLS-1$
+            + "#-----------\n" //$NON-NLS-1$
+            + "time=111240\n" //$NON-NLS-1$
+            + "mem_heap_B=80\n" //$NON-NLS-1$
+            + "mem_heap_extra_B=20\n" //$NON-NLS-1$
+            + "mem_stacks_B=0\n" //$NON-NLS-1$
+            + "heap_tree=detailed\n"; //$NON-NLS-1$
+
+    private static final String TREE = "n2: 80 (heap allocation functions) malloc/new/new[], --alloc-fns, etc.\n" //$NON-NLS-1$
+            + " n1: 60 0x4005B4: foo (alloctest.c:13)\n" //$NON-NLS-1$
+            + "  n0: 60 0x400606: main (alloctest.c:31)\n" //$NON-NLS-1$
+            + " n0: 20 0x400624: main (alloctest.c:35)\n"; //$NON-NLS-1$
+
+    private static final String SNAPSHOT_2 = "#-----------\n" //$NON-NLS-1$
+            + "snapshot=2\n" //$NON-NLS-1$
+            + "#-----------\n" //$NON-NLS-1$
+            + "time=111275\n" //$NON-NLS-1$
+            + "mem_heap_B=120\n" //$NON-NLS-1$
+            + "mem_heap_extra_B=30\n" //$NON-NLS-1$
+            + "mem_stacks_B=0\n" //$NON-NLS-1$
+            + "heap_tree=peak\n" //$NON-NLS-1$
+            + "n1: 120 (heap allocation functions) malloc/new/new[], --alloc-fns, etc.\n" //$NON-NLS-1$
+            + " n0: 120 0x4005B4: foo (alloctest.c:13)\n"; //$NON-NLS-1$
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        // the PID is taken from the file name
+        file = new File(Files.createTempDirectory("massif").toFile(), "massif_1770.txt"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+    private void write(String text) throws IOException {
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertInvalid(String text) {
+        try {
+            write(text);
+            new MassifParser(file);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTreesWithoutFile() throws IOException {
+        write(HEADER + TREE + SNAPSHOT_2);
+        MassifParser parser = new MassifParser(file);
+        assertEquals(Integer.valueOf(1770), parser.getPid());
+        MassifSnapshotStore store = parser.getStore();
+        assertEquals(3, store.size());
+        assertNull(store.getRoot(0));
+
+        // the trees do not depend on the output file any more
+        assertTrue(file.delete());
+        MassifHeapTreeNode root = store.getRoot(1);
+        assertTrue(root.hasChildren());
+        assertEquals(80, root.getBytes());
+        MassifHeapTreeNode[] children = root.getChildren();
+        assertEquals(2, children.length);
+        assertEquals("foo", children[0].getFunction()); //$NON-NLS-1$
+        assertEquals(60, children[0].getBytes());
+        assertEquals(60.0, children[0].getPercent(), 0.001);
+        MassifHeapTreeNode main = children[0].getChildren()[0];
+        assertEquals("main", main.getFunction()); //$NON-NLS-1$
+        assertEquals("alloctest.c", main.getFilename()); //$NON-NLS-1$
+        assertEquals(31, main.getLine());
+        assertFalse(main.hasChildren());
+        assertEquals(35, children[1].getLine());
+
+        children = store.getRoot(2).getChildren();
+        assertEquals(1, children.length);
+        assertEquals(120, children[0].getBytes());
+    }
+
+    @Test
+    public void testInvalidTrees() {
+        // a node below the root is checked while parsing
+        assertInvalid(HEADER + TREE.replace(" n0: 20", " n0: x20") + SNAPSHOT_2); //$NON-NLS-1$ //$NON-NLS-2$
+        assertInvalid(HEADER + TREE.replace(" n0: 60 ", " nx: 60 ") + SNAPSHOT_2); //$NON-NLS-1$ //$NON-NLS-2$
+        assertInvalid(HEADER + TREE.replace("0x4005B4: foo (alloctest.c:13)", "0x4005B4:")); //$NON-NLS-1$ //$NON-NLS-2$
+        // the tree ends before all its nodes
+        assertInvalid(HEADER + TREE.substring(0, TREE.lastIndexOf(" n0"))); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.massif;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Allocation site of the comparison of two heap trees, with the bytes it
+ * allocated in each of them. Sites are identified by their function and
+ * file, and by the sites that called them.
+ */
+public class MassifDiffNode {
+    // key of the allocations below the threshold of Massif
+    private static final String BELOW_THRESHOLD = ""; //$NON-NLS-1$
+
+    protected MassifDiffNode parent;
+    protected String text;
+    protected String function;
+    protected String filename;
+    protected int line;
+    protected long bytesBefore;
+    protected long bytesAfter;
+    protected Map<String, MassifDiffNode> children;
+
+    public MassifDiffNode(MassifDiffNode parent, String text, String function, String filename, int line) {
+        this.parent = parent;
+        this.text = text;
+        this.function = function;
+        this.filename = filename;
+        this.line = line;
+    }
+
+    /**
+     * Returns the child for the site of the given heap tree node, creating it
+     * if needed.
+     */
+    MassifDiffNode getChild(MassifHeapTreeNode node) {
+        String function = node.getFunction();
+        String key = function != null ? function + '\0' + node.getFilename() : BELOW_THRESHOLD;
+        if (children == null) {
+            children = new LinkedHashMap<>();
+        }
+        MassifDiffNode child = children.get(key);
+        if (child == null) {
+            String text;
+            if (function == null) {
+                text = Messages.getString("MassifHeapDiff.Below_threshold"); //$NON-NLS-1$
+            } else if (node.getFilename() != null) {
+                text = function + " (" + node.getFilename() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+            } else {
+                text = function;
+            }
+            child = new MassifDiffNode(this, text, function, node.getFilename(), node.getLine());
+            children.put(key, child);
+        } else if (child.line <= 0) {
+            child.line = node.getLine();
+        }
+        return child;
+    }
+
+    void addBytes(long bytes, boolean after) {
+        if (after) {
+            bytesAfter += bytes;
+        } else {
+            bytesBefore += bytes;
+        }
+    }
+
+    public MassifDiffNode getParent() {
+        return parent;
+    }
+
+    public MassifDiffNode[] getChildren() {
+        if (children == null) {
+            return new MassifDiffNode[0];
+        }
+        Collection<MassifDiffNode> values = children.values();
+        return values.toArray(new MassifDiffNode[values.size()]);
+    }
+
+    public boolean hasChildren() {
+        return children != null;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getFunction() {
+        return function;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public long getBytesBefore() {
+        return bytesBefore;
+    }
+
+    public long getBytesAfter() {
+        return bytesAfter;
+    }
+
+    /**
+     * @return the growth of the site, negative if it shrank
+     */
+    public long getDelta() {
+        return bytesAfter - bytesBefore;
+    }
+
+    public boolean hasSourceFile() {
+        return filename != null && line > 0;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.massif;
+
+import java.text.DecimalFormat;
+
+import org.eclipse.debug.ui.DebugUITools;
+import org.eclipse.debug.ui.IDebugUIConstants;
+import org.eclipse.jface.viewers.DoubleClickEvent;
+import org.eclipse.jface.viewers.IDoubleClickListener;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TreeSelection;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.TreeViewerColumn;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeColumn;
+import org.eclipse.ui.plugin.AbstractUIPlugin;
+
+/**
+ * Tree of the allocation sites of the comparison of two heap trees, with
+ * their growth or shrink. Sorted by growth, largest first, by default.
+ */
+public class MassifDiffViewer {
+    private static final int COLUMN_SITE = 0;
+    private static final int COLUMN_BEFORE = 1;
+    private static final int COLUMN_AFTER = 2;
+    private static final int COLUMN_DELTA = 3;
+    private static final int SITE_COLUMN_SIZE = 400;
+    private static final int COLUMN_SIZE = 125;
+
+    private TreeViewer viewer;
+    private IDoubleClickListener doubleClickListener;
+
+    public MassifDiffViewer(Composite parent) {
+        viewer = new TreeViewer(parent, SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION);
+        Tree tree = viewer.getTree();
+
+        String[] columnTitles = { Messages.getString("MassifDiffViewer.Site"), //$NON-NLS-1$
+                Messages.getString("MassifDiffViewer.Before"), //$NON-NLS-1$
+                Messages.getString("MassifDiffViewer.After"), //$NON-NLS-1$
+                Messages.getString("MassifDiffViewer.Delta") }; //$NON-NLS-1$
+        for (int i = 0; i < columnTitles.length; i++) {
+            TreeViewerColumn column = new TreeViewerColumn(viewer, i == COLUMN_SITE ? SWT.LEFT : SWT.RIGHT);
+            column.getColumn().setText(columnTitles[i]);
+            column.getColumn().setWidth(i == COLUMN_SITE ? SITE_COLUMN_SIZE : COLUMN_SIZE);
+            column.getColumn().setResizable(true);
+            column.getColumn().setData(i);
+            column.getColumn().addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    TreeColumn column = (TreeColumn) e.widget;
+                    Tree tree = viewer.getTree();
+                    if (column.equals(tree.getSortColumn())) {
+                        tree.setSortDirection(tree.getSortDirection() == SWT.UP ? SWT.DOWN : SWT.UP);
+                    } else {
+                        tree.setSortDirection(SWT.DOWN);
+                    }
+                    tree.setSortColumn(column);
+                    viewer.refresh();
+                }
+            });
+        }
+        tree.setHeaderVisible(true);
+        tree.setLinesVisible(true);
+        tree.setSortColumn(tree.getColumn(COLUMN_DELTA));
+        tree.setSortDirection(SWT.DOWN);
+
+        viewer.setContentProvider(new ITreeContentProvider() {
+            @Override
+            public Object[] getChildren(Object parentElement) {
+                return ((MassifDiffNode) parentElement).getChildren();
+            }
+
+            @Override
+            public Object getParent(Object element) {
+                return ((MassifDiffNode) element).getParent();
+            }
+
+            @Override
+            public boolean hasChildren(Object element) {
+                return ((MassifDiffNode) element).hasChildren();
+            }
+
+            @Override
+            public Object[] getElements(Object inputElement) {
+                return new Object[] { inputElement };
+            }
+
+            @Override
+            public void dispose() {}
+
+            @Override
+            public void inputChanged(Viewer viewer, Object oldInput,
+                    Object newInput) {}
+        });
+        viewer.setLabelProvider(new DiffLabelProvider());
+        viewer.setComparator(new ViewerComparator() {
+            @Override
+            public int compare(Viewer viewer, Object e1, Object e2) {
+                Tree tree = ((TreeViewer) viewer).getTree();
+                MassifDiffNode n1 = (MassifDiffNode) e1;
+                MassifDiffNode n2 = (MassifDiffNode) e2;
+                int result;
+                switch ((Integer) tree.getSortColumn().getData()) {
+                case COLUMN_SITE:
+                    result = n1.getText().compareTo(n2.getText());
+                    break;
+                case COLUMN_BEFORE:
+                    result = Long.compare(n1.getBytesBefore(), n2.getBytesBefore());
+                    break;
+                case COLUMN_AFTER:
+                    result = Long.compare(n1.getBytesAfter(), n2.getBytesAfter());
+                    break;
+                default:
+                    result = Long.compare(n1.getDelta(), n2.getDelta());
+                }
+                return tree.getSortDirection() == SWT.UP ? result : -result;
+            }
+        });
+
+        doubleClickListener = new IDoubleClickListener() {
+            @Override
+            public void doubleClick(DoubleClickEvent event) {
+                MassifDiffNode element = (MassifDiffNode) ((TreeSelection) event.getSelection()).getFirstElement();
+                if (element.hasSourceFile()) {
+                    MassifPlugin.getDefault().openEditor(element.getFilename(), element.getLine());
+                }
+                if (element.hasChildren()) {
+                    viewer.expandToLevel(element, 1);
+                }
+            }
+        };
+        viewer.addDoubleClickListener(doubleClickListener);
+    }
+
+    /**
+     * Show the given comparison, expanded by one level.
+     * @param root the root of the comparison
+     */
+    public void setInput(MassifDiffNode root) {
+        viewer.setInput(root);
+        viewer.expandToLevel(2);
+    }
+
+    public IDoubleClickListener getDoubleClickListener() {
+        return doubleClickListener;
+    }
+
+    public TreeViewer getViewer() {
+        return viewer;
+    }
+
+    private static class DiffLabelProvider extends LabelProvider implements ITableLabelProvider {
+        private final DecimalFormat bytesFormat = new DecimalFormat("#,##0"); //$NON-NLS-1$
+        private final DecimalFormat deltaFormat = new DecimalFormat("+#,##0;-#,##0"); //$NON-NLS-1$
+        private Image rootImage;
+
+        @Override
+        public Image getColumnImage(Object element, int columnIndex) {
+            Image image = null;
+            if (columnIndex == COLUMN_SITE) {
+                if (((MassifDiffNode) element).getParent() == null) {
+                    if (rootImage == null) {
+                        rootImage = AbstractUIPlugin.imageDescriptorFromPlugin(MassifPlugin.PLUGIN_ID, "icons/memory_view.gif").createImage(); //$NON-NLS-1$
+                    }
+                    image = rootImage;
+                } else {
+                    image = DebugUITools.getImage(IDebugUIConstants.IMG_OBJS_STACKFRAME);
+                }
+            }
+            return image;
+        }
+
+        @Override
+        public String getColumnText(Object element, int columnIndex) {
+            MassifDiffNode node = (MassifDiffNode) element;
+            switch (columnIndex) {
+            case COLUMN_SITE:
+                return node.getText();
+            case COLUMN_BEFORE:
+                return bytesFormat.format(node.getBytesBefore());
+            case COLUMN_AFTER:
+                return bytesFormat.format(node.getBytesAfter());
+            default:
+                return deltaFormat.format(node.getDelta());
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (rootImage != null) {
+                rootImage.dispose();
+            }
+            super.dispose();
+        }
+    }
+}
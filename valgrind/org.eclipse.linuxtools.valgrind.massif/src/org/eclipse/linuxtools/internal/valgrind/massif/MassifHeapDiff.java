@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.massif;
+
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot.SnapshotType;
+
+/**
+ * Compares the heap trees of two snapshots, of the same run or of two runs,
+ * by allocation site.
+ */
+public class MassifHeapDiff {
+
+    private MassifHeapDiff() {
+    }
+
+    /**
+     * Align the allocation sites of two heap trees. Sites are matched by
+     * their function and file, and by the sites that called them, so that
+     * runs of different builds of a program can be compared; sites of the
+     * same function and file under the same callers are merged.
+     * @param before the root of the first heap tree, or null
+     * @param after the root of the second heap tree, or null
+     * @return the root of the comparison
+     */
+    public static MassifDiffNode compare(MassifHeapTreeNode before, MassifHeapTreeNode after) {
+        MassifDiffNode root = new MassifDiffNode(null, Messages.getString("MassifHeapDiff.All_allocations"), null, null, 0); //$NON-NLS-1$
+        if (before != null) {
+            add(root, before, false);
+        }
+        if (after != null) {
+            add(root, after, true);
+        }
+        return root;
+    }
+
+    private static void add(MassifDiffNode site, MassifHeapTreeNode node, boolean after) {
+        site.addBytes(node.getBytes(), after);
+        for (MassifHeapTreeNode child : node.getChildren()) {
+            add(site.getChild(child), child, after);
+        }
+    }
+
+    /**
+     * @param snapshots the snapshots of a run
+     * @return the peak snapshot, or the last detailed one if there is no
+     * peak, or null if there are no detailed snapshots
+     */
+    public static MassifSnapshot getPeak(MassifSnapshot[] snapshots) {
+        MassifSnapshot result = null;
+        for (MassifSnapshot snapshot : snapshots) {
+            if (snapshot.getType() == SnapshotType.PEAK) {
+                return snapshot;
+            } else if (snapshot.isDetailed()) {
+                result = snapshot;
+            }
+        }
+        return result;
+    }
+}
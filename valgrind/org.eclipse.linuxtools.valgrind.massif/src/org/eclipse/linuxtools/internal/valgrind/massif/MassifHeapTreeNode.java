@@ -87,6 +87,10 @@ public class MassifHeapTreeNode {
         return children.toArray(new MassifHeapTreeNode[children.size()]);
     }
 
+    public boolean hasChildren() {
+        return !children.isEmpty();
+    }
+
     public String getText() {
         return text;
     }
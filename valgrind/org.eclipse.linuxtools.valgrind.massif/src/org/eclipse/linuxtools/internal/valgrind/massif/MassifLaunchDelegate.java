@@ -71,7 +71,7 @@ public class MassifLaunchDelegate implements IValgrindLaunchDelegate {
         output = new MassifOutput();
         for (File file : massifOutputs) {
             MassifParser parser = new MassifParser(file);
-            output.putSnapshots(parser.getPid(), parser.getSnapshots());
+            output.putSnapshots(parser.getPid(), parser.getStore());
         }
         monitor.worked(2);
     }
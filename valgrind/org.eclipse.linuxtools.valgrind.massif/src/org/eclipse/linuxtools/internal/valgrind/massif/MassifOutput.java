@@ -14,17 +14,22 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class MassifOutput {
-    protected Map<Integer, MassifSnapshot[]> pidMap;
+    protected Map<Integer, MassifSnapshotStore> pidMap;
 
     public MassifOutput() {
         pidMap = new HashMap<>();
     }
 
-    public void putSnapshots(Integer pid, MassifSnapshot[] snapshots) {
-        pidMap.put(pid, snapshots);
+    public void putSnapshots(Integer pid, MassifSnapshotStore store) {
+        pidMap.put(pid, store);
     }
 
     public MassifSnapshot[] getSnapshots(Integer pid) {
+        MassifSnapshotStore store = pidMap.get(pid);
+        return store != null ? store.getSnapshots() : null;
+    }
+
+    public MassifSnapshotStore getStore(Integer pid) {
         return pidMap.get(pid);
     }
 
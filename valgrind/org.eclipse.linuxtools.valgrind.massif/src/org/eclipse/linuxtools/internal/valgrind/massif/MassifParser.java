@@ -11,10 +11,15 @@
 package org.eclipse.linuxtools.internal.valgrind.massif;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot.SnapshotType;
 import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot.TimeUnit;
@@ -43,92 +48,100 @@ public class MassifParser {
     private static final String EMPTY = "empty"; //$NON-NLS-1$
 
     private Integer pid;
-    private MassifSnapshot[] snapshots;
+    private MassifSnapshotStore store;
+    private final ByteArrayOutputStream treeBuffer = new ByteArrayOutputStream();
+    private final Deflater deflater = new Deflater();
 
     public MassifParser(File inputFile) throws IOException {
-        ArrayList<MassifSnapshot> list = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(inputFile))){
+        store = new MassifSnapshotStore();
+        try (BufferedReader br = new BufferedReader(new FileReader(inputFile))) {
             String line;
-            MassifSnapshot snapshot = null;
-            String cmd = null;
-            TimeUnit unit = null;
-            int n = 0;
+            int n = -1;
 
             // retrive PID from filename
             String filename = inputFile.getName();
             pid = ValgrindParserUtils.parsePID(filename, MassifLaunchDelegate.OUT_PREFIX);
 
-            // parse contents of file
+            // parse contents of file, keeping all but the roots of the heap
+            // trees compressed
             while ((line = br.readLine()) != null) {
                 if (line.startsWith(CMD + COLON)){
-                    cmd = ValgrindParserUtils.parseStrValue(line, COLON + SPACE);
+                    store.setCmd(ValgrindParserUtils.parseStrValue(line, COLON + SPACE));
                 } else if (line.startsWith(TIME_UNIT + COLON)) {
-                    unit = parseTimeUnit(line);
+                    store.setUnit(parseTimeUnit(line));
                 } else if (line.startsWith(SNAPSHOT)) {
-                    if (snapshot != null) {
-                        // this snapshot finished parsing
-                        list.add(snapshot);
-                        n++;
-                    }
-                    snapshot = new MassifSnapshot(n);
-                    snapshot.setCmd(cmd);
-                    snapshot.setUnit(unit);
+                    n = store.addSnapshot();
                 } else if (line.startsWith(TIME + EQUALS)) {
-                    snapshot.setTime(ValgrindParserUtils.parseLongValue(line, EQUALS));
+                    store.setTime(n, ValgrindParserUtils.parseLongValue(line, EQUALS));
                 } else if (line.startsWith(MEM_HEAP_B + EQUALS)) {
-                    snapshot.setHeapBytes(ValgrindParserUtils.parseLongValue(line, EQUALS));
+                    store.setHeapBytes(n, ValgrindParserUtils.parseLongValue(line, EQUALS));
                 } else if (line.startsWith(MEM_HEAP_EXTRA_B + EQUALS)) {
-                    snapshot.setHeapExtra(ValgrindParserUtils.parseLongValue(line, EQUALS));
+                    store.setHeapExtra(n, ValgrindParserUtils.parseLongValue(line, EQUALS));
                 } else if (line.startsWith(MEM_STACKS_B + EQUALS)) {
-                    snapshot.setStacks(ValgrindParserUtils.parseLongValue(line, EQUALS));
+                    store.setStacks(n, ValgrindParserUtils.parseLongValue(line, EQUALS));
                 } else if (line.startsWith(HEAP_TREE + EQUALS)) {
                     SnapshotType type = parseSnapshotType(line);
-                    snapshot.setType(type);
+                    store.setType(n, type);
                     switch (type) {
                     case DETAILED:
                     case PEAK:
-                        MassifHeapTreeNode node = parseTree(snapshot, null, br);
-                        node.setText(NLS.bind(Messages.getString("MassifParser.Snapshot_n"), n, node.getText())); // prepend snapshot number //$NON-NLS-1$
-                        snapshot.setRoot(node);
+                        parseRoot(n, br);
                     }
                 }
             }
-            if (snapshot != null) {
-                // last snapshot that finished parsing
-                list.add(snapshot);
-            }
-            snapshots = list.toArray(new MassifSnapshot[list.size()]);
+        } finally {
+            deflater.end();
         }
     }
 
-    private MassifHeapTreeNode parseTree(MassifSnapshot snapshot, MassifHeapTreeNode parent, BufferedReader br) throws IOException {
-        String line = br.readLine();
-        if (line == null) {
-            throw new IOException(Messages.getString("MassifParser.Unexpected_EOF")); //$NON-NLS-1$
-        }
-        line = line.trim(); // remove leading whitespace
-        String[] parts = line.split(" "); //$NON-NLS-1$
-        // bounds checking so we can fail with a more informative error
-        if (parts.length < 2) {
-            ValgrindParserUtils.fail(line);
-        }
+    private void parseRoot(int n, BufferedReader br) throws IOException {
+        String line = readTreeLine(br);
+        String[] parts = splitNode(line);
+        int numChildren = parseNumChildren(parts[0], line);
+        long numBytes = parseNumBytes(parts[1], line);
 
-        Integer numChildren = parseNumChildren(parts[0]);
-        if (numChildren == null) {
-            ValgrindParserUtils.fail(line);
+        // the nodes below the root are checked now, so that parsing them
+        // again cannot fail, and kept compressed until they are requested
+        treeBuffer.reset();
+        deflater.reset();
+        try (Writer out = new OutputStreamWriter(new DeflaterOutputStream(treeBuffer, deflater), StandardCharsets.UTF_8)) {
+            for (int pending = numChildren; pending > 0; pending--) {
+                line = readTreeLine(br);
+                String[] childParts = splitNode(line);
+                pending += parseNumChildren(childParts[0], line);
+                parseNode(0, null, childParts, line);
+                out.write(line);
+                out.write('\n');
+            }
         }
+        store.setTree(n, numBytes, joinText(parts), numChildren, treeBuffer.toByteArray());
+    }
 
-        Long numBytes = parseNumBytes(parts[1]);
-        if (numBytes == null) {
-            ValgrindParserUtils.fail(line);
+    static MassifHeapTreeNode parseTree(long total, MassifHeapTreeNode parent, BufferedReader br) throws IOException {
+        String line = readTreeLine(br);
+        String[] parts = splitNode(line);
+        int numChildren = parseNumChildren(parts[0], line);
+        MassifHeapTreeNode node = parseNode(total, parent, parts, line);
+        for (int i = 0; i < numChildren; i++) {
+            node.addChild(parseTree(total, node, br));
         }
+        return node;
+    }
 
-        double percentage;
-        if (numBytes.intValue() == 0) {
-            percentage = 0;
-        } else {
-            percentage = numBytes.doubleValue() / snapshot.getTotal() * 100;
+    private static String readTreeLine(BufferedReader br) throws IOException {
+        String line = br.readLine();
+        if (line == null) {
+            throw new IOException(Messages.getString("MassifParser.Unexpected_EOF")); //$NON-NLS-1$
         }
+        return line;
+    }
+
+    /**
+     * @return the node of a line of a heap tree, without its children
+     */
+    private static MassifHeapTreeNode parseNode(long total, MassifHeapTreeNode parent, String[] parts, String line) throws IOException {
+        long numBytes = parseNumBytes(parts[1], line);
+        double percentage = getPercentage(numBytes, total);
 
         MassifHeapTreeNode node;
         String address = null;
@@ -137,7 +150,7 @@ public class MassifParser {
         int lineNo = 0;
         if (parts[2].startsWith("0x")) { //$NON-NLS-1$
             // we extend the above bounds checking
-            if (parts.length < 3) {
+            if (parts.length < 4) {
                 ValgrindParserUtils.fail(line);
             }
             // remove colon from address
@@ -152,24 +165,45 @@ public class MassifParser {
 
             node = new MassifHeapTreeNode(parent, percentage, numBytes, address, function, filename, lineNo);
         } else {
-            // concatenate the rest
-            StringBuffer text = new StringBuffer();
-            for (int i = 2; i < parts.length; i++) {
-                text.append(parts[i]);
-                text.append(" "); //$NON-NLS-1$
-            }
-
-            node = new MassifHeapTreeNode(parent, percentage, numBytes, text.toString().trim());
+            node = new MassifHeapTreeNode(parent, percentage, numBytes, joinText(parts));
         }
+        return node;
+    }
+
+    static double getPercentage(long bytes, long total) {
+        return bytes == 0 ? 0 : (double) bytes / total * 100;
+    }
 
+    /**
+     * @return the text of the root of the heap tree of the given snapshot
+     */
+    static String getRootText(int n, String text) {
+        return NLS.bind(Messages.getString("MassifParser.Snapshot_n"), n, text); // prepend snapshot number //$NON-NLS-1$
+    }
 
-        for (int i = 0; i < numChildren.intValue(); i++) {
-            node.addChild(parseTree(snapshot, node, br));
+    private static String[] splitNode(String line) throws IOException {
+        line = line.trim(); // remove leading whitespace
+        String[] parts = line.split(" "); //$NON-NLS-1$
+        // bounds checking so we can fail with a more informative error
+        if (parts.length < 3) {
+            ValgrindParserUtils.fail(line);
         }
-        return node;
+        return parts;
+    }
+
+    private static String joinText(String[] parts) {
+        // concatenate the rest
+        StringBuilder text = new StringBuilder();
+        for (int i = 2; i < parts.length; i++) {
+            if (i > 2) {
+                text.append(' ');
+            }
+            text.append(parts[i]);
+        }
+        return text.toString().trim();
     }
 
-    private String parseFunction(String start, String line) throws IOException {
+    private static String parseFunction(String start, String line) throws IOException {
         String function = null;
         int ix = line.lastIndexOf('(');
         if (ix >= 0) {
@@ -188,26 +222,25 @@ public class MassifParser {
         return function;
     }
 
-    private Long parseNumBytes(String string) {
-        Long result = null;
-        if (ValgrindParserUtils.isNumber(string)) {
-            result = Long.parseLong(string);
+    private static long parseNumBytes(String string, String line) throws IOException {
+        if (!ValgrindParserUtils.isNumber(string)) {
+            ValgrindParserUtils.fail(line);
         }
-        return result;
+        return Long.parseLong(string);
     }
 
     /*
      * format is "n[0-9]+:"
      */
-    private Integer parseNumChildren(String string) {
-        Integer result = null;
+    private static int parseNumChildren(String string, String line) throws IOException {
         if (string.length() >= 3) {
             String number = string.substring(1, string.length() - 1);
             if (ValgrindParserUtils.isNumber(number)) {
-                result = Integer.parseInt(number);
+                return Integer.parseInt(number);
             }
         }
-        return result;
+        ValgrindParserUtils.fail(line);
+        return 0;
     }
 
     public Integer getPid() {
@@ -215,7 +248,11 @@ public class MassifParser {
     }
 
     public MassifSnapshot[] getSnapshots() {
-        return snapshots;
+        return store.getSnapshots();
+    }
+
+    public MassifSnapshotStore getStore() {
+        return store;
     }
 
     private SnapshotType parseSnapshotType(String line) throws IOException {
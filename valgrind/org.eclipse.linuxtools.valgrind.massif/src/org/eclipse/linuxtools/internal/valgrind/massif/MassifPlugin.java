@@ -73,18 +73,22 @@ public class MassifPlugin extends AbstractUIPlugin {
     }
 
     public void openEditorForNode(MassifHeapTreeNode element) {
+        openEditor(element.getFilename(), element.getLine());
+    }
+
+    public void openEditor(String filename, int line) {
         // do source lookup
         if (locator instanceof ISourceLookupDirector) {
-            Object obj = ((ISourceLookupDirector) locator).getSourceElement(element.getFilename());
+            Object obj = ((ISourceLookupDirector) locator).getSourceElement(filename);
             if (obj instanceof IStorage){
                 try {
                     // Most likely a remote project
                     if (obj instanceof IFile) {
-                        ProfileUIUtils.openEditorAndSelect(((IFile)obj), element.getLine());
+                        ProfileUIUtils.openEditorAndSelect(((IFile)obj), line);
                     // Local projects
                     } else {
                         String fullFilePath = ((IStorage) obj).getFullPath().toOSString();
-                        ProfileUIUtils.openEditorAndSelect(fullFilePath, element.getLine());
+                        ProfileUIUtils.openEditorAndSelect(fullFilePath, line);
                     }
                 } catch (PartInitException|BadLocationException e) {
                     e.printStackTrace();
@@ -14,18 +14,11 @@ public class MassifSnapshot {
     public static enum TimeUnit { INSTRUCTIONS, MILLISECONDS, BYTES }
     public static enum SnapshotType { EMPTY, DETAILED, PEAK }
 
-    protected long number;
-    protected long time;
-    protected long heapBytes;
-    protected long heapExtra;
-    protected long stacks;
+    protected MassifSnapshotStore store;
+    protected int number;
 
-    protected String cmd;
-    protected TimeUnit unit;
-    protected SnapshotType type;
-    protected MassifHeapTreeNode root;
-
-    public MassifSnapshot(int number) {
+    MassifSnapshot(MassifSnapshotStore store, int number) {
+        this.store = store;
         this.number = number;
     }
 
@@ -34,74 +27,46 @@ public class MassifSnapshot {
     }
 
     public long getHeapBytes() {
-        return heapBytes;
+        return store.getHeapBytes(number);
     }
 
     public long getHeapExtra() {
-        return heapExtra;
+        return store.getHeapExtra(number);
     }
 
     public long getStacks() {
-        return stacks;
+        return store.getStacks(number);
     }
 
     public long getTime() {
-        return time;
+        return store.getTime(number);
     }
 
     public long getTotal() {
-        return heapBytes + heapExtra + stacks;
+        return store.getTotal(number);
     }
 
     public SnapshotType getType() {
-        return type;
+        return store.getType(number);
     }
 
     public String getCmd() {
-        return cmd;
+        return store.getCmd();
     }
 
     public TimeUnit getUnit() {
-        return unit;
+        return store.getUnit();
     }
 
     public MassifHeapTreeNode getRoot() {
-        return root;
+        return store.getRoot(number);
     }
 
     public boolean isDetailed() {
-        return !type.equals(SnapshotType.EMPTY);
-    }
-
-    protected void setTime(long time) {
-        this.time = time;
-    }
-
-    protected void setHeapBytes(long heapBytes) {
-        this.heapBytes = heapBytes;
-    }
-
-    protected void setHeapExtra(long heapExtra) {
-        this.heapExtra = heapExtra;
-    }
-
-    protected void setStacks(long stacks) {
-        this.stacks = stacks;
-    }
-
-    protected void setType(SnapshotType type) {
-        this.type = type;
-    }
-
-    protected void setCmd(String cmd) {
-        this.cmd = cmd;
-    }
-
-    protected void setUnit(TimeUnit unit) {
-        this.unit = unit;
+        return !getType().equals(SnapshotType.EMPTY);
     }
 
-    protected void setRoot(MassifHeapTreeNode root) {
-        this.root = root;
+    public MassifSnapshotStore getStore() {
+        return store;
     }
 }
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.massif;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot.SnapshotType;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot.TimeUnit;
+
+/**
+ * Snapshots of a Massif output file, stored by column. The heap trees of the
+ * detailed snapshots are not kept as nodes: only the root of each tree is,
+ * along with the compressed text of the rest of the tree, which is parsed
+ * when the children of the root are requested. The output file is not needed
+ * once parsed. The most recently used trees are cached.
+ */
+public class MassifSnapshotStore {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int CACHE_SIZE = 8;
+    private static final SnapshotType[] TYPES = SnapshotType.values();
+
+    private String cmd;
+    private TimeUnit unit;
+
+    private int size;
+    private long[] times = new long[INITIAL_CAPACITY];
+    private long[] heapBytes = new long[INITIAL_CAPACITY];
+    private long[] heapExtra = new long[INITIAL_CAPACITY];
+    private long[] stacks = new long[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    // root of the heap tree of detailed snapshots, and the deflated lines of
+    // its descendants
+    private byte[][] treeData = new byte[INITIAL_CAPACITY][];
+    private long[] rootBytes = new long[INITIAL_CAPACITY];
+    private int[] rootChildCounts = new int[INITIAL_CAPACITY];
+    private String[] rootTexts = new String[INITIAL_CAPACITY];
+    private final Map<String, String> internedTexts = new HashMap<>();
+
+    private MassifSnapshot[] snapshots;
+    private MassifHeapTreeNode[] roots;
+    private final Map<Integer, MassifHeapTreeNode[]> trees = new LinkedHashMap<Integer, MassifHeapTreeNode[]>(CACHE_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, MassifHeapTreeNode[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * @return the index of the new snapshot, an empty one until its heap tree
+     * is set
+     */
+    int addSnapshot() {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            heapBytes = Arrays.copyOf(heapBytes, capacity);
+            heapExtra = Arrays.copyOf(heapExtra, capacity);
+            stacks = Arrays.copyOf(stacks, capacity);
+            types = Arrays.copyOf(types, capacity);
+            treeData = Arrays.copyOf(treeData, capacity);
+            rootBytes = Arrays.copyOf(rootBytes, capacity);
+            rootChildCounts = Arrays.copyOf(rootChildCounts, capacity);
+            rootTexts = Arrays.copyOf(rootTexts, capacity);
+        }
+        types[size] = (byte) SnapshotType.EMPTY.ordinal();
+        snapshots = null;
+        return size++;
+    }
+
+    void setCmd(String cmd) {
+        this.cmd = cmd;
+    }
+
+    void setUnit(TimeUnit unit) {
+        this.unit = unit;
+    }
+
+    void setTime(int index, long time) {
+        times[index] = time;
+    }
+
+    void setHeapBytes(int index, long bytes) {
+        heapBytes[index] = bytes;
+    }
+
+    void setHeapExtra(int index, long bytes) {
+        heapExtra[index] = bytes;
+    }
+
+    void setStacks(int index, long bytes) {
+        stacks[index] = bytes;
+    }
+
+    void setType(int index, SnapshotType type) {
+        types[index] = (byte) type.ordinal();
+    }
+
+    /**
+     * Set the heap tree of a detailed snapshot.
+     * @param index the snapshot
+     * @param bytes the bytes of the root node
+     * @param text the text of the root node
+     * @param childCount the number of children of the root node
+     * @param children the lines of the descendants of the root node, deflated
+     */
+    void setTree(int index, long bytes, String text, int childCount, byte[] children) {
+        String interned = internedTexts.get(text);
+        if (interned == null) {
+            internedTexts.put(text, text);
+        } else {
+            text = interned;
+        }
+        rootBytes[index] = bytes;
+        rootTexts[index] = text;
+        rootChildCounts[index] = childCount;
+        treeData[index] = children;
+    }
+
+    public String getCmd() {
+        return cmd;
+    }
+
+    public TimeUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return the number of snapshots
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public long getHeapBytes(int index) {
+        return heapBytes[index];
+    }
+
+    public long getHeapExtra(int index) {
+        return heapExtra[index];
+    }
+
+    public long getStacks(int index) {
+        return stacks[index];
+    }
+
+    public long getTotal(int index) {
+        return heapBytes[index] + heapExtra[index] + stacks[index];
+    }
+
+    public SnapshotType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    /**
+     * @return the snapshots, in order
+     */
+    public synchronized MassifSnapshot[] getSnapshots() {
+        if (snapshots == null) {
+            snapshots = new MassifSnapshot[size];
+            for (int i = 0; i < size; i++) {
+                snapshots[i] = new MassifSnapshot(this, i);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns the root of the heap tree of a snapshot. Its children are parsed
+     * the first time they are requested.
+     * @param index the snapshot
+     * @return the root of the heap tree, or null for empty snapshots
+     */
+    public synchronized MassifHeapTreeNode getRoot(int index) {
+        if (getType(index) == SnapshotType.EMPTY) {
+            return null;
+        }
+        if (roots == null) {
+            roots = new MassifHeapTreeNode[size];
+        }
+        if (roots[index] == null) {
+            roots[index] = new SnapshotRoot(this, index);
+        }
+        return roots[index];
+    }
+
+    private synchronized MassifHeapTreeNode[] getChildren(int index, MassifHeapTreeNode root) throws IOException {
+        MassifHeapTreeNode[] children = trees.get(index);
+        if (children == null) {
+            children = new MassifHeapTreeNode[rootChildCounts[index]];
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new InflaterInputStream(new ByteArrayInputStream(treeData[index])), StandardCharsets.UTF_8))) {
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = MassifParser.parseTree(getTotal(index), root, br);
+                }
+            }
+            trees.put(index, children);
+        }
+        return children;
+    }
+
+    /**
+     * Root of a heap tree, reading its children from the store.
+     */
+    private static class SnapshotRoot extends MassifHeapTreeNode {
+        private final MassifSnapshotStore store;
+        private final int index;
+
+        public SnapshotRoot(MassifSnapshotStore store, int index) {
+            super(null, MassifParser.getPercentage(store.rootBytes[index], store.getTotal(index)),
+                    store.rootBytes[index], store.rootTexts[index]);
+            this.store = store;
+            this.index = index;
+            setText(MassifParser.getRootText(index, getText()));
+        }
+
+        @Override
+        public MassifHeapTreeNode[] getChildren() {
+            try {
+                return store.getChildren(index, this).clone();
+            } catch (IOException e) {
+                MassifPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, MassifPlugin.PLUGIN_ID,
+                        Messages.getString("MassifSnapshotStore.Reading_heap_tree_failed"), e)); //$NON-NLS-1$
+                return new MassifHeapTreeNode[0];
+            }
+        }
+
+        @Override
+        public boolean hasChildren() {
+            return store.rootChildCounts[index] > 0;
+        }
+    }
+}
@@ -52,8 +52,8 @@ public class MassifTreeViewer {
 
             @Override
             public boolean hasChildren(Object element) {
-                MassifHeapTreeNode[] children = ((MassifHeapTreeNode) element).getChildren();
-                return children != null && children.length > 0;
+                // does not read the heap tree of a snapshot
+                return ((MassifHeapTreeNode) element).hasChildren();
             }
 
             @Override
@@ -10,12 +10,18 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.massif;
 
+import java.io.File;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.action.IMenuListener;
+import org.eclipse.jface.action.IMenuManager;
+import org.eclipse.jface.action.MenuManager;
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ArrayContentProvider;
@@ -35,6 +41,7 @@ import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot.SnapshotTy
 import org.eclipse.linuxtools.internal.valgrind.massif.charting.ChartEditorInput;
 import org.eclipse.linuxtools.internal.valgrind.massif.charting.HeapChart;
 import org.eclipse.linuxtools.valgrind.ui.IValgrindToolView;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StackLayout;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -46,6 +53,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.ui.IEditorInput;
@@ -78,6 +86,8 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
     + ".pidAction"; //$NON-NLS-1$
     public static final String SAVE_CHART_ACTION = MassifPlugin.PLUGIN_ID
     + ".saveChartAction"; //$NON-NLS-1$
+    public static final String COMPARE_ACTION = MassifPlugin.PLUGIN_ID
+    + ".compareAction"; //$NON-NLS-1$
 
     private MassifOutput output;
     private Integer pid;
@@ -86,6 +96,7 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
     private StackLayout stackLayout;
     private TableViewer viewer;
     private MassifTreeViewer treeViewer;
+    private MassifDiffViewer diffViewer;
     private MassifHeapTreeNode[] nodes;
     private String chartName;
 
@@ -106,7 +117,7 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
         top.setLayout(stackLayout);
         top.setLayoutData(new GridData(GridData.FILL_BOTH));
 
-        viewer = new TableViewer(top, SWT.SINGLE | SWT.H_SCROLL | SWT.V_SCROLL
+        viewer = new TableViewer(top, SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL
                 | SWT.FULL_SELECTION);
 
         Table table = viewer.getTable();
@@ -132,6 +143,9 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
         treeViewer = new MassifTreeViewer(top);
         treeViewer.getViewer().getControl().setLayoutData(new GridData(GridData.FILL_BOTH));
 
+        diffViewer = new MassifDiffViewer(top);
+        diffViewer.getViewer().getControl().setLayoutData(new GridData(GridData.FILL_BOTH));
+
         viewer.addDoubleClickListener(new IDoubleClickListener() {
             @Override
             public void doubleClick(DoubleClickEvent event) {
@@ -148,10 +162,76 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
             }
         });
 
+        final Action compareSnapshotsAction = new Action(Messages.getString("MassifViewPart.Compare_Snapshots")) { //$NON-NLS-1$
+            @Override
+            public void run() {
+                Object[] selected = ((IStructuredSelection) viewer.getSelection()).toArray();
+                MassifSnapshot first = (MassifSnapshot) selected[0];
+                MassifSnapshot second = (MassifSnapshot) selected[1];
+                // compare in the order of the run, whatever the sort order
+                if (first.getNumber() < second.getNumber()) {
+                    compareSnapshots(first, second);
+                } else {
+                    compareSnapshots(second, first);
+                }
+            }
+        };
+        MenuManager manager = new MenuManager();
+        manager.addMenuListener(new IMenuListener() {
+            @Override
+            public void menuAboutToShow(IMenuManager manager) {
+                Object[] selected = ((IStructuredSelection) viewer.getSelection()).toArray();
+                if (selected.length == 2 && ((MassifSnapshot) selected[0]).isDetailed()
+                        && ((MassifSnapshot) selected[1]).isDetailed()) {
+                    manager.add(compareSnapshotsAction);
+                }
+            }
+        });
+        manager.setRemoveAllWhenShown(true);
+        table.setMenu(manager.createContextMenu(table));
+
         stackLayout.topControl = viewer.getControl();
         top.layout();
     }
 
+    /**
+     * Show the growth of the heap, by allocation site, between two detailed
+     * snapshots of the current process.
+     * @param before the first snapshot
+     * @param after the second snapshot
+     */
+    public void compareSnapshots(MassifSnapshot before, MassifSnapshot after) {
+        showDiff(MassifHeapDiff.compare(before.getRoot(), after.getRoot()));
+    }
+
+    /**
+     * Show the growth of the heap, by allocation site, between the peak of
+     * another run and the peak of the current process, and chart the total
+     * heap of both.
+     * @param other the snapshots of the other run
+     */
+    public void compareOutput(MassifSnapshotStore other) {
+        MassifSnapshot before = MassifHeapDiff.getPeak(other.getSnapshots());
+        MassifSnapshot after = MassifHeapDiff.getPeak(getSnapshots());
+        showDiff(MassifHeapDiff.compare(before != null ? before.getRoot() : null,
+                after != null ? after.getRoot() : null));
+
+        MassifSnapshotStore store = output.getStore(pid);
+        if (other.size() > 0 && other.getUnit() == store.getUnit()) {
+            String title = chartName + " [PID: " + pid + "]";  //$NON-NLS-1$//$NON-NLS-2$
+            HeapChart chart = new HeapChart(store, other, title);
+            ChartEditorInput input = new ChartEditorInput(chart, this, getInputName(title), pid);
+            chartInputs.add(input);
+            displayChart(input);
+        }
+    }
+
+    private void showDiff(MassifDiffNode root) {
+        treeAction.setChecked(false);
+        diffViewer.setInput(root);
+        setTopControl(diffViewer.getViewer().getControl());
+    }
+
     private String getUnitString(MassifSnapshot[] snapshots) {
         String result;
         MassifSnapshot snapshot = snapshots[0];
@@ -265,12 +345,38 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
         treeAction.setToolTipText(Messages
                 .getString("MassifViewPart.Show_Heap_Tree")); //$NON-NLS-1$
 
-        return new IAction[] { pidAction, chartAction, saveChartAction, treeAction };
+        Action compareAction = new Action(
+                Messages.getString("MassifViewPart.Compare_With_Output"), IAction.AS_PUSH_BUTTON) { //$NON-NLS-1$
+            @Override
+            public void run() {
+                if (output == null || pid == null) {
+                    return;
+                }
+                FileDialog dialog = new FileDialog(top.getShell(), SWT.OPEN);
+                dialog.setFilterExtensions(new String[] { MassifLaunchDelegate.OUT_PREFIX + "*.txt" }); //$NON-NLS-1$
+                String path = dialog.open();
+                if (path != null) {
+                    try {
+                        compareOutput(new MassifParser(new File(path)).getStore());
+                    } catch (IOException e) {
+                        MessageDialog.openError(top.getShell(), Messages.getString("MassifViewPart.Compare_With_Output"), //$NON-NLS-1$
+                                NLS.bind(Messages.getString("MassifViewPart.Compare_error"), path, e.getMessage())); //$NON-NLS-1$
+                    }
+                }
+            }
+        };
+        compareAction.setId(COMPARE_ACTION);
+        compareAction.setImageDescriptor(AbstractUIPlugin.imageDescriptorFromPlugin(
+                MassifPlugin.PLUGIN_ID, "icons/barcharticon.gif")); //$NON-NLS-1$
+        compareAction.setToolTipText(Messages
+                .getString("MassifViewPart.Compare_With_Output")); //$NON-NLS-1$
+
+        return new IAction[] { pidAction, chartAction, saveChartAction, treeAction, compareAction };
     }
 
-    private void createChart(MassifSnapshot[] snapshots) {
+    private void createChart(MassifSnapshotStore store) {
         String title = chartName + " [PID: " + pid + "]";  //$NON-NLS-1$//$NON-NLS-2$
-        HeapChart chart = new HeapChart(snapshots, title);
+        HeapChart chart = new HeapChart(store, title);
 
         String name = getInputName(title);
         ChartEditorInput input = new ChartEditorInput(chart, this, name, pid);
@@ -340,7 +446,7 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
                 if (snapshots.length > 0) {
                     ChartEditorInput input = getChartInput(pid);
                     if (input == null) {
-                        createChart(snapshots);
+                        createChart(output.getStore(pid));
                     }
                     else {
                         displayChart(input);
@@ -398,6 +504,10 @@ public class MassifViewPart extends ViewPart implements IValgrindToolView {
         return treeViewer;
     }
 
+    public MassifDiffViewer getDiffViewer() {
+        return diffViewer;
+    }
+
     private static class MassifLabelProvider extends LabelProvider implements
     ITableLabelProvider, IFontProvider {
 
@@ -91,6 +91,7 @@ public class ChartEditor extends EditorPart {
         final Color ORANGE = new Color(Display.getDefault(), 255, 165, 0);
         final Color GREEN = Display.getDefault().getSystemColor(SWT.COLOR_GREEN);
         final Color DARK_BLUE = new Color(Display.getDefault(), 64, 128, 128);
+        final Color GRAY = Display.getDefault().getSystemColor(SWT.COLOR_DARK_GRAY);
         final int TICK_GAP = 40;
 
         control.setBackground(WHITE);
@@ -162,6 +163,16 @@ public class ChartEditor extends EditorPart {
         lsTotal.setSymbolColor(GREEN);
         lsTotal.setLineColor(GREEN);
 
+        if (heapChart.dataCompared != null) {
+            final ILineSeries lsCompared = (ILineSeries) control.getSeriesSet().
+                    createSeries(SeriesType.LINE, Messages.getString("HeapChart.Compared_Total_Heap")); //$NON-NLS-1$;
+            lsCompared.setXSeries(heapChart.timeCompared);
+            lsCompared.setYSeries(heapChart.dataCompared);
+            lsCompared.setSymbolType(PlotSymbolType.NONE);
+            lsCompared.setLineColor(GRAY);
+            lsCompared.setLineStyle(LineStyle.DASH);
+        }
+
         // adjust axes
         control.getAxisSet().adjustRange();
 
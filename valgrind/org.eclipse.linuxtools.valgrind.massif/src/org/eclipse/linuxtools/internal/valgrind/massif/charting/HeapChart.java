@@ -11,8 +11,8 @@
  ***********************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.massif.charting;
 
-import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot;
 import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshot.TimeUnit;
+import org.eclipse.linuxtools.internal.valgrind.massif.MassifSnapshotStore;
 import org.eclipse.swt.widgets.Composite;
 
 public class HeapChart {
@@ -46,43 +46,67 @@ public class HeapChart {
     protected String xUnits;
     protected String yUnits;
     public double [] time, dataUseful, dataExtra, dataStacks, dataTotal;
+    // total heap of another run, null unless comparing
+    public double [] timeCompared, dataCompared;
     private Composite chartControl;
 
-    public HeapChart(MassifSnapshot[] snapshots, String title) {
-        TimeUnit timeUnit = snapshots[0].getUnit();
-        long xScaling = getXScaling(snapshots, timeUnit);
-        long yScaling = getYScaling(snapshots);
+    public HeapChart(MassifSnapshotStore store, String title) {
+        this(store, null, title);
+    }
+
+    /**
+     * @param store the snapshots to chart
+     * @param compared the snapshots of another run with the same time unit,
+     * whose total heap is charted for comparison, or null
+     * @param title the title of the chart
+     */
+    public HeapChart(MassifSnapshotStore store, MassifSnapshotStore compared, String title) {
+        int size = store.size();
+        long maxTime = store.getTime(size - 1);
+        long maxValue = getMaxValue(store);
+        if (compared != null) {
+            maxTime = Math.max(maxTime, compared.getTime(compared.size() - 1));
+            maxValue = Math.max(maxValue, getMaxValue(compared));
+        }
+        long xScaling = getXScaling(maxTime, store.getUnit());
+        long yScaling = getYScaling(maxValue);
 
         this.title = title;
-        time = new double[snapshots.length];
-        dataUseful = new double[snapshots.length];
-        dataExtra = new double[snapshots.length];
+        time = new double[size];
+        dataUseful = new double[size];
+        dataExtra = new double[size];
         dataStacks = null;
 
-        boolean isStack = isStackProfiled(snapshots);
+        boolean isStack = isStackProfiled(store);
         if (isStack) {
-            dataStacks = new double[snapshots.length];
+            dataStacks = new double[size];
         }
-        dataTotal = new double[snapshots.length];
-        for (int i = 0; i < snapshots.length; i++) {
-            time[i] = snapshots[i].getTime() / (double) xScaling;
-            dataUseful[i] = snapshots[i].getHeapBytes() / (double) yScaling;
-            dataExtra[i] = snapshots[i].getHeapExtra() / (double) yScaling;
+        dataTotal = new double[size];
+        for (int i = 0; i < size; i++) {
+            time[i] = store.getTime(i) / (double) xScaling;
+            dataUseful[i] = store.getHeapBytes(i) / (double) yScaling;
+            dataExtra[i] = store.getHeapExtra(i) / (double) yScaling;
             dataTotal[i] = dataUseful[i] + dataExtra[i];
             if (isStack) {
-                dataStacks[i] = snapshots[i].getStacks() / (double) yScaling;
+                dataStacks[i] = store.getStacks(i) / (double) yScaling;
             }
         }
 
+        if (compared != null) {
+            timeCompared = new double[compared.size()];
+            dataCompared = new double[compared.size()];
+            for (int i = 0; i < compared.size(); i++) {
+                timeCompared[i] = compared.getTime(i) / (double) xScaling;
+                dataCompared[i] = (compared.getHeapBytes(i) + compared.getHeapExtra(i)) / (double) yScaling;
+            }
+        }
     }
 
-    private boolean isStackProfiled(MassifSnapshot[] snapshots) {
-        return getMaxStack(snapshots) > 0;
+    private boolean isStackProfiled(MassifSnapshotStore store) {
+        return getMaxStack(store) > 0;
     }
 
-    private long getYScaling(MassifSnapshot[] snapshots) {
-        long max = getMaxValue(snapshots);
-
+    private long getYScaling(long max) {
         int count = 0;
         while (max > BYTE_MULT * SCALING_THRESHOLD && count < BYTE_LIMIT) {
             max /= BYTE_MULT;
@@ -94,8 +118,7 @@ public class HeapChart {
         return (long) Math.pow(BYTE_MULT, count);
     }
 
-    private long getXScaling(MassifSnapshot[] snapshots, TimeUnit unit) {
-        long max = snapshots[snapshots.length - 1].getTime();
+    private long getXScaling(long max, TimeUnit unit) {
         int mult, limit;
         String[] units;
         switch (unit) {
@@ -127,21 +150,21 @@ public class HeapChart {
         return (long) Math.pow(mult, count);
     }
 
-    private static long getMaxValue(MassifSnapshot[] snapshots) {
+    private static long getMaxValue(MassifSnapshotStore store) {
         long max = 0;
-        for (MassifSnapshot snapshot : snapshots) {
-            if (snapshot.getTotal() > max) {
-                max = snapshot.getTotal();
+        for (int i = 0; i < store.size(); i++) {
+            if (store.getTotal(i) > max) {
+                max = store.getTotal(i);
             }
         }
         return max;
     }
 
-    private static long getMaxStack(MassifSnapshot[] snapshots) {
+    private static long getMaxStack(MassifSnapshotStore store) {
         long max = 0;
-        for (MassifSnapshot snapshot : snapshots) {
-            if (snapshot.getTotal() > max) {
-                max = snapshot.getStacks();
+        for (int i = 0; i < store.size(); i++) {
+            if (store.getStacks(i) > max) {
+                max = store.getStacks(i);
             }
         }
         return max;
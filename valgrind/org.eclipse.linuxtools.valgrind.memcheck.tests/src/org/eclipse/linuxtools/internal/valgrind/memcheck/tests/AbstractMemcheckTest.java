@@ -43,7 +43,7 @@ public abstract class AbstractMemcheckTest extends AbstractValgrindTest {
                     ValgrindStackFrame stackFrameMsg = (ValgrindStackFrame) child;
 
                     // check expected error messages exist for basicTest (child process in multiProcTest)
-                    if (("testNumErrors".equals(testName) || "testExec".equals(testName)) //$NON-NLS-1$ //$NON-NLS-2$
+                    if (("testNumErrors".equals(testName) || "testExec".equals(testName) || "testXml".equals(testName)) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
                             && "test.c".equals(stackFrameMsg.getFile())) { //$NON-NLS-1$
                         assertTrue(stackFrameMsg.getLine() >= 15);
                         switch (stackFrameMsg.getLine()) {
@@ -19,6 +19,7 @@ import org.junit.runners.Suite;
         LaunchConfigTabTest.class, MarkerTest.class,
         LinkedResourceDoubleClickTest.class, LinkedResourceMarkerTest.class,
         MultiProcessTest.class, ExpandCollapseTest.class, ShortcutTest.class,
-        SignalTest.class, MinVersionTest.class })
+        SignalTest.class, MinVersionTest.class, ValgrindCoreParserTest.class,
+        ValgrindLogFollowerTest.class, ValgrindXmlParserTest.class })
 public class AllTests {
 }
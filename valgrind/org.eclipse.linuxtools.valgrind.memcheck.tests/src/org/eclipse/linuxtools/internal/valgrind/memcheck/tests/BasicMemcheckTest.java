@@ -11,9 +11,15 @@
 package org.eclipse.linuxtools.internal.valgrind.memcheck.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindError;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindStackFrame;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindXmlError;
+import org.eclipse.linuxtools.internal.valgrind.launch.LaunchConfigurationConstants;
 import org.eclipse.linuxtools.internal.valgrind.ui.ValgrindUIPlugin;
 import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 import org.junit.After;
@@ -44,4 +50,54 @@ public class BasicMemcheckTest extends AbstractMemcheckTest {
         assertEquals(3, messages.length);
         checkTestMessages(messages, "testNumErrors"); //$NON-NLS-1$
     }
+
+    @Test
+    public void testDuplicateErrors() throws Exception {
+        ILaunchConfiguration config = createConfiguration(proj.getProject());
+        doLaunch(config, "testDuplicateErrors"); //$NON-NLS-1$
+
+        // the invalid read occurs three times
+        IValgrindMessage[] messages = ValgrindUIPlugin.getDefault().getView()
+                .getMessages();
+        assertEquals(3, messages.length);
+        checkTestMessages(messages, "testNumErrors"); //$NON-NLS-1$
+        assertEquals(3, ((ValgrindError) messages[0]).getCount());
+        assertEquals(1, ((ValgrindError) messages[1]).getCount());
+        assertEquals(1, ((ValgrindError) messages[2]).getCount());
+
+        // the stacks of the errors end with the same frame
+        IValgrindMessage[] readChildren = messages[0].getChildren();
+        IValgrindMessage[] leakChildren = messages[2].getChildren();
+        ValgrindStackFrame readMain = (ValgrindStackFrame) readChildren[1].getChildren()[1];
+        ValgrindStackFrame leakMain = (ValgrindStackFrame) leakChildren[1];
+        assertEquals(readMain.getText(), leakMain.getText());
+        assertEquals(15, leakMain.getLine());
+        assertEquals(messages[2], leakMain.getParent());
+        assertEquals(leakMain, messages[2].getChildren()[1]);
+    }
+
+    @Test
+    public void testXml() throws Exception {
+        ILaunchConfigurationWorkingCopy config = createConfiguration(proj.getProject()).getWorkingCopy();
+        config.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_XML, true);
+        config.doSave();
+        doLaunch(config, "testXml"); //$NON-NLS-1$
+
+        IValgrindMessage[] messages = ValgrindUIPlugin.getDefault().getView()
+                .getMessages();
+        assertEquals(3, messages.length);
+        checkTestMessages(messages, "testXml"); //$NON-NLS-1$
+
+        for (IValgrindMessage message : messages) {
+            assertTrue(message instanceof ValgrindXmlError);
+            // invalid accesses: a frame and the allocation, leaks: two frames
+            assertEquals(2, message.getChildren().length);
+        }
+        ValgrindXmlError leak = (ValgrindXmlError) messages[2];
+        assertEquals("Leak_DefinitelyLost", leak.getKind()); //$NON-NLS-1$
+        assertEquals(10, leak.getLeakedBytes());
+        assertEquals(1, leak.getLeakedBlocks());
+        assertEquals("InvalidRead", ((ValgrindXmlError) messages[0]).getKind()); //$NON-NLS-1$
+        assertEquals(-1, ((ValgrindXmlError) messages[0]).getLeakedBytes());
+    }
 }
@@ -20,10 +20,12 @@ import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.model.ISourceLocator;
 import org.eclipse.debug.ui.DebugUITools;
 import org.eclipse.linuxtools.internal.valgrind.core.ValgrindError;
 import org.eclipse.linuxtools.internal.valgrind.core.ValgrindStackFrame;
+import org.eclipse.linuxtools.internal.valgrind.launch.LaunchConfigurationConstants;
 import org.eclipse.linuxtools.internal.valgrind.launch.ValgrindLaunchPlugin;
 import org.eclipse.linuxtools.internal.valgrind.ui.ValgrindUIPlugin;
 import org.eclipse.linuxtools.internal.valgrind.ui.ValgrindViewPart;
@@ -63,6 +65,43 @@ public class MarkerTest extends AbstractMemcheckTest {
         assertEquals(0, markers.size());
     }
 
+    @Test
+    public void testMaxMarkers() throws Exception {
+        ILaunchConfigurationWorkingCopy config = createConfiguration(proj.getProject()).getWorkingCopy();
+        config.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAX_MARKERS, 2);
+        config.doSave();
+        doLaunch(config, "testDuplicateErrors"); //$NON-NLS-1$
+
+        // only the most frequent error, the invalid read, and its allocation
+        ValgrindViewPart view = ValgrindUIPlugin.getDefault().getView();
+        IValgrindMessage read = view.getMessages()[0];
+        ArrayList<IMarker> markers = new ArrayList<>(Arrays.asList(proj
+                .getProject().findMarkers(ValgrindLaunchPlugin.MARKER_TYPE,
+                        true, IResource.DEPTH_INFINITE)));
+        assertEquals(2, markers.size());
+        findMarker(markers, read);
+        assertEquals(0, markers.size());
+    }
+
+    @Test
+    public void testMaxMarkersOutsideWorkspace() throws Exception {
+        ILaunchConfigurationWorkingCopy config = createConfiguration(proj.getProject()).getWorkingCopy();
+        config.setAttribute(LaunchConfigurationConstants.ATTR_GENERAL_MAX_MARKERS, 1);
+        config.doSave();
+        doLaunch(config, "testMaxMarkersOutside"); //$NON-NLS-1$
+
+        // the most frequent error has no frame in the workspace, the invalid
+        // write takes its place
+        ValgrindViewPart view = ValgrindUIPlugin.getDefault().getView();
+        IValgrindMessage write = view.getMessages()[1];
+        ArrayList<IMarker> markers = new ArrayList<>(Arrays.asList(proj
+                .getProject().findMarkers(ValgrindLaunchPlugin.MARKER_TYPE,
+                        true, IResource.DEPTH_INFINITE)));
+        assertEquals(1, markers.size());
+        findMarker(markers, write);
+        assertEquals(0, markers.size());
+    }
+
     private void findMarker(ArrayList<IMarker> markers, IValgrindMessage error)
             throws Exception, CoreException {
         ValgrindStackFrame frame = null;
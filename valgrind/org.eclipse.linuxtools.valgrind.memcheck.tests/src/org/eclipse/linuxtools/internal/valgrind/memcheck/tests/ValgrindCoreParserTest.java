@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.memcheck.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindCoreParser;
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindError;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+import org.junit.Test;
+
+public class ValgrindCoreParserTest {
+
+    static final String[] LOG = {
+        "==1770== Invalid read of size 1", //$NON-NLS-1$
+        "==1770==    at 0x4004E2: main (test.c:16)", //$NON-NLS-1$
+        "==1770==  Address 0x4c2104a is 0 bytes after a block of size 10 alloc'd", //$NON-NLS-1$
+        "==1770==    at 0x4A05E5D: malloc (vg_replace_malloc.c:195)", //$NON-NLS-1$
+        "==1770==    by 0x4004D5: main (test.c:15)", //$NON-NLS-1$
+        "==1770== ", //$NON-NLS-1$
+        "==1770== Invalid write of size 1", //$NON-NLS-1$
+        "==1770==    at 0x4004F3: main (test.c:17)", //$NON-NLS-1$
+        "==1770== ", //$NON-NLS-1$
+        "==1770== Invalid read of size 1", //$NON-NLS-1$
+        "==1770==    at 0x4004E2: main (test.c:16)", //$NON-NLS-1$
+        "==1770==  Address 0x4c2104a is 0 bytes after a block of size 10 alloc'd", //$NON-NLS-1$
+        "==1770==    at 0x4A05E5D: malloc (vg_replace_malloc.c:195)", //$NON-NLS-1$
+        "==1770==    by 0x4004D5: main (test.c:15)", //$NON-NLS-1$
+        "==1770== ", //$NON-NLS-1$
+        "==1770== 10 bytes in 1 blocks are definitely lost in loss record 1 of 1", //$NON-NLS-1$
+        "==1770==    at 0x4A05E5D: malloc (vg_replace_malloc.c:195)", //$NON-NLS-1$
+        "==1770==    by 0x4004D5: main (test.c:15)", //$NON-NLS-1$
+    };
+
+    /**
+     * Check the text of an error, followed by the PID of its process.
+     */
+    static void assertErrorText(String expected, IValgrindMessage error) {
+        assertTrue(error.getText(), error.getText().startsWith(expected));
+    }
+
+    /**
+     * Check the errors of {@link #LOG}, in order, once aggregated.
+     */
+    static void checkLogErrors(IValgrindMessage[] messages) {
+        assertEquals(3, messages.length);
+        ValgrindError read = (ValgrindError) messages[0];
+        assertErrorText("Invalid read of size 1", read); //$NON-NLS-1$
+        assertEquals(2, read.getCount());
+        // the frame of the error, then the nested message with its own stack
+        IValgrindMessage[] children = read.getChildren();
+        assertEquals(2, children.length);
+        assertEquals("at 0x4004E2: main (test.c:16)", children[0].getText()); //$NON-NLS-1$
+        assertTrue(children[1].getText().startsWith("Address 0x4c2104a")); //$NON-NLS-1$
+        assertEquals(2, children[1].getChildren().length);
+        assertEquals("by 0x4004D5: main (test.c:15)", children[1].getChildren()[1].getText()); //$NON-NLS-1$
+
+        assertErrorText("Invalid write of size 1", messages[1]); //$NON-NLS-1$
+        assertEquals(1, ((ValgrindError) messages[1]).getCount());
+        assertErrorText("10 bytes in 1 blocks are definitely lost", messages[2]); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testCompletedMessages() {
+        ValgrindCoreParser parser = new ValgrindCoreParser(1770, null);
+        // the first error goes on until the next top-level message
+        for (int i = 0; i < 6; i++) {
+            parser.parseLine(LOG[i]);
+        }
+        assertEquals(0, parser.getCompletedMessages().length);
+        parser.parseLine(LOG[6]);
+        IValgrindMessage[] completed = parser.getCompletedMessages();
+        assertEquals(1, completed.length);
+        assertErrorText("Invalid read of size 1", completed[0]); //$NON-NLS-1$
+        // not returned twice
+        assertEquals(0, parser.getCompletedMessages().length);
+
+        // the second occurrence of the read error is only counted
+        for (int i = 7; i < 16; i++) {
+            parser.parseLine(LOG[i]);
+        }
+        completed = parser.getCompletedMessages();
+        assertEquals(1, completed.length);
+        assertErrorText("Invalid write of size 1", completed[0]); //$NON-NLS-1$
+        for (int i = 16; i < LOG.length; i++) {
+            parser.parseLine(LOG[i]);
+        }
+        assertEquals(0, parser.getCompletedMessages().length);
+        assertEquals(2, ((ValgrindError) parser.getMessages()[0]).getCount());
+
+        parser.finish();
+        completed = parser.getCompletedMessages();
+        assertEquals(1, completed.length);
+        assertErrorText("10 bytes in 1 blocks are definitely lost", completed[0]); //$NON-NLS-1$
+        checkLogErrors(parser.getMessages());
+    }
+
+    @Test
+    public void testChildWithoutParent() {
+        // see BZ #360225: the first message of a log may be indented
+        ValgrindCoreParser parser = new ValgrindCoreParser(1770, null);
+        parser.parseLine("==1770==    by 0x4004D5: main (test.c:15)"); //$NON-NLS-1$
+        parser.parseLine("==1770== Invalid write of size 1"); //$NON-NLS-1$
+        parser.finish();
+        IValgrindMessage[] messages = parser.getMessages();
+        assertEquals(2, messages.length);
+        assertEquals("by 0x4004D5: main (test.c:15)", messages[0].getText()); //$NON-NLS-1$
+        assertErrorText("Invalid write of size 1", messages[1]); //$NON-NLS-1$
+    }
+}
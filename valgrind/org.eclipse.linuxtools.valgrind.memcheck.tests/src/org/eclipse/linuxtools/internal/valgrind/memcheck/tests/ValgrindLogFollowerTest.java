@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.memcheck.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindLogFollower;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValgrindLogFollowerTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("valgrind").toFile(); //$NON-NLS-1$
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    private static void append(File file, String text) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(text.getBytes());
+        }
+    }
+
+    private static String join(int from, int to) {
+        StringBuilder ret = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            ret.append(ValgrindCoreParserTest.LOG[i]).append('\n');
+        }
+        return ret.toString();
+    }
+
+    @Test
+    public void testPartialLines() throws IOException {
+        File log = new File(dir, "valgrind_1770.txt"); //$NON-NLS-1$
+        ValgrindLogFollower follower = new ValgrindLogFollower(dir, null);
+        assertEquals(0, follower.poll().length);
+
+        // the log is cut in the middle of the first line of the second error
+        String text = join(0, 7);
+        int cut = text.length() - 10;
+        append(log, text.substring(0, cut));
+        assertEquals(0, follower.poll().length);
+        append(log, text.substring(cut));
+        IValgrindMessage[] messages = follower.poll();
+        assertEquals(1, messages.length);
+        ValgrindCoreParserTest.assertErrorText("Invalid read of size 1", messages[0]); //$NON-NLS-1$
+
+        // cut in the middle of a frame, with Windows line terminators
+        text = join(7, 12).replace("\n", "\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        cut = text.indexOf("0x4004E2") + 3; //$NON-NLS-1$
+        append(log, text.substring(0, cut));
+        messages = follower.poll();
+        assertEquals(1, messages.length);
+        ValgrindCoreParserTest.assertErrorText("Invalid write of size 1", messages[0]); //$NON-NLS-1$
+        append(log, text.substring(cut));
+        assertEquals(0, follower.poll().length);
+
+        // the last line has no line terminator
+        text = join(12, ValgrindCoreParserTest.LOG.length);
+        append(log, text.substring(0, text.length() - 1));
+        assertEquals(0, follower.poll().length);
+        messages = follower.finish();
+        assertEquals(1, messages.length);
+        ValgrindCoreParserTest.assertErrorText("10 bytes in 1 blocks are definitely lost", messages[0]); //$NON-NLS-1$
+
+        List<IValgrindMessage[]> logMessages = follower.getLogMessages();
+        assertEquals(1, logMessages.size());
+        ValgrindCoreParserTest.checkLogErrors(logMessages.get(0));
+    }
+
+    @Test
+    public void testNewLogs() throws IOException {
+        ValgrindLogFollower follower = new ValgrindLogFollower(dir, null);
+        append(new File(dir, "valgrind_1770.txt"), join(0, 7)); //$NON-NLS-1$
+        assertEquals(1, follower.poll().length);
+
+        // a traced child starts logging
+        append(new File(dir, "valgrind_1771.txt"), join(6, 9)); //$NON-NLS-1$
+        append(new File(dir, "other.txt"), join(0, 7)); //$NON-NLS-1$
+        assertEquals(0, follower.poll().length);
+        IValgrindMessage[] messages = follower.finish();
+        assertEquals(2, messages.length);
+        assertEquals(2, follower.getLogMessages().size());
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Red Hat Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.valgrind.memcheck.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.linuxtools.internal.valgrind.core.ValgrindXmlParser;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValgrindXmlParserTest {
+
+    private static final String ERROR = "<error>\n" //$NON-NLS-1$
+            + "  <unique>0x1f</unique>\n" //$NON-NLS-1$
+            + "  <tid>%s</tid>\n" //$NON-NLS-1$
+            + "  <kind>InvalidRead</kind>\n" //$NON-NLS-1$
+            + "  <what>Invalid read of size 1</what>\n" //$NON-NLS-1$
+            + "  <stack>\n" //$NON-NLS-1$
+            + "    <frame><ip>0x4004E2</ip><fn>main</fn><dir>/src</dir><file>test.c</file><line>%s</line></frame>\n" //$NON-NLS-1$
+            + "  </stack>\n" //$NON-NLS-1$
+            + "</error>\n"; //$NON-NLS-1$
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        // the PID is taken from the file name
+        file = new File(Files.createTempDirectory("valgrind").toFile(), "valgrind_1770.xml"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+    private void write(String pid, String tid, String line) throws IOException {
+        String xml = "<?xml version=\"1.0\"?>\n<valgrindoutput>\n<protocolversion>4</protocolversion>\n" //$NON-NLS-1$
+                + "<pid>" + pid + "</pid>\n" //$NON-NLS-1$ //$NON-NLS-2$
+                + String.format(ERROR, tid, line)
+                + "</valgrindoutput>\n"; //$NON-NLS-1$
+        Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertInvalid(String value, String element) {
+        try {
+            new ValgrindXmlParser(file, null);
+            fail();
+        } catch (IOException e) {
+            // the message tells what and where
+            assertTrue(e.getMessage(), e.getMessage().contains('"' + value + '"'));
+            assertTrue(e.getMessage(), e.getMessage().contains('<' + element + '>'));
+            assertTrue(e.getMessage(), e.getMessage().contains("line")); //$NON-NLS-1$
+            assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+    }
+
+    @Test
+    public void testParse() throws IOException {
+        write("1771", "1", "16"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        IValgrindMessage[] messages = new ValgrindXmlParser(file, null).getMessages();
+        assertEquals(1, messages.length);
+        assertTrue(messages[0].getText().startsWith("Invalid read of size 1")); //$NON-NLS-1$
+        assertEquals("at 0x4004E2: main (/src/test.c:16)", messages[0].getChildren()[0].getText()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testInvalidNumbers() throws IOException {
+        write("12ab", "1", "16"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertInvalid("12ab", "pid"); //$NON-NLS-1$ //$NON-NLS-2$
+        write("1771", "", "16"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertInvalid("", "tid"); //$NON-NLS-1$ //$NON-NLS-2$
+        write("1771", "1", "99999999999"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        assertInvalid("99999999999", "line"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
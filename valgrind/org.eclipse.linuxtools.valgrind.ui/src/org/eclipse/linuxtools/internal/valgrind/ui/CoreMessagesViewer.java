@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.ui;
 
+import java.util.List;
+
 import org.eclipse.cdt.debug.ui.CDebugUIPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.DebugPlugin;
@@ -37,12 +39,14 @@ import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.TreeSelection;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.linuxtools.internal.valgrind.core.AbstractValgrindMessage;
 import org.eclipse.linuxtools.internal.valgrind.core.ValgrindError;
 import org.eclipse.linuxtools.internal.valgrind.core.ValgrindStackFrame;
 import org.eclipse.linuxtools.profiling.ui.ProfileUIUtils;
 import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 import org.eclipse.linuxtools.valgrind.ui.CollapseAction;
 import org.eclipse.linuxtools.valgrind.ui.ExpandAction;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.GridData;
@@ -99,6 +103,9 @@ public class CoreMessagesViewer {
             public Object[] getChildren(Object parentElement) {
                 if (parentElement instanceof Object[]) {
                     return (Object[]) parentElement;
+                } else if (parentElement instanceof List) {
+                    // messages of a running program, see ValgrindViewPart.addMessages
+                    return ((List<?>) parentElement).toArray();
                 }
                 return ((IValgrindMessage) parentElement).getChildren();
             }
@@ -110,6 +117,10 @@ public class CoreMessagesViewer {
 
             @Override
             public boolean hasChildren(Object element) {
+                if (element instanceof AbstractValgrindMessage) {
+                    // do not build the frames of the errors to answer
+                    return ((AbstractValgrindMessage) element).hasChildren();
+                }
                 return getChildren(element).length > 0;
             }
 
@@ -131,7 +142,11 @@ public class CoreMessagesViewer {
         viewer.setLabelProvider(new LabelProvider() {
             @Override
             public String getText(Object element) {
-                return ((IValgrindMessage) element).getText();
+                String text = ((IValgrindMessage) element).getText();
+                if (element instanceof ValgrindError && ((ValgrindError) element).getCount() > 1) {
+                    text = NLS.bind(Messages.getString("CoreMessagesViewer.Occurrences"), text, ((ValgrindError) element).getCount()); //$NON-NLS-1$
+                }
+                return text;
             }
 
             @Override
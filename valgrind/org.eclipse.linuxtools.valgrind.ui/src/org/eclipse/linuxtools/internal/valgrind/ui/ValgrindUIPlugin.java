@@ -18,6 +18,7 @@ import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 import org.eclipse.linuxtools.valgrind.ui.IValgrindToolView;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IWorkbenchPage;
@@ -138,6 +139,22 @@ public class ValgrindUIPlugin extends AbstractUIPlugin {
         }
     }
 
+    /**
+     * Appends messages to the Valgrind view
+     *
+     * @param messages the messages to append
+     */
+    public void addMessages(final IValgrindMessage[] messages) {
+        if (view != null) {
+            Display.getDefault().syncExec(new Runnable() {
+                @Override
+                public void run() {
+                    view.addMessages(messages);
+                }
+            });
+        }
+    }
+
     /**
      * Empties the contents of the view and restores its original state.
      */
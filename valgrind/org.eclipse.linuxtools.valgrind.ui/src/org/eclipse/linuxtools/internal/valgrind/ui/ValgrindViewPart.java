@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.valgrind.ui;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -19,6 +23,7 @@ import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.ToolBarManager;
+import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.linuxtools.internal.valgrind.core.ValgrindInfo;
 import org.eclipse.linuxtools.valgrind.core.IValgrindMessage;
 import org.eclipse.linuxtools.valgrind.ui.IValgrindToolView;
@@ -41,6 +46,8 @@ public class ValgrindViewPart extends ViewPart {
     private IValgrindToolView dynamicView;
     private ActionContributionItem[] dynamicActions;
     private IValgrindMessage[] messages;
+    // input of the tree while messages are added to it, null otherwise
+    private List<IValgrindMessage> addedMessages;
     private CoreMessagesViewer messagesViewer;
     private Action showCoreAction;
     private Action showToolAction;
@@ -107,9 +114,10 @@ public class ValgrindViewPart extends ViewPart {
         }
 
         // remove old messages
-        if (messages != null){
+        if (messages != null || addedMessages != null){
             messagesViewer.getTreeViewer().setInput(null);
             messages = null;
+            addedMessages = null;
         }
 
         for (Control child : dynamicViewHolder.getChildren()) {
@@ -161,6 +169,30 @@ public class ValgrindViewPart extends ViewPart {
      */
     public void setMessages(IValgrindMessage[] messages) {
         this.messages = messages;
+        addedMessages = null;
+    }
+
+    /**
+     * Append messages to the ones displayed in the view, keeping the
+     * expanded state of the tree. Used while the logs are still written.
+     *
+     * @param newMessages  the messages to append
+     */
+    public void addMessages(IValgrindMessage[] newMessages) {
+        TreeViewer viewer = messagesViewer.getTreeViewer();
+        if (addedMessages == null) {
+            // a list input can grow without rebuilding the tree
+            addedMessages = new ArrayList<>();
+            if (messages != null) {
+                addedMessages.addAll(Arrays.asList(messages));
+            }
+            messages = null;
+            viewer.setInput(addedMessages);
+        }
+        addedMessages.addAll(Arrays.asList(newMessages));
+        viewer.add(addedMessages, newMessages);
+        showCoreAction.setEnabled(true);
+        showCorePage();
     }
 
     /**
@@ -169,6 +201,9 @@ public class ValgrindViewPart extends ViewPart {
      * @return the array of messages
      */
     public IValgrindMessage[] getMessages() {
+        if (addedMessages != null) {
+            return addedMessages.toArray(new IValgrindMessage[addedMessages.size()]);
+        }
         return messages;
     }
 